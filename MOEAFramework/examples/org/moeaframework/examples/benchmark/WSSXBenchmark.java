@@ -0,0 +1,200 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.examples.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.Variation;
+import org.moeaframework.core.operator.subset.WSSX;
+import org.moeaframework.core.variable.AssignmentVariable;
+import org.moeaframework.core.variable.Subset;
+
+/**
+ * Compares the {@link WSSX} crossover on workflow schedules encoded as one
+ * {@link Subset} per task against the same schedules encoded as a single
+ * {@link AssignmentVariable}.  For each encoding, the benchmark reports the
+ * time and the number of bytes allocated per crossover, along with the
+ * fraction of tasks moved to another VM, which should match between the two
+ * encodings.
+ * <p>
+ * Usage: {@code WSSXBenchmark [tasks] [vms] [populationSize] [iterations]}
+ */
+public class WSSXBenchmark {
+
+	/**
+	 * The number of iterations run before measuring.
+	 */
+	private static final int WARMUP_ITERATIONS = 10;
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args the command line arguments
+	 */
+	public static void main(String[] args) {
+		int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int vms = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int populationSize = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+		Solution[] subsetPopulation = new Solution[populationSize];
+		Solution[] assignmentPopulation = new Solution[populationSize];
+
+		for (int i = 0; i < populationSize; i++) {
+			AssignmentVariable assignment = new AssignmentVariable(tasks, vms);
+			assignment.randomize();
+
+			assignmentPopulation[i] = new Solution(1, 0);
+			assignmentPopulation[i].setVariable(0, assignment);
+
+			subsetPopulation[i] = new Solution(tasks, 0);
+
+			for (int j = 0; j < tasks; j++) {
+				Subset subset = new Subset(1, vms);
+				subset.fromArray(new int[] { assignment.get(j) });
+				subsetPopulation[i].setVariable(j, subset);
+			}
+		}
+
+		System.out.println("Tasks: " + tasks + ", VMs: " + vms +
+				", population size: " + populationSize);
+		run("Subset", new WSSX(0.3), subsetPopulation, iterations);
+		run("AssignmentVariable", new WSSX(0.3), assignmentPopulation,
+				iterations);
+	}
+
+	/**
+	 * Measures the crossover of consecutive pairs of the population.
+	 * 
+	 * @param name the name of the encoding
+	 * @param variation the crossover operator
+	 * @param population the parents
+	 * @param iterations the number of passes over the population measured
+	 */
+	private static void run(String name, Variation variation,
+			Solution[] population, int iterations) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			evolveAll(variation, population);
+		}
+
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		long startBytes = getAllocatedBytes(bean);
+		long startTime = System.nanoTime();
+
+		for (int i = 0; i < iterations; i++) {
+			evolveAll(variation, population);
+		}
+
+		long elapsedTime = System.nanoTime() - startTime;
+		long allocatedBytes = getAllocatedBytes(bean) - startBytes;
+		int operations = iterations * (population.length / 2);
+
+		System.out.printf("%-20s %10.1f us/op %12d bytes/op %8.4f moved%n",
+				name,
+				elapsedTime / 1000.0 / operations,
+				startBytes < 0 ? -1 : allocatedBytes / operations,
+				getMoved(variation, population));
+	}
+
+	/**
+	 * Applies the crossover to consecutive pairs of the population, then
+	 * shuffles the population so the next pass pairs different parents.
+	 * 
+	 * @param variation the crossover operator
+	 * @param population the parents
+	 */
+	private static void evolveAll(Variation variation, Solution[] population) {
+		for (int i = 0; i + 1 < population.length; i += 2) {
+			variation.evolve(new Solution[] { population[i],
+					population[i + 1] });
+		}
+
+		PRNG.shuffle(population);
+	}
+
+	/**
+	 * Returns the average fraction of tasks whose VM differs between the
+	 * first parent and the first offspring.
+	 * 
+	 * @param variation the crossover operator
+	 * @param population the parents
+	 * @return the average fraction of tasks moved to another VM
+	 */
+	private static double getMoved(Variation variation,
+			Solution[] population) {
+		double moved = 0.0;
+
+		for (int i = 0; i + 1 < population.length; i += 2) {
+			Solution[] offspring = variation.evolve(new Solution[] {
+					population[i], population[i + 1] });
+			int[] parent = toArray(population[i]);
+			int[] child = toArray(offspring[0]);
+			int count = 0;
+
+			for (int j = 0; j < parent.length; j++) {
+				if (parent[j] != child[j]) {
+					count++;
+				}
+			}
+
+			moved += (double)count / parent.length;
+		}
+
+		return moved / (population.length / 2);
+	}
+
+	/**
+	 * Returns the VM of each task, for either encoding.
+	 * 
+	 * @param solution the solution
+	 * @return the VM of each task
+	 */
+	private static int[] toArray(Solution solution) {
+		if (solution.getVariable(0) instanceof AssignmentVariable) {
+			return ((AssignmentVariable)solution.getVariable(0)).toArray();
+		}
+
+		int[] result = new int[solution.getNumberOfVariables()];
+
+		for (int i = 0; i < result.length; i++) {
+			result[i] = ((Subset)solution.getVariable(i)).toArray()[0];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread, or
+	 * {@code -1} if the JVM does not support measuring it.
+	 * 
+	 * @param bean the thread management bean
+	 * @return the number of bytes allocated by the current thread
+	 */
+	private static long getAllocatedBytes(ThreadMXBean bean) {
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)bean)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		} else {
+			return -1;
+		}
+	}
+
+}
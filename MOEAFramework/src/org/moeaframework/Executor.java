@@ -37,6 +37,7 @@ import org.moeaframework.core.termination.CompoundTerminationCondition;
 import org.moeaframework.core.termination.MaxElapsedTime;
 import org.moeaframework.core.termination.MaxFunctionEvaluations;
 import org.moeaframework.util.TypedProperties;
+import org.moeaframework.problem.CachingProblem;
 import org.moeaframework.util.distributed.DistributedProblem;
 import org.moeaframework.util.io.FileUtils;
 import org.moeaframework.util.progress.ProgressHelper;
@@ -89,6 +90,11 @@ import org.moeaframework.util.progress.ProgressListener;
  *       .withCheckpointFile(new File("example.state"))
  *       .run();
  * </pre>
+ * <p>
+ * Setting the property {@code "cache"} to {@code true} decorates the problem
+ * with a {@link CachingProblem}, so that solutions identical to a previously
+ * evaluated solution are not evaluated again.  The property
+ * {@code "cache.size"} sets the maximum number of cached solutions.
  */
 public class Executor extends ProblemBuilder {
 	
@@ -780,6 +786,11 @@ public class Executor extends ProblemBuilder {
 		try {
 			problem = getProblemInstance();
 			
+			if (properties.getBoolean("cache", false)) {
+				problem = new CachingProblem(problem, properties.getInt(
+						"cache.size", CachingProblem.DEFAULT_CAPACITY));
+			}
+			
 			try {
 				if (executorService != null) {
 					problem = new DistributedProblem(problem, executorService);
@@ -35,6 +35,7 @@ import org.moeaframework.analysis.collector.AdaptiveTimeContinuationCollector;
 import org.moeaframework.analysis.collector.ApproximationSetCollector;
 import org.moeaframework.analysis.collector.Collector;
 import org.moeaframework.analysis.collector.ElapsedTimeCollector;
+import org.moeaframework.analysis.collector.EvaluationCacheCollector;
 import org.moeaframework.analysis.collector.EpsilonProgressCollector;
 import org.moeaframework.analysis.collector.IndicatorCollector;
 import org.moeaframework.analysis.collector.InstrumentedAlgorithm;
@@ -54,6 +55,7 @@ import org.moeaframework.core.indicator.R2Indicator;
 import org.moeaframework.core.indicator.R3Indicator;
 import org.moeaframework.core.indicator.Spacing;
 import org.moeaframework.core.spi.ProblemFactory;
+import org.moeaframework.util.distributed.DistributedProblem;
 
 /**
  * Instruments algorithms with {@link Collector}s which record information about
@@ -171,6 +173,12 @@ public class Instrumenter extends ProblemBuilder {
 	 * otherwise.
 	 */
 	private boolean includePopulationSize;
+	
+	/**
+	 * {@code true} if the evaluation cache collector is included;
+	 * {@code false} otherwise.
+	 */
+	private boolean includeEvaluationCache;
 
 	/**
 	 * The frequency that data is collected.
@@ -521,6 +529,19 @@ public class Instrumenter extends ProblemBuilder {
 		return this;
 	}
 	
+	/**
+	 * Includes the evaluation cache collector when instrumenting algorithms.
+	 * The collector only attaches to problems decorated with
+	 * {@link org.moeaframework.problem.CachingProblem}.
+	 * 
+	 * @return a reference to this instrumenter
+	 */
+	public Instrumenter attachEvaluationCacheCollector() {
+		includeEvaluationCache = true;
+		
+		return this;
+	}
+	
 	/**
 	 * Includes all collectors when instrumenting algorithms.
 	 * 
@@ -534,6 +555,7 @@ public class Instrumenter extends ProblemBuilder {
 		attachElapsedTimeCollector();
 		attachApproximationSetCollector();
 		attachPopulationSizeCollector();
+		attachEvaluationCacheCollector();
 		
 		return this;
 	}
@@ -686,8 +708,10 @@ public class Instrumenter extends ProblemBuilder {
 		
 		//ignore some types we should not recursively scan as these have caused
 		//issues with user libraries...it's the user's responsibility to access
-		//the internals of these objects.
-		if ((object instanceof Solution) || (object instanceof Problem)) {
+		//the internals of these objects.  Distributed problems are scanned to
+		//reach the decorated problem.
+		if ((object instanceof Solution) || ((object instanceof Problem) &&
+				!(object instanceof DistributedProblem))) {
 			return;
 		}
 		
@@ -833,6 +857,10 @@ public class Instrumenter extends ProblemBuilder {
 			collectors.add(new PopulationSizeCollector());
 		}
 		
+		if (includeEvaluationCache) {
+			collectors.add(new EvaluationCacheCollector());
+		}
+		
 		collectors.addAll(customCollectors);
 		
 		InstrumentedAlgorithm instrumentedAlgorithm = new InstrumentedAlgorithm(
@@ -0,0 +1,69 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.analysis.collector;
+
+import org.moeaframework.problem.CachingProblem;
+
+/**
+ * Collects the number of cache hits and misses from {@link CachingProblem}.
+ */
+public class EvaluationCacheCollector implements Collector {
+
+	/**
+	 * The caching problem instance used by this collector; or {@code null} if
+	 * this collector has not yet been attached.
+	 */
+	private final CachingProblem problem;
+
+	/**
+	 * Constructs an unattached collector for recording the number of cache
+	 * hits and misses from {@code CachingProblem}.
+	 */
+	public EvaluationCacheCollector() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a collector for recording the number of cache hits and misses
+	 * from the specified {@code CachingProblem}.
+	 * 
+	 * @param problem the {@code CachingProblem} instance this collector
+	 *        records data from
+	 */
+	public EvaluationCacheCollector(CachingProblem problem) {
+		super();
+		this.problem = problem;
+	}
+
+	@Override
+	public void collect(Accumulator accumulator) {
+		accumulator.add("Cache Hits", problem.getHits());
+		accumulator.add("Cache Misses", problem.getMisses());
+	}
+
+	@Override
+	public AttachPoint getAttachPoint() {
+		return AttachPoint.isSubclass(CachingProblem.class);
+	}
+
+	@Override
+	public Collector attach(Object object) {
+		return new EvaluationCacheCollector((CachingProblem)object);
+	}
+
+}
@@ -38,6 +38,7 @@ import org.moeaframework.core.NondominatedPopulation;
 import org.moeaframework.core.Problem;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.Variable;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.core.variable.BinaryVariable;
 import org.moeaframework.core.variable.Permutation;
 import org.moeaframework.core.variable.RealVariable;
@@ -297,6 +298,22 @@ Iterable<ResultEntry> {
 			}
 			
 			return p;
+		} else if (variable instanceof AssignmentVariable) {
+			AssignmentVariable av = (AssignmentVariable)variable;
+			String[] tokens = string.split(",");
+			int[] array = new int[tokens.length];
+			
+			for (int i=0; i<tokens.length; i++) {
+				array[i] = Integer.parseInt(tokens[i]);
+			}
+			
+			try {
+				av.fromArray(array);
+			} catch (IllegalArgumentException e) {
+				throw new FrameworkException("invalid assignment", e);
+			}
+			
+			return av;
 		} else {
 			if (string.equals("-")) {
 				if (!printedWarning) {
@@ -38,6 +38,7 @@ import org.moeaframework.core.Problem;
 import org.moeaframework.core.Settings;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.Variable;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.core.variable.BinaryVariable;
 import org.moeaframework.core.variable.Permutation;
 import org.moeaframework.core.variable.RealVariable;
@@ -363,6 +364,16 @@ public class ResultFileWriter implements OutputWriter {
 				
 				sb.append(p.get(i));
 			}
+		} else if (variable instanceof AssignmentVariable) {
+			AssignmentVariable av = (AssignmentVariable)variable;
+
+			for (int i=0; i<av.size(); i++) {
+				if (i > 0) {
+					sb.append(',');
+				}
+				
+				sb.append(av.get(i));
+			}
 		} else {
 			//attempt to serialize the variable, but print '-' and a warning
 			//if serialization fails
@@ -42,6 +42,13 @@ public class PRNG {
 	 */
 	private static Random random;
 
+	/**
+	 * Sources of randomness overriding the shared source on the threads that
+	 * set one.
+	 */
+	private static final ThreadLocal<Random> threadRandom =
+			new ThreadLocal<Random>();
+
 	/**
 	 * Initialize the static variables.
 	 */
@@ -66,7 +73,7 @@ public class PRNG {
 	 * @param seed the new seed
 	 */
 	public static synchronized void setSeed(long seed) {
-		random.setSeed(seed);
+		getRandom().setSeed(seed);
 	}
 
 	/**
@@ -79,12 +86,40 @@ public class PRNG {
 	}
 
 	/**
-	 * Returns the source of randomness currently used.
+	 * Sets the source of randomness used by the calling thread, overriding the
+	 * shared source.  This lets independent runs on different threads, such
+	 * as concurrent simulation replications, draw reproducible sequences.
+	 * 
+	 * @param random the source of randomness used by the calling thread, or
+	 *        {@code null} to use the shared source again
+	 */
+	public static void setThreadRandom(Random random) {
+		if (random == null) {
+			threadRandom.remove();
+		} else {
+			threadRandom.set(random);
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the calling thread has its own source of
+	 * randomness, set with {@link #setThreadRandom(Random)}.
+	 * 
+	 * @return {@code true} if the calling thread has its own source of
+	 *         randomness; {@code false} if it uses the shared source
+	 */
+	public static boolean hasThreadRandom() {
+		return threadRandom.get() != null;
+	}
+
+	/**
+	 * Returns the source of randomness currently used by the calling thread.
 	 * 
-	 * @return the source of randomness currently used
+	 * @return the source of randomness currently used by the calling thread
 	 */
 	public static Random getRandom() {
-		return random;
+		Random local = threadRandom.get();
+		return local == null ? random : local;
 	}
 
 	/**
@@ -95,7 +130,7 @@ public class PRNG {
 	 *         between 0.0 and 1.0
 	 */
 	public static float nextFloat() {
-		return random.nextFloat();
+		return getRandom().nextFloat();
 	}
 
 	/**
@@ -106,7 +141,7 @@ public class PRNG {
 	 *         between {@code min} and {@code max}
 	 */
 	public static float nextFloat(float min, float max) {
-		return min + random.nextFloat() * (max - min);
+		return min + getRandom().nextFloat() * (max - min);
 	}
 
 	/**
@@ -117,7 +152,7 @@ public class PRNG {
 	 *         between 0.0 and 1.0
 	 */
 	public static double nextDouble() {
-		return random.nextDouble();
+		return getRandom().nextDouble();
 	}
 
 	/**
@@ -128,7 +163,7 @@ public class PRNG {
 	 *         between {@code min} and {@code max}
 	 */
 	public static double nextDouble(double min, double max) {
-		return min + random.nextDouble() * (max - min);
+		return min + getRandom().nextDouble() * (max - min);
 	}
 
 	/**
@@ -139,7 +174,7 @@ public class PRNG {
 	 *         {@code Integer.MIN_VALUE} and {@code Integer.MAX_VALUE}.
 	 */
 	public static int nextInt() {
-		return random.nextInt();
+		return getRandom().nextInt();
 	}
 
 	/**
@@ -150,7 +185,7 @@ public class PRNG {
 	 *         {@code 0} (inclusive) and {@code n} (exclusive).
 	 */
 	public static int nextInt(int n) {
-		return random.nextInt(n);
+		return getRandom().nextInt(n);
 	}
 
 	/**
@@ -161,7 +196,7 @@ public class PRNG {
 	 *         {@code min} and {@code max} (both inclusive).
 	 */
 	public static int nextInt(int min, int max) {
-		return min + random.nextInt(max - min + 1);
+		return min + getRandom().nextInt(max - min + 1);
 	}
 
 	/**
@@ -170,7 +205,7 @@ public class PRNG {
 	 * @return the next random, uniformly distributed {@code boolean} value.
 	 */
 	public static boolean nextBoolean() {
-		return random.nextBoolean();
+		return getRandom().nextBoolean();
 	}
 
 	/**
@@ -181,7 +216,7 @@ public class PRNG {
 	 *         mean {@code 0.0} and standard deviation {@code 1.0}.
 	 */
 	public static double nextGaussian() {
-		return random.nextGaussian();
+		return getRandom().nextGaussian();
 	}
 
 	/**
@@ -192,7 +227,7 @@ public class PRNG {
 	 *         mean {@code mean} and standard deviation {@code stdev}.
 	 */
 	public static double nextGaussian(double mean, double stdev) {
-		return stdev * random.nextGaussian() + mean;
+		return stdev * getRandom().nextGaussian() + mean;
 	}
 
 	/**
@@ -349,7 +384,7 @@ public class PRNG {
 	 * @param list the list to be shuffled
 	 */
 	public static <T> void shuffle(List<T> list) {
-		Collections.shuffle(list, random);
+		Collections.shuffle(list, getRandom());
 	}
 
 	/**
@@ -22,8 +22,9 @@ import org.moeaframework.core.Problem;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.Variable;
 import org.moeaframework.problem.workflow.WorkflowSimProblem;
+import org.moeaframework.util.distributed.DistributedProblem;
 import org.workflowsim.WorkflowPlanner;
-import org.workflowsim.planning.HEFTPlanningAlgorithm;
+import org.workflowsim.planning.HEFTSeeder;
 
 /**
  * Initializes all built-in decision variables randomly. The
@@ -58,16 +59,17 @@ public class RandomInitialization implements Initialization {
 	public Solution[] initialize() {
 		Solution[] initialPopulation = new Solution[populationSize];
 
-		if(problem instanceof WorkflowSimProblem){
-			HEFTPlanningAlgorithm heftPlanningAlgorithm = new HEFTPlanningAlgorithm();
-			WorkflowSimProblem workflowSimProblem = (WorkflowSimProblem) problem;
-			heftPlanningAlgorithm.setTaskList(workflowSimProblem.getTaskList());
-			heftPlanningAlgorithm.setVmList(workflowSimProblem.getVmList());
-			for (int i = 0; i < populationSize; i++) {
-				Solution solution = problem.newSolution();
-				heftPlanningAlgorithm.initialHEFTSolution(solution);
-				initialPopulation[i] = solution;
-			}
+		// look through the wrapper added when evaluations are distributed
+		Problem innerProblem = problem;
+		if (innerProblem instanceof DistributedProblem) {
+			innerProblem = ((DistributedProblem)innerProblem).getInnerProblem();
+		}
+
+		if(innerProblem instanceof WorkflowSimProblem){
+			WorkflowSimProblem workflowSimProblem = (WorkflowSimProblem) innerProblem;
+			HEFTSeeder seeder = new HEFTSeeder(workflowSimProblem.getTaskList(),
+					workflowSimProblem.getVmList());
+			initialPopulation = seeder.createSolutions(problem, populationSize);
 //			for (int i = populationSize / 2; i < populationSize; i++) {
 //				Solution solution = problem.newSolution();
 //				for (int j = 0; j < solution.getNumberOfVariables(); j++) {
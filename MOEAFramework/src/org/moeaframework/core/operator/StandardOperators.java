@@ -25,6 +25,12 @@ import org.moeaframework.core.Problem;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.Variable;
 import org.moeaframework.core.Variation;
+import org.moeaframework.core.operator.assignment.AssignmentOnePointCrossover;
+import org.moeaframework.core.operator.assignment.AssignmentSwap;
+import org.moeaframework.core.operator.assignment.AssignmentTwoPointCrossover;
+import org.moeaframework.core.operator.assignment.AssignmentUniformCrossover;
+import org.moeaframework.core.operator.assignment.LoadBalance;
+import org.moeaframework.core.operator.assignment.RandomReset;
 import org.moeaframework.core.operator.binary.BitFlip;
 import org.moeaframework.core.operator.binary.HUX;
 import org.moeaframework.core.operator.grammar.GrammarCrossover;
@@ -45,6 +51,7 @@ import org.moeaframework.core.operator.real.UNDX;
 import org.moeaframework.core.operator.subset.*;
 import org.moeaframework.core.spi.OperatorProvider;
 import org.moeaframework.core.spi.ProviderLookupException;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.core.variable.BinaryVariable;
 import org.moeaframework.core.variable.Grammar;
 import org.moeaframework.core.variable.Permutation;
@@ -167,6 +174,48 @@ import org.moeaframework.util.TypedProperties;
  *     <td>{@code remove.rate}</td>
  *   </tr>
  *   <tr>
+ *     <td>{@link WSSX}</td>
+ *     <td>Subset, Assignment</td>
+ *     <td>{@code wssx}</td>
+ *     <td>{@code wssx.rate}</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@link AssignmentUniformCrossover}</td>
+ *     <td>Assignment</td>
+ *     <td>{@code aux}</td>
+ *     <td>{@code aux.rate}</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@link AssignmentOnePointCrossover}</td>
+ *     <td>Assignment</td>
+ *     <td>{@code a1x}</td>
+ *     <td>{@code a1x.rate}</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@link AssignmentTwoPointCrossover}</td>
+ *     <td>Assignment</td>
+ *     <td>{@code a2x}</td>
+ *     <td>{@code a2x.rate}</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@link RandomReset}</td>
+ *     <td>Assignment</td>
+ *     <td>{@code reset}</td>
+ *     <td>{@code reset.rate}</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@link AssignmentSwap}</td>
+ *     <td>Assignment</td>
+ *     <td>{@code vmswap}</td>
+ *     <td>{@code vmswap.rate}</td>
+ *   </tr>
+ *   <tr>
+ *     <td>{@link LoadBalance}</td>
+ *     <td>Assignment</td>
+ *     <td>{@code balance}</td>
+ *     <td>{@code balance.rate}</td>
+ *   </tr>
+ *   <tr>
  *     <td>{@link GrammarCrossover}</td>
  *     <td>Grammar</td>
  *     <td>{@code gx}</td>
@@ -245,6 +294,8 @@ public class StandardOperators extends OperatorProvider {
 			return "ptm";
 		} else if (Subset.class.isAssignableFrom(type)) {
 			return "replace+add+remove";
+		} else if (AssignmentVariable.class.isAssignableFrom(type)) {
+			return "reset";
 		} else {
 			return null;
 		}
@@ -284,6 +335,8 @@ public class StandardOperators extends OperatorProvider {
 		} else if (Subset.class.isAssignableFrom(type)) {
 //			return "ssx+replace+add+remove";
 			return "wssx+replace";
+		} else if (AssignmentVariable.class.isAssignableFrom(type)) {
+			return "wssx+reset";
 		} else {
 			return null;
 		}
@@ -386,6 +439,24 @@ public class StandardOperators extends OperatorProvider {
 		} else if (name.equalsIgnoreCase("wssx")) {
 			return new WSSX(
 					typedProperties.getDouble("wssx.rate", 0.3));
+		} else if (name.equalsIgnoreCase("aux")) {
+			return new AssignmentUniformCrossover(
+					typedProperties.getDouble("aux.rate", 1.0));
+		} else if (name.equalsIgnoreCase("a1x")) {
+			return new AssignmentOnePointCrossover(
+					typedProperties.getDouble("a1x.rate", 1.0));
+		} else if (name.equalsIgnoreCase("a2x")) {
+			return new AssignmentTwoPointCrossover(
+					typedProperties.getDouble("a2x.rate", 1.0));
+		} else if (name.equalsIgnoreCase("reset")) {
+			return new RandomReset(
+					typedProperties.getDouble("reset.rate", 0.9));
+		} else if (name.equalsIgnoreCase("vmswap")) {
+			return new AssignmentSwap(
+					typedProperties.getDouble("vmswap.rate", 0.3));
+		} else if (name.equalsIgnoreCase("balance")) {
+			return new LoadBalance(
+					typedProperties.getDouble("balance.rate", 0.3));
 		} else {
 			return null;
 		}
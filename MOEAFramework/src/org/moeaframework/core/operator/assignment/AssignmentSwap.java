@@ -0,0 +1,111 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.Variable;
+import org.moeaframework.core.Variation;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Swap mutation operator for assignments.  Randomly selects two values and
+ * exchanges the items assigned to them; when scheduling tasks on virtual
+ * machines, this moves two groups of tasks between their machines as a whole.
+ * <p>
+ * This operator is type-safe.
+ */
+public class AssignmentSwap implements Variation {
+
+	/**
+	 * The probability of mutating a variable.
+	 */
+	private final double probability;
+
+	/**
+	 * Constructs a swap mutation operator for assignments with the specified
+	 * probability of mutating a variable.
+	 * 
+	 * @param probability the probability of mutating a variable
+	 */
+	public AssignmentSwap(double probability) {
+		super();
+		this.probability = probability;
+	}
+
+	/**
+	 * Returns the probability of mutating a variable.
+	 * 
+	 * @return the probability of mutating a variable
+	 */
+	public double getProbability() {
+		return probability;
+	}
+
+	@Override
+	public Solution[] evolve(Solution[] parents) {
+		Solution result = parents[0].copy();
+
+		for (int i = 0; i < result.getNumberOfVariables(); i++) {
+			Variable variable = result.getVariable(i);
+
+			if ((PRNG.nextDouble() <= probability)
+					&& (variable instanceof AssignmentVariable)) {
+				evolve((AssignmentVariable)variable);
+			}
+		}
+
+		return new Solution[] { result };
+	}
+
+	/**
+	 * Evolves the specified assignment using the swap mutation operator.
+	 * 
+	 * @param variable the assignment to be mutated
+	 */
+	public static void evolve(AssignmentVariable variable) {
+		int numberOfValues = variable.getNumberOfValues();
+
+		if (numberOfValues < 2) {
+			return;
+		}
+
+		int a = PRNG.nextInt(numberOfValues);
+		int b = PRNG.nextInt(numberOfValues - 1);
+
+		if (a == b) {
+			b = numberOfValues - 1;
+		}
+
+		int[] assignment = variable.getAssignment();
+
+		for (int i = 0; i < assignment.length; i++) {
+			if (assignment[i] == a) {
+				assignment[i] = b;
+			} else if (assignment[i] == b) {
+				assignment[i] = a;
+			}
+		}
+	}
+
+	@Override
+	public int getArity() {
+		return 1;
+	}
+
+}
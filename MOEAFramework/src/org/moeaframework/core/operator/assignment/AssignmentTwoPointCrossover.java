@@ -0,0 +1,120 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.moeaframework.core.FrameworkException;
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.Variable;
+import org.moeaframework.core.Variation;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Two-point crossover for assignments.  Two crossover points are selected and
+ * the values of all items between the two points are swapped between the two
+ * parents.
+ * <p>
+ * This variation operator is type-safe.
+ */
+public class AssignmentTwoPointCrossover implements Variation {
+
+	/**
+	 * The probability of applying this operator.
+	 */
+	private final double probability;
+
+	/**
+	 * Constructs a two-point crossover operator for assignments.
+	 * 
+	 * @param probability the probability of applying this operator
+	 */
+	public AssignmentTwoPointCrossover(double probability) {
+		super();
+		this.probability = probability;
+	}
+
+	/**
+	 * Returns the probability of applying this operator.
+	 * 
+	 * @return the probability of applying this operator
+	 */
+	public double getProbability() {
+		return probability;
+	}
+
+	@Override
+	public Solution[] evolve(Solution[] parents) {
+		Solution result1 = parents[0].copy();
+		Solution result2 = parents[1].copy();
+
+		for (int i = 0; i < result1.getNumberOfVariables(); i++) {
+			Variable variable1 = result1.getVariable(i);
+			Variable variable2 = result2.getVariable(i);
+
+			if ((PRNG.nextDouble() <= probability)
+					&& (variable1 instanceof AssignmentVariable)
+					&& (variable2 instanceof AssignmentVariable)) {
+				evolve((AssignmentVariable)variable1,
+						(AssignmentVariable)variable2);
+			}
+		}
+
+		return new Solution[] { result1, result2 };
+	}
+
+	/**
+	 * Evolves the specified variables using two-point crossover.
+	 * 
+	 * @param v1 the first variable
+	 * @param v2 the second variable
+	 * @throws FrameworkException if the two assignments differ in length or
+	 *         number of values
+	 */
+	public static void evolve(AssignmentVariable v1, AssignmentVariable v2) {
+		if ((v1.size() != v2.size())
+				|| (v1.getNumberOfValues() != v2.getNumberOfValues())) {
+			throw new FrameworkException("assignments not compatible");
+		}
+
+		if (v1.size() > 1) {
+			int crossoverPoint1 = PRNG.nextInt(v1.size() - 1);
+			int crossoverPoint2 = PRNG.nextInt(v1.size() - 1);
+
+			if (crossoverPoint1 > crossoverPoint2) {
+				int temp = crossoverPoint1;
+				crossoverPoint1 = crossoverPoint2;
+				crossoverPoint2 = temp;
+			}
+
+			int[] assignment1 = v1.getAssignment();
+			int[] assignment2 = v2.getAssignment();
+
+			for (int i = crossoverPoint1; i <= crossoverPoint2; i++) {
+				int temp = assignment1[i];
+				assignment1[i] = assignment2[i];
+				assignment2[i] = temp;
+			}
+		}
+	}
+
+	@Override
+	public int getArity() {
+		return 2;
+	}
+
+}
@@ -0,0 +1,124 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.Variable;
+import org.moeaframework.core.Variation;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Load balancing mutation operator.  Moves a random item from the value with
+ * the most items assigned to the value with the fewest items assigned, such as
+ * moving a task from the busiest virtual machine to the idlest one.  Nothing
+ * is moved if the loads already differ by at most one item.
+ * <p>
+ * This operator is type-safe.
+ */
+public class LoadBalance implements Variation {
+
+	/**
+	 * The probability of mutating a variable.
+	 */
+	private final double probability;
+
+	/**
+	 * Constructs a load balancing mutation operator with the specified
+	 * probability of mutating a variable.
+	 * 
+	 * @param probability the probability of mutating a variable
+	 */
+	public LoadBalance(double probability) {
+		super();
+		this.probability = probability;
+	}
+
+	/**
+	 * Returns the probability of mutating a variable.
+	 * 
+	 * @return the probability of mutating a variable
+	 */
+	public double getProbability() {
+		return probability;
+	}
+
+	@Override
+	public Solution[] evolve(Solution[] parents) {
+		Solution result = parents[0].copy();
+
+		for (int i = 0; i < result.getNumberOfVariables(); i++) {
+			Variable variable = result.getVariable(i);
+
+			if ((PRNG.nextDouble() <= probability)
+					&& (variable instanceof AssignmentVariable)) {
+				evolve((AssignmentVariable)variable);
+			}
+		}
+
+		return new Solution[] { result };
+	}
+
+	/**
+	 * Evolves the specified assignment using the load balancing mutation
+	 * operator.
+	 * 
+	 * @param variable the assignment to be mutated
+	 */
+	public static void evolve(AssignmentVariable variable) {
+		int[] assignment = variable.getAssignment();
+		int[] counts = new int[variable.getNumberOfValues()];
+
+		for (int value : assignment) {
+			counts[value]++;
+		}
+
+		int busiest = 0;
+		int idlest = 0;
+
+		for (int value = 1; value < counts.length; value++) {
+			if (counts[value] > counts[busiest]) {
+				busiest = value;
+			}
+
+			if (counts[value] < counts[idlest]) {
+				idlest = value;
+			}
+		}
+
+		if (counts[busiest] - counts[idlest] <= 1) {
+			return;
+		}
+
+		// pick the k-th item assigned to the busiest value
+		int k = PRNG.nextInt(counts[busiest]);
+
+		for (int i = 0; i < assignment.length; i++) {
+			if ((assignment[i] == busiest) && (k-- == 0)) {
+				assignment[i] = idlest;
+				break;
+			}
+		}
+	}
+
+	@Override
+	public int getArity() {
+		return 1;
+	}
+
+}
@@ -0,0 +1,108 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.Variable;
+import org.moeaframework.core.Variation;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Random reset mutation operator.  Each item is, with the specified
+ * probability, assigned a different value chosen uniformly at random.
+ * <p>
+ * This operator is type-safe.
+ */
+public class RandomReset implements Variation {
+
+	/**
+	 * The probability of resetting an item.
+	 */
+	private final double probability;
+
+	/**
+	 * Constructs a random reset mutation operator.
+	 * 
+	 * @param probability the probability of resetting an item
+	 */
+	public RandomReset(double probability) {
+		super();
+		this.probability = probability;
+	}
+
+	/**
+	 * Returns the probability of resetting an item.
+	 * 
+	 * @return the probability of resetting an item
+	 */
+	public double getProbability() {
+		return probability;
+	}
+
+	@Override
+	public Solution[] evolve(Solution[] parents) {
+		Solution result = parents[0].copy();
+
+		for (int i = 0; i < result.getNumberOfVariables(); i++) {
+			Variable variable = result.getVariable(i);
+
+			if (variable instanceof AssignmentVariable) {
+				evolve((AssignmentVariable)variable, probability);
+			}
+		}
+
+		return new Solution[] { result };
+	}
+
+	/**
+	 * Mutates the specified variable using random reset mutation.
+	 * 
+	 * @param variable the variable to be mutated
+	 * @param probability the probability of resetting an item
+	 */
+	public static void evolve(AssignmentVariable variable,
+			double probability) {
+		int numberOfValues = variable.getNumberOfValues();
+
+		if (numberOfValues < 2) {
+			return;
+		}
+
+		int[] assignment = variable.getAssignment();
+
+		for (int i = 0; i < assignment.length; i++) {
+			if (PRNG.nextDouble() <= probability) {
+				// skip over the current value so the item always changes
+				int value = PRNG.nextInt(numberOfValues - 1);
+
+				if (value >= assignment[i]) {
+					value++;
+				}
+
+				assignment[i] = value;
+			}
+		}
+	}
+
+	@Override
+	public int getArity() {
+		return 1;
+	}
+
+}
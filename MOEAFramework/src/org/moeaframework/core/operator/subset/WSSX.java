@@ -1,20 +1,39 @@
 package org.moeaframework.core.operator.subset;
 
+import org.moeaframework.core.FrameworkException;
 import org.moeaframework.core.PRNG;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.Variable;
 import org.moeaframework.core.Variation;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.core.variable.Subset;
-import org.workflowsim.utils.CommonUtils;
 
 import java.util.*;
 
+/**
+ * Workflow crossover. Visiting the tasks in random order, a task scheduled on
+ * different VMs by the two parents brings its whole VM group along: the tasks
+ * sharing its VM in one parent are moved to that VM in the other child, and
+ * the task itself is swapped with probability 0.5. Each task is moved at most
+ * once.
+ * <p>
+ * Solutions encoded as a single {@link AssignmentVariable} are handled over the
+ * primitive arrays, with the VM groups and bookkeeping kept in reusable
+ * buffers. Solutions encoded as one {@link Subset} per task are still
+ * supported, and draw the same random numbers, so both encodings give the
+ * same offspring for the same seed.
+ */
 public class WSSX implements Variation {
     /**
      * The probability of applying this operator.
      */
     private final double probability;
 
+    /**
+     * scratch buffers of the assignment version, one per thread.
+     */
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
     /**
      * Constructs a SSX operator.
      *
@@ -59,11 +78,24 @@ public class WSSX implements Variation {
     public Solution[] evolve(Solution[] parents) {
         Solution result1 = parents[0].copy();
         Solution result2 = parents[1].copy();
+
+        if ((result1.getNumberOfVariables() == 1)
+                && (result1.getVariable(0) instanceof AssignmentVariable)
+                && (result2.getVariable(0) instanceof AssignmentVariable)) {
+            evolve((AssignmentVariable) result1.getVariable(0),
+                    (AssignmentVariable) result2.getVariable(0));
+            return new Solution[] { result1, result2 };
+        }
+
         Map<Integer, List<Integer>> vMap1 = getResultMap(result1);
         Map<Integer, List<Integer>> vMap2 = getResultMap(result2);
         Set<Integer> handleNum1 = new HashSet<>();
         Set<Integer> handleNum2 = new HashSet<>();
-        int[] randArray = CommonUtils.getRandomArray(result1.getNumberOfVariables());
+        int[] randArray = new int[result1.getNumberOfVariables()];
+        for (int i = 0; i < randArray.length; i++) {
+            randArray[i] = i;
+        }
+        PRNG.shuffle(randArray);
 
         for (int i = 0; i < result1.getNumberOfVariables(); i++) {
             int index = randArray[i];
@@ -76,19 +108,148 @@ public class WSSX implements Variation {
                     && !(((Subset)variable1).equals((Subset) variable2))
                     && !handleNum1.contains(index)
                     && !handleNum2.contains(index)) {
-                List<Integer> vList1 = vMap1.get((int) ((Subset)variable1).getSet().toArray()[0]);
+                int vm1 = (int) ((Subset)variable1).getSet().toArray()[0];
+                int vm2 = (int) ((Subset)variable2).getSet().toArray()[0];
+                List<Integer> vList1 = vMap1.get(vm1);
                 evolve((Subset) variable1, result2, vList1, index);
                 handleNum2.addAll(vList1);
-                List<Integer> vList2 = vMap2.get((int) ((Subset)variable2).getSet().toArray()[0]);
+                List<Integer> vList2 = vMap2.get(vm2);
                 evolve((Subset) variable2, result1, vList2, index);
                 handleNum1.addAll(vList2);
-                evolve((Subset)variable1, (Subset)variable2);
+                // 每个任务只有一台虚拟机, 与evolve(Subset, Subset)相同, 但只抽一次随机数
+                if (PRNG.nextBoolean()) {
+                    ((Subset)variable1).replace(vm1, vm2);
+                    ((Subset)variable2).replace(vm2, vm1);
+                }
             }
         }
 
         return new Solution[] { result1, result2 };
     }
 
+    /**
+     * Evolves the two assignments in place. Same exchange as the subset version,
+     * without creating any object once the buffers have grown to the problem
+     * size.
+     */
+    private void evolve(AssignmentVariable variable1, AssignmentVariable variable2) {
+        if ((variable1.size() != variable2.size())
+                || (variable1.getNumberOfValues() != variable2.getNumberOfValues())) {
+            throw new FrameworkException("assignments not compatible");
+        }
+
+        int size = variable1.size();
+        int[] assignment1 = variable1.getAssignment();
+        int[] assignment2 = variable2.getAssignment();
+        Workspace workspace = workspaces.get();
+        workspace.prepare(size, variable1.getNumberOfValues());
+        int[] order = workspace.order;
+        int[] offsets1 = workspace.offsets1;
+        int[] items1 = workspace.items1;
+        int[] offsets2 = workspace.offsets2;
+        int[] items2 = workspace.items2;
+        BitSet handled1 = workspace.handled1;
+        BitSet handled2 = workspace.handled2;
+
+        // 交叉前每台虚拟机上的任务
+        fillGroups(assignment1, offsets1, items1);
+        fillGroups(assignment2, offsets2, items2);
+
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        PRNG.shuffle(order);
+
+        for (int index : order) {
+            if ((PRNG.nextDouble() <= probability)
+                    && (assignment1[index] != assignment2[index])
+                    && !handled1.get(index)
+                    && !handled2.get(index)) {
+                int vm1 = assignment1[index];
+                int vm2 = assignment2[index];
+
+                // index在解1中的同组任务, 在解2中也分配到vm1
+                for (int k = offsets1[vm1]; k < offsets1[vm1 + 1]; k++) {
+                    int i = items1[k];
+                    if (i != index) {
+                        assignment2[i] = vm1;
+                    }
+                    handled2.set(i);
+                }
+                // index在解2中的同组任务, 在解1中也分配到vm2
+                for (int k = offsets2[vm2]; k < offsets2[vm2 + 1]; k++) {
+                    int i = items2[k];
+                    if (i != index) {
+                        assignment1[i] = vm2;
+                    }
+                    handled1.set(i);
+                }
+
+                if (PRNG.nextBoolean()) {
+                    assignment1[index] = vm2;
+                    assignment2[index] = vm1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Groups the tasks by vm with a counting sort: the tasks on vm v are
+     * items[offsets[v]] to items[offsets[v + 1] - 1], in increasing order.
+     */
+    private static void fillGroups(int[] assignment, int[] offsets, int[] items) {
+        Arrays.fill(offsets, 0);
+        for (int vm : assignment) {
+            offsets[vm + 1]++;
+        }
+        for (int vm = 1; vm < offsets.length; vm++) {
+            offsets[vm] += offsets[vm - 1];
+        }
+        // offsets[vm]作为写入位置, 写完后后移一位恢复
+        for (int i = 0; i < assignment.length; i++) {
+            items[offsets[assignment[i]]++] = i;
+        }
+        for (int vm = offsets.length - 1; vm > 0; vm--) {
+            offsets[vm] = offsets[vm - 1];
+        }
+        offsets[0] = 0;
+    }
+
+    /**
+     * The buffers of the assignment version, resized only when the number of
+     * tasks or VMs changes.
+     */
+    private static class Workspace {
+
+        private int[] order = new int[0];
+
+        private int[] items1 = new int[0];
+
+        private int[] items2 = new int[0];
+
+        private int[] offsets1 = new int[1];
+
+        private int[] offsets2 = new int[1];
+
+        private final BitSet handled1 = new BitSet();
+
+        private final BitSet handled2 = new BitSet();
+
+        public void prepare(int size, int numberOfValues) {
+            if (order.length != size) {
+                order = new int[size];
+                items1 = new int[size];
+                items2 = new int[size];
+            }
+            if (offsets1.length != numberOfValues + 1) {
+                offsets1 = new int[numberOfValues + 1];
+                offsets2 = new int[numberOfValues + 1];
+            }
+            handled1.clear();
+            handled2.clear();
+        }
+    }
+
     private void evolve(Subset variable1, Solution result2, List<Integer> vList1, int index) {
         if(vList1 == null)
             return;
@@ -0,0 +1,267 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.variable;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Variable;
+
+/**
+ * Decision variable assigning each of {@code size} items one of
+ * {@code numberOfValues} values, such as assigning each task of a workflow to
+ * the virtual machine running it.  The assignment is stored in a single
+ * primitive array, which keeps copying and varying solutions cheap even for
+ * thousands of items.
+ */
+public class AssignmentVariable implements Variable {
+
+	private static final long serialVersionUID = -1519423470281634907L;
+
+	/**
+	 * The number of values each item can be assigned.
+	 */
+	private final int numberOfValues;
+
+	/**
+	 * The value assigned to each item.
+	 */
+	private final int[] assignment;
+
+	/**
+	 * State an evaluation function derived from the values this variable held
+	 * when it was evaluated, or {@code null}.  Copies share the reference, so
+	 * an offspring can be evaluated relative to its parent.
+	 */
+	private transient Object evaluationState;
+
+	/**
+	 * Constructs an assignment variable with the specified number of items,
+	 * all initially assigned the value {@code 0}.
+	 *
+	 * @param size the number of items
+	 * @param numberOfValues the number of values each item can be assigned
+	 * @throws IllegalArgumentException if {@code size} is negative or
+	 *         {@code numberOfValues} is not positive
+	 */
+	public AssignmentVariable(int size, int numberOfValues) {
+		super();
+
+		if (size < 0) {
+			throw new IllegalArgumentException("size must be non-negative");
+		}
+
+		if (numberOfValues < 1) {
+			throw new IllegalArgumentException(
+					"numberOfValues must be positive");
+		}
+
+		this.numberOfValues = numberOfValues;
+		this.assignment = new int[size];
+	}
+
+	/**
+	 * Constructs an assignment variable using the specified assignment array.
+	 *
+	 * @param assignment the assignment array
+	 * @param numberOfValues the number of values each item can be assigned
+	 * @throws IllegalArgumentException if any value in the assignment array
+	 *         is out of range {@code [0, numberOfValues-1]}
+	 */
+	public AssignmentVariable(int[] assignment, int numberOfValues) {
+		this(assignment.length, numberOfValues);
+		fromArray(assignment);
+	}
+
+	@Override
+	public AssignmentVariable copy() {
+		AssignmentVariable copy = new AssignmentVariable(assignment.length,
+				numberOfValues);
+		System.arraycopy(assignment, 0, copy.assignment, 0, assignment.length);
+		copy.evaluationState = evaluationState;
+		return copy;
+	}
+
+	/**
+	 * Returns the number of items in this assignment.
+	 *
+	 * @return the number of items in this assignment
+	 */
+	public int size() {
+		return assignment.length;
+	}
+
+	/**
+	 * Returns the number of values each item can be assigned.
+	 *
+	 * @return the number of values each item can be assigned
+	 */
+	public int getNumberOfValues() {
+		return numberOfValues;
+	}
+
+	/**
+	 * Returns the value assigned to the specified item.
+	 *
+	 * @param index the index of the item
+	 * @return the value assigned to the specified item
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range
+	 *         {@code [0, size()-1]}
+	 */
+	public int get(int index) {
+		return assignment[index];
+	}
+
+	/**
+	 * Assigns a value to the specified item.
+	 *
+	 * @param index the index of the item
+	 * @param value the new value
+	 * @throws ArrayIndexOutOfBoundsException if the index is out of range
+	 *         {@code [0, size()-1]}
+	 * @throws IllegalArgumentException if the value is out of range
+	 *         {@code [0, getNumberOfValues()-1]}
+	 */
+	public void set(int index, int value) {
+		if ((value < 0) || (value >= numberOfValues)) {
+			throw new IllegalArgumentException("value out of bounds");
+		}
+
+		assignment[index] = value;
+	}
+
+	/**
+	 * Swaps the values assigned to the {@code i}th and {@code j}th items.
+	 *
+	 * @param i the first index
+	 * @param j the second index
+	 * @throws ArrayIndexOutOfBoundsException if {@code i} or {@code j} is out
+	 *         of range {@code [0, size()-1]}
+	 */
+	public void swap(int i, int j) {
+		int temp = assignment[i];
+		assignment[i] = assignment[j];
+		assignment[j] = temp;
+	}
+
+	/**
+	 * Returns a copy of the assignment array.
+	 *
+	 * @return a copy of the assignment array
+	 */
+	public int[] toArray() {
+		return assignment.clone();
+	}
+
+	/**
+	 * Sets the assignment array.
+	 *
+	 * @param assignment the assignment array
+	 * @throws IllegalArgumentException if the array length does not match
+	 *         the size of this assignment or any value is out of range
+	 *         {@code [0, getNumberOfValues()-1]}
+	 */
+	public void fromArray(int[] assignment) {
+		if (this.assignment.length != assignment.length) {
+			throw new IllegalArgumentException("invalid assignment length");
+		}
+
+		for (int value : assignment) {
+			if ((value < 0) || (value >= numberOfValues)) {
+				throw new IllegalArgumentException("value out of bounds");
+			}
+		}
+
+		System.arraycopy(assignment, 0, this.assignment, 0, assignment.length);
+	}
+
+	/**
+	 * Returns the internal assignment array.  Changes to the returned array
+	 * are reflected in this variable, so callers must keep the values in
+	 * range.  This avoids copying the array in the inner loops of evaluation
+	 * functions and variation operators.
+	 *
+	 * @return the internal assignment array
+	 */
+	public int[] getAssignment() {
+		return assignment;
+	}
+
+	/**
+	 * Returns the state the evaluation function attached to this variable, or
+	 * {@code null} if none is attached.  The state is not updated when the
+	 * values change, so it may describe the values of an ancestor; callers
+	 * must check it against the current values.
+	 *
+	 * @return the state the evaluation function attached to this variable
+	 */
+	public Object getEvaluationState() {
+		return evaluationState;
+	}
+
+	/**
+	 * Attaches state derived from the current values by the evaluation
+	 * function.  The state is shared with all copies of this variable, so it
+	 * must not be modified afterwards.  It is neither serialized nor part of
+	 * {@link #equals(Object)}.
+	 *
+	 * @param evaluationState the state, or {@code null} to detach it
+	 */
+	public void setEvaluationState(Object evaluationState) {
+		this.evaluationState = evaluationState;
+	}
+
+	@Override
+	public int hashCode() {
+		return new HashCodeBuilder()
+				.append(numberOfValues)
+				.append(assignment)
+				.toHashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		} else if ((obj == null) || (obj.getClass() != getClass())) {
+			return false;
+		} else {
+			AssignmentVariable rhs = (AssignmentVariable)obj;
+
+			return new EqualsBuilder()
+					.append(numberOfValues, rhs.numberOfValues)
+					.append(assignment, rhs.assignment)
+					.isEquals();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(assignment);
+	}
+
+	@Override
+	public void randomize() {
+		for (int i = 0; i < assignment.length; i++) {
+			assignment[i] = PRNG.nextInt(numberOfValues);
+		}
+	}
+
+}
@@ -76,6 +76,12 @@ public class EncodingUtils {
 	 */
 	private static final String NOT_SUBSET = "not a subset";
 	
+	/**
+	 * The error message shown when the decision variable is not an
+	 * assignment.
+	 */
+	private static final String NOT_ASSIGNMENT = "not an assignment";
+	
 	/**
 	 * The error message shown when the decision variable is not a binary value.
 	 */
@@ -288,6 +294,19 @@ public class EncodingUtils {
 		return new Permutation(length);
 	}
 	
+	/**
+	 * Returns a new assignment of the specified number of items to values in
+	 * the range {@code [0, numberOfValues-1]}.
+	 * 
+	 * @param length the number of items in the assignment
+	 * @param numberOfValues the number of values each item can be assigned
+	 * @return a new assignment with the specified number of items
+	 */
+	public static AssignmentVariable newAssignment(int length,
+			int numberOfValues) {
+		return new AssignmentVariable(length, numberOfValues);
+	}
+	
 	/**
 	 * Returns a new fixed-size subset with the specified number of items.
 	 * 
@@ -500,6 +519,22 @@ public class EncodingUtils {
 		}
 	}
 	
+	/**
+	 * Returns the value stored in an assignment decision variable.
+	 * 
+	 * @param variable the decision variable
+	 * @return the value stored in an assignment decision variable
+	 * @throws IllegalArgumentException if the decision variable is not of type
+	 *         {@link AssignmentVariable}
+	 */
+	public static int[] getAssignment(Variable variable) {
+		if (variable instanceof AssignmentVariable) {
+			return ((AssignmentVariable)variable).toArray();
+		} else {
+			throw new IllegalArgumentException(NOT_ASSIGNMENT);
+		}
+	}
+	
 	/**
 	 * Returns the array of floating-point decision variables stored in a
 	 * solution.  The solution must contain only floating-point decision
@@ -849,5 +884,23 @@ public class EncodingUtils {
 			throw new IllegalArgumentException(NOT_SUBSET);
 		}
 	}
+	
+	/**
+	 * Sets the value of an assignment decision variable.
+	 * 
+	 * @param variable the decision variable
+	 * @param values the values to assign the assignment decision variable
+	 * @throws IllegalArgumentException if the decision variable is not of type
+	 *         {@link AssignmentVariable}
+	 * @throws IllegalArgumentException if {@code values} is not a valid
+	 *         assignment
+	 */
+	public static void setAssignment(Variable variable, int[] values) {
+		if (variable instanceof AssignmentVariable) {
+			((AssignmentVariable)variable).fromArray(values);
+		} else {
+			throw new IllegalArgumentException(NOT_ASSIGNMENT);
+		}
+	}
 
 }
@@ -0,0 +1,437 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.problem;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.moeaframework.core.Problem;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.Variable;
+import org.moeaframework.core.variable.AssignmentVariable;
+import org.moeaframework.core.variable.BinaryVariable;
+import org.moeaframework.core.variable.Permutation;
+import org.moeaframework.core.variable.RealVariable;
+import org.moeaframework.core.variable.Subset;
+
+/**
+ * Decorates a problem to cache the objectives and constraints of evaluated
+ * solutions.  Algorithms frequently generate offspring identical to previously
+ * evaluated solutions, especially after converging; these are answered from
+ * the cache without invoking the decorated problem.  The least recently used
+ * entries are evicted once the cache is full.
+ * <p>
+ * Solutions are identified by the values of their decision variables, which
+ * must be {@link AssignmentVariable}, {@link RealVariable},
+ * {@link BinaryVariable}, {@link Permutation} or {@link Subset} instances.
+ * Solutions containing other types of variables are always evaluated by the
+ * decorated problem.  Since the cache returns the same objectives for
+ * identical decision variables, it should not be used with stochastic
+ * problems.
+ * <p>
+ * This class is thread safe, provided the decorated problem is, and
+ * can therefore be distributed with
+ * {@link org.moeaframework.util.distributed.DistributedProblem}.  Cache misses
+ * are evaluated on a new solution sharing the decision variables, since the
+ * objectives of a solution being distributed can not be read while it is
+ * evaluated.
+ */
+public class CachingProblem implements Problem {
+	
+	/**
+	 * The default maximum number of cached solutions.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+	/**
+	 * The decorated problem.
+	 */
+	private final Problem problem;
+	
+	/**
+	 * The maximum number of cached solutions.
+	 */
+	private final int capacity;
+	
+	/**
+	 * The cached objectives and constraints, in access order.  All accesses
+	 * must be synchronized on this map.
+	 */
+	private final LinkedHashMap<Key, Entry> cache;
+	
+	/**
+	 * The number of evaluations answered from the cache.
+	 */
+	private long hits;
+	
+	/**
+	 * The number of evaluations passed to the decorated problem.
+	 */
+	private long misses;
+	
+	/**
+	 * Decorates the specified problem to cache up to
+	 * {@value #DEFAULT_CAPACITY} solutions.
+	 * 
+	 * @param problem the problem to decorate
+	 */
+	public CachingProblem(Problem problem) {
+		this(problem, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Decorates the specified problem to cache up to {@code capacity}
+	 * solutions.
+	 * 
+	 * @param problem the problem to decorate
+	 * @param capacity the maximum number of cached solutions
+	 * @throws IllegalArgumentException if {@code capacity} is not positive
+	 */
+	public CachingProblem(Problem problem, final int capacity) {
+		super();
+		
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		
+		this.problem = problem;
+		this.capacity = capacity;
+		
+		cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 3407447434616101256L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > capacity;
+			}
+			
+		};
+	}
+
+	@Override
+	public String getName() {
+		return problem.getName();
+	}
+
+	@Override
+	public int getNumberOfVariables() {
+		return problem.getNumberOfVariables();
+	}
+
+	@Override
+	public int getNumberOfObjectives() {
+		return problem.getNumberOfObjectives();
+	}
+
+	@Override
+	public int getNumberOfConstraints() {
+		return problem.getNumberOfConstraints();
+	}
+
+	@Override
+	public void evaluate(Solution solution) {
+		Key key = createKey(solution);
+		
+		if (key == null) {
+			problem.evaluate(solution);
+			return;
+		}
+		
+		Entry entry = null;
+		
+		synchronized (cache) {
+			entry = cache.get(key);
+			
+			if (entry == null) {
+				misses++;
+			} else {
+				hits++;
+			}
+		}
+		
+		if (entry == null) {
+			Solution result = new Solution(solution.getNumberOfVariables(),
+					solution.getNumberOfObjectives(),
+					solution.getNumberOfConstraints());
+			
+			for (int i = 0; i < solution.getNumberOfVariables(); i++) {
+				result.setVariable(i, solution.getVariable(i));
+			}
+			
+			problem.evaluate(result);
+			entry = new Entry(result.getObjectives(), result.getConstraints());
+			
+			synchronized (cache) {
+				cache.put(key, entry);
+			}
+			
+			for (Map.Entry<String, Serializable> attribute :
+					result.getAttributes().entrySet()) {
+				solution.setAttribute(attribute.getKey(), attribute.getValue());
+			}
+		}
+		
+		solution.setObjectives(entry.objectives);
+		solution.setConstraints(entry.constraints);
+	}
+
+	@Override
+	public Solution newSolution() {
+		return problem.newSolution();
+	}
+	
+	/**
+	 * Returns the maximum number of cached solutions.
+	 * 
+	 * @return the maximum number of cached solutions
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Returns the number of cached solutions.
+	 * 
+	 * @return the number of cached solutions
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+	
+	/**
+	 * Returns the number of evaluations answered from the cache.
+	 * 
+	 * @return the number of evaluations answered from the cache
+	 */
+	public long getHits() {
+		synchronized (cache) {
+			return hits;
+		}
+	}
+	
+	/**
+	 * Returns the number of cacheable evaluations passed to the decorated
+	 * problem.
+	 * 
+	 * @return the number of cacheable evaluations passed to the decorated
+	 *         problem
+	 */
+	public long getMisses() {
+		synchronized (cache) {
+			return misses;
+		}
+	}
+	
+	/**
+	 * Removes all cached solutions and resets the hit and miss counts.
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+			hits = 0;
+			misses = 0;
+		}
+	}
+
+	@Override
+	public void close() {
+		problem.close();
+	}
+	
+	/**
+	 * Returns the key identifying the decision variables of the specified
+	 * solution; or {@code null} if the solution contains variables that can not
+	 * be cached.
+	 * 
+	 * @param solution the solution
+	 * @return the key identifying the decision variables of the specified
+	 *         solution; or {@code null} if the solution contains variables that
+	 *         can not be cached
+	 */
+	private static Key createKey(Solution solution) {
+		int length = 0;
+		
+		for (int i = 0; i < solution.getNumberOfVariables(); i++) {
+			Variable variable = solution.getVariable(i);
+			
+			if (variable instanceof AssignmentVariable) {
+				length += ((AssignmentVariable)variable).size();
+			} else if (variable instanceof RealVariable) {
+				length += 2;
+			} else if (variable instanceof BinaryVariable) {
+				length += 2 * ((((BinaryVariable)variable).getNumberOfBits() + 63) / 64);
+			} else if (variable instanceof Permutation) {
+				length += ((Permutation)variable).size();
+			} else if (variable instanceof Subset) {
+				length += ((Subset)variable).size();
+			} else {
+				return null;
+			}
+			
+			// separates the variables
+			length++;
+		}
+		
+		int[] genes = new int[length];
+		int index = 0;
+		
+		for (int i = 0; i < solution.getNumberOfVariables(); i++) {
+			Variable variable = solution.getVariable(i);
+			
+			if (variable instanceof AssignmentVariable) {
+				int[] assignment = ((AssignmentVariable)variable).getAssignment();
+				System.arraycopy(assignment, 0, genes, index, assignment.length);
+				index += assignment.length;
+			} else if (variable instanceof RealVariable) {
+				long bits = Double.doubleToLongBits(
+						((RealVariable)variable).getValue());
+				genes[index++] = (int)bits;
+				genes[index++] = (int)(bits >>> 32);
+			} else if (variable instanceof BinaryVariable) {
+				BinaryVariable binary = (BinaryVariable)variable;
+				long[] words = Arrays.copyOf(binary.getBitSet().toLongArray(),
+						(binary.getNumberOfBits() + 63) / 64);
+				
+				for (long word : words) {
+					genes[index++] = (int)word;
+					genes[index++] = (int)(word >>> 32);
+				}
+			} else if (variable instanceof Permutation) {
+				int[] permutation = ((Permutation)variable).toArray();
+				System.arraycopy(permutation, 0, genes, index, permutation.length);
+				index += permutation.length;
+			} else if (variable instanceof Subset) {
+				int[] members = ((Subset)variable).toArray();
+				Arrays.sort(members);
+				System.arraycopy(members, 0, genes, index, members.length);
+				index += members.length;
+			}
+			
+			genes[index++] = -1;
+		}
+		
+		return new Key(genes);
+	}
+	
+	/**
+	 * The decision variables of a solution, flattened into an array of
+	 * integers together with their 64-bit hash.
+	 */
+	private static class Key {
+		
+		/**
+		 * The flattened decision variables.
+		 */
+		private final int[] genes;
+		
+		/**
+		 * The 64-bit hash of the decision variables.
+		 */
+		private final long hash;
+		
+		/**
+		 * Constructs a key for the specified flattened decision variables.
+		 * 
+		 * @param genes the flattened decision variables
+		 */
+		public Key(int[] genes) {
+			super();
+			this.genes = genes;
+			this.hash = hash(genes);
+		}
+		
+		/**
+		 * Returns a 64-bit hash of the specified array.  Each value is mixed
+		 * with a multiplicative step, and the result with the finalizer of
+		 * MurmurHash3, so that solutions differing in a single gene are spread
+		 * over all bits.
+		 * 
+		 * @param genes the array
+		 * @return the 64-bit hash of the specified array
+		 */
+		private static long hash(int[] genes) {
+			long h = genes.length;
+			
+			for (int gene : genes) {
+				h = (h ^ (gene & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+				h ^= h >>> 29;
+			}
+			
+			h ^= h >>> 33;
+			h *= 0xFF51AFD7ED558CCDL;
+			h ^= h >>> 33;
+			h *= 0xC4CEB9FE1A85EC53L;
+			h ^= h >>> 33;
+			return h;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int)(hash ^ (hash >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			} else if ((obj == null) || (obj.getClass() != getClass())) {
+				return false;
+			} else {
+				Key rhs = (Key)obj;
+				
+				return (hash == rhs.hash) && Arrays.equals(genes, rhs.genes);
+			}
+		}
+		
+	}
+	
+	/**
+	 * The cached objectives and constraints of a solution.
+	 */
+	private static class Entry {
+		
+		/**
+		 * The objectives of the solution.
+		 */
+		private final double[] objectives;
+		
+		/**
+		 * The constraints of the solution.
+		 */
+		private final double[] constraints;
+		
+		/**
+		 * Constructs a cache entry.
+		 * 
+		 * @param objectives the objectives of the solution
+		 * @param constraints the constraints of the solution
+		 */
+		public Entry(double[] objectives, double[] constraints) {
+			super();
+			this.objectives = objectives;
+			this.constraints = constraints;
+		}
+		
+	}
+
+}
@@ -0,0 +1,187 @@
+package org.moeaframework.problem.workflow;
+
+import org.workflowsim.Task;
+import org.workflowsim.TaskProfile;
+import org.workflowsim.WorkflowDatacenter;
+
+import java.util.*;
+
+/**
+ * A workflow flattened into primitive arrays. The task dependencies are stored
+ * in compressed sparse row (CSR) form and the order in which the tasks are
+ * simulated is fixed at construction, so evaluating a schedule only walks
+ * arrays. Tasks are indexed by {@code cloudletId - 1}, the same index as the
+ * decision variables.
+ */
+public class CompiledWorkflow {
+
+    /**
+     * the number of tasks.
+     */
+    private final int size;
+
+    /**
+     * the order in which the tasks are simulated.
+     */
+    private final int[] order;
+
+    /**
+     * the position of each task in the order.
+     */
+    private final int[] positions;
+
+    /**
+     * the parents of task i are parents[parentOffsets[i]] to parents[parentOffsets[i + 1] - 1].
+     */
+    private final int[] parentOffsets;
+
+    private final int[] parents;
+
+    /**
+     * the children of each task, in the same form as the parents.
+     */
+    private final int[] childOffsets;
+
+    private final int[] children;
+
+    /**
+     * the execution profile of each task.
+     */
+    private final TaskProfile[] profiles;
+
+    /**
+     * the length of each task (in MI).
+     */
+    private final long[] lengths;
+
+    /**
+     * the time needed to stage in the input files of each task.
+     */
+    private final double[] fileTransferTimes;
+
+    public CompiledWorkflow(List<Task> taskList, WorkflowDatacenter datacenter) {
+        this.size = taskList.size();
+        this.parentOffsets = new int[size + 1];
+        this.profiles = new TaskProfile[size];
+        this.lengths = new long[size];
+        this.fileTransferTimes = new double[size];
+
+        Task[] tasks = new Task[size];
+        int minDepth = Integer.MAX_VALUE;
+        int edges = 0;
+        for (Task task : taskList) {
+            tasks[task.getCloudletId() - 1] = task;
+            minDepth = Math.min(minDepth, task.getDepth());
+            edges += task.getParentList().size();
+        }
+
+        this.parents = new int[edges];
+        for (int i = 0; i < size; i++) {
+            Task task = tasks[i];
+            parentOffsets[i + 1] = parentOffsets[i] + task.getParentList().size();
+            int p = parentOffsets[i];
+            for (Task parent : task.getParentList()) {
+                parents[p++] = parent.getCloudletId() - 1;
+            }
+
+            profiles[i] = datacenter.getTaskProfile(task);
+            lengths[i] = profiles[i].getLength();
+            fileTransferTimes[i] = datacenter.getFileTransferTime(profiles[i]);
+        }
+
+        this.childOffsets = new int[size + 1];
+        this.children = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            childOffsets[parents[i] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            childOffsets[i + 1] += childOffsets[i];
+        }
+        int[] next = Arrays.copyOf(childOffsets, size);
+        for (int i = 0; i < size; i++) {
+            for (int p = parentOffsets[i]; p < parentOffsets[i + 1]; p++) {
+                children[next[parents[p]]++] = i;
+            }
+        }
+
+        this.order = computeOrder(taskList, tasks, minDepth);
+        this.positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[order[i]] = i;
+        }
+    }
+
+    /**
+     * Replays the breadth-first traversal of the simulator: starting from the
+     * tasks at the minimum depth, a child is released once its last parent is
+     * done.
+     */
+    private int[] computeOrder(List<Task> taskList, Task[] tasks, int minDepth) {
+        int[] order = new int[size];
+        int[] waiting = new int[size];
+        int head = 0;
+        int tail = 0;
+
+        for (int i = 0; i < size; i++) {
+            waiting[i] = parentOffsets[i + 1] - parentOffsets[i];
+        }
+        for (Task task : taskList) {
+            if (task.getDepth() == minDepth) {
+                order[tail++] = task.getCloudletId() - 1;
+            }
+        }
+        while (head < tail) {
+            Task task = tasks[order[head++]];
+            for (Task child : task.getChildList()) {
+                int childIndex = child.getCloudletId() - 1;
+                if (--waiting[childIndex] == 0) {
+                    order[tail++] = childIndex;
+                }
+            }
+        }
+        if (tail != size) {
+            throw new IllegalArgumentException("workflow has " + (size - tail) + " unreachable tasks");
+        }
+        return order;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int[] getOrder() {
+        return order;
+    }
+
+    public int[] getPositions() {
+        return positions;
+    }
+
+    public int[] getParentOffsets() {
+        return parentOffsets;
+    }
+
+    public int[] getParents() {
+        return parents;
+    }
+
+    public int[] getChildOffsets() {
+        return childOffsets;
+    }
+
+    public int[] getChildren() {
+        return children;
+    }
+
+    public TaskProfile getProfile(int taskIndex) {
+        return profiles[taskIndex];
+    }
+
+    public long[] getLengths() {
+        return lengths;
+    }
+
+    public double[] getFileTransferTimes() {
+        return fileTransferTimes;
+    }
+}
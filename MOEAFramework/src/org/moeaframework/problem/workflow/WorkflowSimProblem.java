@@ -2,12 +2,11 @@ package org.moeaframework.problem.workflow;
 
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.moeaframework.core.Solution;
-import org.moeaframework.core.variable.EncodingUtils;
-import org.moeaframework.core.variable.Subset;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.problem.AbstractProblem;
 import org.workflowsim.*;
-import org.workflowsim.clustering.BasicClustering;
 
 import java.util.*;
 
@@ -29,9 +28,13 @@ public class WorkflowSimProblem extends AbstractProblem {
      */
     private WorkflowDatacenter datacenter;
 
-    private WorkflowPlanner workflowPlanner;
+    /**
+     * the simulation the datacenter belongs to, bound while a schedule is
+     * simulated through the datacenter, possibly on another thread.
+     */
+    private final SimulationContext context = SimulationContext.current();
 
-    private BasicClustering basicClustering;
+    private WorkflowPlanner workflowPlanner;
 
 
     private Integer maxDepth;
@@ -40,6 +43,33 @@ public class WorkflowSimProblem extends AbstractProblem {
 
     Map<Integer, List<Task>> taskMap;
 
+    /**
+     * the workflow flattened into primitive arrays, used by the compiled evaluation.
+     */
+    private CompiledWorkflow compiledWorkflow;
+
+    /**
+     * evaluate over the compiled workflow instead of replaying the task objects.
+     */
+    private boolean compiled = true;
+
+    /**
+     * scratch buffers of the compiled evaluation. Each evaluating thread gets its
+     * own, so that solutions can be evaluated concurrently.
+     */
+    private ThreadLocal<Schedule> schedules;
+
+    /**
+     * evaluate offspring relative to the schedule of their parent, see
+     * {@link #evaluateCompiled(Solution)}.
+     */
+    private boolean incremental = false;
+
+    /**
+     * the fraction of genes above which an offspring is simulated completely.
+     */
+    private double incrementalLimit = 0.25;
+
     public WorkflowSimProblem(int numberOfVariables, int numberOfObjectives) {
         super(numberOfVariables, numberOfObjectives);
     }
@@ -49,7 +79,8 @@ public class WorkflowSimProblem extends AbstractProblem {
     }
 
     public WorkflowSimProblem(List<Task> taskList, List<CondorVM> vmList, int numberOfObjectives) {
-        super(taskList.size(), numberOfObjectives, 0);
+        // 一个变量: 第i个任务分配到的虚拟机
+        super(1, numberOfObjectives, 0);
 
         this.vmList = vmList;
 
@@ -58,8 +89,6 @@ public class WorkflowSimProblem extends AbstractProblem {
 
         this.workflowPlanner = (WorkflowPlanner) CloudSim.getEntity("planner_0");
 
-        this.basicClustering = new BasicClustering();
-
         this.taskList = taskList;
 
         // 获取分配关系,假定在任务开始前
@@ -75,10 +104,335 @@ public class WorkflowSimProblem extends AbstractProblem {
             taskMap.get(task.getDepth()).add(task);
         }
 
+        this.compiledWorkflow = new CompiledWorkflow(taskList, this.datacenter);
+        this.schedules = ThreadLocal.withInitial(() -> new Schedule(taskList.size(), vmList.size()));
+    }
+
+    /**
+     * The start/finish time and vm of every task, and the time every vm becomes
+     * free, while simulating one schedule.
+     */
+    private static class Schedule {
+
+        private final double[] startTimes;
+
+        private final double[] finishTimes;
+
+        /**
+         * the time the vm of each task became free before the task.
+         */
+        private final double[] readyTimes;
+
+        private final int[] vmIndices;
+
+        private final double[] vmReadyTimes;
+
+        /**
+         * in incremental mode, the time every vm became free in the base schedule,
+         * the tasks to simulate again, and the vms whose time differs from the base.
+         */
+        private final double[] baseVmReadyTimes;
+
+        private final boolean[] dirty;
+
+        private final boolean[] shifted;
+
+        public Schedule(int tasks, int vms) {
+            this.startTimes = new double[tasks];
+            this.finishTimes = new double[tasks];
+            this.readyTimes = new double[tasks];
+            this.vmIndices = new int[tasks];
+            this.vmReadyTimes = new double[vms];
+            this.baseVmReadyTimes = new double[vms];
+            this.dirty = new boolean[tasks];
+            this.shifted = new boolean[vms];
+        }
+    }
+
+    /**
+     * A simulated schedule, attached to the evaluated variable in incremental
+     * mode. Shared by the copies of the variable, so never modified.
+     */
+    private static class EvaluatedSchedule {
+
+        private final CompiledWorkflow workflow;
+
+        private final int[] assignment;
+
+        private final double[] startTimes;
+
+        private final double[] finishTimes;
+
+        private final double[] readyTimes;
+
+        private final double[] objectives;
+
+        public EvaluatedSchedule(CompiledWorkflow workflow, int[] assignment, Schedule schedule, double[] objectives) {
+            this.workflow = workflow;
+            this.assignment = assignment.clone();
+            this.startTimes = schedule.startTimes.clone();
+            this.finishTimes = schedule.finishTimes.clone();
+            this.readyTimes = schedule.readyTimes.clone();
+            this.objectives = objectives;
+        }
+
+        /**
+         * the number of genes differing from this schedule, counted up to limit + 1.
+         */
+        public int countChanges(int[] assignment, int limit) {
+            int changes = 0;
+            for (int i = 0; i < assignment.length && changes <= limit; i++) {
+                if (assignment[i] != this.assignment[i]) {
+                    changes++;
+                }
+            }
+            return changes;
+        }
     }
 
     @Override
     public void evaluate(Solution solution) {
+        if (compiled) {
+            evaluateCompiled(solution);
+        } else {
+            context.execute(() -> evaluateTasks(solution));
+        }
+    }
+
+    /**
+     * Simulates the schedule over the compiled workflow. The objectives are the
+     * same as {@link #evaluateTasks(Solution)}, but no object is created. In
+     * incremental mode the schedule is attached to the variable, and an
+     * offspring differing from it in few genes only replays the affected tasks.
+     */
+    private void evaluateCompiled(Solution solution) {
+        AssignmentVariable variable = (AssignmentVariable) solution.getVariable(0);
+        int[] assignment = variable.getAssignment();
+        Schedule schedule = schedules.get();
+
+        EvaluatedSchedule base = null;
+        if (incremental && variable.getEvaluationState() instanceof EvaluatedSchedule) {
+            base = (EvaluatedSchedule) variable.getEvaluationState();
+            int maxChanges = (int) (incrementalLimit * assignment.length);
+            int changes = base.workflow == compiledWorkflow ? base.countChanges(assignment, maxChanges) : -1;
+            if (changes == 0) {
+                solution.setObjectives(base.objectives);
+                return;
+            } else if (changes < 0 || changes > maxChanges) {
+                // 改动太多, 完整模拟更快
+                base = null;
+            }
+        }
+
+        if (base == null) {
+            simulate(assignment, schedule);
+        } else {
+            simulate(assignment, schedule, base);
+        }
+
+        double[] startTimes = schedule.startTimes;
+        double[] finishTimes = schedule.finishTimes;
+        int[] vmIndices = schedule.vmIndices;
+        double totalTime = 0;
+        double sumTime = 0;
+        double cost = 0;
+        for (int i = 0; i < finishTimes.length; i++) {
+            if (totalTime < finishTimes[i]) {
+                totalTime = finishTimes[i];
+            }
+            double spendTime = finishTimes[i] - startTimes[i];
+            sumTime += spendTime;
+            cost += this.vmList.get(vmIndices[i]).getCost() * spendTime;
+        }
+        double[] objectives = getObjectives(totalTime, sumTime, cost);
+        solution.setObjectives(objectives);
+
+        if (incremental) {
+            variable.setEvaluationState(new EvaluatedSchedule(compiledWorkflow, assignment, schedule, objectives));
+        }
+    }
+
+    /**
+     * Simulates every task of the schedule.
+     */
+    private void simulate(int[] assignment, Schedule schedule) {
+        int[] order = compiledWorkflow.getOrder();
+        double[] startTimes = schedule.startTimes;
+        double[] finishTimes = schedule.finishTimes;
+        double[] readyTimes = schedule.readyTimes;
+        double[] vmReadyTimes = schedule.vmReadyTimes;
+        int[] vmIndices = schedule.vmIndices;
+
+        Arrays.fill(vmReadyTimes, 0.0);
+        for (int taskIndex : order) {
+            int vmId = assignment[taskIndex];
+            double startTime = getStartTime(taskIndex, finishTimes);
+            double finishTime = getFinishTime(taskIndex, vmId, startTime, vmReadyTimes[vmId]);
+            readyTimes[taskIndex] = vmReadyTimes[vmId];
+            vmReadyTimes[vmId] = finishTime;
+            startTimes[taskIndex] = startTime;
+            finishTimes[taskIndex] = finishTime;
+            vmIndices[taskIndex] = vmId;
+        }
+    }
+
+    /**
+     * Simulates the schedule starting from the schedule of an ancestor. The
+     * tasks before the first changed gene keep their times, and from there only
+     * the tasks whose inputs differ are simulated again: the tasks moved to
+     * another vm, the children of tasks whose finish time changed, and the tasks
+     * whose vm becomes free at another time. The replay stops as soon as no
+     * changed gene, pending child or shifted vm is left.
+     */
+    private void simulate(int[] assignment, Schedule schedule, EvaluatedSchedule base) {
+        int[] order = compiledWorkflow.getOrder();
+        int[] positions = compiledWorkflow.getPositions();
+        int[] childOffsets = compiledWorkflow.getChildOffsets();
+        int[] children = compiledWorkflow.getChildren();
+        int size = order.length;
+        double[] startTimes = schedule.startTimes;
+        double[] finishTimes = schedule.finishTimes;
+        double[] readyTimes = schedule.readyTimes;
+        double[] vmReadyTimes = schedule.vmReadyTimes;
+        double[] baseVmReadyTimes = schedule.baseVmReadyTimes;
+        boolean[] dirty = schedule.dirty;
+        boolean[] shifted = schedule.shifted;
+
+        System.arraycopy(base.startTimes, 0, startTimes, 0, size);
+        System.arraycopy(base.finishTimes, 0, finishTimes, 0, size);
+        System.arraycopy(base.readyTimes, 0, readyTimes, 0, size);
+        System.arraycopy(assignment, 0, schedule.vmIndices, 0, size);
+
+        int first = size;
+        int changes = 0;
+        for (int i = 0; i < size; i++) {
+            if (assignment[i] != base.assignment[i]) {
+                first = Math.min(first, positions[i]);
+                changes++;
+            }
+        }
+
+        // 第一个改动之前的部分不变, 取出此时每台虚拟机的空闲时间
+        Arrays.fill(vmReadyTimes, 0.0);
+        Arrays.fill(shifted, false);
+        Arrays.fill(dirty, false);
+        boolean[] found = shifted;
+        int missing = vmReadyTimes.length;
+        for (int position = first - 1; position >= 0 && missing > 0; position--) {
+            int taskIndex = order[position];
+            int vmId = base.assignment[taskIndex];
+            if (!found[vmId]) {
+                found[vmId] = true;
+                vmReadyTimes[vmId] = base.finishTimes[taskIndex];
+                missing--;
+            }
+        }
+        Arrays.fill(shifted, false);
+        System.arraycopy(vmReadyTimes, 0, baseVmReadyTimes, 0, vmReadyTimes.length);
+
+        int pending = 0;
+        int shiftedVms = 0;
+        for (int position = first; position < size; position++) {
+            if (changes == 0 && pending == 0 && shiftedVms == 0) {
+                break;
+            }
+            int taskIndex = order[position];
+            int vmId = assignment[taskIndex];
+            int baseVmId = base.assignment[taskIndex];
+            double readyTime = vmReadyTimes[vmId];
+            double finishTime = base.finishTimes[taskIndex];
+            if (vmId != baseVmId) {
+                changes--;
+            }
+            if (dirty[taskIndex]) {
+                dirty[taskIndex] = false;
+                pending--;
+            } else if (vmId == baseVmId && readyTime == base.readyTimes[taskIndex]) {
+                vmReadyTimes[vmId] = finishTime;
+                baseVmReadyTimes[baseVmId] = finishTime;
+                continue;
+            }
+
+            double startTime = getStartTime(taskIndex, finishTimes);
+            finishTime = getFinishTime(taskIndex, vmId, startTime, readyTime);
+            if (finishTime != base.finishTimes[taskIndex]) {
+                for (int c = childOffsets[taskIndex]; c < childOffsets[taskIndex + 1]; c++) {
+                    if (!dirty[children[c]]) {
+                        dirty[children[c]] = true;
+                        pending++;
+                    }
+                }
+            }
+            readyTimes[taskIndex] = readyTime;
+            startTimes[taskIndex] = startTime;
+            finishTimes[taskIndex] = finishTime;
+
+            vmReadyTimes[vmId] = finishTime;
+            baseVmReadyTimes[baseVmId] = base.finishTimes[taskIndex];
+            shiftedVms += updateShifted(shifted, vmReadyTimes, baseVmReadyTimes, vmId);
+            if (baseVmId != vmId) {
+                shiftedVms += updateShifted(shifted, vmReadyTimes, baseVmReadyTimes, baseVmId);
+            }
+        }
+    }
+
+    /**
+     * Records whether the vm becomes free at another time than in the base
+     * schedule, and returns the change of the number of such vms.
+     */
+    private static int updateShifted(boolean[] shifted, double[] vmReadyTimes, double[] baseVmReadyTimes, int vmId) {
+        boolean value = vmReadyTimes[vmId] != baseVmReadyTimes[vmId];
+        if (value == shifted[vmId]) {
+            return 0;
+        }
+        shifted[vmId] = value;
+        return value ? 1 : -1;
+    }
+
+    /**
+     * the time the last parent of the task finishes.
+     */
+    private double getStartTime(int taskIndex, double[] finishTimes) {
+        int[] parentOffsets = compiledWorkflow.getParentOffsets();
+        int[] parents = compiledWorkflow.getParents();
+        double startTime = 0.0;
+        for (int p = parentOffsets[taskIndex]; p < parentOffsets[taskIndex + 1]; p++) {
+            if (finishTimes[parents[p]] > startTime) {
+                startTime = finishTimes[parents[p]];
+            }
+        }
+        return startTime;
+    }
+
+    private double getFinishTime(int taskIndex, int vmId, double startTime, double readyTime) {
+        CondorVM vm = this.vmList.get(vmId);
+        return vm.getCloudletScheduler().getCloudletCompleteTime(compiledWorkflow.getLengths()[taskIndex], vm,
+                startTime, readyTime, compiledWorkflow.getFileTransferTimes()[taskIndex]);
+    }
+
+    private void setObjectives(Solution solution, double totalTime, double sumTime, double cost) {
+        solution.setObjectives(getObjectives(totalTime, sumTime, cost));
+    }
+
+    private double[] getObjectives(double totalTime, double sumTime, double cost) {
+        double[] objects = new double[numberOfObjectives];
+        switch (numberOfObjectives){
+            case 3:
+                objects[2] = cost;
+            case 2:
+                objects[1] = sumTime;
+            case 1:
+            default:
+                objects[0] = totalTime;
+        }
+
+        return objects;
+    }
+
+    /**
+     * Simulates the schedule by replaying the task objects through the datacenter.
+     */
+    private void evaluateTasks(Solution solution) {
         List<CondorVM> vmList = this.vmList;
 //        List<CondorVM> vmList = new ArrayList<>();
 //        for(CondorVM vm: this.vmList){
@@ -89,20 +443,22 @@ public class WorkflowSimProblem extends AbstractProblem {
         Queue<Task> taskStack = new LinkedList<>(taskMap.get(this.minDepth));
         boolean[] taskStates = new boolean[this.taskList.size()];
         TaskInfo[] taskInfos = new TaskInfo[this.taskList.size()];
+        double[] vmReadyTimes = new double[vmList.size()];
+        int[] assignment = ((AssignmentVariable) solution.getVariable(0)).getAssignment();
         for(Task task: taskStack){
             int taskIndex = task.getCloudletId() - 1;
             taskInfos[taskIndex] = new TaskInfo(task.getCloudletId(), 0);
         }
-        for(CondorVM vm: vmList){
-            this.datacenter.resetDelayTime(vm);
-        }
         while(!taskStack.isEmpty()){
             Task task = taskStack.poll();
             int taskIndex = task.getCloudletId() - 1;
             TaskInfo taskInfo = taskInfos[taskIndex];
             // 计算任务执行时间以及Objects
-            int vmId = EncodingUtils.getSubset(solution.getVariable(taskIndex))[0];
-            double estimatedFinishedTime = this.datacenter.getEstimatedFinishTime(this.basicClustering.addTasks2Job(task), this.vmList.get(vmId), taskInfo.getStartTime());
+            int vmId = assignment[taskIndex];
+            TaskProfile profile = this.compiledWorkflow.getProfile(taskIndex);
+            double estimatedFinishedTime = this.datacenter.getEstimatedFinishTime(profile, this.vmList.get(vmId),
+                    taskInfo.getStartTime(), vmReadyTimes[vmId]);
+            vmReadyTimes[vmId] = estimatedFinishedTime;
             taskInfo.setVm(vmList.get(vmId));
             taskInfo.setSpendTime(estimatedFinishedTime);
 
@@ -130,11 +486,9 @@ public class WorkflowSimProblem extends AbstractProblem {
                 }
             }
         }
-        double[] objects = new double[numberOfObjectives];
         double totalTime = 0;
         double sumTime = 0;
         double cost = 0;
-        String output = "";
         for(TaskInfo t: taskInfos){
             if (totalTime < t.getFinishTime()){
                 totalTime = t.getFinishTime();
@@ -142,20 +496,8 @@ public class WorkflowSimProblem extends AbstractProblem {
             sumTime += t.getSpendTime();
             CondorVM vm = t.getVm();
             cost += vm.getCost() * t.getSpendTime();
-            output += String.format("%d\t%d\t%f\t%f\t%f\t%f\n", t.getTaskId(), t.getVm().getId(), t.getStartTime(),
-                    t.getSpendTime(), t.getFinishTime(), t.getCost());
-        }
-        switch (numberOfObjectives){
-            case 3:
-                objects[2] = cost;
-            case 2:
-                objects[1] = sumTime;
-            case 1:
-            default:
-                objects[0] = totalTime;
         }
-
-        solution.setObjectives(objects);
+        setObjectives(solution, totalTime, sumTime, cost);
     }
 
     private class TaskInfo{
@@ -208,14 +550,42 @@ public class WorkflowSimProblem extends AbstractProblem {
     public Solution newSolution() {
         Solution solution = new Solution(numberOfVariables, numberOfObjectives);
 
-        solution.setVariable(0, new Subset(1, vmList.size()));
-        for (int i = 1; i < numberOfVariables; i++) {
-            solution.setVariable(i, new Subset(1, vmList.size()));
-        }
+        solution.setVariable(0, new AssignmentVariable(taskList.size(), vmList.size()));
 
         return solution;
     }
 
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Only applies to the compiled evaluation.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public double getIncrementalLimit() {
+        return incrementalLimit;
+    }
+
+    public void setIncrementalLimit(double incrementalLimit) {
+        this.incrementalLimit = incrementalLimit;
+    }
+
+    public CompiledWorkflow getCompiledWorkflow() {
+        return compiledWorkflow;
+    }
+
     public List<Task> getTaskList() {
         return taskList;
     }
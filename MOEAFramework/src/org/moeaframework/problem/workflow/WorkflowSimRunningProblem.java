@@ -4,11 +4,9 @@ import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.moeaframework.core.Solution;
-import org.moeaframework.core.variable.EncodingUtils;
-import org.moeaframework.core.variable.Subset;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.problem.AbstractProblem;
 import org.workflowsim.*;
-import org.workflowsim.clustering.BasicClustering;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -36,10 +34,41 @@ public class WorkflowSimRunningProblem extends AbstractProblem {
 
     private WorkflowPlanner workflowPlanner;
 
-    private BasicClustering basicClustering;
-
     List<Job> jobRunning;
 
+    /**
+     * the job in each slot of the task list.
+     */
+    private Job[] jobs;
+
+    /**
+     * the index of the gene assigning each slot, or -1 if the job keeps its vm.
+     */
+    private int[] geneIndices;
+
+    private long[] lengths;
+
+    private double[] fileTransferTimes;
+
+    /**
+     * the parents and children of each slot in compressed sparse row form, see
+     * {@link CompiledWorkflow}.
+     */
+    private int[] parentOffsets;
+
+    private int[] parents;
+
+    private int[] childOffsets;
+
+    private int[] children;
+
+    /**
+     * the slots simulated first: the running jobs, then the target jobs.
+     */
+    private int[] initialSlots;
+
+    private ThreadLocal<Simulation> simulations;
+
     public WorkflowSimRunningProblem(int numberOfVariables, int numberOfObjectives) {
         super(numberOfVariables, numberOfObjectives);
     }
@@ -53,7 +82,8 @@ public class WorkflowSimRunningProblem extends AbstractProblem {
     }
 
     public WorkflowSimRunningProblem(List<Job> jobList, List<Job> allocatedJobList,  List<? extends Vm> vmList, int numberOfObjectives) {
-        super(jobList.size(), numberOfObjectives, 0);
+        // 一个变量: 第i个待调度任务分配到的虚拟机
+        super(1, numberOfObjectives, 0);
 
         this.vmList = vmList;
 
@@ -62,8 +92,6 @@ public class WorkflowSimRunningProblem extends AbstractProblem {
 
         this.workflowPlanner = (WorkflowPlanner) CloudSim.getEntity("planner_0");
 
-        this.basicClustering = new BasicClustering();
-
         WorkflowEngine wfEngine = workflowPlanner.getWorkflowEngine();
 
         // 获取分配关系,假定在任务开始前
@@ -85,11 +113,13 @@ public class WorkflowSimRunningProblem extends AbstractProblem {
 
         this.jobRunning.addAll(execJob);
         this.jobRunning.addAll(allocatedJobList);
+        Set<Job> jobs = Collections.newSetFromMap(new IdentityHashMap<>());
+        jobs.addAll(this.taskList);
         for(Cloudlet cloudlet: wfEngine.getJobsList()){
             Job job = (Job) cloudlet;
             boolean flag = true;
             for (Object p: job.getParentList()) {
-                if (taskList.contains((Job) p)) {
+                if (jobs.contains(p)) {
                     flag = false;
                     break;
                 }
@@ -100,6 +130,8 @@ public class WorkflowSimRunningProblem extends AbstractProblem {
 
         }
 
+        compile();
+        this.simulations = ThreadLocal.withInitial(() -> new Simulation(taskList.size(), vmList.size(), initialSlots.length));
     }
 
     private void addTask(List<Job> taskList) {
@@ -109,91 +141,183 @@ public class WorkflowSimRunningProblem extends AbstractProblem {
         }
     }
 
-    @Override
-    public void evaluate(Solution solution) {
-        List<? extends Vm> vmList = this.vmList;
-//        List<CondorVM> vmList = new ArrayList<>();
-//        for(CondorVM vm: this.vmList){
-//            vmList.add(new CondorVM(vm));
-//        }
-
-        Queue<Job> taskStack = new LinkedList<>();
-        taskStack.addAll(jobRunning);
-
-    taskStack.addAll(targetJob);
-
-        boolean[] taskStates = new boolean[this.taskList.size()];
-        TaskInfo[] taskInfos = new TaskInfo[this.taskList.size()];
-        for(Job task: jobRunning){
-            int taskIndex = this.indexMap.get(task.getCloudletId());
-            taskInfos[taskIndex] = new TaskInfo(task.getCloudletId(), task.getExecStartTime());
+    /**
+     * Flattens the jobs into arrays indexed by slot, the index of the last
+     * occurrence of each job in the task list. Jobs outside the task list are
+     * left out of the adjacency.
+     */
+    private void compile() {
+        int size = this.taskList.size();
+        this.jobs = new Job[size];
+        this.geneIndices = new int[size];
+        this.lengths = new long[size];
+        this.fileTransferTimes = new double[size];
+        this.parentOffsets = new int[size + 1];
+        this.childOffsets = new int[size + 1];
+        Arrays.fill(this.geneIndices, -1);
+
+        for (Job job : this.taskList) {
+            int slot = this.indexMap.get(job.getCloudletId());
+            if (this.jobs[slot] == null) {
+                TaskProfile profile = this.datacenter.getTaskProfile(job);
+                this.jobs[slot] = job;
+                this.lengths[slot] = profile.getLength();
+                this.fileTransferTimes[slot] = this.datacenter.getFileTransferTime(profile);
+            }
         }
-        for(Job task: targetJob){
-            int taskIndex = this.indexMap.get(task.getCloudletId());
-            taskInfos[taskIndex] = new TaskInfo(task.getCloudletId(), task.getExecStartTime());
+        for (int i = 0; i < this.targetJob.size(); i++) {
+            int slot = this.indexMap.get(this.targetJob.get(i).getCloudletId());
+            if (this.geneIndices[slot] < 0) {
+                this.geneIndices[slot] = i;
+            }
         }
 
+        List<Integer> parentList = new ArrayList<>();
+        List<Integer> childList = new ArrayList<>();
+        for (int slot = 0; slot < size; slot++) {
+            if (this.jobs[slot] != null) {
+                for (Object parent : this.jobs[slot].getParentList()) {
+                    Integer parentSlot = this.indexMap.get(((Job) parent).getCloudletId());
+                    if (parentSlot != null) {
+                        parentList.add(parentSlot);
+                    }
+                }
+                for (Task child : this.jobs[slot].getChildList()) {
+                    Integer childSlot = this.indexMap.get(child.getCloudletId());
+                    if (childSlot != null) {
+                        childList.add(childSlot);
+                    }
+                }
+            }
+            this.parentOffsets[slot + 1] = parentList.size();
+            this.childOffsets[slot + 1] = childList.size();
+        }
+        this.parents = parentList.stream().mapToInt(Integer::intValue).toArray();
+        this.children = childList.stream().mapToInt(Integer::intValue).toArray();
+
+        // 初始队列: 正在运行的任务, 然后是待调度的任务
+        this.initialSlots = new int[this.jobRunning.size() + this.targetJob.size()];
+        int i = 0;
+        for (Job job : this.jobRunning) {
+            this.initialSlots[i++] = this.indexMap.get(job.getCloudletId());
+        }
+        for (Job job : this.targetJob) {
+            this.initialSlots[i++] = this.indexMap.get(job.getCloudletId());
+        }
+    }
+
+    /**
+     * The per-thread state of one evaluation, reused across evaluations.
+     */
+    private static class Simulation {
 
-        for(Vm vm: vmList){
-            this.datacenter.resetDelayTime((CondorVM) vm);
+        private final double[] startTimes;
+
+        private final double[] finishTimes;
+
+        private final int[] vmIndices;
+
+        /**
+         * whether each slot has been queued, and whether it has finished.
+         */
+        private final boolean[] scheduled;
+
+        private final boolean[] finished;
+
+        private final double[] vmReadyTimes;
+
+        /**
+         * the slots waiting to be simulated, in FIFO order.
+         */
+        private int[] queue;
+
+        public Simulation(int tasks, int vms, int initial) {
+            this.startTimes = new double[tasks];
+            this.finishTimes = new double[tasks];
+            this.vmIndices = new int[tasks];
+            this.scheduled = new boolean[tasks];
+            this.finished = new boolean[tasks];
+            this.vmReadyTimes = new double[vms];
+            this.queue = new int[tasks + initial];
         }
-        while(!taskStack.isEmpty()){
-            Job job = taskStack.poll();
-            int taskIndex = this.indexMap.get(job.getCloudletId());
-            TaskInfo taskInfo = taskInfos[taskIndex];
+    }
+
+    @Override
+    public void evaluate(Solution solution) {
+        int[] assignment = ((AssignmentVariable) solution.getVariable(0)).getAssignment();
+        Simulation simulation = this.simulations.get();
+        double[] startTimes = simulation.startTimes;
+        double[] finishTimes = simulation.finishTimes;
+        int[] vmIndices = simulation.vmIndices;
+        boolean[] scheduled = simulation.scheduled;
+        boolean[] finished = simulation.finished;
+        double[] vmReadyTimes = simulation.vmReadyTimes;
+        Arrays.fill(scheduled, false);
+        Arrays.fill(finished, false);
+        Arrays.fill(vmReadyTimes, 0.0);
+
+        int[] queue = simulation.queue;
+        int head = 0;
+        int tail = 0;
+        for (int slot : this.initialSlots) {
+            startTimes[slot] = this.jobs[slot].getExecStartTime();
+            finishTimes[slot] = 0.0;
+            scheduled[slot] = true;
+            queue[tail++] = slot;
+        }
+
+        while (head < tail) {
+            int slot = queue[head++];
             // 计算任务执行时间以及Objects
-            int vmId = job.getVmId();
-            if(targetJob.contains(job)){
-                int index = targetJob.indexOf(job);
-                vmId = EncodingUtils.getSubset(solution.getVariable(index))[0];
-            }
-            double estimatedFinishedTime = this.datacenter.getEstimatedFinishTime(job, (CondorVM) this.vmList.get(vmId), taskInfo.getStartTime());
-            taskInfo.setVm((CondorVM)vmList.get(vmId));
-            taskInfo.setSpendTime(estimatedFinishedTime);
+            int vmId = this.geneIndices[slot] < 0 ? this.jobs[slot].getVmId() : assignment[this.geneIndices[slot]];
+            CondorVM vm = (CondorVM) this.vmList.get(vmId);
+            double estimatedFinishedTime = vm.getCloudletScheduler().getCloudletCompleteTime(this.lengths[slot], vm,
+                    startTimes[slot], vmReadyTimes[vmId], this.fileTransferTimes[slot]);
+            vmReadyTimes[vmId] = estimatedFinishedTime;
+            vmIndices[slot] = vmId;
+            finishTimes[slot] = estimatedFinishedTime;
+            finished[slot] = true;
 
             // 处理任务之间的关系
-            List<Task> childList = job.getChildList();
-            taskStates[taskIndex] = true;
-            for(Task c: childList){
-                Job child = (Job) c;
+            for (int c = this.childOffsets[slot]; c < this.childOffsets[slot + 1]; c++) {
+                int child = this.children[c];
                 boolean tag = true;
-                double startTime = taskInfo.getFinishTime();
-                for(Object p: child.getParentList()){
-                    Job pTask = (Job) p;
-                    if(!this.indexMap.containsKey(pTask.getCloudletId())) continue;
-                    int pTaskIndex = this.indexMap.get(pTask.getCloudletId());
-                    TaskInfo pTaskInfo = taskInfos[pTaskIndex];
-                    if(!taskStates[pTaskIndex]){
+                double startTime = finishTimes[slot];
+                for (int p = this.parentOffsets[child]; p < this.parentOffsets[child + 1]; p++) {
+                    int parent = this.parents[p];
+                    if (!finished[parent]) {
                         tag = false;
                         break;
                     }
-                    if(pTaskInfo.getFinishTime() > startTime){
-                        startTime = pTaskInfo.getFinishTime();
+                    if (finishTimes[parent] > startTime) {
+                        startTime = finishTimes[parent];
                     }
                 }
-                if(tag){
-                    int childIndex = this.indexMap.get(child.getCloudletId());
-                    taskInfos[childIndex] = new TaskInfo(child.getCloudletId(), startTime);
-                    taskStack.offer(child);
+                if (tag) {
+                    if (tail == queue.length) {
+                        queue = simulation.queue = Arrays.copyOf(queue, 2 * queue.length);
+                    }
+                    startTimes[child] = startTime;
+                    finishTimes[child] = 0.0;
+                    scheduled[child] = true;
+                    queue[tail++] = child;
                 }
             }
         }
-        double[] objects = new double[numberOfObjectives];
+
         double totalTime = 0;
         double sumTime = 0;
         double cost = 0;
-//        String output = "";
-        for(TaskInfo t: taskInfos){
-            if(t == null) continue;
-            if (totalTime < t.getFinishTime()){
-                totalTime = t.getFinishTime();
+        for (int slot = 0; slot < scheduled.length; slot++) {
+            if (!scheduled[slot]) continue;
+            if (totalTime < finishTimes[slot]) {
+                totalTime = finishTimes[slot];
             }
-            sumTime += t.getSpendTime();
-            CondorVM vm = t.getVm();
-            cost += vm.getCost() * t.getSpendTime();
-//            output += String.format("%d\t%d\t%f\t%f\t%f\t%f\n", t.getTaskId(), t.getVm().getId(), t.getStartTime(),
-//                    t.getSpendTime(), t.getFinishTime(), t.getCost());
+            double spendTime = finishTimes[slot] - startTimes[slot];
+            sumTime += spendTime;
+            cost += ((CondorVM) this.vmList.get(vmIndices[slot])).getCost() * spendTime;
         }
+        double[] objects = new double[numberOfObjectives];
         switch (numberOfObjectives){
             case 3:
                 objects[2] = cost;
@@ -208,60 +332,11 @@ public class WorkflowSimRunningProblem extends AbstractProblem {
 
     }
 
-    private class TaskInfo{
-        public TaskInfo(int taskId, double startTime){
-            this.taskId = taskId;
-            this.startTime = startTime;
-        }
-        private int taskId;
-        private double startTime;
-        private double spendTime;
-        private double finishTime;
-        private CondorVM vm;
-        private double cost;
-
-        public void setSpendTime(double finishTime) {
-            this.spendTime = finishTime - startTime;
-            this.finishTime = finishTime ;
-        }
-
-        public double getStartTime() {
-            return startTime;
-        }
-
-        public int getTaskId() {
-            return taskId;
-        }
-
-        public double getFinishTime() {
-            return finishTime;
-        }
-
-        public CondorVM getVm() {
-            return vm;
-        }
-
-        public void setVm(CondorVM vm) {
-            this.vm = vm;
-        }
-
-        public double getSpendTime() {
-            return spendTime;
-        }
-
-        public double getCost() {
-            return cost;
-        }
-    }
-
     @Override
     public Solution newSolution() {
         Solution solution = new Solution(numberOfVariables, numberOfObjectives);
 
-        solution.setVariable(0, new Subset(1, vmList.size()));
-        for (int i = 1; i < numberOfVariables; i++) {
-            solution.setVariable(i, new Subset(1, vmList.size()));
-        }
+        solution.setVariable(0, new AssignmentVariable(targetJob.size(), vmList.size()));
 
         return solution;
     }
@@ -126,6 +126,15 @@ public class DistributedProblem implements Problem {
 	synchronized long nextDistributedEvaluationID() {
 		return nextDistributedEvaluationID++;
 	}
+	
+	/**
+	 * Returns the problem whose evaluations are distributed by this problem.
+	 * 
+	 * @return the problem whose evaluations are distributed by this problem
+	 */
+	public Problem getInnerProblem() {
+		return innerProblem;
+	}
 
 
 	@Override
@@ -0,0 +1,221 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateFrom;
+import org.cloudbus.cloudsim.core.predicates.PredicateNotType;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DeferredQueue} class against the single time-ordered list it replaced, scanned
+ * for the destination on every call.
+ */
+public class DeferredQueueTest {
+
+	private static final int OPERATIONS = 50000;
+
+	private static final int ENTITIES = 6;
+
+	private static final int TAGS = 5;
+
+	/**
+	 * The old deferred queue and the loops of the kernel over it, except that a call matching no
+	 * event returns <code>null</code>.
+	 */
+	private static class ListQueue {
+
+		private final List<SimEvent> list = new LinkedList<SimEvent>();
+
+		private double maxTime = -1;
+
+		void addEvent(SimEvent newEvent) {
+			double eventTime = newEvent.eventTime();
+			if (eventTime >= maxTime) {
+				list.add(newEvent);
+				maxTime = eventTime;
+				return;
+			}
+
+			ListIterator<SimEvent> iterator = list.listIterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().eventTime() > eventTime) {
+					iterator.previous();
+					iterator.add(newEvent);
+					return;
+				}
+			}
+			list.add(newEvent);
+		}
+
+		int count(int dest, Predicate p) {
+			int count = 0;
+			for (SimEvent ev : list) {
+				if (ev.getDestination() == dest && p.match(ev)) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		SimEvent select(int dest, Predicate p) {
+			Iterator<SimEvent> iterator = list.iterator();
+			while (iterator.hasNext()) {
+				SimEvent ev = iterator.next();
+				if (ev.getDestination() == dest && p.match(ev)) {
+					iterator.remove();
+					return ev;
+				}
+			}
+			return null;
+		}
+
+		SimEvent findFirst(int dest, Predicate p) {
+			for (SimEvent ev : list) {
+				if (ev.getDestination() == dest && p.match(ev)) {
+					return ev;
+				}
+			}
+			return null;
+		}
+
+	}
+
+	private static SimEvent newEvent(double time, int src, int dest, int tag) {
+		return new SimEvent(SimEvent.SEND, time, src, dest, tag, null);
+	}
+
+	/**
+	 * Returns one of the predicates of the kernel: the fast paths for any, none and tags, and
+	 * generic predicates matched against each event.
+	 */
+	private static Predicate randomPredicate(Random random) {
+		switch (random.nextInt(7)) {
+		case 0:
+			return CloudSim.SIM_ANY;
+		case 1:
+			return CloudSim.SIM_NONE;
+		case 2:
+		case 3:
+			return new PredicateType(random.nextInt(TAGS + 1));
+		case 4:
+			// a repeated tag must not be counted twice
+			int tag = random.nextInt(TAGS);
+			return new PredicateType(new int[] { tag, random.nextInt(TAGS), tag });
+		case 5:
+			return new PredicateFrom(random.nextInt(ENTITIES));
+		default:
+			return new PredicateNotType(random.nextInt(TAGS));
+		}
+	}
+
+	/**
+	 * Applies the same random operations to both queues. Most events arrive in time order, some
+	 * out of order, and the selects by tag leave holes in the middle of the mailboxes.
+	 */
+	private static void testRandomOperations(long seed, int outOfOrder) {
+		DeferredQueue queue = new DeferredQueue();
+		ListQueue expected = new ListQueue();
+		Random random = new Random(seed);
+		double now = 0.0;
+
+		for (int i = 0; i < OPERATIONS; i++) {
+			int operation = random.nextInt(100);
+			if (operation < 40) {
+				double time;
+				if (random.nextInt(100) < outOfOrder) {
+					time = Math.max(0.0, now - random.nextInt(10));
+				} else {
+					now += random.nextInt(3);
+					time = now;
+				}
+				// the last entity has an id past the initial array of mailboxes
+				int dest = random.nextInt(ENTITIES);
+				dest = dest == ENTITIES - 1 ? 40 : dest;
+				SimEvent ev = newEvent(time, random.nextInt(ENTITIES), dest, random.nextInt(TAGS));
+				queue.addEvent(ev);
+				expected.addEvent(ev);
+			} else {
+				int dest = random.nextInt(ENTITIES + 1);
+				dest = dest == ENTITIES - 1 ? 40 : dest;
+				Predicate p = randomPredicate(random);
+				if (operation < 80) {
+					Assert.assertSame(expected.select(dest, p), queue.select(dest, p));
+				} else if (operation < 90) {
+					Assert.assertSame(expected.findFirst(dest, p), queue.findFirst(dest, p));
+				} else {
+					Assert.assertEquals(expected.count(dest, p), queue.count(dest, p));
+				}
+			}
+			Assert.assertEquals(expected.list.size(), queue.size());
+		}
+
+		// the remaining events leave in the same order
+		for (int dest : new int[] { 0, 1, 2, 3, 4, 40 }) {
+			SimEvent ev;
+			do {
+				ev = expected.select(dest, CloudSim.SIM_ANY);
+				Assert.assertSame(ev, queue.select(dest, CloudSim.SIM_ANY));
+			} while (ev != null);
+		}
+		Assert.assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void testInOrder() {
+		testRandomOperations(1, 0);
+	}
+
+	@Test
+	public void testOutOfOrder() {
+		testRandomOperations(2, 5);
+		testRandomOperations(3, 50);
+	}
+
+	@Test
+	public void testFastPathsAfterOutOfOrderInsert() {
+		DeferredQueue queue = new DeferredQueue();
+		SimEvent a = newEvent(1.0, 0, 1, 7);
+		SimEvent b = newEvent(3.0, 0, 1, 8);
+		SimEvent c = newEvent(5.0, 0, 1, 7);
+		queue.addEvent(a);
+		queue.addEvent(b);
+		queue.addEvent(c);
+
+		// move the cursor of tag 7 past the first event
+		Assert.assertSame(a, queue.select(1, new PredicateType(7)));
+		Assert.assertSame(c, queue.findFirst(1, new PredicateType(7)));
+
+		// an earlier event of the same tag goes before the cursor
+		SimEvent d = newEvent(2.0, 0, 1, 7);
+		queue.addEvent(d);
+		Assert.assertSame(d, queue.findFirst(1, new PredicateType(7)));
+		Assert.assertSame(d, queue.findFirst(1, CloudSim.SIM_ANY));
+		Assert.assertEquals(2, queue.count(1, new PredicateType(7)));
+		Assert.assertEquals(3, queue.count(1, CloudSim.SIM_ANY));
+		Assert.assertEquals(0, queue.count(1, CloudSim.SIM_NONE));
+		Assert.assertNull(queue.select(1, CloudSim.SIM_NONE));
+
+		Assert.assertSame(d, queue.select(1, CloudSim.SIM_ANY));
+		Assert.assertSame(b, queue.select(1, CloudSim.SIM_ANY));
+		Assert.assertSame(c, queue.select(1, new PredicateType(7)));
+		Assert.assertNull(queue.select(1, CloudSim.SIM_ANY));
+		Assert.assertNull(queue.select(2, CloudSim.SIM_ANY));
+		Assert.assertEquals(0, queue.size());
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link BinaryHeapFutureQueue} and {@link CalendarFutureQueue} classes against
+ * {@link FutureQueue}: the same operations must return the same events in the same order.
+ */
+public class FutureEventListTest {
+
+	private static final int OPERATIONS = 200000;
+
+	/**
+	 * Creates an event identified by its data.
+	 */
+	private static SimEvent newEvent(double time, int src, int tag, int id) {
+		return new SimEvent(SimEvent.SEND, time, src, 0, tag, id);
+	}
+
+	private static Integer idOf(SimEvent ev) {
+		return ev == null ? null : (Integer) ev.getData();
+	}
+
+	/**
+	 * Drains a list, returning the ids of its events in order.
+	 */
+	private static List<Integer> drain(FutureEventList list) {
+		List<Integer> ids = new ArrayList<Integer>();
+		SimEvent ev;
+		while ((ev = list.poll()) != null) {
+			ids.add(idOf(ev));
+		}
+		return ids;
+	}
+
+	private static void testFifoWithinTime(FutureEventList list) {
+		int id = 0;
+		for (int i = 0; i < 100; i++) {
+			list.addEvent(newEvent(i % 3, 0, 0, id++));
+		}
+		List<Integer> ids = drain(list);
+		Assert.assertEquals(100, ids.size());
+		int index = 0;
+		for (int time = 0; time < 3; time++) {
+			for (int i = time; i < 100; i += 3) {
+				Assert.assertEquals(Integer.valueOf(i), ids.get(index++));
+			}
+		}
+	}
+
+	private static void testAddEventFirst(FutureEventList list) {
+		list.addEvent(newEvent(1.0, 0, 0, 0));
+		list.addEvent(newEvent(2.0, 0, 0, 1));
+		list.addEventFirst(newEvent(2.0, 0, 0, 2));
+		list.addEvent(newEvent(2.0, 0, 0, 3));
+		list.addEventFirst(newEvent(2.0, 0, 0, 4));
+		list.addEventFirst(newEvent(3.0, 0, 0, 5));
+		list.addEvent(newEvent(0.5, 0, 0, 6));
+
+		// the events added first leave before the others of their time, in the order they were added
+		Assert.assertEquals(Arrays.asList(6, 0, 2, 4, 1, 3, 5), drain(list));
+	}
+
+	private static void testPollAt(FutureEventList list) {
+		list.addEvent(newEvent(1.0, 0, 0, 0));
+		list.addEvent(newEvent(1.0, 0, 0, 1));
+		list.addEvent(newEvent(2.0, 0, 0, 2));
+
+		Assert.assertNull(list.pollAt(0.5));
+		Assert.assertEquals(Integer.valueOf(0), idOf(list.pollAt(1.0)));
+		Assert.assertEquals(Integer.valueOf(1), idOf(list.pollAt(1.0)));
+		Assert.assertNull(list.pollAt(1.0));
+		Assert.assertEquals(1, list.size());
+		Assert.assertEquals(Integer.valueOf(2), idOf(list.pollAt(2.0)));
+		Assert.assertNull(list.pollAt(2.0));
+	}
+
+	/**
+	 * Applies the same random operations to a list and to a {@link FutureQueue}. The times never
+	 * go back before the time of the last event polled, as in a simulation, and many events share
+	 * their time.
+	 */
+	private static void testRandomOperations(FutureEventList list, long seed) {
+		FutureQueue expected = new FutureQueue();
+		Random random = new Random(seed);
+		double now = 0.0;
+		int id = 0;
+
+		for (int i = 0; i < OPERATIONS; i++) {
+			int operation = random.nextInt(100);
+			if (operation < 55) {
+				double time;
+				switch (random.nextInt(4)) {
+				case 0:
+					time = now;
+					break;
+				case 1:
+					time = now + random.nextInt(5);
+					break;
+				case 2:
+					time = now + random.nextDouble() * 100.0;
+					break;
+				default:
+					time = now + random.nextDouble() * 1e5;
+					break;
+				}
+				int src = random.nextInt(4);
+				int tag = random.nextInt(3);
+				boolean first = random.nextInt(10) == 0;
+				SimEvent ev1 = newEvent(time, src, tag, id);
+				SimEvent ev2 = newEvent(time, src, tag, id);
+				id++;
+				if (first) {
+					expected.addEventFirst(ev1);
+					list.addEventFirst(ev2);
+				} else {
+					expected.addEvent(ev1);
+					list.addEvent(ev2);
+				}
+			} else if (operation < 85) {
+				SimEvent ev = expected.poll();
+				Assert.assertEquals(idOf(ev), idOf(list.poll()));
+				if (ev != null) {
+					now = ev.eventTime();
+				}
+			} else if (operation < 92) {
+				SimEvent ev = expected.pollAt(now);
+				Assert.assertEquals(idOf(ev), idOf(list.pollAt(now)));
+			} else if (operation < 97) {
+				int src = random.nextInt(4);
+				Predicate p = random.nextBoolean() ? CloudSim.SIM_ANY : new PredicateType(random.nextInt(3));
+				Assert.assertEquals(idOf(expected.removeFirst(src, p)), idOf(list.removeFirst(src, p)));
+			} else if (operation < 98) {
+				int src = random.nextInt(4);
+				Predicate p = new PredicateType(random.nextInt(3));
+				Assert.assertEquals(expected.removeAll(src, p), list.removeAll(src, p));
+			} else {
+				Assert.assertEquals(idOf(expected.peek()), idOf(list.peek()));
+			}
+			Assert.assertEquals(expected.size(), list.size());
+		}
+
+		Assert.assertEquals(drain(expected), drain(list));
+		Assert.assertEquals(0, list.size());
+		Assert.assertNull(list.peek());
+	}
+
+	private static void testAll(Supplier<FutureEventList> factory) {
+		testFifoWithinTime(factory.get());
+		testAddEventFirst(factory.get());
+		testPollAt(factory.get());
+		for (long seed = 1; seed <= 3; seed++) {
+			testRandomOperations(factory.get(), seed);
+		}
+	}
+
+	@Test
+	public void testFutureQueue() {
+		testFifoWithinTime(new FutureQueue());
+		testAddEventFirst(new FutureQueue());
+		testPollAt(new FutureQueue());
+	}
+
+	@Test
+	public void testBinaryHeapFutureQueue() {
+		testAll(BinaryHeapFutureQueue::new);
+	}
+
+	@Test
+	public void testCalendarFutureQueue() {
+		testAll(CalendarFutureQueue::new);
+	}
+
+	@Test
+	public void testClear() {
+		List<FutureEventList> lists = new ArrayList<FutureEventList>();
+		lists.add(new FutureQueue());
+		lists.add(new BinaryHeapFutureQueue());
+		lists.add(new CalendarFutureQueue());
+		for (FutureEventList list : lists) {
+			for (int i = 0; i < 100; i++) {
+				list.addEvent(newEvent(i, 0, 0, i));
+			}
+			list.clear();
+			Assert.assertEquals(0, list.size());
+			Assert.assertNull(list.poll());
+			list.addEvent(newEvent(5.0, 0, 0, 0));
+			Assert.assertEquals(Integer.valueOf(0), idOf(list.poll()));
+		}
+	}
+
+}
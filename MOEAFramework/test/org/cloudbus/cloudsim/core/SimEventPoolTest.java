@@ -0,0 +1,212 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Log;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the {@link SimEventPool} class, in particular the detection of events used after their
+ * release in debug mode.
+ */
+public class SimEventPoolTest {
+
+	private static final int FIRST = 9001;
+
+	private static final int SECOND = 9002;
+
+	@BeforeClass
+	public static void setUp() {
+		Log.disable();
+	}
+
+	/**
+	 * Sends two events to a receiver at its start.
+	 */
+	private static class Sender extends SimEntity {
+
+		private final int receiver;
+
+		Sender(String name, int receiver) {
+			super(name);
+			this.receiver = receiver;
+		}
+
+		@Override
+		public void startEntity() {
+			sendNow(receiver, FIRST, "first");
+			sendInts(receiver, 5.0, SECOND, 1, 2, 3);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+	/**
+	 * Wrongly keeps the first event it receives, and reads it again when the second one arrives.
+	 */
+	private static class Receiver extends SimEntity {
+
+		private SimEvent kept;
+
+		private Object keptData;
+
+		private final List<RuntimeException> errors = new ArrayList<RuntimeException>();
+
+		private int[] ints;
+
+		Receiver(String name) {
+			super(name);
+		}
+
+		@Override
+		public void startEntity() {
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() == FIRST) {
+				kept = ev;
+				keptData = ev.getData();
+			} else if (ev.getTag() == SECOND) {
+				ints = new int[] { ev.getIntData(0), ev.getIntData(1), ev.getIntData(2) };
+				try {
+					kept.getData();
+				} catch (IllegalStateException e) {
+					errors.add(e);
+				}
+				try {
+					kept.getTag();
+				} catch (IllegalStateException e) {
+					errors.add(e);
+				}
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+	/**
+	 * Runs a sender and a receiver with the given pool.
+	 */
+	private static Receiver run(SimEventPool pool) throws Exception {
+		SimulationContext context = new SimulationContext();
+		context.setEventPool(pool);
+		return context.call(() -> {
+			CloudSim.init(1, Calendar.getInstance(), false);
+			Receiver receiver = new Receiver("receiver");
+			new Sender("sender", receiver.getId());
+			CloudSim.startSimulation();
+			return receiver;
+		});
+	}
+
+	@Test
+	public void testDebugDetectsUseAfterRelease() throws Exception {
+		SimEventPool pool = new SimEventPool(SimEventPool.DEFAULT_CAPACITY, true);
+		Receiver receiver = run(pool);
+
+		// the kept event was released after being processed, and every access to it throws
+		Assert.assertEquals(2, receiver.errors.size());
+		Assert.assertTrue(receiver.kept.isReleased());
+		Assert.assertEquals("first", receiver.keptData);
+		Assert.assertArrayEquals(new int[] { 1, 2, 3 }, receiver.ints);
+
+		// released events are quarantined, never reused
+		Assert.assertTrue(pool.getReleased() >= 2);
+		Assert.assertEquals(0, pool.getReused());
+		Assert.assertEquals(0, pool.getFree());
+	}
+
+	@Test
+	public void testWithoutPool() throws Exception {
+		Receiver receiver = run(null);
+		Assert.assertTrue(receiver.errors.isEmpty());
+		Assert.assertArrayEquals(new int[] { 1, 2, 3 }, receiver.ints);
+	}
+
+	@Test
+	public void testQuarantinedEventIsNeverReused() {
+		SimEventPool pool = new SimEventPool(16, true);
+		SimEvent ev = pool.obtain(SimEvent.SEND, 1.0, 0, 1, FIRST, "data");
+		pool.release(ev);
+
+		try {
+			ev.getData();
+			Assert.fail("the released event was read");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			ev.getIntData(0);
+			Assert.fail("the released event was read");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		SimEvent other = pool.obtain(SimEvent.SEND, 2.0, 0, 1, SECOND, "other");
+		Assert.assertNotSame(ev, other);
+		Assert.assertEquals(SECOND, other.getTag());
+		Assert.assertEquals(2, pool.getCreated());
+		Assert.assertEquals(0, pool.getReused());
+	}
+
+	@Test
+	public void testEventIsReused() {
+		SimEventPool pool = new SimEventPool(16, false);
+		SimEvent ev = pool.obtain(SimEvent.SEND, 1.0, 0, 1, FIRST, "data");
+		pool.release(ev);
+		Assert.assertEquals(1, pool.getFree());
+
+		SimEvent other = pool.obtain(SimEvent.SEND, 2.0, 0, 1, SECOND, "other");
+		Assert.assertSame(ev, other);
+		Assert.assertEquals(SECOND, other.getTag());
+		Assert.assertEquals("other", other.getData());
+		Assert.assertEquals(1, pool.getReused());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDoubleRelease() {
+		SimEventPool pool = new SimEventPool(16, true);
+		SimEvent ev = pool.obtain(SimEvent.SEND, 1.0, 0, 1, FIRST, "data");
+		pool.release(ev);
+		pool.release(ev);
+	}
+
+	@Test
+	public void testIntData() {
+		SimEvent ints = new SimEventPool().obtain(SimEvent.SEND, 1.0, 0, 1, FIRST, null);
+		ints.setIntData(4, 5, 6);
+		Assert.assertTrue(ints.hasIntData());
+		Assert.assertEquals(6, ints.getIntData(2));
+
+		SimEvent array = new SimEvent(SimEvent.SEND, 1.0, 0, 1, FIRST, new int[] { 4, 5, 6 });
+		Assert.assertTrue(array.hasIntData());
+		Assert.assertEquals(5, array.getIntData(1));
+
+		Assert.assertFalse(new SimEvent(SimEvent.SEND, 1.0, 0, 1, FIRST, "data").hasIntData());
+		Assert.assertFalse(new SimEvent(SimEvent.SEND, 1.0, 0, 1, FIRST, null).hasIntData());
+	}
+
+}
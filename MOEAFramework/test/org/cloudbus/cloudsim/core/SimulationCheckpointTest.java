@@ -0,0 +1,171 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Log;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.workflowsim.Job;
+import org.workflowsim.WorkflowDatacenter;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.WorkflowPlanner;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the {@link SimulationCheckpoint} class: a simulation restored from a
+ * checkpoint must finish the same jobs at the same times as the simulation it
+ * was saved from.
+ */
+public class SimulationCheckpointTest extends WorkflowSimBasicExample1 {
+
+	private static final String DAX_PATH = "../WorkflowSim-1.0/config/dax/Montage_25.xml";
+
+	private static final int VMS = 5;
+
+	/** The finish time of each job of an uninterrupted run, by job id. */
+	private static Map<Integer, Double> expected;
+
+	/** The name of the workflow engine, to find it in a restored context. */
+	private static String engineName;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Log.disable();
+		SimulationContext context = createSimulation();
+		context.execute(CloudSim::startSimulation);
+		expected = getFinishTimes(context);
+		Assert.assertFalse(expected.isEmpty());
+	}
+
+	/**
+	 * Creates a simulation of the workflow on a datacenter of its own.
+	 */
+	private static SimulationContext createSimulation() throws Exception {
+		SimulationContext context = new SimulationContext();
+		context.call(() -> {
+			OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+			ClusteringParameters cp = new ClusteringParameters(0, 0,
+					ClusteringParameters.ClusteringMethod.NONE, null);
+			Parameters.init(VMS, DAX_PATH, null, null, op, cp,
+					Parameters.SchedulingAlgorithm.MINMIN,
+					Parameters.PlanningAlgorithm.INVALID, null, 0);
+			ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			WorkflowDatacenter datacenter = createDatacenter("Datacenter_0");
+			WorkflowPlanner planner = new WorkflowPlanner("planner_0", 1);
+			WorkflowEngine engine = planner.getWorkflowEngine();
+			engine.submitVmList(createVM(engine.getSchedulerId(0), VMS), 0);
+			engine.bindSchedulerDatacenter(datacenter.getId(), 0);
+			engineName = engine.getName();
+			return null;
+		});
+		return context;
+	}
+
+	/**
+	 * Gets the finish time of each job received by the workflow engine.
+	 */
+	private static Map<Integer, Double> getFinishTimes(SimulationContext context)
+			throws Exception {
+		return context.call(() -> {
+			WorkflowEngine engine = (WorkflowEngine) CloudSim.getEntity(engineName);
+			Map<Integer, Double> finishTimes = new TreeMap<>();
+			for (Object job : engine.getJobsReceivedList()) {
+				finishTimes.put(((Job) job).getCloudletId(), ((Job) job).getFinishTime());
+			}
+			return finishTimes;
+		});
+	}
+
+	/**
+	 * Gets the finish time of the last job.
+	 */
+	private static double getMakespan(Map<Integer, Double> finishTimes) {
+		double makespan = 0.0;
+		for (double finishTime : finishTimes.values()) {
+			makespan = Math.max(makespan, finishTime);
+		}
+		return makespan;
+	}
+
+	/**
+	 * Runs a simulation half way and saves it.
+	 */
+	private static SimulationContext runHalfWay() throws Exception {
+		SimulationContext context = createSimulation();
+		context.runUntil(getMakespan(expected) / 2.0);
+		Assert.assertTrue(context.running());
+		return context;
+	}
+
+	@Test
+	public void testRestoredForksFinishLikeTheOriginal() throws Exception {
+		SimulationContext context = runHalfWay();
+		SimulationCheckpoint checkpoint = context.checkpoint();
+
+		context.execute(CloudSim::startSimulation);
+		Assert.assertEquals(expected, getFinishTimes(context));
+
+		for (int i = 0; i < 2; i++) {
+			SimulationContext fork = checkpoint.restore();
+			fork.execute(CloudSim::startSimulation);
+
+			Map<Integer, Double> finishTimes = getFinishTimes(fork);
+			Assert.assertEquals(expected.keySet(), finishTimes.keySet());
+			Assert.assertEquals(expected, finishTimes);
+			Assert.assertEquals(getMakespan(expected), getMakespan(finishTimes), 0.0);
+		}
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File file = File.createTempFile("checkpoint", ".bin");
+		file.deleteOnExit();
+
+		runHalfWay().checkpoint().save(file);
+		SimulationContext restored = SimulationCheckpoint.load(file).restore();
+		restored.execute(CloudSim::startSimulation);
+
+		Assert.assertEquals(expected, getFinishTimes(restored));
+	}
+
+	@Test
+	public void testRunWithPeriodicCheckpoints() throws Exception {
+		File file = File.createTempFile("checkpoint", ".bin");
+		file.deleteOnExit();
+
+		SimulationContext context = createSimulation();
+		SimulationCheckpoint.run(context, file, getMakespan(expected) / 4.0);
+		Assert.assertEquals(expected, getFinishTimes(context));
+
+		// the last checkpoint resumes the simulation to the same end
+		Assert.assertTrue(file.length() > 0);
+		SimulationContext resumed = SimulationCheckpoint.load(file).restore();
+		resumed.execute(CloudSim::startSimulation);
+		Assert.assertEquals(expected, getFinishTimes(resumed));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRunRejectsNonPositiveInterval() throws IOException {
+		SimulationCheckpoint.run(new SimulationContext(), new File("unused"), 0.0);
+	}
+
+}
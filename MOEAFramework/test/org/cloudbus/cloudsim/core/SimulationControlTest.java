@@ -0,0 +1,188 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Log;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.workflowsim.Job;
+import org.workflowsim.WorkflowDatacenter;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.WorkflowPlanner;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the control methods of {@link SimulationContext}: a simulation advanced by
+ * {@link SimulationContext#step()}, {@link SimulationContext#runFor(long)} and
+ * {@link SimulationContext#runUntil(double)} and then finished must process the same ticks and
+ * finish the same jobs at the same times as a single run.
+ */
+public class SimulationControlTest extends WorkflowSimBasicExample1 {
+
+	private static final String DAX_PATH = "../WorkflowSim-1.0/config/dax/Montage_100.xml";
+
+	private static final int VMS = 5;
+
+	/** The trace of an uninterrupted run. */
+	private static List<String> expected;
+
+	/** The makespan of an uninterrupted run. */
+	private static double makespan;
+
+	/**
+	 * A simulation and the trace of its run: one line per tick, then one line per job received,
+	 * in the order they were received.
+	 */
+	private static class TracedSimulation implements SimulationMetrics {
+
+		private final SimulationContext context = new SimulationContext();
+
+		private final List<String> trace = new ArrayList<String>();
+
+		private String engineName;
+
+		TracedSimulation() throws Exception {
+			context.setMetrics(this);
+			context.call(() -> {
+				OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+				ClusteringParameters cp = new ClusteringParameters(0, 0,
+						ClusteringParameters.ClusteringMethod.NONE, null);
+				Parameters.init(VMS, DAX_PATH, null, null, op, cp,
+						Parameters.SchedulingAlgorithm.MINMIN,
+						Parameters.PlanningAlgorithm.INVALID, null, 0);
+				ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+				CloudSim.init(1, Calendar.getInstance(), false);
+
+				WorkflowDatacenter datacenter = createDatacenter("Datacenter_0");
+				WorkflowPlanner planner = new WorkflowPlanner("planner_0", 1);
+				WorkflowEngine engine = planner.getWorkflowEngine();
+				engine.submitVmList(createVM(engine.getSchedulerId(0), VMS), 0);
+				engine.bindSchedulerDatacenter(datacenter.getId(), 0);
+				engineName = engine.getName();
+				return null;
+			});
+		}
+
+		@Override
+		public void tick(double time, int activations, int emptyWakeUps, int events) {
+			trace.add(time + " " + activations + " " + emptyWakeUps + " " + events);
+		}
+
+		/**
+		 * Finishes the simulation and returns its trace.
+		 */
+		List<String> finish() throws Exception {
+			context.execute(CloudSim::startSimulation);
+			return context.call(() -> {
+				WorkflowEngine engine = (WorkflowEngine) CloudSim.getEntity(engineName);
+				for (Object job : engine.getJobsReceivedList()) {
+					trace.add("job " + ((Job) job).getCloudletId() + " " + ((Job) job).getFinishTime());
+				}
+				trace.add("events " + context.snapshot().getEventsProcessed());
+				return trace;
+			});
+		}
+
+	}
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Log.disable();
+		expected = new TracedSimulation().finish();
+		for (String line : expected) {
+			if (line.startsWith("job ")) {
+				makespan = Math.max(makespan, Double.parseDouble(line.split(" ")[2]));
+			}
+		}
+		Assert.assertTrue(makespan > 0.0);
+	}
+
+	@Test
+	public void testStep() throws Exception {
+		TracedSimulation simulation = new TracedSimulation();
+		long steps = 0;
+		while (simulation.context.step()) {
+			steps++;
+		}
+		Assert.assertFalse(simulation.context.running());
+		Assert.assertEquals(steps, simulation.context.snapshot().getEventsProcessed());
+		Assert.assertEquals(expected, simulation.finish());
+	}
+
+	@Test
+	public void testStepThenRun() throws Exception {
+		TracedSimulation simulation = new TracedSimulation();
+		for (int i = 0; i < 500; i++) {
+			Assert.assertTrue(simulation.context.step());
+		}
+		Assert.assertEquals(500, simulation.context.snapshot().getEventsProcessed());
+		Assert.assertEquals(expected, simulation.finish());
+	}
+
+	@Test
+	public void testRunFor() throws Exception {
+		Random random = new Random(1);
+		for (int i = 0; i < 3; i++) {
+			TracedSimulation simulation = new TracedSimulation();
+			long events;
+			do {
+				events = 1 + random.nextInt(50);
+			} while (simulation.context.runFor(events) == events);
+			Assert.assertFalse(simulation.context.running());
+			Assert.assertEquals(expected, simulation.finish());
+		}
+	}
+
+	@Test
+	public void testRunUntil() throws Exception {
+		TracedSimulation simulation = new TracedSimulation();
+		for (int i = 1; i <= 10; i++) {
+			double clock = simulation.context.runUntil(makespan * i / 10.0);
+			Assert.assertTrue(clock <= makespan * i / 10.0);
+			Assert.assertEquals(clock, simulation.context.snapshot().getClock(), 0.0);
+		}
+		Assert.assertEquals(expected, simulation.finish());
+	}
+
+	@Test
+	public void testMixed() throws Exception {
+		Random random = new Random(2);
+		TracedSimulation simulation = new TracedSimulation();
+		double until = 0.0;
+		boolean running = true;
+		while (running) {
+			switch (random.nextInt(3)) {
+			case 0:
+				running = simulation.context.step();
+				break;
+			case 1:
+				long events = 1 + random.nextInt(20);
+				running = simulation.context.runFor(events) == events;
+				break;
+			default:
+				until += random.nextDouble() * makespan / 20.0;
+				simulation.context.runUntil(until);
+				running = simulation.context.running();
+				break;
+			}
+		}
+		Assert.assertEquals(expected, simulation.finish());
+	}
+
+}
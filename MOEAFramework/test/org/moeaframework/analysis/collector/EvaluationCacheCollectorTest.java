@@ -0,0 +1,69 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.analysis.collector;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.Executor;
+import org.moeaframework.Instrumenter;
+
+/**
+ * Tests the {@link EvaluationCacheCollector} class.
+ */
+public class EvaluationCacheCollectorTest extends CollectorTest {
+	
+	@Test
+	public void testNoCache() {
+		test("NSGAII", new EvaluationCacheCollector(), false);
+	}
+	
+	@Test
+	public void testCache() {
+		test(1);
+	}
+	
+	@Test
+	public void testDistributedCache() {
+		test(2);
+	}
+	
+	private void test(int numberOfThreads) {
+		Instrumenter instrumenter = new Instrumenter()
+				.withProblem("DTLZ2_2")
+				.withFrequency(100)
+				.attachEvaluationCacheCollector();
+		
+		new Executor()
+				.withProblem("DTLZ2_2")
+				.withAlgorithm("NSGAII")
+				.withMaxEvaluations(1000)
+				.withProperty("cache", true)
+				.distributeOn(numberOfThreads)
+				.withInstrumenter(instrumenter)
+				.run();
+		
+		Accumulator accumulator = instrumenter.getLastAccumulator();
+		int size = accumulator.size("NFE");
+		
+		Assert.assertEquals(size, accumulator.size("Cache Hits"));
+		Assert.assertEquals(size, accumulator.size("Cache Misses"));
+		Assert.assertTrue(size > 0);
+		Assert.assertTrue((Long)accumulator.get("Cache Misses", size - 1) > 0);
+	}
+
+}
@@ -31,6 +31,7 @@ import org.moeaframework.core.Population;
 import org.moeaframework.core.Problem;
 import org.moeaframework.core.Settings;
 import org.moeaframework.core.Solution;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.core.variable.BinaryVariable;
 import org.moeaframework.core.variable.Grammar;
 import org.moeaframework.core.variable.Permutation;
@@ -754,6 +755,10 @@ public class ResultFileReaderTest {
 			reader.decode(p, "2,0,1,4,3");
 			Assert.assertArrayEquals(new int[] { 2, 0, 1, 4, 3 }, p.toArray());
 			
+			AssignmentVariable av = new AssignmentVariable(4, 4);
+			reader.decode(av, "3,0,2,2");
+			Assert.assertArrayEquals(new int[] { 3, 0, 2, 2 }, av.toArray());
+			
 			//grammars technically have valid encodings, but this tests the
 			//unsupported decision variable type entry
 			Grammar g = new Grammar(5);
@@ -852,4 +857,38 @@ public class ResultFileReaderTest {
 		}
 	}
 	
+	@Test(expected = FrameworkException.class)
+	public void testDecodeInvalidAssignment1() throws IOException {
+		File file = TestUtils.createTempFile();
+		ResultFileReader reader = null;
+		
+		try {
+			reader = new ResultFileReader(problem, file);
+
+			AssignmentVariable av = new AssignmentVariable(4, 4);
+			reader.decode(av, "3,0,2");
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+	}
+	
+	@Test(expected = FrameworkException.class)
+	public void testDecodeInvalidAssignment2() throws IOException {
+		File file = TestUtils.createTempFile();
+		ResultFileReader reader = null;
+		
+		try {
+			reader = new ResultFileReader(problem, file);
+
+			AssignmentVariable av = new AssignmentVariable(4, 4);
+			reader.decode(av, "3,0,4,2");
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+	}
+	
 }
@@ -31,6 +31,7 @@ import org.moeaframework.core.Problem;
 import org.moeaframework.core.Settings;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.Variable;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.core.variable.BinaryVariable;
 import org.moeaframework.core.variable.Grammar;
 import org.moeaframework.core.variable.Permutation;
@@ -509,6 +510,11 @@ public class ResultFileWriterTest {
 			Assert.assertEquals("0,1,2,3,4", writer.encode(p));
 			Assert.assertFalse(writer.encode(p).matches(".*\\s.*"));
 			
+			AssignmentVariable av = new AssignmentVariable(
+					new int[] { 3, 0, 2, 2 }, 4);
+			Assert.assertEquals("3,0,2,2", writer.encode(av));
+			Assert.assertFalse(writer.encode(av).matches(".*\\s.*"));
+			
 			Grammar g = new Grammar(5);
 			//Assert.assertEquals("-", writer.encode(g));
 			Assert.assertFalse(writer.encode(g).matches(".*\\s.*"));
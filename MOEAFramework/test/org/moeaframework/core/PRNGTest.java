@@ -21,6 +21,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.junit.Assert;
@@ -584,4 +585,33 @@ public class PRNGTest {
 		Assert.assertEquals(n, count);
 	}
 
+	/**
+	 * Tests if a thread source of randomness overrides the shared source on
+	 * its thread only.
+	 */
+	@Test
+	public void testThreadRandom() throws InterruptedException {
+		final Random shared = PRNG.getRandom();
+		final Random local = new Random(42);
+		final Random[] other = new Random[1];
+
+		try {
+			PRNG.setThreadRandom(local);
+			Assert.assertSame(local, PRNG.getRandom());
+
+			Thread thread = new Thread(() -> other[0] = PRNG.getRandom());
+			thread.start();
+			thread.join();
+			Assert.assertSame(shared, other[0]);
+
+			Random expected = new Random(42);
+			Assert.assertEquals(expected.nextInt(100), PRNG.nextInt(100));
+			Assert.assertEquals(expected.nextDouble(), PRNG.nextDouble(), 0.0);
+		} finally {
+			PRNG.setThreadRandom(null);
+		}
+
+		Assert.assertSame(shared, PRNG.getRandom());
+	}
+
 }
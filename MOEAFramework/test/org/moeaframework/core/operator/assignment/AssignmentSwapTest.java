@@ -0,0 +1,105 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.TestThresholds;
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.operator.ParentImmutabilityTest;
+import org.moeaframework.core.operator.TypeSafetyTest;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Tests the {@link AssignmentSwap} class.
+ */
+public class AssignmentSwapTest {
+
+	/**
+	 * Tests if the swap mutation operator is type-safe.
+	 */
+	@Test
+	public void testTypeSafety() {
+		TypeSafetyTest.testTypeSafety(new AssignmentSwap(1.0));
+	}
+
+	/**
+	 * Tests if the swap mutation exchanges the items of exactly two values.
+	 */
+	@Test
+	public void testEvolve() {
+		for (int i = 0; i < TestThresholds.SAMPLES; i++) {
+			int k = PRNG.nextInt(2, 10);
+			AssignmentVariable original = new AssignmentVariable(50, k);
+			original.randomize();
+
+			AssignmentVariable mutated = original.copy();
+			AssignmentSwap.evolve(mutated);
+
+			// the mapping between old and new values is a transposition
+			int[] mapping = new int[k];
+			Arrays.fill(mapping, -1);
+
+			for (int j = 0; j < original.size(); j++) {
+				int from = original.get(j);
+
+				if (mapping[from] < 0) {
+					mapping[from] = mutated.get(j);
+				} else {
+					Assert.assertEquals(mapping[from], mutated.get(j));
+				}
+			}
+
+			int moved = 0;
+
+			for (int from = 0; from < k; from++) {
+				if ((mapping[from] >= 0) && (mapping[from] != from)) {
+					moved++;
+
+					if (mapping[mapping[from]] >= 0) {
+						Assert.assertEquals(from, mapping[mapping[from]]);
+					}
+				}
+			}
+
+			Assert.assertTrue(moved <= 2);
+		}
+	}
+
+	/**
+	 * Tests if the parents remain unchanged during variation.
+	 */
+	@Test
+	public void testParentImmutability() {
+		AssignmentSwap swap = new AssignmentSwap(1.0);
+
+		AssignmentVariable variable = new AssignmentVariable(100, 4);
+		variable.randomize();
+
+		Solution solution = new Solution(1, 0);
+		solution.setVariable(0, variable);
+
+		Solution[] parents = new Solution[] { solution };
+
+		ParentImmutabilityTest.test(parents, swap);
+	}
+
+}
@@ -0,0 +1,126 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.TestThresholds;
+import org.moeaframework.core.FrameworkException;
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.operator.ParentImmutabilityTest;
+import org.moeaframework.core.operator.TypeSafetyTest;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Tests the {@link AssignmentTwoPointCrossover} class.
+ */
+public class AssignmentTwoPointCrossoverTest {
+
+	/**
+	 * Tests if the crossover operator is type-safe.
+	 */
+	@Test
+	public void testTypeSafety() {
+		TypeSafetyTest.testTypeSafety(new AssignmentTwoPointCrossover(1.0));
+	}
+
+	/**
+	 * Tests if the two-point crossover only exchanges values between the two
+	 * parents and the exchanged items are contiguous.
+	 */
+	@Test
+	public void testEvolve() {
+		for (int i = 0; i < TestThresholds.SAMPLES; i++) {
+			int n = PRNG.nextInt(1, 20);
+			int[] array1 = new int[n];
+			int[] array2 = new int[n];
+
+			// parents differ in every item, so every swap is visible
+			for (int j = 0; j < n; j++) {
+				array1[j] = PRNG.nextInt(2);
+				array2[j] = 1 - array1[j];
+			}
+
+			AssignmentVariable v1 = new AssignmentVariable(array1, 2);
+			AssignmentVariable v2 = new AssignmentVariable(array2, 2);
+
+			AssignmentTwoPointCrossover.evolve(v1, v2);
+
+			boolean[] swapped = new boolean[n];
+
+			for (int j = 0; j < n; j++) {
+				Assert.assertEquals(1, v1.get(j) + v2.get(j));
+				swapped[j] = v1.get(j) != array1[j];
+			}
+
+			Assert.assertTrue(isValid(swapped));
+		}
+	}
+
+	@Test(expected = FrameworkException.class)
+	public void testIncompatibleAssignments() {
+		AssignmentTwoPointCrossover.evolve(new AssignmentVariable(5, 4),
+				new AssignmentVariable(6, 4));
+	}
+
+	/**
+	 * Tests if the parents remain unchanged during variation.
+	 */
+	@Test
+	public void testParentImmutability() {
+		AssignmentTwoPointCrossover crossover = new AssignmentTwoPointCrossover(1.0);
+
+		AssignmentVariable v1 = new AssignmentVariable(10, 4);
+		AssignmentVariable v2 = new AssignmentVariable(10, 4);
+
+		v1.randomize();
+		v2.randomize();
+
+		Solution s1 = new Solution(1, 0);
+		s1.setVariable(0, v1);
+
+		Solution s2 = new Solution(1, 0);
+		s2.setVariable(0, v2);
+
+		Solution[] parents = new Solution[] { s1, s2 };
+
+		ParentImmutabilityTest.test(parents, crossover);
+	}
+
+	/**
+	 * Returns {@code true} if the swapped items form a single contiguous
+	 * segment of the assignment.
+	 * 
+	 * @param swapped whether each item was swapped
+	 * @return {@code true} if the swapped items form a single contiguous
+	 *         segment of the assignment; {@code false} otherwise
+	 */
+	private boolean isValid(boolean[] swapped) {
+		int segments = 0;
+
+		for (int i = 0; i < swapped.length; i++) {
+			if (swapped[i] && ((i == 0) || !swapped[i-1])) {
+				segments++;
+			}
+		}
+
+		return segments <= 1;
+	}
+
+}
@@ -0,0 +1,113 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.TestThresholds;
+import org.moeaframework.core.FrameworkException;
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.operator.ParentImmutabilityTest;
+import org.moeaframework.core.operator.TypeSafetyTest;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Tests the {@link AssignmentUniformCrossover} class.
+ */
+public class AssignmentUniformCrossoverTest {
+
+	/**
+	 * Tests if the crossover operator is type-safe.
+	 */
+	@Test
+	public void testTypeSafety() {
+		TypeSafetyTest.testTypeSafety(new AssignmentUniformCrossover(1.0));
+	}
+
+	/**
+	 * Tests if each differing item is swapped with probability {@code 0.5}
+	 * and every item keeps the value of one of the parents.
+	 */
+	@Test
+	public void testEvolve() {
+		DescriptiveStatistics stats = new DescriptiveStatistics();
+
+		for (int i = 0; i < TestThresholds.SAMPLES; i++) {
+			int n = PRNG.nextInt(1, 20);
+			AssignmentVariable v1 = new AssignmentVariable(n, 5);
+			AssignmentVariable v2 = new AssignmentVariable(n, 5);
+
+			v1.randomize();
+			v2.randomize();
+
+			AssignmentVariable v1copy = v1.copy();
+			AssignmentVariable v2copy = v2.copy();
+
+			AssignmentUniformCrossover.evolve(v1copy, v2copy);
+
+			for (int j = 0; j < n; j++) {
+				if (v1.get(j) == v2.get(j)) {
+					Assert.assertEquals(v1.get(j), v1copy.get(j));
+					Assert.assertEquals(v2.get(j), v2copy.get(j));
+				} else if (v1.get(j) == v1copy.get(j)) {
+					Assert.assertEquals(v2.get(j), v2copy.get(j));
+					stats.addValue(0.0);
+				} else {
+					Assert.assertEquals(v2.get(j), v1copy.get(j));
+					Assert.assertEquals(v1.get(j), v2copy.get(j));
+					stats.addValue(1.0);
+				}
+			}
+		}
+
+		Assert.assertEquals(0.5, stats.getMean(), TestThresholds.STATISTICS_EPS);
+	}
+
+	@Test(expected = FrameworkException.class)
+	public void testIncompatibleAssignments() {
+		AssignmentUniformCrossover.evolve(new AssignmentVariable(5, 3),
+				new AssignmentVariable(5, 4));
+	}
+
+	/**
+	 * Tests if the parents remain unchanged during variation.
+	 */
+	@Test
+	public void testParentImmutability() {
+		AssignmentUniformCrossover ux = new AssignmentUniformCrossover(1.0);
+
+		AssignmentVariable v1 = new AssignmentVariable(10, 4);
+		AssignmentVariable v2 = new AssignmentVariable(10, 4);
+
+		v1.randomize();
+		v2.randomize();
+
+		Solution s1 = new Solution(1, 0);
+		s1.setVariable(0, v1);
+
+		Solution s2 = new Solution(1, 0);
+		s2.setVariable(0, v2);
+
+		Solution[] parents = new Solution[] { s1, s2 };
+
+		ParentImmutabilityTest.test(parents, ux);
+	}
+
+}
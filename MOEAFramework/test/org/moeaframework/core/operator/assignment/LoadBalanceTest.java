@@ -0,0 +1,93 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.operator.ParentImmutabilityTest;
+import org.moeaframework.core.operator.TypeSafetyTest;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Tests the {@link LoadBalance} class.
+ */
+public class LoadBalanceTest {
+
+	/**
+	 * Tests if the load balancing mutation operator is type-safe.
+	 */
+	@Test
+	public void testTypeSafety() {
+		TypeSafetyTest.testTypeSafety(new LoadBalance(1.0));
+	}
+
+	/**
+	 * Tests if one item moves from the busiest to the idlest value.
+	 */
+	@Test
+	public void testEvolve() {
+		int[] array = new int[] { 0, 1, 1, 1, 1, 0, 2 };
+		AssignmentVariable variable = new AssignmentVariable(array, 4);
+
+		LoadBalance.evolve(variable);
+
+		int[] counts = new int[4];
+		int moved = 0;
+
+		for (int i = 0; i < variable.size(); i++) {
+			counts[variable.get(i)]++;
+
+			if (variable.get(i) != array[i]) {
+				moved++;
+			}
+		}
+
+		Assert.assertEquals(1, moved);
+		Assert.assertArrayEquals(new int[] { 2, 3, 1, 1 }, counts);
+	}
+
+	/**
+	 * Tests if nothing moves when the loads are already balanced.
+	 */
+	@Test
+	public void testBalanced() {
+		int[] array = new int[] { 0, 1, 2, 0, 1 };
+		AssignmentVariable variable = new AssignmentVariable(array, 3);
+
+		LoadBalance.evolve(variable);
+
+		Assert.assertArrayEquals(array, variable.toArray());
+	}
+
+	/**
+	 * Tests if the parents remain unchanged during variation.
+	 */
+	@Test
+	public void testParentImmutability() {
+		LoadBalance balance = new LoadBalance(1.0);
+
+		Solution solution = new Solution(1, 0);
+		solution.setVariable(0, new AssignmentVariable(100, 4));
+
+		Solution[] parents = new Solution[] { solution };
+
+		ParentImmutabilityTest.test(parents, balance);
+	}
+
+}
@@ -0,0 +1,109 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.assignment;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.TestThresholds;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.operator.ParentImmutabilityTest;
+import org.moeaframework.core.operator.TypeSafetyTest;
+import org.moeaframework.core.variable.AssignmentVariable;
+
+/**
+ * Tests the {@link RandomReset} class.
+ */
+public class RandomResetTest {
+
+	/**
+	 * Tests if the random reset mutation operator is type-safe.
+	 */
+	@Test
+	public void testTypeSafety() {
+		TypeSafetyTest.testTypeSafety(new RandomReset(1.0));
+	}
+
+	/**
+	 * Tests various probabilities to ensure random reset mutation is applied
+	 * the correct number of times on average.
+	 */
+	@Test
+	public void testProbabilities() {
+		testProbability(0.0);
+		testProbability(0.2);
+		testProbability(1.0);
+	}
+
+	/**
+	 * Tests if the random reset mutation occurs with the specified
+	 * probability and always changes the reset items.
+	 * 
+	 * @param probability the probability
+	 */
+	private void testProbability(double probability) {
+		RandomReset reset = new RandomReset(probability);
+		AssignmentVariable variable = new AssignmentVariable(
+				TestThresholds.SAMPLES, 3);
+		variable.randomize();
+
+		Solution original = new Solution(1, 0);
+		original.setVariable(0, variable);
+
+		Solution mutated = reset.evolve(new Solution[] { original })[0];
+		AssignmentVariable result = (AssignmentVariable)mutated.getVariable(0);
+		int count = 0;
+
+		for (int i = 0; i < variable.size(); i++) {
+			Assert.assertTrue(result.get(i) >= 0);
+			Assert.assertTrue(result.get(i) < 3);
+
+			if (variable.get(i) != result.get(i)) {
+				count++;
+			}
+		}
+
+		Assert.assertEquals(probability, (double)count / variable.size(),
+				TestThresholds.VARIATION_EPS);
+	}
+
+	/**
+	 * Tests if a single value leaves nothing to reset.
+	 */
+	@Test
+	public void testSingleValue() {
+		AssignmentVariable variable = new AssignmentVariable(10, 1);
+		RandomReset.evolve(variable, 1.0);
+		Assert.assertArrayEquals(new int[10], variable.toArray());
+	}
+
+	/**
+	 * Tests if the parents remain unchanged during variation.
+	 */
+	@Test
+	public void testParentImmutability() {
+		RandomReset reset = new RandomReset(1.0);
+
+		Solution solution = new Solution(1, 0);
+		solution.setVariable(0, new AssignmentVariable(100, 4));
+
+		Solution[] parents = new Solution[] { solution };
+
+		ParentImmutabilityTest.test(parents, reset);
+	}
+
+}
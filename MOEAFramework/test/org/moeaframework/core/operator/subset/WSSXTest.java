@@ -0,0 +1,166 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.operator.subset;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.TestThresholds;
+import org.moeaframework.core.FrameworkException;
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.operator.ParentImmutabilityTest;
+import org.moeaframework.core.variable.AssignmentVariable;
+import org.moeaframework.core.variable.Subset;
+
+/**
+ * Tests the {@link WSSX} class on assignment-encoded solutions.
+ */
+public class WSSXTest {
+
+	/**
+	 * Tests if the VMs are only exchanged between the two parents when each
+	 * VM group of one parent is a VM group of the other parent.
+	 */
+	@Test
+	public void testEvolveMirroredGroups() {
+		WSSX wssx = new WSSX(1.0);
+
+		for (int i = 0; i < TestThresholds.SAMPLES; i++) {
+			int n = PRNG.nextInt(1, 20);
+			int[] array1 = new int[n];
+			int[] array2 = new int[n];
+
+			for (int j = 0; j < n; j++) {
+				array1[j] = PRNG.nextInt(2);
+				array2[j] = 1 - array1[j];
+			}
+
+			Solution[] offspring = wssx.evolve(new Solution[] {
+					createSolution(array1, 2), createSolution(array2, 2) });
+			AssignmentVariable v1 = (AssignmentVariable)offspring[0].getVariable(0);
+			AssignmentVariable v2 = (AssignmentVariable)offspring[1].getVariable(0);
+
+			for (int j = 0; j < n; j++) {
+				Assert.assertEquals(1, v1.get(j) + v2.get(j));
+			}
+		}
+	}
+
+	/**
+	 * Tests if identical parents produce identical offspring.
+	 */
+	@Test
+	public void testEvolveIdenticalParents() {
+		WSSX wssx = new WSSX(1.0);
+		AssignmentVariable variable = new AssignmentVariable(50, 5);
+		variable.randomize();
+
+		Solution[] offspring = wssx.evolve(new Solution[] {
+				createSolution(variable.toArray(), 5),
+				createSolution(variable.toArray(), 5) });
+
+		Assert.assertEquals(variable, offspring[0].getVariable(0));
+		Assert.assertEquals(variable, offspring[1].getVariable(0));
+	}
+
+	@Test(expected = FrameworkException.class)
+	public void testIncompatibleAssignments() {
+		new WSSX(1.0).evolve(new Solution[] {
+				createSolution(new int[] { 0, 1, 2 }, 3),
+				createSolution(new int[] { 0, 1 }, 3) });
+	}
+
+	/**
+	 * Tests if the parents remain unchanged during variation.
+	 */
+	@Test
+	public void testParentImmutability() {
+		WSSX wssx = new WSSX(1.0);
+
+		AssignmentVariable v1 = new AssignmentVariable(20, 4);
+		AssignmentVariable v2 = new AssignmentVariable(20, 4);
+
+		v1.randomize();
+		v2.randomize();
+
+		Solution[] parents = new Solution[] {
+				createSolution(v1.toArray(), 4),
+				createSolution(v2.toArray(), 4) };
+
+		ParentImmutabilityTest.test(parents, wssx);
+	}
+
+	/**
+	 * Tests if solutions encoded as one subset per task and as an assignment
+	 * produce the same offspring for the same seed.
+	 */
+	@Test
+	public void testSubsetAndAssignmentEquivalence() {
+		for (double probability : new double[] { 0.5, 1.0 }) {
+			WSSX wssx = new WSSX(probability);
+
+			for (int i = 0; i < TestThresholds.SAMPLES; i++) {
+				int n = PRNG.nextInt(1, 30);
+				int vms = PRNG.nextInt(1, 6);
+				AssignmentVariable v1 = new AssignmentVariable(n, vms);
+				AssignmentVariable v2 = new AssignmentVariable(n, vms);
+				v1.randomize();
+				v2.randomize();
+				long seed = PRNG.getRandom().nextLong();
+
+				PRNG.setSeed(seed);
+				Solution[] expected = wssx.evolve(new Solution[] {
+						createSolution(v1.toArray(), vms),
+						createSolution(v2.toArray(), vms) });
+
+				PRNG.setSeed(seed);
+				Solution[] actual = wssx.evolve(new Solution[] {
+						createSubsetSolution(v1.toArray(), vms),
+						createSubsetSolution(v2.toArray(), vms) });
+
+				for (int j = 0; j < 2; j++) {
+					int[] assignment = ((AssignmentVariable)expected[j].getVariable(0)).toArray();
+
+					for (int k = 0; k < n; k++) {
+						Assert.assertArrayEquals(new int[] { assignment[k] },
+								((Subset)actual[j].getVariable(k)).toArray());
+					}
+				}
+			}
+		}
+	}
+
+	private Solution createSubsetSolution(int[] assignment, int vms) {
+		Solution solution = new Solution(assignment.length, 0);
+
+		for (int i = 0; i < assignment.length; i++) {
+			Subset subset = new Subset(1, vms);
+			subset.fromArray(new int[] { assignment[i] });
+			solution.setVariable(i, subset);
+		}
+
+		return solution;
+	}
+
+	private Solution createSolution(int[] assignment, int vms) {
+		Solution solution = new Solution(1, 0);
+		solution.setVariable(0, new AssignmentVariable(assignment, vms));
+		return solution;
+	}
+
+}
@@ -0,0 +1,189 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.core.variable;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link AssignmentVariable} class.
+ */
+public class AssignmentVariableTest {
+
+	private AssignmentVariable variable;
+
+	@Before
+	public void setUp() {
+		variable = new AssignmentVariable(new int[] { 0, 2, 1, 2, 3 }, 4);
+	}
+
+	@After
+	public void tearDown() {
+		variable = null;
+	}
+
+	/**
+	 * Tests if the constructor assigns every item the value {@code 0}.
+	 */
+	@Test
+	public void testConstructor() {
+		AssignmentVariable variable = new AssignmentVariable(3, 4);
+
+		Assert.assertEquals(3, variable.size());
+		Assert.assertEquals(4, variable.getNumberOfValues());
+		Assert.assertArrayEquals(new int[] { 0, 0, 0 }, variable.toArray());
+	}
+
+	/**
+	 * Tests if the array constructor stores an independent copy of the array.
+	 */
+	@Test
+	public void testArrayConstructor() {
+		int[] array = new int[] { 3, 1, 2, 0 };
+		AssignmentVariable variable = new AssignmentVariable(array, 4);
+
+		Assert.assertArrayEquals(array, variable.toArray());
+
+		array[0] = 1;
+		Assert.assertEquals(3, variable.get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testArrayConstructorValueOutOfBounds() {
+		new AssignmentVariable(new int[] { 0, 4, 1 }, 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testArrayConstructorNegativeValue() {
+		new AssignmentVariable(new int[] { 0, -1, 1 }, 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNoValues() {
+		new AssignmentVariable(3, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFromArrayInvalidLength() {
+		variable.fromArray(new int[] { 0, 1, 2 });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetValueOutOfBounds() {
+		variable.set(0, 4);
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testSetIndexOutOfBounds() {
+		variable.set(5, 0);
+	}
+
+	/**
+	 * Tests if the {@link AssignmentVariable#set} and
+	 * {@link AssignmentVariable#get} methods agree.
+	 */
+	@Test
+	public void testSetGet() {
+		variable.set(1, 3);
+		Assert.assertEquals(3, variable.get(1));
+		Assert.assertEquals(3, variable.getAssignment()[1]);
+	}
+
+	/**
+	 * Tests if the {@link AssignmentVariable#swap} method exchanges the values
+	 * of the two items.
+	 */
+	@Test
+	public void testSwap() {
+		variable.swap(0, 4);
+		Assert.assertArrayEquals(new int[] { 3, 2, 1, 2, 0 },
+				variable.toArray());
+	}
+
+	/**
+	 * Tests if the {@link AssignmentVariable#equals} method works correctly.
+	 */
+	@Test
+	public void testEquals() {
+		Assert.assertFalse(variable.equals(null));
+		Assert.assertTrue(variable.equals(variable));
+		Assert.assertTrue(variable.equals(new AssignmentVariable(
+				new int[] { 0, 2, 1, 2, 3 }, 4)));
+		Assert.assertFalse(variable.equals(new AssignmentVariable(
+				new int[] { 0, 2, 1, 2, 3 }, 5)));
+		Assert.assertFalse(variable.equals(new AssignmentVariable(
+				new int[] { 0, 2, 1, 2, 2 }, 4)));
+		Assert.assertFalse(variable.equals(new AssignmentVariable(5, 4)));
+	}
+
+	/**
+	 * Tests to ensure the {@link AssignmentVariable#hashCode()} general
+	 * contract is upheld.
+	 */
+	@Test
+	public void testHashCode() {
+		Assert.assertEquals(variable.hashCode(), variable.hashCode());
+		Assert.assertEquals(variable.hashCode(), new AssignmentVariable(
+				new int[] { 0, 2, 1, 2, 3 }, 4).hashCode());
+	}
+
+	/**
+	 * Tests if the {@link AssignmentVariable#copy} method produces a copy
+	 * equal to but independent from the original.
+	 */
+	@Test
+	public void testCopy() {
+		AssignmentVariable copy = variable.copy();
+		Assert.assertTrue(copy.equals(variable));
+		Assert.assertNotSame(variable.getAssignment(), copy.getAssignment());
+
+		copy.set(0, 1);
+		Assert.assertFalse(copy.equals(variable));
+		Assert.assertEquals(0, variable.get(0));
+	}
+
+	/**
+	 * Tests if the {@link AssignmentVariable#randomize} method keeps every
+	 * value in bounds and uses every value.
+	 */
+	@Test
+	public void testRandomize() {
+		AssignmentVariable variable = new AssignmentVariable(1000, 4);
+		boolean[] used = new boolean[4];
+
+		variable.randomize();
+
+		for (int i = 0; i < variable.size(); i++) {
+			Assert.assertTrue(variable.get(i) >= 0);
+			Assert.assertTrue(variable.get(i) < 4);
+			used[variable.get(i)] = true;
+		}
+
+		for (boolean value : used) {
+			Assert.assertTrue(value);
+		}
+	}
+
+	@Test
+	public void testToString() {
+		Assert.assertEquals("[0, 2, 1, 2, 3]", variable.toString());
+	}
+
+}
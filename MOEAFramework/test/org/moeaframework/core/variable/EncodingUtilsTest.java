@@ -309,6 +309,15 @@ public class EncodingUtilsTest {
 				EncodingUtils.getPermutation(variable));
 	}
 	
+	@Test
+	public void testAssignmentEncoding() {
+		Variable variable = EncodingUtils.newAssignment(4, 3);
+		
+		EncodingUtils.setAssignment(variable, new int[] { 2, 0, 2, 1 });
+		Assert.assertArrayEquals(new int[] { 2, 0, 2, 1 },
+				EncodingUtils.getAssignment(variable));
+	}
+	
 	@Test
 	public void testSubsetEncoding() {
 		Variable variable = EncodingUtils.newSubset(5, 10);
@@ -0,0 +1,180 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.problem;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.moeaframework.core.Problem;
+import org.moeaframework.core.Settings;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.variable.AssignmentVariable;
+import org.moeaframework.core.variable.EncodingUtils;
+import org.moeaframework.core.variable.Grammar;
+import org.moeaframework.core.variable.RealVariable;
+
+/**
+ * Tests the {@link CachingProblem} class.
+ */
+public class CachingProblemTest {
+	
+	/**
+	 * Problem counting its evaluations, where the objective is the sum of the
+	 * decision variables.
+	 */
+	private static class CountingProblem extends AbstractProblem {
+		
+		private int numberOfEvaluations;
+		
+		public CountingProblem() {
+			super(2, 1, 1);
+		}
+
+		@Override
+		public void evaluate(Solution solution) {
+			numberOfEvaluations++;
+			
+			double sum = 0.0;
+			
+			if (solution.getVariable(0) instanceof AssignmentVariable) {
+				for (int value : EncodingUtils.getAssignment(
+						solution.getVariable(0))) {
+					sum += value;
+				}
+			} else if (solution.getVariable(0) instanceof RealVariable) {
+				sum = EncodingUtils.getReal(solution.getVariable(0));
+			}
+			
+			solution.setObjective(0, sum);
+			solution.setConstraint(0, -sum);
+		}
+
+		@Override
+		public Solution newSolution() {
+			Solution solution = new Solution(2, 1, 1);
+			solution.setVariable(0, new AssignmentVariable(10, 4));
+			solution.setVariable(1, new RealVariable(0.5, 0.0, 1.0));
+			return solution;
+		}
+		
+	}
+	
+	private Solution newSolution(Problem problem, int... assignment) {
+		Solution solution = problem.newSolution();
+		EncodingUtils.setAssignment(solution.getVariable(0),
+				Arrays.copyOf(assignment, 10));
+		return solution;
+	}
+	
+	@Test
+	public void testHit() {
+		CountingProblem problem = new CountingProblem();
+		CachingProblem cachingProblem = new CachingProblem(problem);
+		
+		Solution solution1 = newSolution(problem, 1, 2, 3);
+		Solution solution2 = solution1.copy();
+		
+		cachingProblem.evaluate(solution1);
+		cachingProblem.evaluate(solution2);
+		
+		Assert.assertEquals(1, problem.numberOfEvaluations);
+		Assert.assertEquals(1, cachingProblem.getHits());
+		Assert.assertEquals(1, cachingProblem.getMisses());
+		Assert.assertEquals(6.0, solution2.getObjective(0), Settings.EPS);
+		Assert.assertEquals(-6.0, solution2.getConstraint(0), Settings.EPS);
+	}
+	
+	@Test
+	public void testMiss() {
+		CountingProblem problem = new CountingProblem();
+		CachingProblem cachingProblem = new CachingProblem(problem);
+		
+		Solution solution1 = newSolution(problem, 1, 2, 3);
+		Solution solution2 = newSolution(problem, 1, 2, 0, 3);
+		Solution solution3 = solution1.copy();
+		EncodingUtils.setReal(solution3.getVariable(1), 0.25);
+		
+		cachingProblem.evaluate(solution1);
+		cachingProblem.evaluate(solution2);
+		cachingProblem.evaluate(solution3);
+		
+		Assert.assertEquals(3, problem.numberOfEvaluations);
+		Assert.assertEquals(0, cachingProblem.getHits());
+		Assert.assertEquals(3, cachingProblem.getMisses());
+		Assert.assertEquals(3, cachingProblem.size());
+	}
+	
+	@Test
+	public void testEviction() {
+		CountingProblem problem = new CountingProblem();
+		CachingProblem cachingProblem = new CachingProblem(problem, 2);
+		
+		cachingProblem.evaluate(newSolution(problem, 1));
+		cachingProblem.evaluate(newSolution(problem, 2));
+		cachingProblem.evaluate(newSolution(problem, 1));
+		cachingProblem.evaluate(newSolution(problem, 3));
+		
+		Assert.assertEquals(2, cachingProblem.size());
+		Assert.assertEquals(1, cachingProblem.getHits());
+		
+		// the least recently used solution was evicted
+		cachingProblem.evaluate(newSolution(problem, 1));
+		Assert.assertEquals(2, cachingProblem.getHits());
+		
+		cachingProblem.evaluate(newSolution(problem, 2));
+		Assert.assertEquals(2, cachingProblem.getHits());
+		Assert.assertEquals(4, problem.numberOfEvaluations);
+	}
+	
+	@Test
+	public void testUnsupportedVariable() {
+		CountingProblem problem = new CountingProblem();
+		CachingProblem cachingProblem = new CachingProblem(problem);
+		
+		Solution solution = newSolution(problem, 1);
+		solution.setVariable(1, new Grammar(4));
+		
+		cachingProblem.evaluate(solution);
+		cachingProblem.evaluate(solution.copy());
+		
+		Assert.assertEquals(2, problem.numberOfEvaluations);
+		Assert.assertEquals(0, cachingProblem.getHits());
+		Assert.assertEquals(0, cachingProblem.getMisses());
+	}
+	
+	@Test
+	public void testClear() {
+		CountingProblem problem = new CountingProblem();
+		CachingProblem cachingProblem = new CachingProblem(problem);
+		
+		cachingProblem.evaluate(newSolution(problem, 1));
+		cachingProblem.evaluate(newSolution(problem, 1));
+		cachingProblem.clear();
+		
+		Assert.assertEquals(0, cachingProblem.size());
+		Assert.assertEquals(0, cachingProblem.getHits());
+		Assert.assertEquals(0, cachingProblem.getMisses());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new CachingProblem(new CountingProblem(), 0);
+	}
+
+}
@@ -0,0 +1,189 @@
+/* Copyright 2009-2020 David Hadka
+ *
+ * This file is part of the MOEA Framework.
+ *
+ * The MOEA Framework is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * The MOEA Framework is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.moeaframework.problem.workflow;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.variable.EncodingUtils;
+import org.workflowsim.CondorVM;
+import org.workflowsim.Task;
+import org.workflowsim.WorkflowParser;
+import org.workflowsim.WorkflowPlanner;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the {@link WorkflowSimProblem} class: the compiled and the incremental
+ * evaluations must give exactly the objectives of the simulation of the task
+ * objects.
+ */
+public class WorkflowSimProblemTest extends WorkflowSimBasicExample1 {
+
+	private static final String DAX_PATH = "../WorkflowSim-1.0/config/dax/Montage_25.xml";
+
+	private static final int VMS = 5;
+
+	private static final int SOLUTIONS = 200;
+
+	private static List<Task> taskList;
+
+	private static List<CondorVM> vmList;
+
+	private static SimulationContext context;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Log.disable();
+		context = new SimulationContext();
+		context.call(() -> {
+			OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+			ClusteringParameters cp = new ClusteringParameters(0, 0,
+					ClusteringParameters.ClusteringMethod.NONE, null);
+			Parameters.init(VMS, DAX_PATH, null, null, op, cp,
+					Parameters.SchedulingAlgorithm.STATIC,
+					Parameters.PlanningAlgorithm.INVALID, null, 0);
+			ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			createDatacenter("Datacenter_0");
+			WorkflowPlanner planner = new WorkflowPlanner("planner_0", 1);
+			WorkflowParser parser = planner.getWorkflowParser();
+			parser.parse();
+			taskList = parser.getTaskList();
+			vmList = createVM(planner.getWorkflowEngine().getSchedulerId(0), VMS);
+			return null;
+		});
+		Assert.assertEquals(25, taskList.size());
+	}
+
+	/**
+	 * Creates a problem with the makespan, the total runtime and the cost as
+	 * objectives.
+	 */
+	private static WorkflowSimProblem createProblem() throws Exception {
+		return context.call(() -> new WorkflowSimProblem(taskList, vmList, 3));
+	}
+
+	private static Solution newSolution(WorkflowSimProblem problem, int[] assignment) {
+		Solution solution = problem.newSolution();
+		EncodingUtils.setAssignment(solution.getVariable(0), assignment);
+		return solution;
+	}
+
+	private static int[] randomAssignment(Random random) {
+		int[] assignment = new int[taskList.size()];
+		for (int i = 0; i < assignment.length; i++) {
+			assignment[i] = random.nextInt(VMS);
+		}
+		return assignment;
+	}
+
+	/**
+	 * Assigns another vm to the given number of distinct tasks.
+	 */
+	private static void mutate(Solution solution, int genes, Random random) {
+		int[] assignment = EncodingUtils.getAssignment(solution.getVariable(0));
+		boolean[] changed = new boolean[assignment.length];
+		for (int k = 0; k < genes; k++) {
+			int i;
+			do {
+				i = random.nextInt(assignment.length);
+			} while (changed[i]);
+			changed[i] = true;
+			assignment[i] = (assignment[i] + 1 + random.nextInt(VMS - 1)) % VMS;
+		}
+		EncodingUtils.setAssignment(solution.getVariable(0), assignment);
+	}
+
+	@Test
+	public void testCompiledMatchesTaskSimulation() throws Exception {
+		WorkflowSimProblem compiled = createProblem();
+		WorkflowSimProblem tasks = createProblem();
+		tasks.setCompiled(false);
+		Assert.assertTrue(compiled.isCompiled());
+
+		Random random = new Random(1);
+		for (int i = 0; i < SOLUTIONS; i++) {
+			int[] assignment = randomAssignment(random);
+			Solution expected = newSolution(tasks, assignment);
+			Solution actual = newSolution(compiled, assignment);
+			tasks.evaluate(expected);
+			compiled.evaluate(actual);
+
+			Assert.assertArrayEquals(expected.getObjectives(), actual.getObjectives(), 0.0);
+		}
+	}
+
+	@Test
+	public void testIncrementalMatchesFullEvaluation() throws Exception {
+		testIncremental(0.25);
+	}
+
+	@Test
+	public void testIncrementalWithoutLimitMatchesFullEvaluation() throws Exception {
+		// every offspring is replayed against its parent, whatever it changes
+		testIncremental(1.0);
+	}
+
+	/**
+	 * Evaluates chains of offspring, each one a mutation of one or several
+	 * genes of the previous one, incrementally and completely.
+	 */
+	private void testIncremental(double incrementalLimit) throws Exception {
+		WorkflowSimProblem incremental = createProblem();
+		incremental.setIncremental(true);
+		incremental.setIncrementalLimit(incrementalLimit);
+		WorkflowSimProblem full = createProblem();
+
+		Random random = new Random(2);
+		for (int chain = 0; chain < SOLUTIONS / 10; chain++) {
+			Solution solution = newSolution(incremental, randomAssignment(random));
+			incremental.evaluate(solution);
+
+			for (int i = 0; i < 10; i++) {
+				Solution offspring = solution.copy();
+				int genes = random.nextBoolean() ? 1 : 2 + random.nextInt(taskList.size() - 1);
+				mutate(offspring, genes, random);
+				incremental.evaluate(offspring);
+
+				Solution expected = newSolution(full,
+						EncodingUtils.getAssignment(offspring.getVariable(0)));
+				full.evaluate(expected);
+				Assert.assertArrayEquals(expected.getObjectives(), offspring.getObjectives(), 0.0);
+
+				// the parent keeps its own schedule
+				if (random.nextBoolean()) {
+					solution = offspring;
+				}
+			}
+		}
+	}
+
+}
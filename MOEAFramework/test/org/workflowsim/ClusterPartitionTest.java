@@ -0,0 +1,162 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.util.Calendar;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomAdaptor;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.moeaframework.core.PRNG;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.failure.FailureParameters;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the {@link ClusterPartition} class: a multi-cluster workflow run in
+ * parallel must finish every job at the same time as a sequential run.
+ */
+public class ClusterPartitionTest extends WorkflowSimBasicExample1 {
+
+	private static final String DAX_PATH = "../WorkflowSim-1.0/config/dax/Montage_1000.xml";
+
+	private static final int CLUSTERS = 4;
+
+	private static final int VMS = 5;
+
+	/** The finish time of each job of a sequential run, by job id. */
+	private static Map<Integer, Double> expected;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Log.disable();
+		expected = simulate(false);
+		// the 1000 tasks and the stage-in job
+		Assert.assertEquals(1001, expected.size());
+	}
+
+	/**
+	 * Creates the simulation of the workflow on several clusters, each a
+	 * datacenter with its own scheduler.
+	 */
+	private static WorkflowEngine createSimulation() throws Exception {
+		OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+		ClusteringParameters cp = new ClusteringParameters(0, 0,
+				ClusteringParameters.ClusteringMethod.NONE, null);
+		Parameters.init(VMS * CLUSTERS, DAX_PATH, null, null, op, cp,
+				Parameters.SchedulingAlgorithm.MINMIN,
+				Parameters.PlanningAlgorithm.INVALID, null, 0);
+		ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		WorkflowPlanner planner = new WorkflowPlanner("planner_0", CLUSTERS);
+		WorkflowEngine engine = planner.getWorkflowEngine();
+		for (int i = 0; i < CLUSTERS; i++) {
+			WorkflowDatacenter datacenter = createDatacenter("Datacenter_" + i);
+			engine.submitVmList(createVM(engine.getSchedulerId(i), VMS), i);
+			engine.bindSchedulerDatacenter(datacenter.getId(), i);
+		}
+		return engine;
+	}
+
+	/**
+	 * Runs the simulation in a context of its own.
+	 *
+	 * @return the finish time of each job, by job id
+	 */
+	private static Map<Integer, Double> simulate(boolean parallel) throws Exception {
+		SimulationContext context = new SimulationContext();
+		return context.call(() -> {
+			WorkflowEngine engine = createSimulation();
+			if (parallel) {
+				context.setParallelExecution(new ClusterPartition(engine), 0.0);
+			}
+			CloudSim.startSimulation();
+
+			Map<Integer, Double> finishTimes = new TreeMap<>();
+			for (Object job : engine.getJobsReceivedList()) {
+				finishTimes.put(((Job) job).getCloudletId(), ((Job) job).getFinishTime());
+			}
+			return finishTimes;
+		});
+	}
+
+	@Test
+	public void testParallelMatchesSequential() throws Exception {
+		Map<Integer, Double> finishTimes = simulate(true);
+		Assert.assertEquals(expected.keySet(), finishTimes.keySet());
+		Assert.assertEquals(expected, finishTimes);
+	}
+
+	@Test
+	public void testParallelWithThreadRandom() throws Exception {
+		PRNG.setThreadRandom(new RandomAdaptor(new MersenneTwister(1)));
+		try {
+			Assert.assertEquals(expected, simulate(true));
+		} finally {
+			PRNG.setThreadRandom(null);
+		}
+	}
+
+	@Test
+	public void testPartition() throws Exception {
+		new SimulationContext().call(() -> {
+			WorkflowEngine engine = createSimulation();
+			ClusterPartition partition = new ClusterPartition(engine);
+			Assert.assertEquals(0, partition.applyAsInt(engine));
+			for (int i = 0; i < CLUSTERS; i++) {
+				Assert.assertEquals(i + 1, partition.applyAsInt(engine.getScheduler(i)));
+			}
+			return null;
+		});
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFailuresAreRejected() throws Exception {
+		new SimulationContext().call(() -> {
+			WorkflowEngine engine = createSimulation();
+			FailureParameters.init(FailureParameters.FTCluteringAlgorithm.FTCLUSTERING_NOOP,
+					FailureParameters.FTCMonitor.MONITOR_ALL, FailureParameters.FTCFailure.FAILURE_ALL,
+					null);
+			return new ClusterPartition(engine);
+		});
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReclusteringIsRejectedWhenTheRunStarts() throws Exception {
+		SimulationContext context = new SimulationContext();
+		context.call(() -> {
+			WorkflowEngine engine = createSimulation();
+			context.setParallelExecution(new ClusterPartition(engine), 0.0);
+			FailureParameters.init(FailureParameters.FTCluteringAlgorithm.FTCLUSTERING_DR,
+					FailureParameters.FTCMonitor.MONITOR_NONE, FailureParameters.FTCFailure.FAILURE_NONE,
+					null);
+			CloudSim.startSimulation();
+			return null;
+		});
+	}
+
+}
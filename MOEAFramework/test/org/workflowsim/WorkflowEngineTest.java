@@ -0,0 +1,183 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomAdaptor;
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.moeaframework.core.PRNG;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.failure.FailureGenerator;
+import org.workflowsim.failure.FailureMonitor;
+import org.workflowsim.failure.FailureParameters;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.DistributionGenerator;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the order in which the {@link WorkflowEngine} submits and receives
+ * jobs, with and without failures. The expected sequences were recorded with
+ * the engine that scanned the whole job list for ready jobs, before the
+ * waiting-parent counters; they are compared by size and hash code.
+ */
+public class WorkflowEngineTest extends WorkflowSimBasicExample1 {
+
+	private static final int VMS = 10;
+
+	/** Most workflows we use have at most 11 levels. */
+	private static final int MAX_LEVEL = 11;
+
+	/**
+	 * The ids of the jobs of a run, in the order they were submitted and
+	 * received, and the number of failed jobs received.
+	 */
+	private static class Sequences {
+
+		private final List<Integer> submitted = new ArrayList<Integer>();
+
+		private final List<Integer> received = new ArrayList<Integer>();
+
+		private int failed;
+
+	}
+
+	@BeforeClass
+	public static void setUp() {
+		Log.disable();
+	}
+
+	/**
+	 * Runs a workflow with vertical clustering, which is deterministic, and
+	 * a seeded PRNG for the failures.
+	 *
+	 * @param dax the name of the DAX file
+	 * @param scale the scale of the Weibull distribution of the failures, or
+	 *        0 to disable them
+	 * @param failureCluster the failure-clustering mode
+	 * @return the job sequences of the run
+	 */
+	private static Sequences simulate(String dax, double scale,
+			FailureParameters.FTCFailureCluster failureCluster) throws Exception {
+		PRNG.setThreadRandom(new RandomAdaptor(new MersenneTwister(1)));
+		try {
+			return new SimulationContext().call(() -> {
+				if (scale > 0) {
+					DistributionGenerator[][] generators = new DistributionGenerator[VMS][MAX_LEVEL];
+					for (int vm = 0; vm < VMS; vm++) {
+						for (int level = 0; level < MAX_LEVEL; level++) {
+							generators[vm][level] = new DistributionGenerator(
+									DistributionGenerator.DistributionFamily.WEIBULL, scale, 1.0, 30, 300, 0.78);
+						}
+					}
+					FailureParameters.init(FailureParameters.FTCluteringAlgorithm.FTCLUSTERING_DR,
+							FailureParameters.FTCMonitor.MONITOR_ALL, FailureParameters.FTCFailure.FAILURE_ALL,
+							generators);
+					FailureParameters.setFTCFailureCluster(failureCluster);
+				}
+
+				OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+				ClusteringParameters cp = new ClusteringParameters(0, 0,
+						ClusteringParameters.ClusteringMethod.VERTICAL, null);
+				Parameters.init(VMS, "../WorkflowSim-1.0/config/dax/" + dax + ".xml", null, null, op, cp,
+						Parameters.SchedulingAlgorithm.MINMIN,
+						Parameters.PlanningAlgorithm.INVALID, null, 0);
+				ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+				FailureMonitor.init();
+				FailureGenerator.init();
+				CloudSim.init(1, Calendar.getInstance(), false);
+
+				WorkflowDatacenter datacenter = createDatacenter("Datacenter_0");
+				WorkflowPlanner planner = new WorkflowPlanner("planner_0", 1);
+				WorkflowEngine engine = planner.getWorkflowEngine();
+				engine.submitVmList(createVM(engine.getSchedulerId(0), VMS), 0);
+				engine.bindSchedulerDatacenter(datacenter.getId(), 0);
+				CloudSim.startSimulation();
+
+				Sequences sequences = new Sequences();
+				for (Object job : engine.getJobsSubmittedList()) {
+					sequences.submitted.add(((Job) job).getCloudletId());
+				}
+				for (Object job : engine.getJobsReceivedList()) {
+					sequences.received.add(((Job) job).getCloudletId());
+					if (((Job) job).getCloudletStatus() == Cloudlet.FAILED) {
+						sequences.failed++;
+					}
+				}
+				return sequences;
+			});
+		} finally {
+			PRNG.setThreadRandom(null);
+		}
+	}
+
+	private static void test(String dax, double scale,
+			FailureParameters.FTCFailureCluster failureCluster, int failed,
+			int submittedSize, int submittedHash, int receivedSize, int receivedHash) throws Exception {
+		Sequences sequences = simulate(dax, scale, failureCluster);
+		Assert.assertEquals(failed, sequences.failed);
+		Assert.assertEquals(submittedSize, sequences.submitted.size());
+		Assert.assertEquals(submittedHash, sequences.submitted.hashCode());
+		Assert.assertEquals(receivedSize, sequences.received.size());
+		Assert.assertEquals(receivedHash, sequences.received.hashCode());
+	}
+
+	@Test
+	public void testMontage() throws Exception {
+		test("Montage_100", 0, null, 0, 97, 2001029391, 97, 2080248529);
+	}
+
+	@Test
+	public void testMontageWithFailures() throws Exception {
+		test("Montage_100", 100, FailureParameters.FTCFailureCluster.FTCFailureCluster_NONE,
+				20, 117, 5498673, 117, -432407987);
+	}
+
+	@Test
+	public void testMontageWithStaticFailureClustering() throws Exception {
+		test("Montage_100", 100, FailureParameters.FTCFailureCluster.FTCFailureCluster_STATIC,
+				13, 102, 762152210, 102, 1886752294);
+	}
+
+	@Test
+	public void testCyberShake() throws Exception {
+		test("CyberShake_100", 0, null, 0, 101, 1526886107, 101, 1072848219);
+	}
+
+	@Test
+	public void testCyberShakeWithFailures() throws Exception {
+		test("CyberShake_100", 500, FailureParameters.FTCFailureCluster.FTCFailureCluster_NONE,
+				8, 109, 850136537, 109, -1571401045);
+	}
+
+	@Test
+	public void testCyberShakeWithStaticFailureClustering() throws Exception {
+		test("CyberShake_100", 500, FailureParameters.FTCFailureCluster.FTCFailureCluster_STATIC,
+				30, 124, 1273803081, 124, -2047761265);
+	}
+
+}
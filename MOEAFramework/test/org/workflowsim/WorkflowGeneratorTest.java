@@ -0,0 +1,199 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.moeaframework.TestUtils;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the {@link WorkflowGenerator} class: a workflow generated from the
+ * template of a family must be acyclic, have the levels and the proportions
+ * of job types of the template, and be parsed from its DAX file into the
+ * same tasks as when it is turned into tasks directly.
+ */
+public class WorkflowGeneratorTest {
+
+	private static final long SEED = 1;
+
+	/**
+	 * The largest difference allowed between the share of a job type in a
+	 * generated workflow and in its template.
+	 */
+	private static final double SHARE_TOLERANCE = 0.03;
+
+	@Before
+	public void setUp() {
+		Log.setOutput(new ByteArrayOutputStream());
+		Log.enable();
+	}
+
+	@After
+	public void tearDown() {
+		Log.setOutput(System.out);
+		Log.disable();
+	}
+
+	private static String getTemplatePath(WorkflowGenerator.Family family) {
+		return WorkflowParserTest.DAX_DIRECTORY + "/" + family.getTemplate();
+	}
+
+	/**
+	 * Parses a DAX file, or the workflow generated last by a generator, in a
+	 * simulation of its own.
+	 *
+	 * @param path the path to the DAX file
+	 * @param generator the generator, or null to parse the DAX file
+	 * @return the parser
+	 */
+	private static WorkflowParser parse(String path, WorkflowGenerator generator) throws Exception {
+		return new SimulationContext().call(() -> {
+			OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+			ClusteringParameters cp = new ClusteringParameters(0, 0,
+					ClusteringParameters.ClusteringMethod.NONE, null);
+			Parameters.init(1, path, null, null, op, cp,
+					Parameters.SchedulingAlgorithm.MINMIN,
+					Parameters.PlanningAlgorithm.INVALID, null, 0);
+			ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+
+			WorkflowParser parser = new WorkflowParser(0);
+			if (generator == null) {
+				parser.parse();
+			} else {
+				parser.parse(generator);
+			}
+			return parser;
+		});
+	}
+
+	/**
+	 * Describes the workflow generated last, as {@link WorkflowParserTest}
+	 * describes a parsed one.
+	 */
+	private static List<String> describe(WorkflowGenerator generator) throws Exception {
+		List<String> lines = WorkflowParserTest.describe(parse(null, generator));
+		lines.add("log=" + new String(((ByteArrayOutputStream) Log.getOutput()).toByteArray()));
+		((ByteArrayOutputStream) Log.getOutput()).reset();
+		return lines;
+	}
+
+	private static Map<String, Integer> countTypes(List<Task> tasks) {
+		Map<String, Integer> counts = new TreeMap<String, Integer>();
+		for (Task task : tasks) {
+			counts.merge(task.getType(), 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	private static int getLevels(List<Task> tasks) {
+		int levels = 0;
+		for (Task task : tasks) {
+			levels = Math.max(levels, task.getDepth());
+		}
+		return levels;
+	}
+
+	private static void testStructure(WorkflowGenerator.Family family, int jobs) throws Exception {
+		List<Task> template = parse(getTemplatePath(family), null).getTaskList();
+		WorkflowGenerator generator = new WorkflowGenerator(family, getTemplatePath(family));
+		int count = generator.generate(jobs, SEED);
+		String message = family + " " + jobs;
+		Assert.assertEquals(message, count, generator.getJobCount());
+		Assert.assertEquals(message, jobs, count, jobs * 0.01);
+
+		WorkflowParser parser = parse(null, generator);
+		List<Task> tasks = parser.getTaskList();
+		Assert.assertEquals(message, count, tasks.size());
+
+		// acyclic: every task is reached parents first, below its parents
+		Assert.assertEquals(message, count, parser.getTopologicalOrder().size());
+		for (Task task : tasks) {
+			for (Task parent : task.getParentList()) {
+				Assert.assertTrue(message, parent.getDepth() < task.getDepth());
+			}
+		}
+		Assert.assertEquals(message, getLevels(template), getLevels(tasks));
+
+		Map<String, Integer> expected = countTypes(template);
+		Map<String, Integer> actual = countTypes(tasks);
+		Assert.assertEquals(message, expected.keySet(), actual.keySet());
+		for (String type : expected.keySet()) {
+			Assert.assertEquals(message + " " + type,
+					(double) expected.get(type) / template.size(),
+					(double) actual.get(type) / tasks.size(), SHARE_TOLERANCE);
+		}
+	}
+
+	@Test
+	public void testStructure() throws Exception {
+		for (WorkflowGenerator.Family family : WorkflowGenerator.Family.values()) {
+			testStructure(family, 1000);
+			testStructure(family, 5000);
+		}
+	}
+
+	@Test
+	public void testWriteDax() throws Exception {
+		for (WorkflowGenerator.Family family : WorkflowGenerator.Family.values()) {
+			WorkflowGenerator generator = new WorkflowGenerator(family, getTemplatePath(family));
+			generator.generate(500, SEED);
+			File file = TestUtils.createTempFile();
+			generator.writeDax(file.getPath());
+
+			List<String> expected = describe(generator);
+			List<String> paths = Arrays.asList(file.getPath());
+			Assert.assertEquals(family.toString(), expected, WorkflowParserTest.parse(paths, true, 1));
+			Assert.assertEquals(family.toString(), expected, WorkflowParserTest.parse(paths, false, 1));
+		}
+	}
+
+	@Test
+	public void testSeed() throws Exception {
+		WorkflowGenerator generator = new WorkflowGenerator(WorkflowGenerator.Family.MONTAGE,
+				getTemplatePath(WorkflowGenerator.Family.MONTAGE));
+		File first = TestUtils.createTempFile();
+		File second = TestUtils.createTempFile();
+		File other = TestUtils.createTempFile();
+
+		generator.generate(300, SEED);
+		generator.writeDax(first.getPath());
+		generator.generate(300, SEED);
+		generator.writeDax(second.getPath());
+		generator.generate(300, SEED + 1);
+		generator.writeDax(other.getPath());
+
+		byte[] content = Files.readAllBytes(first.toPath());
+		Assert.assertArrayEquals(content, Files.readAllBytes(second.toPath()));
+		Assert.assertFalse(Arrays.equals(content, Files.readAllBytes(other.toPath())));
+	}
+
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Log;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.moeaframework.TestUtils;
+
+/**
+ * Tests the {@link WorkflowImage} class: a workflow loaded from its image
+ * must have the same tasks as a parsed one and log the same warnings, and an
+ * image that cannot be used must be replaced by parsing the DAX file again.
+ */
+public class WorkflowImageTest {
+
+	/** The messages logged during a test. */
+	private ByteArrayOutputStream log;
+
+	/** The directory of the images. */
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		log = new ByteArrayOutputStream();
+		Log.setOutput(log);
+		Log.enable();
+		directory = Files.createTempDirectory("images").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		Log.setOutput(System.out);
+		Log.disable();
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	private static byte[] digest(String path) throws IOException {
+		return WorkflowImage.digest(Files.readAllBytes(new File(path).toPath()));
+	}
+
+	/**
+	 * Gets the image file of a DAX file, named after the digest of its
+	 * content.
+	 */
+	private File getImageFile(String path) throws IOException {
+		StringBuilder name = new StringBuilder();
+		for (byte b : digest(path)) {
+			name.append(String.format("%02x", b));
+		}
+		return new File(directory, name.append(".image").toString());
+	}
+
+	/**
+	 * Identifies the file at a path, which changes when the file is
+	 * replaced.
+	 */
+	private static Object getFileKey(File file) throws IOException {
+		return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+	}
+
+	private List<String> parse(List<String> paths, int parallelism) throws Exception {
+		return WorkflowParserTest.parse(paths, true, parallelism, directory.getPath());
+	}
+
+	/**
+	 * Parses a DAX file, which writes its image, then loads it from its
+	 * image; both must give the tasks of a parse without images.
+	 */
+	private void testRoundTrip(String path) throws Exception {
+		List<String> paths = Arrays.asList(path);
+		List<String> expected = WorkflowParserTest.parse(paths, true, 1);
+
+		File image = getImageFile(path);
+		Assert.assertFalse(image.exists());
+		Assert.assertEquals(path, expected, parse(paths, 1));
+		Assert.assertNotNull(path, WorkflowImage.read(image, digest(path)));
+
+		Object key = getFileKey(image);
+		Assert.assertEquals(path, expected, parse(paths, 1));
+		// the image was loaded, not written again
+		Assert.assertEquals(path, key, getFileKey(image));
+	}
+
+	@Test
+	public void testEveryDax() throws Exception {
+		for (String path : WorkflowParserTest.getDaxPaths()) {
+			testRoundTrip(path);
+		}
+	}
+
+	@Test
+	public void testWarnings() throws Exception {
+		String path = TestUtils.createTempFile(WorkflowParserTest.INVALID_DAX).getPath();
+		testRoundTrip(path);
+
+		List<String> tasks = parse(Arrays.asList(path), 1);
+		String log = tasks.get(tasks.size() - 1);
+		Assert.assertTrue(log, log.contains("Cannot find runtime for ID0"));
+		Assert.assertTrue(log, log.contains("Size is negative"));
+	}
+
+	@Test
+	public void testMultipleDax() throws Exception {
+		List<String> paths = new ArrayList<String>(WorkflowParserTest.getDaxPaths());
+		paths.add(WorkflowParserTest.DAX_DIRECTORY + "/Montage_25.xml");
+		List<String> expected = WorkflowParserTest.parse(paths, true, 1);
+
+		// some images are written first, the others during the run
+		parse(paths.subList(0, 5), 1);
+		Assert.assertEquals(expected, parse(paths, 4));
+		Assert.assertEquals(expected, parse(paths, 4));
+		Assert.assertEquals(paths.size() - 1, directory.listFiles().length);
+	}
+
+	/**
+	 * Replaces the image of a DAX file with unusable content, which must not
+	 * be read, and checks that the DAX file is parsed and its image written
+	 * again.
+	 */
+	private void testFallback(String path, byte[] content) throws Exception {
+		List<String> paths = Arrays.asList(path);
+		List<String> expected = WorkflowParserTest.parse(paths, true, 1);
+		File image = getImageFile(path);
+		Files.write(image.toPath(), content);
+		Assert.assertNull(WorkflowImage.read(image, digest(path)));
+
+		Assert.assertEquals(expected, parse(paths, 1));
+		Assert.assertNotNull(WorkflowImage.read(image, digest(path)));
+		Assert.assertEquals(expected, parse(paths, 1));
+	}
+
+	@Test
+	public void testCorruptImage() throws Exception {
+		String path = WorkflowParserTest.DAX_DIRECTORY + "/Montage_50.xml";
+		parse(Arrays.asList(path), 1);
+		File image = getImageFile(path);
+		byte[] content = Files.readAllBytes(image.toPath());
+		int length = content.length;
+
+		// truncated images
+		for (int size : new int[] { 0, 3, 8, 20, length / 3, length / 2, length - 4, length - 1 }) {
+			testFallback(path, Arrays.copyOf(content, size));
+		}
+
+		// the header of another format
+		byte[] version = content.clone();
+		version[7]++;
+		testFallback(path, version);
+		byte[] magic = content.clone();
+		magic[0]++;
+		testFallback(path, magic);
+
+		// a count past the end of the image: the header is 12 bytes and the
+		// digest 16, then comes the number of strings
+		byte[] count = content.clone();
+		ByteBuffer.wrap(count).putInt(12 + 16, Integer.MAX_VALUE);
+		testFallback(path, count);
+		ByteBuffer.wrap(count).putInt(12 + 16, -1);
+		testFallback(path, count);
+
+		// a task that does not exist at the end of the order, which is only
+		// followed by the number of warnings, none for Montage
+		byte[] edge = content.clone();
+		ByteBuffer.wrap(edge).putInt(length - 8, 1000);
+		testFallback(path, edge);
+	}
+
+	@Test
+	public void testStaleImage() throws Exception {
+		String path = TestUtils.createTempFile(WorkflowParserTest.INVALID_DAX).getPath();
+		parse(Arrays.asList(path), 1);
+		File image = getImageFile(path);
+		byte[] content = Files.readAllBytes(image.toPath());
+
+		// the DAX file changed: its former image is not read for the new content
+		Files.write(new File(path).toPath(), WorkflowParserTest.INVALID_DAX.replace("2.5", "3.5").getBytes());
+		Assert.assertNull(WorkflowImage.read(image, digest(path)));
+		Assert.assertNotEquals(image, getImageFile(path));
+
+		// nor under the name of the new content
+		testFallback(path, content);
+		Assert.assertTrue(parse(Arrays.asList(path), 1).get(2).startsWith("3 b 3500 "));
+	}
+
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.moeaframework.TestUtils;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the {@link WorkflowParser} class: the StAX and jdom parsers must
+ * create the same tasks, with the same files, depths and dependencies, and
+ * log the same warnings.
+ */
+public class WorkflowParserTest {
+
+	static final String DAX_DIRECTORY = "../WorkflowSim-1.0/config/dax";
+
+	/**
+	 * A DAX file with a job without runtime, a file without size, a file with
+	 * a negative size and a file with an unknown link.
+	 */
+	static final String INVALID_DAX = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<adag xmlns=\"http://pegasus.isi.edu/schema/DAX\" version=\"3.3\">\n"
+			+ "  <job id=\"ID0\" name=\"a\">\n"
+			+ "    <uses name=\"in\" link=\"input\" size=\"10\"/>\n"
+			+ "    <uses name=\"out\" link=\"output\"/>\n"
+			+ "  </job>\n"
+			+ "  <job id=\"ID1\" name=\"b\" runtime=\"0.05\">\n"
+			+ "    <uses name=\"out\" link=\"input\" size=\"-5\"/>\n"
+			+ "    <uses name=\"log\" link=\"inout\" size=\"3\"/>\n"
+			+ "  </job>\n"
+			+ "  <job id=\"ID2\" name=\"b\" runtime=\"2.5\">\n"
+			+ "    <uses name=\"in\" link=\"input\" size=\"10\"/>\n"
+			+ "  </job>\n"
+			+ "  <child ref=\"ID1\">\n"
+			+ "    <parent ref=\"ID0\"/>\n"
+			+ "    <parent ref=\"ID9\"/>\n"
+			+ "  </child>\n"
+			+ "  <child ref=\"ID2\">\n"
+			+ "    <parent ref=\"ID0\"/>\n"
+			+ "    <parent ref=\"ID1\"/>\n"
+			+ "  </child>\n"
+			+ "</adag>\n";
+
+	/** The messages logged during a test. */
+	private ByteArrayOutputStream log;
+
+	@Before
+	public void setUp() {
+		log = new ByteArrayOutputStream();
+		Log.setOutput(log);
+		Log.enable();
+	}
+
+	@After
+	public void tearDown() {
+		Log.setOutput(System.out);
+		Log.disable();
+	}
+
+	/**
+	 * Describes the tasks of a parser, one line per task in task-list order,
+	 * then the topological order. A file is described with the first task
+	 * and use of the same file item, so that the sharing of input files
+	 * through the replica catalog is compared too.
+	 */
+	static List<String> describe(WorkflowParser parser) {
+		List<String> lines = new ArrayList<String>();
+		Map<FileItem, String> firstUses = new IdentityHashMap<FileItem, String>();
+		for (Task task : parser.getTaskList()) {
+			StringBuilder line = new StringBuilder();
+			line.append(task.getCloudletId()).append(' ').append(task.getType())
+					.append(' ').append(task.getCloudletLength())
+					.append(" depth=").append(task.getDepth()).append(" files=");
+			for (int i = 0; i < task.getFileList().size(); i++) {
+				FileItem file = task.getFileList().get(i);
+				String use = task.getCloudletId() + "/" + i;
+				firstUses.putIfAbsent(file, use);
+				line.append('[').append(file.getName()).append(' ').append(file.getSize())
+						.append(' ').append(file.getType()).append(' ').append(firstUses.get(file))
+						.append(']');
+			}
+			line.append(" required=").append(task.getRequiredFiles());
+			line.append(" parents=");
+			for (Task parent : task.getParentList()) {
+				line.append(parent.getCloudletId()).append(',');
+			}
+			line.append(" children=");
+			for (Task child : task.getChildList()) {
+				line.append(child.getCloudletId()).append(',');
+			}
+			lines.add(line.toString());
+		}
+		StringBuilder order = new StringBuilder("order=");
+		for (Task task : parser.getTopologicalOrder()) {
+			order.append(task.getCloudletId()).append(',');
+		}
+		lines.add(order.toString());
+		return lines;
+	}
+
+	/**
+	 * Parses one or more DAX files in a simulation of its own, and describes
+	 * the tasks followed by the messages logged.
+	 *
+	 * @param paths the paths to the DAX files
+	 * @param streaming whether the files are read with StAX
+	 * @param parallelism the number of files read at the same time
+	 * @return the description of the tasks and the log
+	 */
+	static List<String> parse(List<String> paths, boolean streaming, int parallelism) throws Exception {
+		return parse(paths, streaming, parallelism, null);
+	}
+
+	/**
+	 * Parses one or more DAX files in a simulation of its own, keeping their
+	 * images in a directory, and describes the tasks followed by the messages
+	 * logged.
+	 *
+	 * @param paths the paths to the DAX files
+	 * @param streaming whether the files are read with StAX
+	 * @param parallelism the number of files read at the same time
+	 * @param imageDirectory the directory of the images, or null
+	 * @return the description of the tasks and the log
+	 */
+	static List<String> parse(List<String> paths, boolean streaming, int parallelism,
+			String imageDirectory) throws Exception {
+		return new SimulationContext().call(() -> {
+			OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+			ClusteringParameters cp = new ClusteringParameters(0, 0,
+					ClusteringParameters.ClusteringMethod.NONE, null);
+			if (paths.size() == 1) {
+				Parameters.init(1, paths.get(0), null, null, op, cp,
+						Parameters.SchedulingAlgorithm.MINMIN,
+						Parameters.PlanningAlgorithm.INVALID, null, 0);
+			} else {
+				Parameters.init(1, paths, null, null, op, cp,
+						Parameters.SchedulingAlgorithm.MINMIN,
+						Parameters.PlanningAlgorithm.INVALID, null, 0);
+			}
+			ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+
+			WorkflowParser parser = new WorkflowParser(0);
+			parser.setImageDirectory(imageDirectory);
+			parser.setStreaming(streaming);
+			parser.setParallelism(parallelism);
+			parser.parse();
+
+			List<String> lines = describe(parser);
+			lines.add("log=" + new String(((ByteArrayOutputStream) Log.getOutput()).toByteArray()));
+			((ByteArrayOutputStream) Log.getOutput()).reset();
+			return lines;
+		});
+	}
+
+	static List<String> getDaxPaths() {
+		File[] files = new File(DAX_DIRECTORY).listFiles((directory, name) -> name.endsWith(".xml"));
+		Arrays.sort(files);
+		List<String> paths = new ArrayList<String>();
+		for (File file : files) {
+			paths.add(file.getPath());
+		}
+		Assert.assertFalse(paths.isEmpty());
+		return paths;
+	}
+
+	@Test
+	public void testEveryDax() throws Exception {
+		for (String path : getDaxPaths()) {
+			List<String> paths = Arrays.asList(path);
+			List<String> expected = parse(paths, false, 1);
+			Assert.assertTrue(path, expected.size() > 2);
+			Assert.assertEquals(path, expected, parse(paths, true, 1));
+		}
+	}
+
+	@Test
+	public void testMultipleDax() throws Exception {
+		// every workflow, with a few read twice so that files are shared between workflows
+		List<String> paths = new ArrayList<String>(getDaxPaths());
+		paths.add(DAX_DIRECTORY + "/Montage_25.xml");
+		paths.add(DAX_DIRECTORY + "/Inspiral_30.xml");
+
+		List<String> expected = parse(paths, false, 1);
+		Assert.assertEquals(expected, parse(paths, true, 1));
+		Assert.assertEquals(expected, parse(paths, true, 4));
+	}
+
+	@Test
+	public void testWarnings() throws Exception {
+		File file = TestUtils.createTempFile(INVALID_DAX);
+		List<String> paths = Arrays.asList(file.getPath(), file.getPath());
+
+		List<String> expected = parse(paths, false, 1);
+		Assert.assertEquals(expected, parse(paths, true, 2));
+
+		String log = expected.get(expected.size() - 1);
+		Assert.assertTrue(log, log.contains("Cannot find runtime for ID0"));
+		Assert.assertTrue(log, log.contains("File Size not found for out"));
+		Assert.assertTrue(log, log.contains("Size is negative"));
+		Assert.assertTrue(log, log.contains("Parsing Error"));
+	}
+
+}
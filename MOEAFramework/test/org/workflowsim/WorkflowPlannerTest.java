@@ -0,0 +1,171 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Tests the depths set by the {@link WorkflowParser} and the impact factors
+ * set by the {@link WorkflowPlanner} against the recursive computations they
+ * replaced, which visited every path from a root or to an exit task.
+ */
+public class WorkflowPlannerTest extends WorkflowSimBasicExample1 {
+
+	private static final String DAX_DIRECTORY = "../WorkflowSim-1.0/config/dax";
+
+	@BeforeClass
+	public static void setUp() {
+		Log.disable();
+	}
+
+	/**
+	 * Plans one or more workflows in a simulation of its own, and returns the
+	 * tasks planned.
+	 */
+	private static List<Task> plan(List<String> paths) throws Exception {
+		SimulationContext context = new SimulationContext();
+		WorkflowPlanner planner = context.call(() -> {
+			OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+			ClusteringParameters cp = new ClusteringParameters(0, 0,
+					ClusteringParameters.ClusteringMethod.NONE, null);
+			if (paths.size() == 1) {
+				Parameters.init(1, paths.get(0), null, null, op, cp,
+						Parameters.SchedulingAlgorithm.MINMIN,
+						Parameters.PlanningAlgorithm.INVALID, null, 0);
+			} else {
+				Parameters.init(1, paths, null, null, op, cp,
+						Parameters.SchedulingAlgorithm.MINMIN,
+						Parameters.PlanningAlgorithm.INVALID, null, 0);
+			}
+			ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			WorkflowDatacenter datacenter = createDatacenter("Datacenter_0");
+			WorkflowPlanner result = new WorkflowPlanner("planner_0", 1);
+			WorkflowEngine engine = result.getWorkflowEngine();
+			engine.submitVmList(createVM(engine.getSchedulerId(0), 1), 0);
+			engine.bindSchedulerDatacenter(datacenter.getId(), 0);
+			return result;
+		});
+
+		// the workflows are parsed and planned once the VMs are created
+		while (planner.getTaskList().isEmpty()) {
+			Assert.assertTrue(context.step());
+		}
+		return planner.getTaskList();
+	}
+
+	/**
+	 * The depth of a task and its descendants, as set from each root.
+	 */
+	private static void setDepth(Map<Task, Integer> depths, Task task, int depth) {
+		if (depth > depths.getOrDefault(task, 0)) {
+			depths.put(task, depth);
+		}
+		for (Task child : task.getChildList()) {
+			setDepth(depths, child, depths.get(task) + 1);
+		}
+	}
+
+	/**
+	 * The impact of a task and its ancestors, as pushed up from each exit
+	 * task.
+	 */
+	private static void addImpact(Map<Task, Double> impacts, Task task, double impact) {
+		impacts.put(task, impacts.getOrDefault(task, 0.0) + impact);
+		int size = task.getParentList().size();
+		if (size > 0) {
+			double avg = impact / size;
+			for (Task parent : task.getParentList()) {
+				addImpact(impacts, parent, avg);
+			}
+		}
+	}
+
+	private static void testDepthsAndImpacts(List<String> paths) throws Exception {
+		List<Task> tasks = plan(paths);
+
+		Map<Task, Integer> depths = new IdentityHashMap<Task, Integer>();
+		List<Task> exits = new ArrayList<Task>();
+		for (Task task : tasks) {
+			if (task.getParentList().isEmpty()) {
+				setDepth(depths, task, 1);
+			}
+			if (task.getChildList().isEmpty()) {
+				exits.add(task);
+			}
+		}
+		Map<Task, Double> impacts = new IdentityHashMap<Task, Double>();
+		for (Task task : exits) {
+			addImpact(impacts, task, 1.0 / exits.size());
+		}
+
+		double total = 0.0;
+		for (Task task : tasks) {
+			String message = paths + " task " + task.getCloudletId();
+			Assert.assertEquals(message, depths.get(task).intValue(), task.getDepth());
+			double impact = impacts.get(task);
+			Assert.assertEquals(message, impact, task.getImpact(), Math.abs(impact) * 1e-12);
+			if (task.getChildList().isEmpty()) {
+				total += task.getImpact();
+			}
+		}
+		Assert.assertEquals(1.0, total, 1e-12);
+	}
+
+	private static List<String> getDaxPaths() {
+		File[] files = new File(DAX_DIRECTORY).listFiles((directory, name) -> name.endsWith(".xml"));
+		Arrays.sort(files);
+		List<String> paths = new ArrayList<String>();
+		for (File file : files) {
+			paths.add(file.getPath());
+		}
+		return paths;
+	}
+
+	@Test
+	public void testEveryDax() throws Exception {
+		for (String path : getDaxPaths()) {
+			testDepthsAndImpacts(Arrays.asList(path));
+		}
+	}
+
+	@Test
+	public void testMultipleDax() throws Exception {
+		testDepthsAndImpacts(Arrays.asList(DAX_DIRECTORY + "/Montage_25.xml",
+				DAX_DIRECTORY + "/CyberShake_30.xml", DAX_DIRECTORY + "/Epigenomics_24.xml",
+				DAX_DIRECTORY + "/Inspiral_30.xml"));
+	}
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.replication;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cloudbus.cloudsim.Log;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ReplicationRunner} class, in particular the resumption of
+ * a sweep from its CSV output.
+ */
+public class ReplicationRunnerTest {
+
+	private static final String HEADER = "x,seed,makespan,cost,failures,retries,time\n";
+
+	/** The runs actually simulated, as "x/seed". */
+	private Set<String> calls;
+
+	private File output;
+
+	@Before
+	public void setUp() throws IOException {
+		Log.disable();
+		calls = ConcurrentHashMap.newKeySet();
+		output = File.createTempFile("sweep", ".csv");
+		output.deleteOnExit();
+	}
+
+	/**
+	 * A sweep over x = a, b with seeds 0 and 1, whose makespan encodes the run.
+	 */
+	private ReplicationRunner createRunner() {
+		return new ReplicationRunner((parameters, seed) -> {
+			String x = parameters.get("x");
+			calls.add(x + "/" + seed);
+			return new ReplicationResult(x.charAt(0) * 10 + seed, 1.0, 0, 0);
+		})
+				.withParameter("x", "a", "b")
+				.withReplications(2)
+				.withParallelism(2)
+				.withOutput(output);
+	}
+
+	private List<String> readLines() throws IOException {
+		return Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+	}
+
+	private static void assertResults(List<ReplicationResult> results) {
+		Assert.assertEquals(4, results.size());
+		int i = 0;
+		for (String x : new String[] { "a", "b" }) {
+			for (long seed = 0; seed < 2; seed++) {
+				ReplicationResult result = results.get(i++);
+				Assert.assertEquals(x, result.getParameters().get("x"));
+				Assert.assertEquals(seed, result.getSeed());
+			}
+		}
+	}
+
+	@Test
+	public void testNewOutput() throws IOException {
+		Assert.assertTrue(output.delete());
+		assertResults(createRunner().run());
+
+		Assert.assertEquals(4, calls.size());
+		List<String> lines = readLines();
+		Assert.assertEquals(5, lines.size());
+		Assert.assertEquals(HEADER.trim(), lines.get(0));
+
+		// a second run finds every row and simulates nothing
+		calls.clear();
+		List<ReplicationResult> results = createRunner().run();
+		assertResults(results);
+		Assert.assertTrue(calls.isEmpty());
+		Assert.assertEquals(lines, readLines());
+	}
+
+	@Test
+	public void testCompletedRowsAreSkipped() throws IOException {
+		Files.write(output.toPath(), (HEADER
+				+ "a,0,5.0,2.0,1,3,10\n"
+				+ "b,1,7.0,2.0,0,0,10\n").getBytes(StandardCharsets.UTF_8));
+
+		List<ReplicationResult> results = createRunner().run();
+		assertResults(results);
+		Assert.assertEquals(new HashSet<>(Arrays.asList("a/1", "b/0")), calls);
+
+		// the completed rows are loaded, not simulated again
+		Assert.assertEquals(5.0, results.get(0).getMakespan(), 0.0);
+		Assert.assertEquals(1, results.get(0).getFailures());
+		Assert.assertEquals(3, results.get(0).getRetries());
+		Assert.assertEquals(7.0, results.get(3).getMakespan(), 0.0);
+		Assert.assertEquals('a' * 10 + 1, results.get(1).getMakespan(), 0.0);
+
+		List<String> lines = readLines();
+		Assert.assertEquals(5, lines.size());
+		Assert.assertEquals("a,0,5.0,2.0,1,3,10", lines.get(1));
+		Assert.assertEquals("b,1,7.0,2.0,0,0,10", lines.get(2));
+	}
+
+	@Test
+	public void testTruncatedLastLineIsRunAgain() throws IOException {
+		Files.write(output.toPath(), (HEADER
+				+ "a,0,5.0,2.0,0,0,10\n"
+				+ "a,1,12").getBytes(StandardCharsets.UTF_8));
+
+		assertResults(createRunner().run());
+		Assert.assertEquals(new HashSet<>(Arrays.asList("a/1", "b/0", "b/1")), calls);
+
+		// the cut line is removed and the new rows start on lines of their own
+		List<String> lines = readLines();
+		Assert.assertEquals(5, lines.size());
+		for (String line : lines) {
+			Assert.assertEquals(7, line.split(",").length);
+			Assert.assertFalse(line.startsWith("a,1,12,"));
+		}
+		byte[] bytes = Files.readAllBytes(output.toPath());
+		Assert.assertEquals('\n', bytes[bytes.length - 1]);
+	}
+
+	@Test
+	public void testFailedRunsAreLeftOut() throws IOException {
+		ReplicationRunner runner = new ReplicationRunner((parameters, seed) -> {
+			calls.add(parameters.get("x") + "/" + seed);
+			if (seed == 1) {
+				throw new IllegalStateException("failure");
+			}
+			return parameters.get("x").equals("b") ? null : new ReplicationResult(1.0, 1.0, 0, 0);
+		})
+				.withParameter("x", "a", "b")
+				.withReplications(2)
+				.withOutput(output);
+
+		List<ReplicationResult> results = runner.run();
+		Assert.assertEquals(1, results.size());
+		Assert.assertEquals(4, calls.size());
+		Assert.assertEquals(2, readLines().size());
+
+		// the failed runs are run again when the sweep is resumed
+		calls.clear();
+		assertResults(createRunner().run());
+		Assert.assertEquals(new HashSet<>(Arrays.asList("a/1", "b/0", "b/1")), calls);
+	}
+
+	@Test(expected = IOException.class)
+	public void testOtherParametersAreRejected() throws IOException {
+		Files.write(output.toPath(), "y,seed,makespan,cost,failures,retries,time\n"
+				.getBytes(StandardCharsets.UTF_8));
+		createRunner().run();
+	}
+
+}
@@ -288,6 +288,8 @@ public class CloudSimExample8 {
 
 	public static class GlobalBroker extends SimEntity {
 
+		private static final long serialVersionUID = 1L;
+
 		private static final int CREATE_BROKER = 0;
 		private List<Vm> vmList;
 		private List<Cloudlet> cloudletList;
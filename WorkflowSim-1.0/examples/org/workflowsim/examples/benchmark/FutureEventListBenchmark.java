@@ -0,0 +1,164 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.examples.benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Calendar;
+import java.util.List;
+import java.util.function.Supplier;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.BinaryHeapFutureQueue;
+import org.cloudbus.cloudsim.core.CalendarFutureQueue;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.FutureEventList;
+import org.cloudbus.cloudsim.core.FutureQueue;
+import org.cloudbus.cloudsim.core.SimEventPool;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.workflowsim.CondorVM;
+import org.workflowsim.Job;
+import org.workflowsim.WorkflowDatacenter;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.WorkflowPlanner;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Compares the future event lists of the simulation kernel. It runs the
+ * workflow of WorkflowSimBasicExample1 with each of them and reports the time
+ * and the bytes allocated per run, along with the makespan, which must not
+ * depend on the event list. The default list is also run with recycled events,
+ * and once with a pool in debug mode to check that no event is used after it
+ * was released.
+ *
+ * Usage: FutureEventListBenchmark [daxPath] [iterations]
+ *
+ * @author Weiwei Chen
+ * @since WorkflowSim Toolkit 1.0
+ */
+public class FutureEventListBenchmark extends WorkflowSimBasicExample1 {
+
+    /**
+     * The number of runs before measuring.
+     */
+    private static final int WARMUP_ITERATIONS = 3;
+
+    public static void main(String[] args) {
+        String daxPath = args.length > 0 ? args[0] : "../WorkflowSim-1.0/config/dax/Montage_1000.xml";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        if (!new File(daxPath).exists()) {
+            Log.printLine("Warning: Please replace daxPath with the physical path in your working environment!");
+            return;
+        }
+        Log.disable();
+
+        System.out.println("Workflow: " + daxPath);
+        runWorkflow("FutureQueue", FutureQueue::new, daxPath, iterations, false);
+        runWorkflow("BinaryHeapFutureQueue", BinaryHeapFutureQueue::new, daxPath, iterations, false);
+        runWorkflow("CalendarFutureQueue", CalendarFutureQueue::new, daxPath, iterations, false);
+        runWorkflow("BinaryHeap + pool", BinaryHeapFutureQueue::new, daxPath, iterations, true);
+
+        SimEventPool debugPool = new SimEventPool(0, true);
+        double makespan = simulate(BinaryHeapFutureQueue::new, debugPool, daxPath);
+        System.out.printf("Debug pool: %s, makespan %.2f%n", debugPool, makespan);
+    }
+
+    /**
+     * Measures the simulation of a workflow with a future event list.
+     */
+    private static void runWorkflow(String name, Supplier<FutureEventList> factory,
+            String daxPath, int iterations, boolean pooled) {
+        double makespan = 0.0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            makespan = simulate(factory, pooled ? new SimEventPool() : null, daxPath);
+        }
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long startBytes = getAllocatedBytes(bean);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            makespan = simulate(factory, pooled ? new SimEventPool() : null, daxPath);
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+        long allocatedBytes = getAllocatedBytes(bean) - startBytes;
+
+        System.out.printf("%-22s %10.2f ms/run %14d bytes/run   makespan %.2f%n",
+                name,
+                elapsedTime / 1e6 / iterations,
+                startBytes < 0 ? -1 : allocatedBytes / iterations,
+                makespan);
+    }
+
+    /**
+     * Simulates the workflow on 20 VMs with MINMIN scheduling, in a context
+     * of its own.
+     *
+     * @param pool the pool recycling the events, or null
+     * @return the makespan
+     */
+    private static double simulate(Supplier<FutureEventList> factory, SimEventPool pool, String daxPath) {
+        SimulationContext context = new SimulationContext();
+        context.setFutureEventListFactory(factory);
+        context.setEventPool(pool);
+        try {
+            return context.call(() -> {
+                OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+                ClusteringParameters cp = new ClusteringParameters(0, 0, ClusteringParameters.ClusteringMethod.NONE, null);
+                Parameters.init(20, daxPath, null,
+                        null, op, cp, Parameters.SchedulingAlgorithm.MINMIN, Parameters.PlanningAlgorithm.INVALID,
+                        null, 0);
+                ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+                CloudSim.init(1, Calendar.getInstance(), false);
+
+                WorkflowDatacenter datacenter0 = createDatacenter("Datacenter_0");
+                WorkflowPlanner wfPlanner = new WorkflowPlanner("planner_0", 1);
+                WorkflowEngine wfEngine = wfPlanner.getWorkflowEngine();
+                List<CondorVM> vmlist0 = createVM(wfEngine.getSchedulerId(0), Parameters.getVmNum());
+                wfEngine.submitVmList(vmlist0, 0);
+                wfEngine.bindSchedulerDatacenter(datacenter0.getId(), 0);
+
+                CloudSim.startSimulation();
+                List<Job> outputList0 = wfEngine.getJobsReceivedList();
+                CloudSim.stopSimulation();
+
+                double makespan = 0.0;
+                for (Job job : outputList0) {
+                    makespan = Math.max(makespan, job.getFinishTime());
+                }
+                return makespan;
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread, or -1 if
+     * the JVM does not support measuring it.
+     */
+    private static long getAllocatedBytes(ThreadMXBean bean) {
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        } else {
+            return -1;
+        }
+    }
+}
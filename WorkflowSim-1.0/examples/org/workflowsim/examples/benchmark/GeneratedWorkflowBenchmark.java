@@ -0,0 +1,141 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.examples.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Calendar;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.workflowsim.CondorVM;
+import org.workflowsim.Job;
+import org.workflowsim.WorkflowDatacenter;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.WorkflowGenerator;
+import org.workflowsim.WorkflowPlanner;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Generates a large workflow of a family with WorkflowGenerator, writes it as
+ * a DAX file and simulates it twice: the first run parses the DAX file, the
+ * second one loads the binary image kept by the first in a temporary
+ * directory.
+ *
+ * Usage: GeneratedWorkflowBenchmark [family] [jobs] [vms] [daxDirectory]
+ *
+ * @author Weiwei Chen
+ * @since WorkflowSim Toolkit 1.0
+ */
+public class GeneratedWorkflowBenchmark extends WorkflowSimBasicExample1 {
+
+    public static void main(String[] args) {
+        WorkflowGenerator.Family family = args.length > 0
+                ? WorkflowGenerator.Family.valueOf(args[0].toUpperCase()) : WorkflowGenerator.Family.MONTAGE;
+        int jobs = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int vms = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        String daxDirectory = args.length > 3 ? args[3] : "../WorkflowSim-1.0/config/dax";
+        File template = new File(daxDirectory, family.getTemplate());
+        if (!template.exists()) {
+            Log.printLine("Warning: Please replace daxDirectory with the physical path in your working environment!");
+            return;
+        }
+        Log.disable();
+
+        File daxFile;
+        File imageDirectory;
+        try {
+            long startTime = System.nanoTime();
+            WorkflowGenerator generator = new WorkflowGenerator(family, template.getPath());
+            int generated = generator.generate(jobs, 0L);
+            daxFile = File.createTempFile(family.toString().toLowerCase() + "_" + generated + "_", ".xml");
+            daxFile.deleteOnExit();
+            generator.writeDax(daxFile.getPath());
+            imageDirectory = Files.createTempDirectory("workflowsim").toFile();
+            System.out.printf("Generated %d %s jobs in %.2f ms%n", generated, family, (System.nanoTime() - startTime) / 1e6);
+        } catch (IOException | XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try {
+            runWorkflow("Parsed", daxFile.getPath(), imageDirectory.getPath(), vms);
+            runWorkflow("Image", daxFile.getPath(), imageDirectory.getPath(), vms);
+        } finally {
+            for (File image : imageDirectory.listFiles()) {
+                image.delete();
+            }
+            imageDirectory.delete();
+        }
+    }
+
+    /**
+     * Measures the simulation of the workflow.
+     */
+    private static void runWorkflow(String name, String daxPath, String imageDirectory, int vms) {
+        long startTime = System.nanoTime();
+        double makespan = simulate(daxPath, imageDirectory, vms);
+        long elapsedTime = System.nanoTime() - startTime;
+        System.out.printf("%-12s %10.2f ms   makespan %.2f%n", name, elapsedTime / 1e6, makespan);
+    }
+
+    /**
+     * Simulates the workflow with FCFS scheduling, in a context of its own,
+     * keeping the image of the DAX file in the given directory.
+     *
+     * @return the makespan
+     */
+    private static double simulate(String daxPath, String imageDirectory, int vms) {
+        SimulationContext context = new SimulationContext();
+        try {
+            return context.call(() -> {
+                OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+                ClusteringParameters cp = new ClusteringParameters(0, 0, ClusteringParameters.ClusteringMethod.NONE, null);
+                Parameters.init(vms, daxPath, null,
+                        null, op, cp, Parameters.SchedulingAlgorithm.FCFS, Parameters.PlanningAlgorithm.INVALID,
+                        null, 0);
+                Parameters.setImageDirectory(imageDirectory);
+                ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+                CloudSim.init(1, Calendar.getInstance(), false);
+
+                WorkflowDatacenter datacenter = createDatacenter("Datacenter_0");
+                WorkflowPlanner wfPlanner = new WorkflowPlanner("planner_0", 1);
+                WorkflowEngine wfEngine = wfPlanner.getWorkflowEngine();
+                List<CondorVM> vmlist = createVM(wfEngine.getSchedulerId(0), vms);
+                wfEngine.submitVmList(vmlist, 0);
+                wfEngine.bindSchedulerDatacenter(datacenter.getId(), 0);
+
+                CloudSim.startSimulation();
+                List<Job> outputList = wfEngine.getJobsReceivedList();
+                CloudSim.stopSimulation();
+
+                double makespan = 0.0;
+                for (Job job : outputList) {
+                    makespan = Math.max(makespan, job.getFinishTime());
+                }
+                return makespan;
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.examples.benchmark;
+
+import java.io.File;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.workflowsim.ClusterPartition;
+import org.workflowsim.CondorVM;
+import org.workflowsim.Job;
+import org.workflowsim.WorkflowDatacenter;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.WorkflowPlanner;
+import org.workflowsim.examples.WorkflowSimBasicExample1;
+import org.workflowsim.utils.ClusteringParameters;
+import org.workflowsim.utils.OverheadParameters;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Compares the sequential and the parallel execution of a workflow on several
+ * clusters, each cluster being a datacenter with its own scheduler. The
+ * parallel run places each cluster in a logical process of its own with
+ * ClusterPartition, and must finish every job at the same time as the
+ * sequential run.
+ *
+ * Usage: ParallelClusterBenchmark [daxPath] [clusters] [iterations]
+ *
+ * @author Weiwei Chen
+ * @since WorkflowSim Toolkit 1.0
+ */
+public class ParallelClusterBenchmark extends WorkflowSimBasicExample1 {
+
+    /**
+     * The number of runs before measuring.
+     */
+    private static final int WARMUP_ITERATIONS = 2;
+
+    public static void main(String[] args) {
+        String daxPath = args.length > 0 ? args[0] : "../WorkflowSim-1.0/config/dax/Montage_1000.xml";
+        int clusters = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        if (!new File(daxPath).exists()) {
+            Log.printLine("Warning: Please replace daxPath with the physical path in your working environment!");
+            return;
+        }
+        Log.disable();
+
+        System.out.println("Workflow: " + daxPath + ", " + clusters + " clusters, "
+                + Runtime.getRuntime().availableProcessors() + " processors");
+        Map<Integer, Double> sequential = runWorkflow("Sequential", daxPath, clusters, iterations, false);
+        Map<Integer, Double> parallel = runWorkflow("Parallel", daxPath, clusters, iterations, true);
+        System.out.println(sequential.equals(parallel)
+                ? "The finish times of the " + sequential.size() + " jobs are identical"
+                : "The finish times differ");
+    }
+
+    /**
+     * Measures the simulation of the workflow.
+     */
+    private static Map<Integer, Double> runWorkflow(String name, String daxPath, int clusters,
+            int iterations, boolean parallel) {
+        Map<Integer, Double> finishTimes = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            simulate(daxPath, clusters, parallel);
+        }
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            finishTimes = simulate(daxPath, clusters, parallel);
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        double makespan = 0.0;
+        for (double finishTime : finishTimes.values()) {
+            makespan = Math.max(makespan, finishTime);
+        }
+        System.out.printf("%-12s %10.2f ms/run   makespan %.2f%n",
+                name, elapsedTime / 1e6 / iterations, makespan);
+        return finishTimes;
+    }
+
+    /**
+     * Simulates the workflow on 20 VMs per cluster with MINMIN scheduling, in
+     * a context of its own.
+     *
+     * @return the finish time of each job, by job id
+     */
+    private static Map<Integer, Double> simulate(String daxPath, int clusters, boolean parallel) {
+        SimulationContext context = new SimulationContext();
+        try {
+            return context.call(() -> {
+                OverheadParameters op = new OverheadParameters(0, null, null, null, null, 0);
+                ClusteringParameters cp = new ClusteringParameters(0, 0, ClusteringParameters.ClusteringMethod.NONE, null);
+                Parameters.init(20 * clusters, daxPath, null,
+                        null, op, cp, Parameters.SchedulingAlgorithm.MINMIN, Parameters.PlanningAlgorithm.INVALID,
+                        null, 0);
+                ReplicaCatalog.init(ReplicaCatalog.FileSystem.SHARED);
+                CloudSim.init(1, Calendar.getInstance(), false);
+
+                WorkflowPlanner wfPlanner = new WorkflowPlanner("planner_0", clusters);
+                WorkflowEngine wfEngine = wfPlanner.getWorkflowEngine();
+                for (int i = 0; i < clusters; i++) {
+                    WorkflowDatacenter datacenter = createDatacenter("Datacenter_" + i);
+                    List<CondorVM> vmlist = createVM(wfEngine.getSchedulerId(i), 20);
+                    wfEngine.submitVmList(vmlist, i);
+                    wfEngine.bindSchedulerDatacenter(datacenter.getId(), i);
+                }
+                if (parallel) {
+                    // the workflow engine talks to the schedulers without delay
+                    context.setParallelExecution(new ClusterPartition(wfEngine), 0.0);
+                }
+
+                CloudSim.startSimulation();
+                List<Job> outputList = wfEngine.getJobsReceivedList();
+                CloudSim.stopSimulation();
+
+                Map<Integer, Double> finishTimes = new TreeMap<>();
+                for (Job job : outputList) {
+                    finishTimes.put(job.getCloudletId(), job.getFinishTime());
+                }
+                return finishTimes;
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
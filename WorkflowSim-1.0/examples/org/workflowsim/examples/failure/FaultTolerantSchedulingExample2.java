@@ -22,9 +22,12 @@ import org.workflowsim.examples.WorkflowSimBasicExample1;
 import org.workflowsim.failure.FailureGenerator;
 import org.workflowsim.failure.FailureMonitor;
 import org.workflowsim.failure.FailureParameters;
+import org.workflowsim.replication.ReplicationResult;
+import org.workflowsim.replication.ReplicationRunner;
 import org.workflowsim.utils.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
@@ -42,16 +45,29 @@ public class FaultTolerantSchedulingExample2 extends WorkflowSimBasicExample1 {
     ////////////////////////// STATIC METHODS ///////////////////////
     public static void main(String[] args) {
 //        run();
-        List<List<Job>> outputList = new ArrayList<>();
+        // each replication runs in its own simulation context, on all cores
+        List<ReplicationResult> results;
+        try {
+            results = new ReplicationRunner((parameters, seed) -> {
+                List<Job> outputList0 = run();
+                if (outputList0 == null) {
+                    return null;
+                }
+                //the makespan is the finish time of the last job received
+                return ReplicationResult.of(outputList0,
+                        outputList0.get(outputList0.size() - 1).getFinishTime());
+            }).withReplications(1000).run();
+        } catch (IOException e) {
+            Log.printLine("The simulation has been terminated due to an unexpected error");
+            return;
+        }
         double timeSum = 0;
         List<Double> timeList = new ArrayList<>();
-        for(int i = 0; i < 1000; i++){
-            List<Job> outputList0 = run();
-            outputList.add(outputList0);
-            timeSum += outputList0.get(outputList0.size() - 1).getFinishTime();
-            timeList.add(outputList0.get(outputList0.size() - 1).getFinishTime());
+        for (ReplicationResult result : results) {
+            timeSum += result.getMakespan();
+            timeList.add(result.getMakespan());
         }
-        System.out.println(timeSum / 1000);
+        System.out.println(timeSum / timeList.size());
         for(double t: timeList){
             System.out.print(t + "\t");
         }
@@ -54,6 +54,21 @@ public class FaultTolerantClusteringExample5 extends FaultTolerantClusteringExam
      * and one storage
      */
     public static double main2(String[] args) {
+        List<Job> outputList0 = simulate(args);
+        if (outputList0 == null) {
+            return 0.0;
+        }
+        return printJobList2(outputList0);
+    }
+
+    /**
+     * Runs the simulation described by the arguments of main2()
+     *
+     * @param args the arguments of main2()
+     * @return the jobs received by the workflow engine, or null if the
+     * simulation could not run
+     */
+    public static List<Job> simulate(String[] args) {
 
         try {
             // First step: Initialize the WorkflowSim package. 
@@ -104,7 +119,7 @@ public class FaultTolerantClusteringExample5 extends FaultTolerantClusteringExam
             File daxFile = new File(daxPath);
             if (!daxFile.exists()) {
                 Log.printLine("Warning: Please replace daxPath with the physical path in your working environment!");
-                return 0.0;
+                return null;
             }
             /*
              *  Fault Tolerant Parameters
@@ -245,11 +260,11 @@ public class FaultTolerantClusteringExample5 extends FaultTolerantClusteringExam
             CloudSim.startSimulation();
             List<Job> outputList0 = wfEngine.getJobsReceivedList();
             CloudSim.stopSimulation();
-            return printJobList2(outputList0);
+            return outputList0;
         } catch (Exception e) {
             Log.printLine("The simulation has been terminated due to an unexpected error");
         }
-        return 0.0;
+        return null;
     }
 
     /**
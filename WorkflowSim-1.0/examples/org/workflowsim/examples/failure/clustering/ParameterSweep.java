@@ -17,57 +17,118 @@
  */
 package org.workflowsim.examples.failure.clustering;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.workflowsim.Job;
+import org.workflowsim.replication.ReplicationResult;
+import org.workflowsim.replication.ReplicationRunner;
+
 /**
+ * Sweeps the queue delay and failure parameters of
+ * FaultTolerantClusteringExample5, running 100 replications of every
+ * combination on all cores. The runs are streamed to ParameterSweep-p.csv,
+ * and an interrupted sweep resumes from that file.
  *
  * @author chenweiwei
  */
 public class ParameterSweep {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         String p = "10";
         if (args.length != 0) {
             p = args[0];
         }
 
         String clustering = "DR";
-        //Search for best
-        String result = "";
+        List<Object> q_scales = new ArrayList<>();
         for (double q_scale = 10; q_scale <= 100; q_scale += 10) {
-            for (double q_weight = 10; q_weight <= 10e4; q_weight *= 10) {
-                for (double q_shape = 2; q_shape <= 10; q_shape += 2) {
-                    for (double theta_weight = 10; theta_weight <= 10e4; theta_weight *= 10) {
-                        double makespan = execute100(p, q_scale, q_weight, q_shape, theta_weight, clustering);
-                        result += q_scale + " " + q_weight + " " + q_shape + " " + theta_weight + " " + makespan;
-                        result += "\n";
-                    }
-                }
+            q_scales.add(q_scale);
+        }
+        List<Object> weights = new ArrayList<>();
+        for (double weight = 10; weight <= 10e4; weight *= 10) {
+            weights.add(weight);
+        }
+        List<Object> q_shapes = new ArrayList<>();
+        for (double q_shape = 2; q_shape <= 10; q_shape += 2) {
+            q_shapes.add(q_shape);
+        }
+
+        String theta = p;
+        List<ReplicationResult> results = new ReplicationRunner((parameters, seed) -> {
+            List<Job> jobs = FaultTolerantClusteringExample5.simulate(getArgs(theta,
+                    Double.parseDouble(parameters.get("q_scale")),
+                    Double.parseDouble(parameters.get("q_weight")),
+                    Double.parseDouble(parameters.get("q_shape")),
+                    Double.parseDouble(parameters.get("theta_weight")), clustering));
+            return jobs == null ? null : ReplicationResult.of(jobs);
+        })
+                .withParameter("q_scale", q_scales.toArray())
+                .withParameter("q_weight", weights.toArray())
+                .withParameter("q_shape", q_shapes.toArray())
+                .withParameter("theta_weight", weights.toArray())
+                .withReplications(100)
+                .withOutput(new File("ParameterSweep-" + p + ".csv"))
+                .run();
+
+        //Search for best
+        Map<Map<String, String>, List<Double>> makespans = new LinkedHashMap<>();
+        for (ReplicationResult result : results) {
+            makespans.computeIfAbsent(result.getParameters(), key -> new ArrayList<>()).add(result.getMakespan());
+        }
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<Map<String, String>, List<Double>> entry : makespans.entrySet()) {
+            double sum = 0.0;
+            for (double makespan : entry.getValue()) {
+                sum += makespan;
             }
+            result.append(String.join(" ", entry.getKey().values()))
+                    .append(" ").append(sum / entry.getValue().size()).append("\n");
         }
         System.out.println(result);
     }
 
-    public static double execute(String p, double q_scale, double q_weight, double q_shape,
+    private static String[] getArgs(String p, double q_scale, double q_weight, double q_shape,
             double theta_weight, String clustering) {
         //String dax = "/Users/chenweiwei/Research/balanced_clustering/generator/BharathiPaper/Montage_300.xml";
         String dax = "/root/Montage_300.xml";
-        String[] args = {"-d", dax,
+        return new String[]{"-d", dax,
             "-q", Double.toString(q_scale),
             "-w", Double.toString(q_weight),
             "-s", Double.toString(q_shape),
             "-p", p,
             "-t", Double.toString(theta_weight),
             "-c", clustering};
-        return FaultTolerantClusteringExample5.main2(args);
+    }
+
+    public static double execute(String p, double q_scale, double q_weight, double q_shape,
+            double theta_weight, String clustering) {
+        return FaultTolerantClusteringExample5.main2(getArgs(p, q_scale, q_weight, q_shape, theta_weight, clustering));
     }
 
     public static double execute100(String p, double q_scale, double q_weight, double q_shape,
             double theta_weight, String clustering) {
         double sum = 0.0;
-        int n = 100;
-        for (int i = 0; i < n; i++) {
-            sum += execute(p, q_scale, q_weight, q_shape, theta_weight, clustering);
+        List<ReplicationResult> results;
+        try {
+            results = new ReplicationRunner((parameters, seed) -> {
+                List<Job> jobs = FaultTolerantClusteringExample5.simulate(getArgs(p, q_scale, q_weight, q_shape, theta_weight, clustering));
+                return jobs == null ? null : ReplicationResult.of(jobs);
+            }).withReplications(100).run();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        //failed runs are left out of the average
+        if (results.isEmpty()) {
+            throw new IllegalStateException("every replication failed");
+        }
+        for (ReplicationResult result : results) {
+            sum += result.getMakespan();
         }
-        sum /= n;
+        sum /= results.size();
         return sum;
     }
 }
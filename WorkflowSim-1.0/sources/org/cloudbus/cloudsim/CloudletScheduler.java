@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,7 +21,9 @@ import java.util.List;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 1.0
  */
-public abstract class CloudletScheduler {
+public abstract class CloudletScheduler implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The previous time. */
 	private double previousTime;
@@ -77,7 +80,48 @@ public abstract class CloudletScheduler {
 
 
 
-	public abstract double getCloudletCompleteTime(Cloudlet gl, Vm vm, double startTime, double fileTransferTime);
+	/**
+	 * Estimates the completion time of a cloudlet queued after the cloudlets already estimated on
+	 * this scheduler, and records it as the new delay time of this scheduler.
+	 * 
+	 * @param gl the cloudlet
+	 * @param vm the vm running the cloudlet
+	 * @param startTime the earliest time the cloudlet may start
+	 * @param fileTransferTime time required to move the required files to the vm
+	 * @return the estimated completion time of the cloudlet
+	 * @pre gl != null
+	 * @post $none
+	 */
+	public double getCloudletCompleteTime(Cloudlet gl, Vm vm, double startTime, double fileTransferTime) {
+		double completeTime = getCloudletCompleteTime(gl.getCloudletLength(), vm, startTime, getDelayTime(),
+				fileTransferTime);
+		setDelayTime(completeTime);
+		return completeTime;
+	}
+
+	/**
+	 * Estimates the completion time of a cloudlet without touching the state of this scheduler
+	 * nor the cloudlet itself. The time the vm becomes free is given by the caller instead of
+	 * being read from (and written back to) the delay time of this scheduler.
+	 * 
+	 * @param cloudletLength the length of the cloudlet (in MI)
+	 * @param vm the vm running the cloudlet
+	 * @param startTime the earliest time the cloudlet may start
+	 * @param readyTime the time the vm becomes free
+	 * @param fileTransferTime time required to move the required files to the vm
+	 * @return the estimated completion time of the cloudlet
+	 * @pre cloudletLength >= 0
+	 * @post $none
+	 */
+	public double getCloudletCompleteTime(long cloudletLength, Vm vm, double startTime, double readyTime,
+			double fileTransferTime) {
+		double capacity = vm.getMips();
+		long length = cloudletLength;
+		length += capacity * fileTransferTime;
+		double completeTime = length / capacity;
+		completeTime += Math.max(readyTime, startTime);
+		return completeTime;
+	}
 
 	/**
 	 * Cancels execution of a cloudlet.
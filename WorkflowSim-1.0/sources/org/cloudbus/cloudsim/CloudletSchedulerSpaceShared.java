@@ -26,6 +26,8 @@ import org.cloudbus.cloudsim.core.CloudSim;
  */
 public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The cloudlet waiting list. */
 	private List<? extends ResCloudlet> cloudletWaitingList;
 
@@ -416,37 +418,6 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		return cloudletList;
 	}
 
-	@Override
-	public double getCloudletCompleteTime(Cloudlet cloudlet, Vm vm, double startTime, double fileTransferTime) {
-		double delayTime = this.getDelayTime();
-		if(Double.compare(this.getDelayTime(), 0.0f) == 0){
-			delayTime = 0;
-		}
-
-		// calculate the expected time for cloudlet completion
-
-//		for (Double mips : getCurrentMipsShare()) {
-//			capacity += mips;
-//			if (mips > 0) {
-//				cpus++;
-//			}
-//		}
-
-//		currentCpus = cpus;
-//		capacity /= cpus;
-        double capacity = vm.getMips();
-
-		// use the current capacity to estimate the extra amount of
-		// time to file transferring. It must be added to the cloudlet length
-		double extraSize = capacity * fileTransferTime;
-		long length = cloudlet.getCloudletLength();
-		length += extraSize;
-		double completeTime = length / capacity;
-		completeTime += Math.max(delayTime, startTime);
-		setDelayTime(completeTime);
-		return completeTime;
-	}
-
 	/**
 	 * Gets the status of a cloudlet.
 	 * 
@@ -22,6 +22,8 @@ import org.cloudbus.cloudsim.core.CloudSim;
  */
 public class CloudletSchedulerTimeShared extends CloudletScheduler {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The cloudlet exec list. */
 	private List<? extends ResCloudlet> cloudletExecList;
 
@@ -327,16 +329,12 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	}
 
 	@Override
-	public double getCloudletCompleteTime(Cloudlet cloudlet, Vm vm, double startTime, double fileTransferTime) {
-
-		// use the current capacity to estimate the extra amount of
-		// time to file transferring. It must be added to the cloudlet length
+	public double getCloudletCompleteTime(long cloudletLength, Vm vm, double startTime, double readyTime,
+			double fileTransferTime) {
 		double extraSize = getCapacity(getCurrentMipsShare()) * fileTransferTime;
-		long length = (long) (cloudlet.getCloudletLength() + extraSize);
-		cloudlet.setCloudletLength(length);
-		double completedTime = cloudlet.getCloudletLength() / getCapacity(getCurrentMipsShare());
-		completedTime += Math.max(startTime, getDelayTime());
-		setDelayTime(completedTime);
+		long length = (long) (cloudletLength + extraSize);
+		double completedTime = length / getCapacity(getCurrentMipsShare());
+		completedTime += Math.max(startTime, readyTime);
 		return completedTime;
 	}
 
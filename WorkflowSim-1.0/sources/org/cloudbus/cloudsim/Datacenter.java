@@ -31,6 +31,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class Datacenter extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The characteristics. */
 	private DatacenterCharacteristics characteristics;
 
@@ -363,43 +365,27 @@ public class Datacenter extends SimEntity {
 		int status = -1;
 
 		try {
-			// if a sender using cloudletXXX() methods
-			int data[] = (int[]) ev.getData();
-			cloudletId = data[0];
-			userId = data[1];
-			vmId = data[2];
-
-			status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId).getCloudletScheduler()
-					.getCloudletStatus(cloudletId);
-		}
-
-		// if a sender using normal send() methods
-		catch (ClassCastException c) {
-			try {
+			if (ev.hasIntData()) {
+				// if a sender using cloudletXXX() methods
+				cloudletId = ev.getIntData(0);
+				userId = ev.getIntData(1);
+				vmId = ev.getIntData(2);
+			} else {
+				// if a sender using normal send() methods
 				Cloudlet cl = (Cloudlet) ev.getData();
 				cloudletId = cl.getCloudletId();
 				userId = cl.getUserId();
-
-				status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-						.getCloudletScheduler().getCloudletStatus(cloudletId);
-			} catch (Exception e) {
-				Log.printLine(getName() + ": Error in processing CloudSimTags.CLOUDLET_STATUS");
-				Log.printLine(e.getMessage());
-				return;
 			}
+
+			status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId).getCloudletScheduler()
+					.getCloudletStatus(cloudletId);
 		} catch (Exception e) {
 			Log.printLine(getName() + ": Error in processing CloudSimTags.CLOUDLET_STATUS");
 			Log.printLine(e.getMessage());
 			return;
 		}
 
-		int[] array = new int[3];
-		array[0] = getId();
-		array[1] = cloudletId;
-		array[2] = status;
-
-		int tag = CloudSimTags.CLOUDLET_STATUS;
-		sendNow(userId, tag, array);
+		sendNowInts(userId, CloudSimTags.CLOUDLET_STATUS, getId(), cloudletId, status);
 	}
 
 	/**
@@ -431,16 +417,8 @@ public class Datacenter extends SimEntity {
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-
-			if (result) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, data);
+			sendInts(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK,
+					getId(), vm.getId(), result ? CloudSimTags.TRUE : CloudSimTags.FALSE);
 		}
 
 		if (result) {
@@ -471,12 +449,8 @@ public class Datacenter extends SimEntity {
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-			data[2] = CloudSimTags.TRUE;
-
-			sendNow(vm.getUserId(), CloudSimTags.VM_DESTROY_ACK, data);
+			sendNowInts(vm.getUserId(), CloudSimTags.VM_DESTROY_ACK,
+					getId(), vm.getId(), CloudSimTags.TRUE);
 		}
 
 		getVmList().remove(vm);
@@ -511,16 +485,8 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = vm.getId();
-
-			if (result) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(ev.getSource(), CloudSimTags.VM_CREATE_ACK, data);
+			sendNowInts(ev.getSource(), CloudSimTags.VM_CREATE_ACK,
+					getId(), vm.getId(), result ? CloudSimTags.TRUE : CloudSimTags.FALSE);
 		}
 
 		Log.formatLine(
@@ -545,24 +511,16 @@ public class Datacenter extends SimEntity {
 		int userId = 0;
 		int vmId = 0;
 
-		try { // if the sender using cloudletXXX() methods
-			int data[] = (int[]) ev.getData();
-			cloudletId = data[0];
-			userId = data[1];
-			vmId = data[2];
-		}
-
-		// if the sender using normal send() methods
-		catch (ClassCastException c) {
-			try {
+		try {
+			if (ev.hasIntData()) { // if the sender using cloudletXXX() methods
+				cloudletId = ev.getIntData(0);
+				userId = ev.getIntData(1);
+				vmId = ev.getIntData(2);
+			} else { // if the sender using normal send() methods
 				Cloudlet cl = (Cloudlet) ev.getData();
 				cloudletId = cl.getCloudletId();
 				userId = cl.getUserId();
 				vmId = cl.getVmId();
-			} catch (Exception e) {
-				Log.printLine(super.getName() + ": Error in processing Cloudlet");
-				Log.printLine(e.getMessage());
-				return;
 			}
 		} catch (Exception e) {
 			Log.printLine(super.getName() + ": Error in processing a Cloudlet.");
@@ -626,11 +584,8 @@ public class Datacenter extends SimEntity {
 		} else {
 			// has the cloudlet already finished?
 			if (cl.getCloudletStatus() == Cloudlet.SUCCESS) {// if yes, send it back to user
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cloudletId;
-				data[2] = 0;
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
+				sendNowInts(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK,
+						getId(), cloudletId, 0);
 				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
 			}
 
@@ -655,15 +610,8 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (type == CloudSimTags.CLOUDLET_MOVE_ACK) {// send ACK if requested
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (failed) {
-				data[2] = 0;
-			} else {
-				data[2] = 1;
-			}
-			sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
+			sendNowInts(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK,
+					getId(), cloudletId, failed ? 0 : 1);
 		}
 	}
 
@@ -696,14 +644,10 @@ public class Datacenter extends SimEntity {
 				// Hence, this might cause CloudSim to be hanged since waiting
 				// for this Cloudlet back.
 				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
 					// unique tag = operation tag
 					int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-					sendNow(cl.getUserId(), tag, data);
+					sendNowInts(cl.getUserId(), tag,
+							getId(), cl.getCloudletId(), CloudSimTags.FALSE);
 				}
 
 				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
@@ -733,14 +677,9 @@ public class Datacenter extends SimEntity {
 			}
 
 			if (ack) {
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
-
 				// unique tag = operation tag
 				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-				sendNow(cl.getUserId(), tag, data);
+				sendNowInts(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.TRUE);
 			}
 		} catch (ClassCastException c) {
 			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
@@ -800,15 +739,8 @@ public class Datacenter extends SimEntity {
 		}
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (status) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(userId, CloudSimTags.CLOUDLET_RESUME_ACK, data);
+			sendNowInts(userId, CloudSimTags.CLOUDLET_RESUME_ACK,
+					getId(), cloudletId, status ? CloudSimTags.TRUE : CloudSimTags.FALSE);
 		}
 	}
 
@@ -827,15 +759,8 @@ public class Datacenter extends SimEntity {
 				.getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
-			int[] data = new int[3];
-			data[0] = getId();
-			data[1] = cloudletId;
-			if (status) {
-				data[2] = CloudSimTags.TRUE;
-			} else {
-				data[2] = CloudSimTags.FALSE;
-			}
-			sendNow(userId, CloudSimTags.CLOUDLET_PAUSE_ACK, data);
+			sendNowInts(userId, CloudSimTags.CLOUDLET_PAUSE_ACK,
+					getId(), cloudletId, status ? CloudSimTags.TRUE : CloudSimTags.FALSE);
 		}
 	}
 
@@ -31,6 +31,8 @@ import org.cloudbus.cloudsim.lists.VmList;
  */
 public class DatacenterBroker extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The vm list. */
 	protected List<? extends Vm> vmList;
 
@@ -216,10 +218,9 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processVmCreate(SimEvent ev) {
-		int[] data = (int[]) ev.getData();
-		int datacenterId = data[0];
-		int vmId = data[1];
-		int result = data[2];
+		int datacenterId = ev.getIntData(0);
+		int vmId = ev.getIntData(1);
+		int result = ev.getIntData(2);
 
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
+
 /**
  * A class for representing a physical file in a DataCloud environment
  * 
@@ -15,7 +17,9 @@ package org.cloudbus.cloudsim;
  * @author Anthony Sulistio
  * @since CloudSim Toolkit 1.0
  */
-public class File {
+public class File implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private String name;           // logical file name
 
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
 import java.util.Date;
 
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -19,7 +20,9 @@ import org.cloudbus.cloudsim.core.CloudSim;
  * @author Anthony Sulistio
  * @since CloudSim Toolkit 1.0
  */
-public class FileAttribute {
+public class FileAttribute implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private String name;           // logical file name
 
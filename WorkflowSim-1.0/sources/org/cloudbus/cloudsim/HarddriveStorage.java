@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -28,7 +29,9 @@ import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
  * @author Anthony Sulistio
  * @since CloudSim Toolkit 1.0
  */
-public class HarddriveStorage implements Storage {
+public class HarddriveStorage implements Storage, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** a list storing the names of all the files on the harddrive. */
 	private List<String> nameList;
@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.Serializable;
+
 /**
  * The UtilizationModelFull class is a simple model, according to which a Cloudlet always utilize
  * all the available CPU capacity.
@@ -15,7 +17,9 @@ package org.cloudbus.cloudsim;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
-public class UtilizationModelFull implements UtilizationModel {
+public class UtilizationModelFull implements UtilizationModel, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/*
 	 * (non-Javadoc)
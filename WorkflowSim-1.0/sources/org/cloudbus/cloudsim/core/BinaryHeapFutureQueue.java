@@ -0,0 +1,219 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A future event list backed by a binary heap. The time and the serial of every event are kept in
+ * primitive arrays parallel to the heap of events, so sifting compares them without reading the
+ * events, and adding or removing an event allocates nothing once the arrays are large enough.
+ *
+ * @see FutureEventList
+ */
+public class BinaryHeapFutureQueue implements FutureEventList, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The initial capacity of the heap. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The time of the event at each position of the heap. */
+	private double[] times = new double[INITIAL_CAPACITY];
+
+	/** The serial of the event at each position of the heap. */
+	private long[] serials = new long[INITIAL_CAPACITY];
+
+	/** The events of the heap. */
+	private SimEvent[] events = new SimEvent[INITIAL_CAPACITY];
+
+	/** The number of events in the heap. */
+	private int size = 0;
+
+	/** The serial of the next event added. */
+	private long serial = 0;
+
+	/** The serial of the next event added to the head, below the serials of the other events. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		offer(newEvent, serial++);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		offer(newEvent, firstSerial++);
+	}
+
+	@Override
+	public SimEvent peek() {
+		return size == 0 ? null : events[0];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		SimEvent first = events[0];
+		removeAt(0);
+		return first;
+	}
+
+	@Override
+	public SimEvent pollAt(double time) {
+		if (size == 0 || times[0] != time) {
+			return null;
+		}
+		return poll();
+	}
+
+	@Override
+	public SimEvent removeFirst(int src, Predicate p) {
+		int best = -1;
+		for (int i = 0; i < size; i++) {
+			SimEvent ev = events[i];
+			if (ev.getSource() == src && (best < 0 || less(times[i], serials[i], times[best], serials[best]))
+					&& p.match(ev)) {
+				best = i;
+			}
+		}
+		if (best < 0) {
+			return null;
+		}
+		SimEvent ev = events[best];
+		removeAt(best);
+		return ev;
+	}
+
+	@Override
+	public int removeAll(int src, Predicate p) {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			SimEvent ev = events[i];
+			if (ev.getSource() != src || !p.match(ev)) {
+				times[kept] = times[i];
+				serials[kept] = serials[i];
+				events[kept] = ev;
+				kept++;
+			}
+		}
+		int removed = size - kept;
+		if (removed > 0) {
+			Arrays.fill(events, kept, size, null);
+			size = kept;
+			for (int i = (size >>> 1) - 1; i >= 0; i--) {
+				siftDown(i, times[i], serials[i], events[i]);
+			}
+		}
+		return removed;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(events, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Adds an event to the heap.
+	 *
+	 * @param newEvent the event
+	 * @param key the serial given to the event
+	 */
+	private void offer(SimEvent newEvent, long key) {
+		newEvent.setSerial(key);
+		if (size == events.length) {
+			int capacity = events.length << 1;
+			times = Arrays.copyOf(times, capacity);
+			serials = Arrays.copyOf(serials, capacity);
+			events = Arrays.copyOf(events, capacity);
+		}
+		siftUp(size++, newEvent.eventTime(), key, newEvent);
+	}
+
+	/**
+	 * Removes the event at a position of the heap, replacing it with the last event.
+	 *
+	 * @param index the position
+	 */
+	private void removeAt(int index) {
+		int last = --size;
+		double time = times[last];
+		long key = serials[last];
+		SimEvent moved = events[last];
+		events[last] = null;
+		if (index != last) {
+			siftDown(index, time, key, moved);
+			if (events[index] == moved) {
+				siftUp(index, time, key, moved);
+			}
+		}
+	}
+
+	/**
+	 * Moves an event up from a position until its parent precedes it.
+	 */
+	private void siftUp(int index, double time, long key, SimEvent event) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (!less(time, key, times[parent], serials[parent])) {
+				break;
+			}
+			times[index] = times[parent];
+			serials[index] = serials[parent];
+			events[index] = events[parent];
+			index = parent;
+		}
+		times[index] = time;
+		serials[index] = key;
+		events[index] = event;
+	}
+
+	/**
+	 * Moves an event down from a position until it precedes its children.
+	 */
+	private void siftDown(int index, double time, long key, SimEvent event) {
+		int half = size >>> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			int right = child + 1;
+			if (right < size && less(times[right], serials[right], times[child], serials[child])) {
+				child = right;
+			}
+			if (!less(times[child], serials[child], time, key)) {
+				break;
+			}
+			times[index] = times[child];
+			serials[index] = serials[child];
+			events[index] = events[child];
+			index = child;
+		}
+		times[index] = time;
+		serials[index] = key;
+		events[index] = event;
+	}
+
+	/**
+	 * Returns whether an event precedes another one.
+	 */
+	private static boolean less(double time1, long serial1, double time2, long serial2) {
+		return time1 < time2 || (time1 == time2 && serial1 < serial2);
+	}
+
+}
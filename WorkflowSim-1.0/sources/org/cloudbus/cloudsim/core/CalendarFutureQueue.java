@@ -0,0 +1,360 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A future event list implemented as a calendar queue (R. Brown, "Calendar queues: a fast O(1)
+ * priority queue implementation for the simulation event set problem", CACM 31(10), 1988).
+ * <p>
+ * The time axis is cut into slots of equal width, and the slots are mapped in turn onto a ring of
+ * buckets, like the days of a year onto a calendar. Each bucket holds a list of its events sorted
+ * by time and serial, linked through the events themselves. The queue scans the buckets from the
+ * slot of the last event removed, so adding and removing an event takes constant time on average
+ * when the width matches the spacing of the events. The number of buckets follows the number of
+ * events, and the width is estimated again from the next events each time the ring is resized.
+ *
+ * @see FutureEventList
+ */
+public class CalendarFutureQueue implements FutureEventList, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The minimal number of buckets, a power of two. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The number of next events sampled to estimate the width of the slots. */
+	private static final int SAMPLE_SIZE = 25;
+
+	/** The first event of each bucket. */
+	private SimEvent[] heads = new SimEvent[MIN_BUCKETS];
+
+	/** The last event of each bucket. */
+	private SimEvent[] tails = new SimEvent[MIN_BUCKETS];
+
+	/** The number of buckets minus one. */
+	private int mask = MIN_BUCKETS - 1;
+
+	/** The width of a slot. */
+	private double width = 1.0;
+
+	/** The slot being scanned. No event of the queue belongs to an earlier slot. */
+	private long currentSlot = 0;
+
+	/** The number of events in the queue. */
+	private int size = 0;
+
+	/** The serial of the next event added. */
+	private long serial = 0;
+
+	/** The serial of the next event added to the head, below the serials of the other events. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/** The events removed while estimating the width. */
+	private final SimEvent[] sample = new SimEvent[SAMPLE_SIZE];
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		offer(newEvent, serial++);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		offer(newEvent, firstSerial++);
+	}
+
+	@Override
+	public SimEvent peek() {
+		return size == 0 ? null : heads[findBucket()];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		SimEvent first = unlinkHead(findBucket());
+		shrink();
+		return first;
+	}
+
+	@Override
+	public SimEvent pollAt(double time) {
+		if (size == 0) {
+			return null;
+		}
+		int bucket = findBucket();
+		if (heads[bucket].eventTime() != time) {
+			return null;
+		}
+		SimEvent first = unlinkHead(bucket);
+		shrink();
+		return first;
+	}
+
+	@Override
+	public SimEvent removeFirst(int src, Predicate p) {
+		SimEvent best = null;
+		SimEvent bestPrevious = null;
+		int bestBucket = -1;
+		for (int i = 0; i <= mask; i++) {
+			SimEvent previous = null;
+			for (SimEvent ev = heads[i]; ev != null; previous = ev, ev = ev.next) {
+				if (best != null && !precedes(ev, best)) {
+					break;
+				}
+				if (ev.getSource() == src && p.match(ev)) {
+					best = ev;
+					bestPrevious = previous;
+					bestBucket = i;
+					break;
+				}
+			}
+		}
+		if (best == null) {
+			return null;
+		}
+		unlink(bestBucket, bestPrevious, best);
+		shrink();
+		return best;
+	}
+
+	@Override
+	public int removeAll(int src, Predicate p) {
+		int removed = 0;
+		for (int i = 0; i <= mask; i++) {
+			SimEvent previous = null;
+			SimEvent ev = heads[i];
+			while (ev != null) {
+				SimEvent next = ev.next;
+				if (ev.getSource() == src && p.match(ev)) {
+					unlink(i, previous, ev);
+					removed++;
+				} else {
+					previous = ev;
+				}
+				ev = next;
+			}
+		}
+		shrink();
+		return removed;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i <= mask; i++) {
+			SimEvent ev = heads[i];
+			while (ev != null) {
+				SimEvent next = ev.next;
+				ev.next = null;
+				ev = next;
+			}
+		}
+		Arrays.fill(heads, null);
+		Arrays.fill(tails, null);
+		size = 0;
+	}
+
+	/**
+	 * Adds an event to the queue, doubling the number of buckets when there are more than two
+	 * events per bucket.
+	 *
+	 * @param newEvent the event
+	 * @param key the serial given to the event
+	 */
+	private void offer(SimEvent newEvent, long key) {
+		newEvent.setSerial(key);
+		long slot = slot(newEvent.eventTime());
+		if (size == 0 || slot < currentSlot) {
+			currentSlot = slot;
+		}
+		insert(newEvent, slot);
+		size++;
+		if (size > 2 * (mask + 1)) {
+			resize((mask + 1) << 1);
+		}
+	}
+
+	/**
+	 * Halves the number of buckets when there are less than half an event per bucket.
+	 */
+	private void shrink() {
+		if (mask + 1 > MIN_BUCKETS && size < (mask + 1) >> 1) {
+			resize((mask + 1) >> 1);
+		}
+	}
+
+	/**
+	 * Links an event into the bucket of its slot, after the events that precede it. Events are
+	 * mostly added after the other events of their bucket, which takes constant time.
+	 */
+	private void insert(SimEvent ev, long slot) {
+		int bucket = (int) (slot & mask);
+		SimEvent tail = tails[bucket];
+		ev.next = null;
+		if (tail == null) {
+			heads[bucket] = ev;
+			tails[bucket] = ev;
+		} else if (!precedes(ev, tail)) {
+			tail.next = ev;
+			tails[bucket] = ev;
+		} else {
+			SimEvent previous = null;
+			SimEvent current = heads[bucket];
+			while (!precedes(ev, current)) {
+				previous = current;
+				current = current.next;
+			}
+			ev.next = current;
+			if (previous == null) {
+				heads[bucket] = ev;
+			} else {
+				previous.next = ev;
+			}
+		}
+	}
+
+	/**
+	 * Returns the bucket holding the next event, moving the current slot to the slot of that
+	 * event. The queue must not be empty.
+	 */
+	private int findBucket() {
+		for (int n = 0; n <= mask; n++) {
+			int bucket = (int) (currentSlot & mask);
+			SimEvent head = heads[bucket];
+			if (head != null && slot(head.eventTime()) <= currentSlot) {
+				return bucket;
+			}
+			currentSlot++;
+		}
+
+		// no event within a whole turn of the calendar, so search the earliest one directly
+		int bucket = -1;
+		for (int i = 0; i <= mask; i++) {
+			if (heads[i] != null && (bucket < 0 || precedes(heads[i], heads[bucket]))) {
+				bucket = i;
+			}
+		}
+		currentSlot = slot(heads[bucket].eventTime());
+		return bucket;
+	}
+
+	/**
+	 * Removes the first event of a bucket.
+	 */
+	private SimEvent unlinkHead(int bucket) {
+		SimEvent first = heads[bucket];
+		unlink(bucket, null, first);
+		return first;
+	}
+
+	/**
+	 * Removes an event from a bucket, given the event preceding it in the bucket.
+	 */
+	private void unlink(int bucket, SimEvent previous, SimEvent ev) {
+		if (previous == null) {
+			heads[bucket] = ev.next;
+		} else {
+			previous.next = ev.next;
+		}
+		if (tails[bucket] == ev) {
+			tails[bucket] = previous;
+		}
+		ev.next = null;
+		size--;
+	}
+
+	/**
+	 * Changes the number of buckets, estimating the width again, and moves every event to its new
+	 * bucket.
+	 */
+	private void resize(int buckets) {
+		double newWidth = estimateWidth();
+		SimEvent[] oldHeads = heads;
+		heads = new SimEvent[buckets];
+		tails = new SimEvent[buckets];
+		mask = buckets - 1;
+		width = newWidth;
+
+		SimEvent first = null;
+		for (SimEvent head : oldHeads) {
+			SimEvent ev = head;
+			while (ev != null) {
+				SimEvent next = ev.next;
+				insert(ev, slot(ev.eventTime()));
+				if (first == null || precedes(ev, first)) {
+					first = ev;
+				}
+				ev = next;
+			}
+		}
+		if (first != null) {
+			currentSlot = slot(first.eventTime());
+		}
+	}
+
+	/**
+	 * Estimates the width of a slot as three times the average gap between the next events,
+	 * ignoring the gaps larger than twice the average. The width is kept when the next events
+	 * occur at the same time.
+	 */
+	private double estimateWidth() {
+		int count = Math.min(size, SAMPLE_SIZE);
+		if (count < 2) {
+			return width;
+		}
+		for (int i = 0; i < count; i++) {
+			sample[i] = unlinkHead(findBucket());
+		}
+		double average = (sample[count - 1].eventTime() - sample[0].eventTime()) / (count - 1);
+		double sum = 0.0;
+		int gaps = 0;
+		for (int i = 1; i < count; i++) {
+			double gap = sample[i].eventTime() - sample[i - 1].eventTime();
+			if (gap <= 2.0 * average) {
+				sum += gap;
+				gaps++;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			insert(sample[i], slot(sample[i].eventTime()));
+			sample[i] = null;
+		}
+		size += count;
+
+		double estimate = gaps == 0 ? 0.0 : 3.0 * sum / gaps;
+		return estimate > 0.0 ? estimate : width;
+	}
+
+	/**
+	 * Returns the slot of a time.
+	 */
+	private long slot(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * Returns whether an event precedes another one.
+	 */
+	private static boolean precedes(SimEvent ev1, SimEvent ev2) {
+		double time1 = ev1.eventTime();
+		double time2 = ev2.eventTime();
+		return time1 < time2 || (time1 == time2 && ev1.getSerial() < ev2.getSerial());
+	}
+
+}
@@ -30,6 +30,8 @@ import org.cloudbus.cloudsim.Log;
  */
 public class CloudInformationService extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	/** For all types of hostList. */
 	private final List<Integer> resList;
 
@@ -22,6 +22,8 @@ import java.util.Calendar;
  */
 public class CloudSimShutdown extends SimEntity {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The num user. */
 	private int numUser;
 
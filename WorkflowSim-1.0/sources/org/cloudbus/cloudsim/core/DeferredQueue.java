@@ -8,27 +8,39 @@
 
 package org.cloudbus.cloudsim.core;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateAny;
+import org.cloudbus.cloudsim.core.predicates.PredicateNone;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
+ * This class implements the deferred event queue used by {@link Simulation}. The events are kept in
+ * one mailbox per destination entity, indexed by the id of the entity, so an entity only looks at
+ * the events sent to it.
+ * <p>
+ * Each mailbox is a ring buffer holding its events in temporal order. An event selected from the
+ * middle of a mailbox leaves an empty slot behind, which is skipped once it reaches the head. Each
+ * mailbox also counts its events per tag and remembers, per tag, a position before which no event
+ * has that tag, so {@link PredicateAny} and {@link PredicateType} are answered without scanning the
+ * mailbox from its head. Other predicates are matched against each event in turn.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
  * @see SimEvent
  */
-public class DeferredQueue {
+public class DeferredQueue implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/** The mailbox of each destination entity. */
+	private Mailbox[] mailboxes = new Mailbox[16];
 
-	/** The max time. */
-	private double maxTime = -1;
+	/** The number of events in the queue. */
+	private int size = 0;
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
@@ -37,36 +49,87 @@ public class DeferredQueue {
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
-		// The event has to be inserted as the last of all events
-		// with the same event_time(). Yes, this matters.
-		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
-			list.add(newEvent);
-			maxTime = eventTime;
-			return;
-		}
-
-		ListIterator<SimEvent> iterator = list.listIterator();
-		SimEvent event;
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if (event.eventTime() > eventTime) {
-				iterator.previous();
-				iterator.add(newEvent);
-				return;
+		int dest = newEvent.getDestination();
+		if (dest >= mailboxes.length) {
+			mailboxes = Arrays.copyOf(mailboxes, Math.max(dest + 1, mailboxes.length << 1));
+		}
+		Mailbox mailbox = mailboxes[dest];
+		if (mailbox == null) {
+			mailbox = new Mailbox();
+			mailboxes[dest] = mailbox;
+		}
+		mailbox.add(newEvent);
+		size++;
+	}
+
+	/**
+	 * Counts the events sent to an entity that match a predicate.
+	 * 
+	 * @param dest the id of the destination entity
+	 * @param p the predicate
+	 * @return the number of matching events
+	 */
+	public int count(int dest, Predicate p) {
+		Mailbox mailbox = getMailbox(dest);
+		if (mailbox == null || p instanceof PredicateNone) {
+			return 0;
+		} else if (p instanceof PredicateAny) {
+			return mailbox.size;
+		} else if (p instanceof PredicateType) {
+			PredicateType type = (PredicateType) p;
+			int count = 0;
+			for (int i = 0; i < type.getNumberOfTags(); i++) {
+				if (!isRepeated(type, i)) {
+					count += mailbox.count(type.getTag(i));
+				}
 			}
+			return count;
 		}
 
-		list.add(newEvent);
+		int count = 0;
+		for (long pos = mailbox.head; pos < mailbox.tail; pos++) {
+			SimEvent ev = mailbox.get(pos);
+			if (ev != null && p.match(ev)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Removes the first event sent to an entity that matches a predicate.
+	 * 
+	 * @param dest the id of the destination entity
+	 * @param p the predicate
+	 * @return the removed event, or <code>null</code> if no event matches
+	 */
+	public SimEvent select(int dest, Predicate p) {
+		Mailbox mailbox = getMailbox(dest);
+		if (mailbox == null) {
+			return null;
+		}
+		long pos = find(mailbox, p);
+		if (pos < 0) {
+			return null;
+		}
+		size--;
+		return mailbox.remove(pos);
 	}
 
 	/**
-	 * Returns an iterator to the events in the queue.
+	 * Returns the first event sent to an entity that matches a predicate, without removing it.
 	 * 
-	 * @return the iterator
+	 * @param dest the id of the destination entity
+	 * @param p the predicate
+	 * @return the event, or <code>null</code> if no event matches
 	 */
-	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+	public SimEvent findFirst(int dest, Predicate p) {
+		Mailbox mailbox = getMailbox(dest);
+		if (mailbox == null) {
+			return null;
+		}
+		long pos = find(mailbox, p);
+		return pos < 0 ? null : mailbox.get(pos);
 	}
 
 	/**
@@ -75,14 +138,218 @@ public class DeferredQueue {
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
-		return list.size();
+		return size;
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		Arrays.fill(mailboxes, null);
+		size = 0;
+	}
+
+	private Mailbox getMailbox(int dest) {
+		return dest >= 0 && dest < mailboxes.length ? mailboxes[dest] : null;
+	}
+
+	/**
+	 * Returns the position of the first event of a mailbox matching a predicate, or -1.
+	 */
+	private static long find(Mailbox mailbox, Predicate p) {
+		if (mailbox.size == 0 || p instanceof PredicateNone) {
+			return -1;
+		} else if (p instanceof PredicateAny) {
+			return mailbox.head;
+		} else if (p instanceof PredicateType) {
+			PredicateType type = (PredicateType) p;
+			long first = -1;
+			for (int i = 0; i < type.getNumberOfTags(); i++) {
+				long pos = mailbox.find(type.getTag(i));
+				if (pos >= 0 && (first < 0 || pos < first)) {
+					first = pos;
+				}
+			}
+			return first;
+		}
+
+		for (long pos = mailbox.head; pos < mailbox.tail; pos++) {
+			SimEvent ev = mailbox.get(pos);
+			if (ev != null && p.match(ev)) {
+				return pos;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns whether a tag of a predicate appears earlier in the predicate.
+	 */
+	private static boolean isRepeated(PredicateType type, int index) {
+		for (int i = 0; i < index; i++) {
+			if (type.getTag(i) == type.getTag(index)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The events sent to one entity. Positions grow from the first event ever added, and the event
+	 * at a position is kept in the slot given by the low bits of the position.
+	 */
+	private static final class Mailbox implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The slots of the ring buffer, empty slots being <code>null</code>. */
+		private SimEvent[] events = new SimEvent[16];
+
+		/** The position of the first event. */
+		private long head = 0;
+
+		/** The position following the last event. */
+		private long tail = 0;
+
+		/** The number of events, not counting the empty slots. */
+		private int size = 0;
+
+		/** The time of the last event. */
+		private double maxTime = -1;
+
+		/** The tags seen by this mailbox. */
+		private int[] tags = new int[4];
+
+		/** The number of events with each tag. */
+		private int[] counts = new int[4];
+
+		/** For each tag, a position before which no event has the tag. */
+		private long[] cursors = new long[4];
+
+		/** The number of tags seen by this mailbox. */
+		private int tagCount = 0;
+
+		SimEvent get(long pos) {
+			return events[(int) pos & (events.length - 1)];
+		}
+
+		void add(SimEvent newEvent) {
+			if (tail - head == events.length) {
+				resize();
+			}
+			int tag = indexOf(newEvent.getTag());
+			counts[tag]++;
+			size++;
+
+			// The event has to be inserted as the last of all events
+			// with the same event_time(). Yes, this matters.
+			double eventTime = newEvent.eventTime();
+			if (eventTime >= maxTime) {
+				events[(int) tail & (events.length - 1)] = newEvent;
+				tail++;
+				maxTime = eventTime;
+				return;
+			}
+
+			long pos = tail;
+			while (pos > head && (get(pos - 1) == null || get(pos - 1).eventTime() > eventTime)) {
+				events[(int) pos & (events.length - 1)] = get(pos - 1);
+				pos--;
+			}
+			events[(int) pos & (events.length - 1)] = newEvent;
+			tail++;
+			Arrays.fill(cursors, 0, tagCount, head);
+		}
+
+		SimEvent remove(long pos) {
+			int slot = (int) pos & (events.length - 1);
+			SimEvent ev = events[slot];
+			events[slot] = null;
+			counts[indexOf(ev.getTag())]--;
+			size--;
+			while (head < tail && get(head) == null) {
+				head++;
+			}
+			if (size == 0) {
+				maxTime = -1;
+			}
+			return ev;
+		}
+
+		int count(int tag) {
+			for (int i = 0; i < tagCount; i++) {
+				if (tags[i] == tag) {
+					return counts[i];
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * Returns the position of the first event with a tag, or -1, starting from the cursor of
+		 * the tag.
+		 */
+		long find(int tag) {
+			for (int i = 0; i < tagCount; i++) {
+				if (tags[i] == tag) {
+					if (counts[i] == 0) {
+						return -1;
+					}
+					long pos = Math.max(cursors[i], head);
+					while (pos < tail) {
+						SimEvent ev = get(pos);
+						if (ev != null && ev.getTag() == tag) {
+							break;
+						}
+						pos++;
+					}
+					cursors[i] = pos;
+					return pos;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Returns the index of a tag, adding the tag if it was not seen yet.
+		 */
+		private int indexOf(int tag) {
+			for (int i = 0; i < tagCount; i++) {
+				if (tags[i] == tag) {
+					return i;
+				}
+			}
+			if (tagCount == tags.length) {
+				tags = Arrays.copyOf(tags, tagCount << 1);
+				counts = Arrays.copyOf(counts, tagCount << 1);
+				cursors = Arrays.copyOf(cursors, tagCount << 1);
+			}
+			tags[tagCount] = tag;
+			counts[tagCount] = 0;
+			cursors[tagCount] = head;
+			return tagCount++;
+		}
+
+		/**
+		 * Makes room for one more event: the empty slots are dropped if they fill half of the
+		 * buffer, otherwise the buffer doubles.
+		 */
+		private void resize() {
+			int capacity = size > events.length >> 1 ? events.length << 1 : events.length;
+			SimEvent[] resized = new SimEvent[capacity];
+			long pos = head;
+			for (long i = head; i < tail; i++) {
+				SimEvent ev = get(i);
+				if (ev != null) {
+					resized[(int) pos & (capacity - 1)] = ev;
+					pos++;
+				}
+			}
+			events = resized;
+			tail = pos;
+			Arrays.fill(cursors, 0, tagCount, head);
+		}
+
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * The future event list of a simulation. Events leave the list in the order of their time, and
+ * events of a same time leave it in the order they were added, except that the events added with
+ * {@link #addEventFirst(SimEvent)} leave before the other events of their time.
+ * <p>
+ * The implementation used by a simulation is chosen with
+ * {@link SimulationContext#setFutureEventListFactory(java.util.function.Supplier)}.
+ *
+ * @see FutureQueue
+ * @see BinaryHeapFutureQueue
+ * @see CalendarFutureQueue
+ */
+public interface FutureEventList {
+
+	/**
+	 * Adds a new event to the list, after the events of the same time already in the list.
+	 *
+	 * @param newEvent the event to be put in the list
+	 */
+	void addEvent(SimEvent newEvent);
+
+	/**
+	 * Adds a new event to the list, before the events of the same time added with
+	 * {@link #addEvent(SimEvent)} but after those of the same time added with this method.
+	 *
+	 * @param newEvent the event to be put in the list
+	 */
+	void addEventFirst(SimEvent newEvent);
+
+	/**
+	 * Returns the next event without removing it.
+	 *
+	 * @return the next event, or <code>null</code> if the list is empty
+	 */
+	SimEvent peek();
+
+	/**
+	 * Removes the next event.
+	 *
+	 * @return the next event, or <code>null</code> if the list is empty
+	 */
+	SimEvent poll();
+
+	/**
+	 * Removes the next event if it occurs at the given time. Calling this method until it returns
+	 * <code>null</code> drains the events of a same time one by one.
+	 *
+	 * @param time the time
+	 * @return the next event, or <code>null</code> if the list is empty or the next event occurs
+	 *         at another time
+	 */
+	SimEvent pollAt(double time);
+
+	/**
+	 * Removes the first event, in the order of the list, scheduled by the given entity and
+	 * matching the predicate.
+	 *
+	 * @param src the id of the entity that scheduled the event
+	 * @param p the predicate
+	 * @return the removed event, or <code>null</code> if no event matches
+	 */
+	SimEvent removeFirst(int src, Predicate p);
+
+	/**
+	 * Removes all the events scheduled by the given entity and matching the predicate.
+	 *
+	 * @param src the id of the entity that scheduled the events
+	 * @param p the predicate
+	 * @return the number of removed events
+	 */
+	int removeAll(int src, Predicate p);
+
+	/**
+	 * Returns the number of events in the list.
+	 *
+	 * @return the size
+	 */
+	int size();
+
+	/**
+	 * Removes all the events from the list.
+	 */
+	void clear();
+
+}
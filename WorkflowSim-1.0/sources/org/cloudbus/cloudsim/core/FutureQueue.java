@@ -8,21 +8,29 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
 /**
  * This class implements the future event queue used by {@link Simulation}. The event queue uses a
  * {@link TreeSet} in order to store the events.
+ * <p>
+ * Each operation rebalances the tree and allocates a node, so {@link BinaryHeapFutureQueue} or
+ * {@link CalendarFutureQueue} are faster on large simulations.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
  * @see java.util.TreeSet
  */
-public class FutureQueue {
+public class FutureQueue implements FutureEventList, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The sorted set. */
 	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
@@ -30,27 +38,83 @@ public class FutureQueue {
 	/** The serial. */
 	private long serial = 0;
 
+	/** The serial of the events added to the head, below the serials of the other events. */
+	private long firstSerial = Long.MIN_VALUE;
+
 	/**
 	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
 	 * the events in the queue.
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEvent(SimEvent newEvent) {
 		newEvent.setSerial(serial++);
 		sortedSet.add(newEvent);
 	}
 
 	/**
-	 * Add a new event to the head of the queue.
+	 * Add a new event to the head of the queue, after the events of the same time previously added to
+	 * the head.
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEventFirst(SimEvent newEvent) {
-		newEvent.setSerial(0);
+		newEvent.setSerial(firstSerial++);
 		sortedSet.add(newEvent);
 	}
 
+	@Override
+	public SimEvent peek() {
+		return sortedSet.isEmpty() ? null : sortedSet.first();
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (sortedSet.isEmpty()) {
+			return null;
+		}
+		SimEvent first = sortedSet.first();
+		sortedSet.remove(first);
+		return first;
+	}
+
+	@Override
+	public SimEvent pollAt(double time) {
+		if (sortedSet.isEmpty() || sortedSet.first().eventTime() != time) {
+			return null;
+		}
+		return poll();
+	}
+
+	@Override
+	public SimEvent removeFirst(int src, Predicate p) {
+		Iterator<SimEvent> iter = sortedSet.iterator();
+		while (iter.hasNext()) {
+			SimEvent ev = iter.next();
+			if (ev.getSource() == src && p.match(ev)) {
+				iter.remove();
+				return ev;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int removeAll(int src, Predicate p) {
+		int count = 0;
+		Iterator<SimEvent> iter = sortedSet.iterator();
+		while (iter.hasNext()) {
+			SimEvent ev = iter.next();
+			if (ev.getSource() == src && p.match(ev)) {
+				iter.remove();
+				count++;
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * Returns an iterator to the queue.
 	 * 
@@ -65,6 +129,7 @@ public class FutureQueue {
 	 * 
 	 * @return the size
 	 */
+	@Override
 	public int size() {
 		return sortedSet.size();
 	}
@@ -92,6 +157,7 @@ public class FutureQueue {
 	/**
 	 * Clears the queue.
 	 */
+	@Override
 	public void clear() {
 		sortedSet.clear();
 	}
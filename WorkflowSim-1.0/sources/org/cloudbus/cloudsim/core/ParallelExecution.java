@@ -0,0 +1,531 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.moeaframework.core.PRNG;
+
+/**
+ * A conservative parallel run of a simulation. The entities are partitioned into logical
+ * processes, each a {@link SimulationContext} with its own clock, future queue and deferred queue,
+ * and the processes run on a pool of threads by time windows.
+ * <p>
+ * A window starts at the time of the earliest pending event and is as wide as the lookahead. Each
+ * process handles its events of the window alone: it processes the events of a time, runs the
+ * entities that became ready, and so on, exactly as a sequential run does for its entities. An
+ * event scheduled within the window must stay in its process and goes straight to its queue; the
+ * other events are held until the end of the window, then sorted by the time, delta cycle and
+ * entity that created them and delivered. This is the order in which a sequential run schedules
+ * them, since it runs the entities of a tick in id order, so the events of a time are processed
+ * in the same order and the results are identical. With a lookahead of zero, the processes
+ * advance one tick at a time and every event is delivered at the end of the tick.
+ *
+ * @see SimulationContext#setParallelExecution(ToIntFunction, double)
+ */
+final class ParallelExecution {
+
+	/** The order in which a sequential run would have scheduled the events held in a window. */
+	private static final Comparator<Posted> CREATION_ORDER = new Comparator<Posted>() {
+
+		@Override
+		public int compare(Posted p1, Posted p2) {
+			int c = Double.compare(p1.clock, p2.clock);
+			if (c == 0) {
+				c = Integer.compare(p1.delta, p2.delta);
+			}
+			if (c == 0) {
+				c = Integer.compare(p1.creator, p2.creator);
+			}
+			if (c == 0) {
+				c = Long.compare(p1.sequence, p2.sequence);
+			}
+			return c;
+		}
+
+	};
+
+	/** The context of the whole simulation. */
+	private final SimulationContext context;
+
+	/** The width of the time windows. */
+	private final double lookahead;
+
+	/** Receives the activity of each window, or <code>null</code>. */
+	private final SimulationMetrics metrics;
+
+	/** The logical process of each entity, by id. */
+	private final int[] processOf;
+
+	/** The logical processes. */
+	private final SimulationContext[] processes;
+
+	/** The events scheduled by each process for after the current window. */
+	private final List<List<Posted>> outboxes;
+
+	/** The time of the last events processed by each process. */
+	private final double[] stepTime;
+
+	/** The delta cycle of the last events processed by each process, counted within their time. */
+	private final int[] delta;
+
+	/** The number of events held by each process so far. */
+	private final long[] sequence;
+
+	/** The number of events processed by each process in the current window. */
+	private final int[] events;
+
+	/** The end of the current window, excluded. */
+	private double windowEnd = Double.NEGATIVE_INFINITY;
+
+	/** The number of events in the queues of the processes at the end of the last window. */
+	private volatile int queueSize;
+
+	/** The source of randomness of the thread running the simulation, or <code>null</code>. */
+	private Random random;
+
+	/**
+	 * Partitions the entities of a simulation into logical processes.
+	 *
+	 * @param context the context of the simulation, with all its entities created
+	 * @param partition gives the index of the logical process of each entity
+	 * @param lookahead the width of the time windows
+	 * @param metrics receives the activity of each window, or <code>null</code>
+	 */
+	ParallelExecution(SimulationContext context, ToIntFunction<SimEntity> partition, double lookahead,
+			SimulationMetrics metrics) {
+		this.context = context;
+		this.lookahead = lookahead;
+		this.metrics = metrics;
+
+		processOf = new int[context.getNumEntities()];
+		int count = 0;
+		for (int id = 0; id < processOf.length; id++) {
+			int process = partition.applyAsInt(context.getEntity(id));
+			if (process < 0) {
+				throw new IllegalArgumentException("Invalid logical process " + process + " for entity "
+						+ context.getEntity(id).getName());
+			}
+			processOf[id] = process;
+			count = Math.max(count, process + 1);
+		}
+
+		processes = new SimulationContext[count];
+		outboxes = new ArrayList<List<Posted>>(count);
+		for (int i = 0; i < count; i++) {
+			processes[i] = new SimulationContext(context, this, i);
+			outboxes.add(new ArrayList<Posted>());
+		}
+		stepTime = new double[count];
+		delta = new int[count];
+		sequence = new long[count];
+		events = new int[count];
+		Arrays.fill(delta, -1);
+	}
+
+	/**
+	 * Runs the simulation until no event is left, the termination time is reached or an entity
+	 * terminates it abruptly.
+	 *
+	 * @param terminateAt the termination time, or a negative value
+	 * @return the time of the last events processed
+	 */
+	double run(double terminateAt) {
+		int threads = Math.min(processes.length, Runtime.getRuntime().availableProcessors());
+		random = PRNG.hasThreadRandom() ? PRNG.getRandom() : null;
+		ExecutorService executor = null;
+		if (threads > 1) {
+			executor = Executors.newFixedThreadPool(threads, task -> {
+				Thread thread = new Thread(task, "CloudSim logical process");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		try {
+			start();
+			exchange();
+
+			double lastTime = 0;
+			int lastDelta = -1;
+			int[] active = new int[processes.length];
+			while (true) {
+				double time = nextTime();
+				if (time == Double.POSITIVE_INFINITY) {
+					Log.printLine("Simulation: No more future events");
+					break;
+				}
+
+				// like a sequential run, process the events of that time and stop
+				boolean last = context.isAbruptlyTerminated() || (terminateAt > 0.0 && time >= terminateAt);
+
+				int count;
+				if (last || lookahead == 0) {
+					int d = time == lastTime ? lastDelta + 1 : 0;
+					windowEnd = time;
+					count = select(active, time, true);
+					runAll(executor, active, count, i -> step(i, time, d, !last));
+					lastTime = time;
+					lastDelta = d;
+				} else {
+					windowEnd = terminateAt > 0.0 ? Math.min(time + lookahead, terminateAt) : time + lookahead;
+					count = select(active, windowEnd, false);
+					runAll(executor, active, count, this::runWindow);
+				}
+				exchange();
+				report(time);
+
+				if (last) {
+					break;
+				}
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+
+		double clock = 0;
+		for (SimulationContext process : processes) {
+			process.setRunning(false);
+			clock = Math.max(clock, process.clock());
+		}
+		return clock;
+	}
+
+	/**
+	 * Lets all the entities exit their body method and shuts them down, in id order, each in its
+	 * process.
+	 *
+	 * @param abrupt whether the simulation was terminated abruptly
+	 */
+	void finish(boolean abrupt) {
+		if (!abrupt) {
+			for (int id = 0; id < processOf.length; id++) {
+				SimEntity ent = context.getEntity(id);
+				if (ent.getState() != SimEntity.FINISHED) {
+					processes[processOf[id]].execute(ent::run);
+				}
+			}
+		}
+		for (int id = 0; id < processOf.length; id++) {
+			SimEntity ent = context.getEntity(id);
+			processes[processOf[id]].execute(ent::shutdownEntity);
+		}
+	}
+
+	/**
+	 * Schedules an event created by a process. An event occurring within the current window goes
+	 * straight to the queue of the process, and the others are held until the end of the window.
+	 *
+	 * @param from the index of the process
+	 * @param e the event
+	 * @param first whether the event goes before the other events of its time
+	 * @throws IllegalStateException if the event occurs within the current window in another
+	 *             process
+	 */
+	void post(int from, SimEvent e, boolean first) {
+		int owner = e.getType() == SimEvent.HOLD_DONE ? e.getSource() : e.getDestination();
+		int to = owner >= 0 && owner < processOf.length ? processOf[owner] : from;
+		if (e.eventTime() < windowEnd) {
+			if (to != from) {
+				throw new IllegalStateException("Event with tag " + e.getTag() + " from "
+						+ context.getEntity(e.getSource()).getName() + " to " + context.getEntity(owner).getName()
+						+ " at " + e.eventTime() + " occurs within the lookahead of " + lookahead);
+			}
+			processes[from].enqueue(e, first);
+		} else {
+			SimulationContext process = processes[from];
+			outboxes.get(from).add(new Posted(e, first, to, stepTime[from], delta[from], process.getRunningEntity(),
+					sequence[from]++));
+		}
+	}
+
+	/**
+	 * Cancels the first event scheduled by an entity and matching a predicate, among the events
+	 * of its process.
+	 *
+	 * @see SimulationContext#cancel(int, Predicate)
+	 */
+	SimEvent cancel(int from, FutureEventList future, int src, Predicate p) {
+		List<Posted> outbox = outboxes.get(from);
+		int best = -1;
+		for (int k = 0; k < outbox.size(); k++) {
+			Posted posted = outbox.get(k);
+			if (posted.event.getSource() == src && (best < 0 || precedes(posted, outbox.get(best)))
+					&& p.match(posted.event)) {
+				best = k;
+			}
+		}
+		if (best < 0) {
+			return future.removeFirst(src, p);
+		}
+
+		// the held events were scheduled after the queued ones
+		Posted held = outbox.get(best);
+		SimEvent queued = future.removeFirst(src, new Predicate() {
+
+			@Override
+			public boolean match(SimEvent ev) {
+				return (ev.eventTime() < held.event.eventTime() || ev.eventTime() == held.event.eventTime()
+						&& (!held.first || ev.getSerial() < 0)) && p.match(ev);
+			}
+
+		});
+		if (queued != null) {
+			return queued;
+		}
+		outbox.remove(best);
+		return held.event;
+	}
+
+	/**
+	 * Cancels all the events scheduled by an entity and matching a predicate, among the events of
+	 * its process.
+	 *
+	 * @see SimulationContext#cancelAll(int, Predicate)
+	 */
+	boolean cancelAll(int from, FutureEventList future, int src, Predicate p) {
+		int removed = future.removeAll(src, p);
+		for (Iterator<Posted> it = outboxes.get(from).iterator(); it.hasNext();) {
+			SimEvent ev = it.next().event;
+			if (ev.getSource() == src && p.match(ev)) {
+				it.remove();
+				removed++;
+			}
+		}
+		return removed > 0;
+	}
+
+	/**
+	 * Starts the entities in id order, each in its process.
+	 */
+	private void start() {
+		for (int id = 0; id < processOf.length; id++) {
+			SimulationContext process = processes[processOf[id]];
+			SimEntity ent = context.getEntity(id);
+			int creator = id;
+			process.execute(() -> {
+				process.setRunningEntity(creator);
+				ent.startEntity();
+				process.setRunningEntity(-1);
+			});
+		}
+		Log.printLine("Entities started.");
+	}
+
+	/**
+	 * Processes the events of a time in a process, then runs the entities that became ready.
+	 */
+	private void step(int i, double time, int d, boolean runEntities) {
+		SimulationContext process = processes[i];
+		stepTime[i] = time;
+		delta[i] = d;
+		events[i] += process.processEventsAt(time);
+		if (runEntities) {
+			process.runReadyEntities();
+		}
+	}
+
+	/**
+	 * Processes the events of a process until the end of the window.
+	 */
+	private void runWindow(int i) {
+		SimulationContext process = processes[i];
+		SimEvent next;
+		while ((next = process.peekFuture()) != null && next.eventTime() < windowEnd) {
+			double time = next.eventTime();
+			step(i, time, time == stepTime[i] ? delta[i] + 1 : 0, true);
+		}
+	}
+
+	/**
+	 * Gets the time of the earliest pending event, or infinity if no event is left.
+	 */
+	private double nextTime() {
+		double time = Double.POSITIVE_INFINITY;
+		for (SimulationContext process : processes) {
+			SimEvent next = process.peekFuture();
+			if (next != null) {
+				time = Math.min(time, next.eventTime());
+			}
+		}
+		return time;
+	}
+
+	/**
+	 * Collects the processes having events at a time, or before a time.
+	 *
+	 * @return the number of processes collected
+	 */
+	private int select(int[] active, double time, boolean at) {
+		int count = 0;
+		for (int i = 0; i < processes.length; i++) {
+			SimEvent next = processes[i].peekFuture();
+			if (next != null && (at ? next.eventTime() == time : next.eventTime() < time)) {
+				active[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Runs a task for some processes, each with its context bound, and waits for all of them.
+	 */
+	private void runAll(ExecutorService executor, int[] active, int count, IntConsumer task) {
+		if (executor == null || count == 1) {
+			for (int k = 0; k < count; k++) {
+				int i = active[k];
+				processes[i].execute(() -> task.accept(i));
+			}
+			return;
+		}
+
+		List<Future<?>> futures = new ArrayList<Future<?>>(count);
+		for (int k = 0; k < count; k++) {
+			int i = active[k];
+			futures.add(executor.submit(() -> {
+				// the processes draw from the source of the thread running the simulation
+				PRNG.setThreadRandom(random);
+				try {
+					processes[i].execute(() -> task.accept(i));
+				} finally {
+					PRNG.setThreadRandom(null);
+				}
+			}));
+		}
+		RuntimeException failure = null;
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("The parallel simulation was interrupted.", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				if (failure == null) {
+					failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+							: new IllegalStateException(e.getCause());
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Delivers the events held during the window in the order a sequential run would have
+	 * scheduled them.
+	 */
+	private void exchange() {
+		List<Posted> all = new ArrayList<Posted>();
+		for (List<Posted> outbox : outboxes) {
+			all.addAll(outbox);
+			outbox.clear();
+		}
+		all.sort(CREATION_ORDER);
+		for (Posted posted : all) {
+			processes[posted.to].enqueue(posted.event, posted.first);
+		}
+	}
+
+	/**
+	 * Records the progress of the window in the context and sends its activity to the metrics
+	 * hook.
+	 */
+	private void report(double time) {
+		int activations = 0;
+		int emptyWakeUps = 0;
+		int processed = 0;
+		int queued = 0;
+		for (int i = 0; i < processes.length; i++) {
+			activations += processes[i].takeActivations();
+			emptyWakeUps += processes[i].takeEmptyWakeUps();
+			processed += events[i];
+			events[i] = 0;
+			queued += processes[i].getQueueSize();
+		}
+		queueSize = queued;
+		context.progress(time, processed);
+		if (metrics != null) {
+			metrics.tick(time, activations, emptyWakeUps, processed);
+		}
+	}
+
+	/**
+	 * Gets the number of events in the queues of the processes at the end of the last window.
+	 *
+	 * @return the number of events
+	 */
+	int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * Whether an event held in a window precedes another one in the future queue.
+	 */
+	private static boolean precedes(Posted p1, Posted p2) {
+		double time1 = p1.event.eventTime();
+		double time2 = p2.event.eventTime();
+		return time1 < time2 || (time1 == time2 && p1.first && !p2.first);
+	}
+
+	/**
+	 * An event held until the end of a window, with the key ordering it.
+	 */
+	private static final class Posted {
+
+		final SimEvent event;
+
+		final boolean first;
+
+		/** The index of the process of the destination. */
+		final int to;
+
+		/** The time at which the event was created. */
+		final double clock;
+
+		/** The delta cycle in which the event was created. */
+		final int delta;
+
+		/** The id of the entity that created the event. */
+		final int creator;
+
+		/** The number of events held by the process before this one. */
+		final long sequence;
+
+		Posted(SimEvent event, boolean first, int to, double clock, int delta, int creator, long sequence) {
+			this.event = event;
+			this.first = first;
+			this.to = to;
+			this.clock = clock;
+			this.delta = delta;
+			this.creator = creator;
+			this.sequence = sequence;
+		}
+
+	}
+
+}
@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
+
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
@@ -28,7 +30,9 @@ import org.cloudbus.cloudsim.core.predicates.Predicate;
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  */
-public abstract class SimEntity implements Cloneable {
+public abstract class SimEntity implements Cloneable, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The name. */
 	private String name;
@@ -404,6 +408,7 @@ public abstract class SimEntity implements Cloneable {
 
 		while (ev != null) {
 			processEvent(ev);
+			CloudSim.releaseEvent(ev);
 			if (state != RUNNABLE) {
 				break;
 			}
@@ -544,6 +549,94 @@ public abstract class SimEntity implements Cloneable {
 		schedule(entityId, delay, cloudSimTag, data);
 	}
 
+	/**
+	 * Sends an event carrying three integers to another entity, like
+	 * {@link #send(int, double, int, Object)} with an <code>int[3]</code> but without allocating
+	 * it. The receiver reads them with {@link SimEvent#getIntData(int)}.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param delay how long from the current simulation time the event should be sent. If delay is
+	 *            a negative number, then it will be changed to 0
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param d0 the first integer
+	 * @param d1 the second integer
+	 * @param d2 the third integer
+	 */
+	protected void sendInts(int entityId, double delay, int cloudSimTag, int d0, int d1, int d2) {
+		if (entityId < 0 || !CloudSim.running()) {
+			return;
+		}
+		CloudSim.sendInts(getId(), entityId, getSendDelay(entityId, delay), cloudSimTag, d0, d1, d2);
+	}
+
+	/**
+	 * Sends an event carrying three integers to another entity without delay.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param d0 the first integer
+	 * @param d1 the second integer
+	 * @param d2 the third integer
+	 * @see #sendInts(int, double, int, int, int, int)
+	 */
+	protected void sendNowInts(int entityId, int cloudSimTag, int d0, int d1, int d2) {
+		sendInts(entityId, 0, cloudSimTag, d0, d1, d2);
+	}
+
+	/**
+	 * Sends an event carrying a long to another entity without boxing it. The receiver reads it
+	 * with {@link SimEvent#getLongData()}.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param delay how long from the current simulation time the event should be sent. If delay is
+	 *            a negative number, then it will be changed to 0
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param data the long
+	 */
+	protected void sendLong(int entityId, double delay, int cloudSimTag, long data) {
+		if (entityId < 0 || !CloudSim.running()) {
+			return;
+		}
+		CloudSim.sendLong(getId(), entityId, getSendDelay(entityId, delay), cloudSimTag, data);
+	}
+
+	/**
+	 * Sends an event carrying a double to another entity without boxing it. The receiver reads it
+	 * with {@link SimEvent#getDoubleData()}.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param delay how long from the current simulation time the event should be sent. If delay is
+	 *            a negative number, then it will be changed to 0
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param data the double
+	 */
+	protected void sendDouble(int entityId, double delay, int cloudSimTag, double data) {
+		if (entityId < 0 || !CloudSim.running()) {
+			return;
+		}
+		CloudSim.sendDouble(getId(), entityId, getSendDelay(entityId, delay), cloudSimTag, data);
+	}
+
+	/**
+	 * Gets the delay of a message sent to another entity, including the network delay.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param delay the delay requested by the sender, changed to 0 if negative
+	 * @return the delay of the message
+	 */
+	private double getSendDelay(int entityId, double delay) {
+		if (delay < 0) {
+			delay = 0;
+		}
+		if (Double.isInfinite(delay)) {
+			throw new IllegalArgumentException("The specified delay is infinite value");
+		}
+		if (entityId != getId()) {// does not delay self messages
+			delay += getNetworkDelay(getId(), entityId);
+		}
+		return delay;
+	}
+
 	/**
 	 * Sends an event/message to another entity by <tt>delaying</tt> the simulation time from the
 	 * current time, with a tag representing the event type.
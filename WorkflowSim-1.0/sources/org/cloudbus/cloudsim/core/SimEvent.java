@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.io.Serializable;
+
 /**
  * This class represents a simulation event which is passed between the entities in the simulation.
  * 
@@ -15,13 +17,15 @@ package org.cloudbus.cloudsim.core;
  * @see Simulation
  * @see SimEntity
  */
-public class SimEvent implements Cloneable, Comparable<SimEvent> {
+public class SimEvent implements Cloneable, Comparable<SimEvent>, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** internal event type **/
-	private final int etype;
+	private int etype;
 
 	/** time at which event should occur **/
-	private final double time;
+	private double time;
 
 	/** time that the event was removed from the queue for service **/
 	private double endWaitingTime;
@@ -33,13 +37,47 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	private int entDst;
 
 	/** the user defined type of the event **/
-	private final int tag;
+	private int tag;
 
 	/** any data the event is carrying **/
-	private final Object data;
+	private Object data;
+
+	/** the kind of primitive data the event is carrying instead of an object **/
+	private byte payload = NO_PAYLOAD;
+
+	/** the primitive data of the event **/
+	private int intData0, intData1, intData2;
+
+	private long longData;
+
+	private double doubleData;
+
+	/** whether the event comes from a {@link SimEventPool}, and whether it went back to it **/
+	private byte poolState = NOT_POOLED;
 
 	private long serial = -1;
 
+	/** the next event in the same bucket of a {@link CalendarFutureQueue} **/
+	SimEvent next;
+
+	// Kinds of primitive data
+
+	private static final byte NO_PAYLOAD = 0;
+
+	private static final byte INT_PAYLOAD = 1;
+
+	private static final byte LONG_PAYLOAD = 2;
+
+	private static final byte DOUBLE_PAYLOAD = 3;
+
+	// States of an event regarding the pool
+
+	private static final byte NOT_POOLED = 0;
+
+	private static final byte IN_USE = 1;
+
+	private static final byte RELEASED = 2;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -82,10 +120,95 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		data = null;
 	}
 
+	/**
+	 * Resets a pooled event so that it can be scheduled again.
+	 */
+	void init(int evtype, double time, int src, int dest, int tag, Object edata) {
+		etype = evtype;
+		this.time = time;
+		endWaitingTime = -1.0;
+		entSrc = src;
+		entDst = dest;
+		this.tag = tag;
+		data = edata;
+		payload = NO_PAYLOAD;
+		serial = -1;
+		next = null;
+		poolState = IN_USE;
+	}
+
+	/**
+	 * Sets three integers as the data of this event, in place of an <code>int[3]</code>.
+	 */
+	void setIntData(int d0, int d1, int d2) {
+		payload = INT_PAYLOAD;
+		intData0 = d0;
+		intData1 = d1;
+		intData2 = d2;
+	}
+
+	/**
+	 * Sets a long as the data of this event, in place of a {@link Long}.
+	 */
+	void setLongData(long d) {
+		payload = LONG_PAYLOAD;
+		longData = d;
+	}
+
+	/**
+	 * Sets a double as the data of this event, in place of a {@link Double}.
+	 */
+	void setDoubleData(double d) {
+		payload = DOUBLE_PAYLOAD;
+		doubleData = d;
+	}
+
+	/**
+	 * Whether this event was taken from a pool and not released yet.
+	 */
+	boolean isInUse() {
+		return poolState == IN_USE;
+	}
+
+	/**
+	 * Whether this event was released to its pool.
+	 */
+	boolean isReleased() {
+		return poolState == RELEASED;
+	}
+
+	/**
+	 * Marks this event as released to its pool, dropping the reference to its data.
+	 */
+	void markReleased() {
+		poolState = RELEASED;
+		data = null;
+		next = null;
+	}
+
+	/**
+	 * Throws an exception if this event was released to its pool, since it may already carry
+	 * another message.
+	 */
+	private void checkReleased() {
+		if (poolState == RELEASED) {
+			throw new IllegalStateException("Event with tag " + tag + " used after being released to the pool.");
+		}
+	}
+
 	protected void setSerial(long serial) {
 		this.serial = serial;
 	}
 
+	/**
+	 * Gets the serial given by the future event queue, which orders the events of a same time.
+	 * 
+	 * @return the serial
+	 */
+	long getSerial() {
+		return serial;
+	}
+
 	/**
 	 * Used to set the time at which this event finished waiting in the event
 	 * 
@@ -107,6 +230,7 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return
 	 */
 	public int getType() {
+		checkReleased();
 		return etype;
 	}
 
@@ -138,6 +262,7 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return the id number
 	 */
 	public int getDestination() {
+		checkReleased();
 		return entDst;
 	}
 
@@ -147,6 +272,7 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return the id number
 	 */
 	public int getSource() {
+		checkReleased();
 		return entSrc;
 	}
 
@@ -156,6 +282,7 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return The simulation time
 	 */
 	public double eventTime() {
+		checkReleased();
 		return time;
 	}
 
@@ -165,6 +292,7 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return The simulation time
 	 */
 	public double endWaitingTime() {
+		checkReleased();
 		return endWaitingTime;
 	}
 
@@ -174,6 +302,7 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return The tag
 	 */
 	public int type() {
+		checkReleased();
 		return tag;
 	}
 
@@ -183,6 +312,7 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return the id number
 	 */
 	public int scheduledBy() {
+		checkReleased();
 		return entSrc;
 	}
 
@@ -192,26 +322,102 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	 * @return The tag
 	 */
 	public int getTag() {
+		checkReleased();
 		return tag;
 	}
 
 	/**
-	 * Get the data passed in this event.
+	 * Get the data passed in this event. Primitive data is returned boxed, three integers as a new
+	 * <code>int[3]</code>; use {@link #getIntData(int)}, {@link #getLongData()} or
+	 * {@link #getDoubleData()} to read it without allocating.
 	 * 
 	 * @return A reference to the data
 	 */
 	public Object getData() {
-		return data;
+		checkReleased();
+		switch (payload) {
+			case INT_PAYLOAD:
+				return new int[] { intData0, intData1, intData2 };
+			case LONG_PAYLOAD:
+				return Long.valueOf(longData);
+			case DOUBLE_PAYLOAD:
+				return Double.valueOf(doubleData);
+			default:
+				return data;
+		}
+	}
+
+	/**
+	 * Get an integer of the data passed in this event, which is either three integers or an
+	 * <code>int[]</code>.
+	 * 
+	 * @param index the index of the integer
+	 * @return The integer
+	 */
+	public int getIntData(int index) {
+		checkReleased();
+		if (payload != INT_PAYLOAD) {
+			return ((int[]) data)[index];
+		}
+		switch (index) {
+			case 0:
+				return intData0;
+			case 1:
+				return intData1;
+			case 2:
+				return intData2;
+			default:
+				throw new IndexOutOfBoundsException("Index " + index + " of the data of an event.");
+		}
+	}
+
+	/**
+	 * Returns whether the data passed in this event can be read with {@link #getIntData(int)}:
+	 * three integers or an <code>int[]</code>.
+	 * 
+	 * @return true if the data are integers
+	 */
+	public boolean hasIntData() {
+		checkReleased();
+		return payload == INT_PAYLOAD || data instanceof int[];
+	}
+
+	/**
+	 * Get the data passed in this event as a long, which is either a long or a {@link Number}.
+	 * 
+	 * @return The long
+	 */
+	public long getLongData() {
+		checkReleased();
+		return payload == LONG_PAYLOAD ? longData : ((Number) data).longValue();
+	}
+
+	/**
+	 * Get the data passed in this event as a double, which is either a double or a {@link Number}.
+	 * 
+	 * @return The double
+	 */
+	public double getDoubleData() {
+		checkReleased();
+		return payload == DOUBLE_PAYLOAD ? doubleData : ((Number) data).doubleValue();
 	}
 
 	/**
-	 * Create an exact copy of this event.
+	 * Create an exact copy of this event. The copy never belongs to a pool.
 	 * 
 	 * @return The event's copy
 	 */
 	@Override
 	public Object clone() {
-		return new SimEvent(etype, time, entSrc, entDst, tag, data);
+		checkReleased();
+		SimEvent copy = new SimEvent(etype, time, entSrc, entDst, tag, data);
+		copy.payload = payload;
+		copy.intData0 = intData0;
+		copy.intData1 = intData1;
+		copy.intData2 = intData2;
+		copy.longData = longData;
+		copy.doubleData = doubleData;
+		return copy;
 	}
 
 	/**
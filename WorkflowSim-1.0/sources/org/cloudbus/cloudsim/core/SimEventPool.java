@@ -0,0 +1,174 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+
+/**
+ * A pool of recycled events. When a pool is given to a simulation with
+ * {@link SimulationContext#setEventPool(SimEventPool)}, the kernel takes its events from the pool
+ * and releases each event once it was processed: after {@link SimEntity#processEvent(SimEvent)}
+ * returns for the events delivered to an entity, and right away for the internal events. An entity
+ * must therefore not keep a reference to an event after processing it; the data of the event
+ * itself may be kept. An event obtained outside {@link SimEntity#run()}, with
+ * {@link SimEntity#getNextEvent()} for instance, is not released by the kernel and can be given
+ * back with {@link CloudSim#releaseEvent(SimEvent)}.
+ * <p>
+ * In debug mode, released events are never reused, so that any later use of them throws an
+ * {@link IllegalStateException} instead of silently reading another message.
+ *
+ * @see SimEvent
+ */
+public class SimEventPool {
+
+	/** The default number of free events kept by the pool. */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/** Whether released events are quarantined instead of reused. */
+	private final boolean debug;
+
+	/** The maximal number of free events kept. */
+	private final int capacity;
+
+	/** The free events. */
+	private SimEvent[] free = new SimEvent[64];
+
+	/** The number of free events. */
+	private int size = 0;
+
+	/** The number of events created by the pool. */
+	private long created = 0;
+
+	/** The number of events reused by the pool. */
+	private long reused = 0;
+
+	/** The number of events released to the pool. */
+	private long released = 0;
+
+	/**
+	 * Creates a pool keeping up to {@link #DEFAULT_CAPACITY} free events.
+	 */
+	public SimEventPool() {
+		this(DEFAULT_CAPACITY, false);
+	}
+
+	/**
+	 * Creates a pool.
+	 *
+	 * @param capacity the maximal number of free events kept
+	 * @param debug whether released events are quarantined to detect their use after release
+	 */
+	public SimEventPool(int capacity, boolean debug) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("The capacity of an event pool can't be negative.");
+		}
+		this.capacity = capacity;
+		this.debug = debug;
+	}
+
+	/**
+	 * Takes an event from the pool, or creates one if the pool is empty.
+	 */
+	SimEvent obtain(int evtype, double time, int src, int dest, int tag, Object edata) {
+		SimEvent ev;
+		if (size > 0) {
+			ev = free[--size];
+			free[size] = null;
+			reused++;
+		} else {
+			ev = new SimEvent();
+			created++;
+		}
+		ev.init(evtype, time, src, dest, tag, edata);
+		return ev;
+	}
+
+	/**
+	 * Gives an event back to the pool. Events that do not come from a pool are ignored.
+	 *
+	 * @param ev the event
+	 * @throws IllegalStateException if the event was already released
+	 */
+	void release(SimEvent ev) {
+		if (ev.isReleased()) {
+			throw new IllegalStateException("Event released twice to the pool.");
+		}
+		if (!ev.isInUse()) {
+			return;
+		}
+		ev.markReleased();
+		released++;
+		if (!debug && size < capacity) {
+			if (size == free.length) {
+				free = Arrays.copyOf(free, Math.min(capacity, size << 1));
+			}
+			free[size++] = ev;
+		}
+	}
+
+	/**
+	 * Gets the maximal number of free events kept by the pool.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Whether released events are quarantined instead of reused.
+	 *
+	 * @return <code>true</code> in debug mode
+	 */
+	public boolean isDebug() {
+		return debug;
+	}
+
+	/**
+	 * Gets the number of events created by the pool.
+	 *
+	 * @return the number of events created
+	 */
+	public long getCreated() {
+		return created;
+	}
+
+	/**
+	 * Gets the number of events taken from the pool instead of being created.
+	 *
+	 * @return the number of events reused
+	 */
+	public long getReused() {
+		return reused;
+	}
+
+	/**
+	 * Gets the number of events released to the pool.
+	 *
+	 * @return the number of events released
+	 */
+	public long getReleased() {
+		return released;
+	}
+
+	/**
+	 * Gets the number of free events in the pool.
+	 *
+	 * @return the number of free events
+	 */
+	public int getFree() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "created " + created + ", reused " + reused + ", released " + released + ", free " + size;
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A saved simulation, from which any number of independent simulations can be restored. The
+ * context is serialized with its entities, event queues and components, and compressed; a
+ * checkpoint can be kept in memory to fork several what-if continuations of a simulation, or
+ * written to a file to resume a long simulation after a crash.
+ * <p>
+ * The format is Java serialization compressed with a Deflater rather than a dedicated binary
+ * layout: it needs no code per class and follows every object reachable from the context, at
+ * the cost of a larger and slower checkpoint than a hand-written format. Serialization recurses
+ * through the references between objects, so it runs on a thread with a large stack, see
+ * {@link #STACK_SIZE}.
+ * <p>
+ * The entities, the data of the events and the components of a simulation must be serializable.
+ * The serializable classes declare their serialVersionUID, so a checkpoint stays readable after
+ * a recompilation, but only by versions of the classes with compatible fields. Static state
+ * outside the context is not saved, in particular random generators: a generator kept as a
+ * component of the context is restored with it, and must be installed again where it is drawn
+ * from, while draws from an unseeded generator are not replayed.
+ *
+ * <pre>
+ * SimulationCheckpoint checkpoint = context.checkpoint();
+ * for (int i = 0; i &lt; variants; i++) {
+ *     SimulationContext fork = checkpoint.restore();
+ *     fork.execute(() -&gt; {
+ *         // change the simulation, then continue it
+ *         CloudSim.startSimulation();
+ *     });
+ * }
+ * </pre>
+ *
+ * @see SimulationContext#checkpoint()
+ */
+public final class SimulationCheckpoint {
+
+	/**
+	 * The stack size of the thread serializing a context. Serialization follows the references
+	 * between objects depth first, and the tasks of a workflow reference each other through their
+	 * parents and children, so the depth of the recursion grows with the size of the workflow.
+	 */
+	private static final long STACK_SIZE = 512L << 20;
+
+	/** The compressed serialized context. */
+	private final byte[] data;
+
+	/**
+	 * Creates a checkpoint from the bytes of a serialized context.
+	 *
+	 * @param data the compressed serialized context
+	 */
+	private SimulationCheckpoint(byte[] data) {
+		this.data = data;
+	}
+
+	/**
+	 * Saves a context.
+	 *
+	 * @param context the context
+	 * @return the checkpoint
+	 * @throws IOException if the context can't be serialized
+	 */
+	static SimulationCheckpoint of(SimulationContext context) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			onLargeStack(() -> {
+				ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+						new DeflaterOutputStream(bytes)));
+				try {
+					out.writeObject(context);
+				} finally {
+					out.close();
+				}
+				return null;
+			});
+		} catch (ClassNotFoundException e) {
+			// only thrown when reading
+			throw new IllegalStateException(e);
+		}
+		return new SimulationCheckpoint(bytes.toByteArray());
+	}
+
+	/**
+	 * Restores the simulation in a new context. Each call returns a simulation of its own.
+	 *
+	 * @return the context
+	 * @throws IOException if the checkpoint is corrupted
+	 * @throws ClassNotFoundException if a class of the simulation can't be found
+	 */
+	public SimulationContext restore() throws IOException, ClassNotFoundException {
+		return onLargeStack(() -> {
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(
+					new InflaterInputStream(new ByteArrayInputStream(data))));
+			try {
+				return (SimulationContext) in.readObject();
+			} finally {
+				in.close();
+			}
+		});
+	}
+
+	/**
+	 * Gets the size of the checkpoint.
+	 *
+	 * @return the number of bytes
+	 */
+	public int size() {
+		return data.length;
+	}
+
+	/**
+	 * Writes the checkpoint to a file. The checkpoint is first written to a temporary file, which
+	 * then replaces the file, so a crash while writing keeps the previous checkpoint.
+	 *
+	 * @param file the file
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(File file) throws IOException {
+		File temp = new File(file.getPath() + ".tmp");
+		Files.write(temp.toPath(), data);
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a checkpoint written by {@link #save(File)}.
+	 *
+	 * @param file the file
+	 * @return the checkpoint
+	 * @throws IOException if the file can't be read
+	 */
+	public static SimulationCheckpoint load(File file) throws IOException {
+		return new SimulationCheckpoint(Files.readAllBytes(file.toPath()));
+	}
+
+	/**
+	 * Runs a simulation to its end, writing a checkpoint to a file each time the clock advances
+	 * by the given interval. The file is left in place when the simulation ends. If the
+	 * simulation crashes, it can be continued from the last checkpoint by calling this method
+	 * again with the restored context.
+	 *
+	 * <pre>
+	 * SimulationContext context = file.exists()
+	 *         ? SimulationCheckpoint.load(file).restore() : build();
+	 * SimulationCheckpoint.run(context, file, 3600);
+	 * </pre>
+	 *
+	 * @param context the simulation, not started or restored from a checkpoint
+	 * @param file the file of the checkpoints
+	 * @param interval the simulated time between two checkpoints
+	 * @return the last clock value
+	 * @throws IOException if a checkpoint can't be written
+	 */
+	public static double run(SimulationContext context, File file, double interval)
+			throws IOException {
+		if (interval <= 0) {
+			throw new IllegalArgumentException(
+					"The interval between checkpoints should be positive, but is:" + interval);
+		}
+		double next = context.clock() + interval;
+		while (true) {
+			context.runUntil(next);
+			if (!context.running() || context.isAbruptlyTerminated()) {
+				break;
+			}
+			context.checkpoint().save(file);
+
+			// skip the intervals without events
+			next = Math.max(next, context.peekFuture().eventTime()) + interval;
+		}
+		context.resetInformationService();
+		return context.clock();
+	}
+
+	/**
+	 * Runs a serialization task on a thread with a large stack, and waits for it.
+	 */
+	private static <T> T onLargeStack(Callable<T> task) throws IOException, ClassNotFoundException {
+		Object[] result = new Object[1];
+		Throwable[] failure = new Throwable[1];
+		Thread thread = new Thread(null, () -> {
+			try {
+				result[0] = task.call();
+			} catch (Throwable t) {
+				failure[0] = t;
+			}
+		}, "SimulationCheckpoint", STACK_SIZE);
+		thread.start();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while serializing the simulation");
+		}
+		if (failure[0] instanceof IOException) {
+			throw (IOException) failure[0];
+		} else if (failure[0] instanceof ClassNotFoundException) {
+			throw (ClassNotFoundException) failure[0];
+		} else if (failure[0] instanceof RuntimeException) {
+			throw (RuntimeException) failure[0];
+		} else if (failure[0] instanceof Error) {
+			throw (Error) failure[0];
+		}
+		@SuppressWarnings("unchecked")
+		T value = (T) result[0];
+		return value;
+	}
+
+}
@@ -0,0 +1,1347 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * This class holds the state of one simulation: its entities, the future and deferred event queues,
+ * the clock and the CloudSim bookkeeping entities. The static methods of {@link CloudSim} act on the
+ * context bound to the calling thread, or on the default context when none is bound, so existing
+ * simulations keep running unchanged on the default context.
+ * <p>
+ * Several simulations can run concurrently in one JVM by giving each its own context and running
+ * the whole simulation, from creating the entities to reading the results, inside
+ * {@link #call(Callable)} or {@link #execute(Runnable)} on its own thread. Higher layers keep their
+ * per-simulation singletons in the context through {@link #getComponent(Class, Supplier)}.
+ * <p>
+ * A context is not thread-safe: the simulation it holds must be driven by one thread at a time.
+ * <p>
+ * Each clock tick only runs the entities that have something to do: those that received an event
+ * in their deferred queue or their event buffer, and those whose hold finished. The entities are
+ * kept in a ready set in id order, so they run in the same order as when every runnable entity
+ * was run on every tick.
+ * <p>
+ * A simulation can also be run on several threads, see
+ * {@link #setParallelExecution(ToIntFunction, double)}.
+ * <p>
+ * Instead of running the simulation to its end with {@link CloudSim#startSimulation()}, a
+ * controller can advance it step by step with {@link #runUntil(double)}, {@link #runFor(long)} and
+ * {@link #step()}, changing the simulation between the calls. Another thread can follow the
+ * progress of a running simulation with {@link #snapshot()}, pause it and resume it.
+ * <p>
+ * Between these calls, or while the simulation is paused, the whole context can be saved with
+ * {@link #checkpoint()} and restored later, any number of times.
+ *
+ * @see CloudSim
+ */
+public class SimulationContext implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The context used by threads that have not bound one. */
+	private static final SimulationContext DEFAULT = new SimulationContext();
+
+	/** The context bound to each thread. */
+	private static final ThreadLocal<SimulationContext> CURRENT = new ThreadLocal<SimulationContext>();
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	@SuppressWarnings("unused")
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The trace flag. */
+	@SuppressWarnings("unused")
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	private double minTimeBetweenEvents = 0.1;
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The future event queue. */
+	private FutureEventList future;
+
+	/** Creates the future event queue of each simulation run in this context. */
+	private transient Supplier<? extends FutureEventList> futureEventListFactory = BinaryHeapFutureQueue::new;
+
+	/** The deferred event queue. */
+	private DeferredQueue deferred;
+
+	/** The simulation clock, volatile so that {@link #snapshot()} can read it from another thread. */
+	private volatile double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private volatile boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	/** The wait predicates. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/** The paused. */
+	private volatile boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** Guards the handshake between a paused run and the threads waiting for the pause. */
+	private transient Object pauseLock = new Object();
+
+	/** The thread of the paused run, or <code>null</code>. */
+	private transient Thread pausedThread;
+
+	/** Completed with a snapshot when the run pauses, or <code>null</code> if nobody waits. */
+	private transient CompletableFuture<SimulationSnapshot> pauseFuture;
+
+	/** Whether the entities were started. */
+	private boolean started;
+
+	/** Whether a tick was stopped by {@link #runFor(long)} before all the events of its time. */
+	private boolean tickOpen;
+
+	/** The number of events processed by the open tick. */
+	private int tickEvents;
+
+	/** The number of events processed since the simulation started. */
+	private volatile long eventsProcessed;
+
+	/** The abrupt terminate. */
+	private volatile boolean abruptTerminate = false;
+
+	/** The ids of the entities to run on the next tick, one bit per entity. */
+	private long[] ready;
+
+	/** Receives the activity of each tick, or <code>null</code>. */
+	private transient SimulationMetrics metrics;
+
+	/** The pool the events are taken from, or <code>null</code> to create every event. */
+	private transient SimEventPool eventPool;
+
+	/** Maps each entity to its logical process, or <code>null</code> to run on one thread. */
+	private transient ToIntFunction<SimEntity> partition;
+
+	/** The lookahead of the logical processes. */
+	private double lookahead;
+
+	/** The parallel run of the simulation: the last one of a context, the run of a process. */
+	private transient ParallelExecution execution;
+
+	/** The context of the whole simulation when this context is a logical process. */
+	private transient SimulationContext parent;
+
+	/** The index of this context among the logical processes. */
+	private int process = -1;
+
+	/** The id of the entity being run, or -1. */
+	private int runningEntity = -1;
+
+	/** The number of entities run since the counters were reset. */
+	private int activations;
+
+	/** The number of entities run without any event since the counters were reset. */
+	private int emptyWakeUps;
+
+	/** The per-simulation state of higher layers, keyed by type. */
+	private final Map<Class<?>, Object> components = new ConcurrentHashMap<Class<?>, Object>();
+
+	/**
+	 * Creates an empty simulation context. {@link CloudSim#init(int, Calendar, boolean)} must be
+	 * called inside the context before any entity is created.
+	 */
+	public SimulationContext() {
+		super();
+	}
+
+	/**
+	 * Creates the context of a logical process. It shares the entities and the components of the
+	 * whole simulation, and has its own clock and event queues.
+	 *
+	 * @param parent the context of the whole simulation
+	 * @param execution the parallel run
+	 * @param process the index of the process
+	 */
+	SimulationContext(SimulationContext parent, ParallelExecution execution, int process) {
+		this.parent = parent;
+		this.execution = execution;
+		this.process = process;
+		cisId = parent.cisId;
+		shutdownId = parent.shutdownId;
+		cis = parent.cis;
+		traceFlag = parent.traceFlag;
+		calendar = parent.calendar;
+		minTimeBetweenEvents = parent.minTimeBetweenEvents;
+		entities = parent.entities;
+		entitiesByName = parent.entitiesByName;
+		future = parent.futureEventListFactory.get();
+		deferred = new DeferredQueue();
+		waitPredicates = new HashMap<Integer, Predicate>();
+		ready = new long[1];
+		if (parent.eventPool != null) {
+			eventPool = new SimEventPool(parent.eventPool.getCapacity(), parent.eventPool.isDebug());
+		}
+		clock = 0;
+		running = true;
+	}
+
+	/**
+	 * Returns the context bound to the calling thread, or the default context if none is bound.
+	 *
+	 * @return the current context
+	 */
+	public static SimulationContext current() {
+		SimulationContext context = CURRENT.get();
+		return context == null ? DEFAULT : context;
+	}
+
+	/**
+	 * Returns the default context, used by threads that have not bound one.
+	 *
+	 * @return the default context
+	 */
+	public static SimulationContext getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Runs a task with this context bound to the calling thread, so that every static call to
+	 * {@link CloudSim} made by the task acts on this context. The previous binding is restored
+	 * afterwards.
+	 *
+	 * @param task the task to run
+	 * @return the result of the task
+	 * @throws Exception if the task throws an exception
+	 */
+	public <T> T call(Callable<T> task) throws Exception {
+		SimulationContext previous = CURRENT.get();
+		CURRENT.set(this);
+		try {
+			return task.call();
+		} finally {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Runs a task with this context bound to the calling thread.
+	 *
+	 * @param task the task to run
+	 * @see #call(Callable)
+	 */
+	public void execute(Runnable task) {
+		SimulationContext previous = CURRENT.get();
+		CURRENT.set(this);
+		try {
+			task.run();
+		} finally {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Returns the component of the given type held by this context, creating it on first use.
+	 * Components outlive {@link CloudSim#init(int, Calendar, boolean)}, which only resets the
+	 * simulation kernel, so they can be configured before CloudSim is initialised.
+	 *
+	 * @param type the type of the component, used as its key
+	 * @param factory creates the component if this context does not hold one yet
+	 * @return the component
+	 */
+	public <T> T getComponent(Class<T> type, Supplier<? extends T> factory) {
+		if (parent != null) {
+			return parent.getComponent(type, factory);
+		}
+		Object component = components.get(type);
+		if (component == null) {
+			component = components.computeIfAbsent(type, key -> factory.get());
+		}
+		return type.cast(component);
+	}
+
+	/**
+	 * Sets the implementation of the future event list used by the simulations initialised
+	 * afterwards in this context. A {@link BinaryHeapFutureQueue} is used by default.
+	 *
+	 * @param factory creates an empty future event list
+	 */
+	public void setFutureEventListFactory(Supplier<? extends FutureEventList> factory) {
+		if (factory == null) {
+			throw new IllegalArgumentException("The future event list factory can't be null.");
+		}
+		futureEventListFactory = factory;
+	}
+
+	/**
+	 * Sets the hook receiving the number of entity activations, empty wake-ups and events of each
+	 * clock tick.
+	 *
+	 * @param metrics the hook, or <code>null</code> to stop counting
+	 */
+	public void setMetrics(SimulationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Sets the pool recycling the events of this context. Events are created and left to the
+	 * garbage collector by default. The pool must be set before the simulation is initialised.
+	 *
+	 * @param pool the pool, or <code>null</code> to stop pooling events
+	 * @see SimEventPool
+	 */
+	public void setEventPool(SimEventPool pool) {
+		eventPool = pool;
+	}
+
+	/**
+	 * Gets the pool recycling the events of this context.
+	 *
+	 * @return the pool, or <code>null</code> if events are not pooled
+	 */
+	public SimEventPool getEventPool() {
+		return eventPool;
+	}
+
+	/**
+	 * Runs the simulations of this context on several threads, with a conservative parallel
+	 * discrete-event algorithm. The entities are partitioned into logical processes, each with its
+	 * own clock and event queues, and the processes advance together by time windows as wide as the
+	 * lookahead: an event sent to another process must be scheduled at least at the end of the
+	 * current window, which holds when every such event is sent with a delay of at least the
+	 * lookahead. {@link CloudSim#getMinTimeBetweenEvents()} is a natural lookahead when the
+	 * processes only exchange messages delayed by it. With a lookahead of zero, the processes
+	 * advance together one clock tick at a time, which allows messages without delay between them.
+	 * <p>
+	 * The results are identical to those of a sequential run, provided that the entities of
+	 * different processes share no mutable state other than through events. An event sent to
+	 * another process within the current window throws an {@link IllegalStateException}, so a too
+	 * large lookahead is detected rather than silently changing the results. Entities can't be
+	 * added while the simulation runs in parallel, {@link CloudSim#cancel(int, Predicate)} only
+	 * reaches the events an entity sent within its own process, and pausing the simulation is not
+	 * supported. An abrupt termination stops the run at the end of the current window, which may
+	 * be after other processes moved past the time of the termination when the lookahead is
+	 * positive. The threads of the processes draw from the PRNG source of the thread starting the
+	 * run, if it has one of its own.
+	 *
+	 * @param partition gives the index of the logical process of each entity, from 0, or
+	 *            <code>null</code> to run the simulations on one thread
+	 * @param lookahead the width of the time windows, zero or positive
+	 */
+	public void setParallelExecution(ToIntFunction<SimEntity> partition, double lookahead) {
+		if (lookahead < 0 || Double.isNaN(lookahead) || Double.isInfinite(lookahead)) {
+			throw new IllegalArgumentException("The lookahead should be zero or positive, but is:" + lookahead);
+		}
+		this.partition = partition;
+		this.lookahead = lookahead;
+	}
+
+	/**
+	 * Get the current simulation time of this context.
+	 *
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	// ======== INITIALISATION ===============//
+
+	/**
+	 * Initialises all the common attributes.
+	 *
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 */
+	private void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser) throws Exception {
+		initialize();
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * @see CloudSim#init(int, Calendar, boolean)
+	 */
+	void init(int numUser, Calendar cal, boolean traceFlag) {
+		try {
+			initCommonVariable(cal, traceFlag, numUser);
+
+			// create a GIS object
+			cis = new CloudInformationService("CloudInformationService");
+
+			// set all the above entity IDs
+			cisId = cis.getId();
+		} catch (IllegalArgumentException s) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(s.getMessage());
+		} catch (Exception e) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(e.getMessage());
+		}
+	}
+
+	/**
+	 * @see CloudSim#init(int, Calendar, boolean, double)
+	 */
+	void init(int numUser, Calendar cal, boolean traceFlag, double periodBetweenEvents) {
+		if (periodBetweenEvents <= 0) {
+			throw new IllegalArgumentException("The minimal time between events should be positive, but is:"
+					+ periodBetweenEvents);
+		}
+
+		init(numUser, cal, traceFlag);
+		minTimeBetweenEvents = periodBetweenEvents;
+	}
+
+	/**
+	 * Initialise the simulation for stand alone simulations. This function should be called at the
+	 * start of the simulation.
+	 */
+	void initialize() {
+		Log.printLine("Initialising...");
+		entities = new ArrayList<SimEntity>();
+		entitiesByName = new LinkedHashMap<String, SimEntity>();
+		future = futureEventListFactory.get();
+		deferred = new DeferredQueue();
+		waitPredicates = new HashMap<Integer, Predicate>();
+		ready = new long[1];
+		clock = 0;
+		running = false;
+		started = false;
+		tickOpen = false;
+		eventsProcessed = 0;
+		execution = null;
+	}
+
+	/**
+	 * Clears the CloudSim bookkeeping entities once a simulation started with
+	 * {@link CloudSim#startSimulation()} has finished.
+	 */
+	void resetInformationService() {
+		cisId = -1;
+		shutdownId = -1;
+		cis = null;
+		calendar = null;
+		traceFlag = false;
+	}
+
+	boolean terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+		return true;
+	}
+
+	boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	double getMinTimeBetweenEvents() {
+		return minTimeBetweenEvents;
+	}
+
+	Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	// ======== SIMULATION METHODS ===============//
+
+	int getNumEntities() {
+		return entities.size();
+	}
+
+	SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		List<SimEntity> list = new LinkedList<SimEntity>();
+		list.addAll(entities);
+		return list;
+	}
+
+	void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (execution != null && running) {
+			throw new UnsupportedOperationException("Entities can't be added while a simulation runs in parallel.");
+		}
+		if (running) {
+			// Post an event to make this entity
+			evt = newEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			future.addEvent(evt);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+		}
+	}
+
+	void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	boolean runClockTick() {
+		boolean queue_empty;
+		int events = 0;
+
+		runReadyEntities();
+
+		// If there are more future events then deal with them
+		SimEvent first = future.poll();
+		if (first != null) {
+			queue_empty = false;
+			processEvent(first);
+			events++;
+
+			// Then with the next events at the same time
+			double time = first.eventTime();
+			SimEvent next;
+			while ((next = future.pollAt(time)) != null) {
+				processEvent(next);
+				events++;
+			}
+
+		} else {
+			queue_empty = true;
+			running = false;
+			printMessage("Simulation: No more future events");
+		}
+
+		eventsProcessed += events;
+		if (metrics != null) {
+			metrics.tick(clock, activations, emptyWakeUps, events);
+		}
+		activations = 0;
+		emptyWakeUps = 0;
+		return queue_empty;
+	}
+
+	/**
+	 * Runs the entities of the ready set in id order, and empties the set. Entities only become
+	 * ready while events are processed, so the set is stable while they run.
+	 */
+	void runReadyEntities() {
+		for (int w = 0; w < ready.length; w++) {
+			long word = ready[w];
+			ready[w] = 0;
+			while (word != 0) {
+				int i = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+				SimEntity ent = entities.get(i);
+				if (ent.getState() == SimEntity.RUNNABLE) {
+					activations++;
+					if (ent.getEventBuffer() == null && deferred.count(i, CloudSim.SIM_ANY) == 0) {
+						emptyWakeUps++;
+					}
+					runningEntity = i;
+					ent.run();
+				}
+			}
+		}
+		runningEntity = -1;
+	}
+
+	/**
+	 * Processes the events of the future queue occurring at the given time.
+	 *
+	 * @param time the time
+	 * @return the number of events processed
+	 */
+	int processEventsAt(double time) {
+		int events = 0;
+		SimEvent next;
+		while ((next = future.pollAt(time)) != null) {
+			processEvent(next);
+			events++;
+		}
+		return events;
+	}
+
+	/**
+	 * Gets the number of events in the future queue.
+	 *
+	 * @return the number of events
+	 */
+	int getQueueSize() {
+		return future.size();
+	}
+
+	/**
+	 * Returns the next event of the future queue without removing it.
+	 *
+	 * @return the next event, or <code>null</code> if the queue is empty
+	 */
+	SimEvent peekFuture() {
+		return future.peek();
+	}
+
+	/**
+	 * Adds an event to the future queue of this context.
+	 *
+	 * @param e the event
+	 * @param first whether the event goes before the other events of its time
+	 */
+	void enqueue(SimEvent e, boolean first) {
+		if (first) {
+			future.addEventFirst(e);
+		} else {
+			future.addEvent(e);
+		}
+	}
+
+	/**
+	 * Schedules a new event, through the parallel run when this context is a logical process.
+	 */
+	private void schedule(SimEvent e, boolean first) {
+		if (execution != null && parent != null) {
+			execution.post(process, e, first);
+		} else {
+			enqueue(e, first);
+		}
+	}
+
+	/**
+	 * Gets the id of the entity being run, or -1 when no entity runs.
+	 */
+	int getRunningEntity() {
+		return runningEntity;
+	}
+
+	/**
+	 * Sets the id of the entity being run, for the entities run outside the clock ticks.
+	 */
+	void setRunningEntity(int id) {
+		runningEntity = id;
+	}
+
+	/**
+	 * Records the progress of a parallel run at the end of a window or step.
+	 *
+	 * @param time the time reached
+	 * @param events the number of events processed since the last call
+	 */
+	void progress(double time, int events) {
+		clock = time;
+		eventsProcessed += events;
+	}
+
+	/**
+	 * Gets the number of entities run since the counters were reset, and resets it.
+	 */
+	int takeActivations() {
+		int n = activations;
+		activations = 0;
+		return n;
+	}
+
+	/**
+	 * Gets the number of entities run without any event since the counters were reset, and
+	 * resets it.
+	 */
+	int takeEmptyWakeUps() {
+		int n = emptyWakeUps;
+		emptyWakeUps = 0;
+		return n;
+	}
+
+	/**
+	 * Adds an entity to the entities run on the next tick.
+	 *
+	 * @param id the id of the entity
+	 */
+	private void activate(int id) {
+		int w = id >>> 6;
+		if (w >= ready.length) {
+			ready = Arrays.copyOf(ready, Math.max(w + 1, ready.length << 1));
+		}
+		ready[w] |= 1L << id;
+	}
+
+	void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	void hold(int src, long delay) {
+		SimEvent e = newEvent(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
+		schedule(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	void pause(int src, double delay) {
+		SimEvent e = newEvent(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
+		schedule(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	void send(int src, int dest, double delay, int tag, Object data) {
+		schedule(newSendEvent(src, dest, delay, tag, data), false);
+	}
+
+	void sendFirst(int src, int dest, double delay, int tag, Object data) {
+		schedule(newSendEvent(src, dest, delay, tag, data), true);
+	}
+
+	void sendInts(int src, int dest, double delay, int tag, int d0, int d1, int d2) {
+		SimEvent e = newSendEvent(src, dest, delay, tag, null);
+		e.setIntData(d0, d1, d2);
+		schedule(e, false);
+	}
+
+	void sendLong(int src, int dest, double delay, int tag, long d) {
+		SimEvent e = newSendEvent(src, dest, delay, tag, null);
+		e.setLongData(d);
+		schedule(e, false);
+	}
+
+	void sendDouble(int src, int dest, double delay, int tag, double d) {
+		SimEvent e = newSendEvent(src, dest, delay, tag, null);
+		e.setDoubleData(d);
+		schedule(e, false);
+	}
+
+	private SimEvent newSendEvent(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+		return newEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+	}
+
+	/**
+	 * Creates an event, or takes it from the pool if events are pooled.
+	 */
+	private SimEvent newEvent(int evtype, double time, int src, int dest, int tag, Object data) {
+		if (eventPool != null) {
+			return eventPool.obtain(evtype, time, src, dest, tag, data);
+		}
+		return new SimEvent(evtype, time, src, dest, tag, data);
+	}
+
+	/**
+	 * Gives a processed event back to the pool, if events are pooled.
+	 *
+	 * @param e the event
+	 */
+	void releaseEvent(SimEvent e) {
+		if (eventPool != null) {
+			eventPool.release(e);
+		}
+	}
+
+	void wait(int src, Predicate p) {
+		entities.get(src).setState(SimEntity.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			waitPredicates.put(src, p);
+		}
+	}
+
+	int waiting(int d, Predicate p) {
+		return deferred.count(d, p);
+	}
+
+	SimEvent select(int src, Predicate p) {
+		return deferred.select(src, p);
+	}
+
+	SimEvent findFirstDeferred(int src, Predicate p) {
+		return deferred.findFirst(src, p);
+	}
+
+	SimEvent cancel(int src, Predicate p) {
+		if (execution != null && parent != null) {
+			return execution.cancel(process, future, src, p);
+		}
+		return future.removeFirst(src, p);
+	}
+
+	boolean cancelAll(int src, Predicate p) {
+		if (execution != null && parent != null) {
+			return execution.cancelAll(process, future, src, p);
+		}
+		return future.removeAll(src, p) > 0;
+	}
+
+	/**
+	 * Processes an event.
+	 *
+	 * @param e the e
+	 */
+	private void processEvent(SimEvent e) {
+		int dest, src;
+		SimEntity dest_ent;
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL:
+				throw new IllegalArgumentException("Event has a null type.");
+
+			case SimEvent.CREATE:
+				SimEntity newe = (SimEntity) e.getData();
+				addEntityDynamically(newe);
+				releaseEvent(e);
+				break;
+
+			case SimEvent.SEND:
+				// Check for matching wait
+				dest = e.getDestination();
+				if (dest < 0) {
+					throw new IllegalArgumentException("Attempt to send to a null entity detected.");
+				} else {
+					int tag = e.getTag();
+					dest_ent = entities.get(dest);
+					if (dest_ent.getState() == SimEntity.WAITING) {
+						Integer destObj = Integer.valueOf(dest);
+						Predicate p = waitPredicates.get(destObj);
+						if ((p == null) || (tag == 9999) || (p.match(e))) {
+							// the event leaves the kernel here, so it is handed over without a copy
+							dest_ent.setEventBuffer(e);
+							dest_ent.setState(SimEntity.RUNNABLE);
+							waitPredicates.remove(destObj);
+							activate(dest);
+						} else {
+							deferred.addEvent(e);
+						}
+					} else {
+						deferred.addEvent(e);
+						activate(dest);
+					}
+				}
+				break;
+
+			case SimEvent.HOLD_DONE:
+				src = e.getSource();
+				if (src < 0) {
+					throw new IllegalArgumentException("Null entity holding.");
+				} else {
+					entities.get(src).setState(SimEntity.RUNNABLE);
+					activate(src);
+				}
+				releaseEvent(e);
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	void runStart() {
+		running = true;
+		started = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	boolean running() {
+		return running;
+	}
+
+	/**
+	 * Pauses the simulation run with {@link CloudSim#startSimulation()} at the end of the current
+	 * tick. The thread running it blocks without using the processor until
+	 * {@link #resumeSimulation()} is called. Unlike the static methods of {@link CloudSim}, this
+	 * method can be called from any thread.
+	 *
+	 * @return true
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * Pauses the simulation run with {@link CloudSim#startSimulation()} at the given time.
+	 *
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if the time is in the future
+	 * @see #pauseSimulation()
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Resumes the simulation, waking up the thread blocked in the paused run. This method can be
+	 * called from any thread.
+	 *
+	 * @return true
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		Thread thread;
+		synchronized (pauseLock) {
+			thread = pausedThread;
+		}
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+		return !paused;
+	}
+
+	/**
+	 * Returns a future completed with a snapshot of the simulation when its run pauses, or at once
+	 * if it is paused already. This lets a controller wait for a pause requested with
+	 * {@link #pauseSimulation(long)} without polling {@link #isPaused()}. If the run ends without
+	 * pausing, the future is completed with the final snapshot, which is not paused.
+	 *
+	 * @return the future
+	 */
+	public CompletableFuture<SimulationSnapshot> whenPaused() {
+		synchronized (pauseLock) {
+			if (pausedThread != null) {
+				return CompletableFuture.completedFuture(snapshot());
+			}
+			if (pauseFuture == null) {
+				pauseFuture = new CompletableFuture<SimulationSnapshot>();
+			}
+			return pauseFuture;
+		}
+	}
+
+	/**
+	 * Blocks the run while the simulation is paused. The thread is parked, so a paused simulation
+	 * costs no processor time.
+	 */
+	private void awaitResume() {
+		synchronized (pauseLock) {
+			pausedThread = Thread.currentThread();
+		}
+		completePauseFuture();
+
+		boolean interrupted = false;
+		while (paused) {
+			LockSupport.park(this);
+			interrupted |= Thread.interrupted();
+		}
+		synchronized (pauseLock) {
+			pausedThread = null;
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Completes the future returned by {@link #whenPaused()}, if any, with a snapshot.
+	 */
+	private void completePauseFuture() {
+		CompletableFuture<SimulationSnapshot> listener;
+		synchronized (pauseLock) {
+			listener = pauseFuture;
+			pauseFuture = null;
+		}
+		if (listener != null) {
+			listener.complete(snapshot());
+		}
+	}
+
+	/**
+	 * Returns the progress of the simulation. The snapshot is taken without locking, so it can be
+	 * taken from another thread while the simulation runs; it then reflects a recent tick, and
+	 * the clock may be slightly ahead of the number of events processed.
+	 *
+	 * @return the snapshot
+	 */
+	public SimulationSnapshot snapshot() {
+		long processed = eventsProcessed;
+		ParallelExecution run = execution;
+		FutureEventList queue = future;
+		int queueSize;
+		if (run != null && parent == null) {
+			queueSize = run.getQueueSize();
+		} else {
+			queueSize = queue == null ? 0 : queue.size();
+		}
+		return new SimulationSnapshot(clock, queueSize, processed, running, paused);
+	}
+
+	/**
+	 * Saves the whole simulation: its entities, their event queues, the clock and the components
+	 * of higher layers. The settings of the context are not saved: the factory of future event
+	 * lists, the metrics hook, the event pool and the parallel execution. The simulation must not
+	 * be running, except paused: a checkpoint is taken before the simulation starts, between the
+	 * calls of {@link #runUntil(double)} or {@link #runFor(long)}, or while the run is paused.
+	 *
+	 * @return the checkpoint
+	 * @throws IOException if an entity or a component can't be serialized
+	 * @see SimulationCheckpoint
+	 */
+	public SimulationCheckpoint checkpoint() throws IOException {
+		if (execution != null && running) {
+			throw new UnsupportedOperationException("A simulation run in parallel can't be saved.");
+		}
+		return SimulationCheckpoint.of(this);
+	}
+
+	/**
+	 * Restores the transient state of a context read from a checkpoint. The restored simulation
+	 * is not paused.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		futureEventListFactory = BinaryHeapFutureQueue::new;
+		pauseLock = new Object();
+		paused = false;
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+	}
+
+	/**
+	 * Runs the simulation until its next events occur after the given time, or it ends. The
+	 * simulation is started on the first call, and the entities that became ready at the last
+	 * time processed are run before returning, so the run can be continued by any method of this
+	 * class with the same results as if it had not been stopped. The clock stays at the time of
+	 * the last events processed. The context is bound to the calling thread during the call.
+	 *
+	 * @param time the time
+	 * @return the clock
+	 * @throws UnsupportedOperationException if the simulation runs in parallel
+	 */
+	public double runUntil(double time) {
+		advance(time, Long.MAX_VALUE);
+		return clock;
+	}
+
+	/**
+	 * Processes at most the given number of events. The run may stop between two events of a same
+	 * time; the entities that became ready are then run when the remaining events of the time
+	 * have been processed, as in an uninterrupted run. The context is bound to the calling thread
+	 * during the call.
+	 *
+	 * @param events the maximal number of events
+	 * @return the number of events processed, less than requested only if the simulation ended
+	 * @throws UnsupportedOperationException if the simulation runs in parallel
+	 */
+	public long runFor(long events) {
+		return advance(Double.POSITIVE_INFINITY, events);
+	}
+
+	/**
+	 * Processes the next event.
+	 *
+	 * @return false if the simulation has ended
+	 * @throws UnsupportedOperationException if the simulation runs in parallel
+	 * @see #runFor(long)
+	 */
+	public boolean step() {
+		return runFor(1) == 1;
+	}
+
+	/**
+	 * Runs the ticks of the simulation one event at a time, until the next events occur after a
+	 * time, a number of events has been processed, or the simulation ends.
+	 *
+	 * @param until the time
+	 * @param maxEvents the number of events
+	 * @return the number of events processed
+	 */
+	private long advance(double until, long maxEvents) {
+		if (partition != null) {
+			throw new UnsupportedOperationException("A simulation run in parallel can't be stepped.");
+		}
+		SimulationContext previous = CURRENT.get();
+		CURRENT.set(this);
+		long processed = 0;
+		try {
+			if (!started) {
+				runStart();
+			}
+			while (processed < maxEvents && running && !abruptTerminate) {
+				if (!tickOpen) {
+					// run the entities, then open the tick with its first event if it is not too late
+					runReadyEntities();
+					SimEvent first = future.peek();
+					if (first == null) {
+						running = false;
+						printMessage("Simulation: No more future events");
+						closeTick();
+						break;
+					}
+					if (first.eventTime() > until) {
+						break;
+					}
+					tickOpen = true;
+					processEvent(future.poll());
+				} else {
+					SimEvent next = future.pollAt(clock);
+					if (next == null) {
+						closeTick();
+						continue;
+					}
+					processEvent(next);
+				}
+				tickEvents++;
+				processed++;
+			}
+		} finally {
+			eventsProcessed += processed;
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+		return processed;
+	}
+
+	/**
+	 * Ends the tick opened by {@link #advance(double, long)}, as {@link #runClockTick()} ends its
+	 * ticks.
+	 */
+	private void closeTick() {
+		tickOpen = false;
+		if (metrics != null) {
+			metrics.tick(clock, activations, emptyWakeUps, tickEvents);
+		}
+		activations = 0;
+		emptyWakeUps = 0;
+		tickEvents = 0;
+		if (terminateAt > 0.0 && clock >= terminateAt) {
+			terminateSimulation();
+			clock = terminateAt;
+		}
+	}
+
+	double run() {
+		if (partition != null && !running) {
+			if (pauseAt != -1) {
+				throw new UnsupportedOperationException("A simulation run in parallel can't be paused.");
+			}
+			running = true;
+			execution = new ParallelExecution(this, partition, lookahead, metrics);
+			clock = execution.run(terminateAt);
+			running = false;
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+			}
+			completePauseFuture();
+			return clock;
+		}
+		if (!started) {
+			runStart();
+		} else if (tickOpen) {
+			advance(clock, Long.MAX_VALUE);
+		}
+		while (running) {
+			if (runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			if (pauseAt != -1
+					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.peek().eventTime())
+							|| future.size() == 0 && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			if (paused) {
+				awaitResume();
+			}
+		}
+
+		completePauseFuture();
+		return clock;
+	}
+
+	void finishSimulation() {
+		if (execution != null) {
+			execution.finish(abruptTerminate);
+			execution = null;
+		} else {
+			// Allow all entities to exit their body method
+			if (!abruptTerminate) {
+				for (SimEntity ent : entities) {
+					if (ent.getState() != SimEntity.FINISHED) {
+						ent.run();
+					}
+				}
+			}
+
+			for (SimEntity ent : entities) {
+				ent.shutdownEntity();
+			}
+		}
+
+		// reset all simulation variables
+		entities = null;
+		entitiesByName = null;
+		future = null;
+		deferred = null;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+		started = false;
+		tickOpen = false;
+	}
+
+	void abruptallyTerminate() {
+		abruptTerminate = true;
+		if (parent != null) {
+			parent.abruptallyTerminate();
+		}
+	}
+
+	boolean isAbruptlyTerminated() {
+		return abruptTerminate;
+	}
+
+	void setRunning(boolean running) {
+		this.running = running;
+	}
+
+	/**
+	 * Checks whether the simulation is paused. This method can be called from any thread.
+	 *
+	 * @return true if the simulation is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 *
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.printLine(message);
+	}
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * Receives the activity of the simulation kernel after each clock tick. It is registered with
+ * {@link SimulationContext#setMetrics(SimulationMetrics)}.
+ *
+ * @see TickCounter
+ */
+public interface SimulationMetrics {
+
+	/**
+	 * Called after each clock tick.
+	 *
+	 * @param time the simulation time of the events processed by the tick
+	 * @param activations the number of entities run by the tick
+	 * @param emptyWakeUps the number of entities run by the tick without any pending event
+	 * @param events the number of future events processed by the tick
+	 */
+	void tick(double time, int activations, int emptyWakeUps, int events);
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * The progress of a simulation at some point of its run, as returned by
+ * {@link SimulationContext#snapshot()}.
+ *
+ * @see SimulationContext#snapshot()
+ */
+public final class SimulationSnapshot {
+
+	/** The simulation clock. */
+	private final double clock;
+
+	/** The number of events in the future queue. */
+	private final int queueSize;
+
+	/** The number of events processed since the simulation started. */
+	private final long eventsProcessed;
+
+	/** Whether the simulation is running. */
+	private final boolean running;
+
+	/** Whether the simulation is paused. */
+	private final boolean paused;
+
+	SimulationSnapshot(double clock, int queueSize, long eventsProcessed, boolean running, boolean paused) {
+		this.clock = clock;
+		this.queueSize = queueSize;
+		this.eventsProcessed = eventsProcessed;
+		this.running = running;
+		this.paused = paused;
+	}
+
+	/**
+	 * Gets the simulation clock.
+	 *
+	 * @return the clock
+	 */
+	public double getClock() {
+		return clock;
+	}
+
+	/**
+	 * Gets the number of events in the future queue.
+	 *
+	 * @return the queue size
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * Gets the number of events processed since the simulation started.
+	 *
+	 * @return the number of events
+	 */
+	public long getEventsProcessed() {
+		return eventsProcessed;
+	}
+
+	/**
+	 * Checks whether the simulation is running, that is, started and not finished.
+	 *
+	 * @return true if the simulation is running
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Checks whether the simulation is paused.
+	 *
+	 * @return true if the simulation is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	@Override
+	public String toString() {
+		return "clock " + clock + ", " + queueSize + " queued, " + eventsProcessed + " processed"
+				+ (paused ? ", paused" : running ? ", running" : "");
+	}
+
+}
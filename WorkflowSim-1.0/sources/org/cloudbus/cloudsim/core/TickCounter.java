@@ -0,0 +1,102 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * Sums the activity of the simulation kernel over all the clock ticks.
+ *
+ * @see SimulationMetrics
+ */
+public class TickCounter implements SimulationMetrics {
+
+	/** The number of ticks. */
+	private long ticks;
+
+	/** The number of entity activations. */
+	private long activations;
+
+	/** The number of activations without any pending event. */
+	private long emptyWakeUps;
+
+	/** The number of future events processed. */
+	private long events;
+
+	/** The largest number of events processed by one tick. */
+	private int maxEventsPerTick;
+
+	@Override
+	public void tick(double time, int activations, int emptyWakeUps, int events) {
+		ticks++;
+		this.activations += activations;
+		this.emptyWakeUps += emptyWakeUps;
+		this.events += events;
+		maxEventsPerTick = Math.max(maxEventsPerTick, events);
+	}
+
+	/**
+	 * Gets the number of ticks.
+	 *
+	 * @return the number of ticks
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Gets the number of entity activations.
+	 *
+	 * @return the number of activations
+	 */
+	public long getActivations() {
+		return activations;
+	}
+
+	/**
+	 * Gets the number of activations of entities without any pending event.
+	 *
+	 * @return the number of empty wake-ups
+	 */
+	public long getEmptyWakeUps() {
+		return emptyWakeUps;
+	}
+
+	/**
+	 * Gets the number of future events processed.
+	 *
+	 * @return the number of events
+	 */
+	public long getEvents() {
+		return events;
+	}
+
+	/**
+	 * Gets the average number of future events processed per tick.
+	 *
+	 * @return the average number of events per tick
+	 */
+	public double getEventsPerTick() {
+		return ticks == 0 ? 0.0 : (double) events / ticks;
+	}
+
+	/**
+	 * Gets the largest number of future events processed by one tick.
+	 *
+	 * @return the largest number of events per tick
+	 */
+	public int getMaxEventsPerTick() {
+		return maxEventsPerTick;
+	}
+
+	@Override
+	public String toString() {
+		return "ticks = " + ticks + ", activations = " + activations + ", empty wake-ups = "
+				+ emptyWakeUps + ", events = " + events + ", max events per tick = " + maxEventsPerTick;
+	}
+
+}
@@ -21,6 +21,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class PredicateFrom extends Predicate {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The ids. */
 	private final int[] ids;
 
@@ -20,6 +20,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class PredicateNotFrom extends Predicate {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The ids. */
 	private final int[] ids;
 
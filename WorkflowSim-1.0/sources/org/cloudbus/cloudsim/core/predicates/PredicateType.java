@@ -20,6 +20,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class PredicateType extends Predicate {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The tags. */
 	private final int[] tags;
 
@@ -41,6 +43,25 @@ public class PredicateType extends Predicate {
 		this.tags = tags.clone();
 	}
 
+	/**
+	 * Returns the number of tags selected by this predicate.
+	 * 
+	 * @return the number of tags
+	 */
+	public int getNumberOfTags() {
+		return tags.length;
+	}
+
+	/**
+	 * Returns one of the tags selected by this predicate.
+	 * 
+	 * @param index the index of the tag
+	 * @return the tag
+	 */
+	public int getTag(int index) {
+		return tags[index];
+	}
+
 	/**
 	 * The match function called by <code>Sim_system</code>, not used directly by the user.
 	 * 
@@ -34,6 +34,8 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  */
 public class EdgeSwitch extends Switch {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor for Edge Switch We have to specify switches that are connected to its downlink
 	 * and uplink ports, and corresponding bandwidths. In this switch downlink ports are connected
@@ -34,6 +34,8 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
  */
 public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The cloudlet waiting list. */
 	private List<? extends ResCloudlet> cloudletWaitingList;
 
@@ -545,19 +547,6 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		return 0;
 	}
 
-	@Override
-	public double getCloudletCompleteTime(Cloudlet cloudlet, Vm vm, double startTime, double fileTransferTime) {
-		double capacity = vm.getMips();
-		double extraSize = capacity * fileTransferTime;
-		long length = cloudlet.getCloudletLength();
-		length += extraSize;
-		cloudlet.setCloudletLength(length);
-		double completedTime = cloudlet.getCloudletLength() / capacity;
-		completedTime += Math.max(startTime, getDelayTime());
-		setDelayTime(completedTime);
-		return completedTime;
-	}
-
 	/**
 	 * Gets the status of a cloudlet.
 	 * 
@@ -45,6 +45,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class NetworkDatacenter extends Datacenter {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Allocates a new NetworkDatacenter object.
 	 * 
@@ -158,14 +160,10 @@ public class NetworkDatacenter extends Datacenter {
 				// Hence, this might cause CloudSim to be hanged since waiting
 				// for this Cloudlet back.
 				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
 					// unique tag = operation tag
 					int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-					sendNow(cl.getUserId(), tag, data);
+					sendNowInts(cl.getUserId(), tag,
+							getId(), cl.getCloudletId(), CloudSimTags.FALSE);
 				}
 
 				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
@@ -198,14 +196,9 @@ public class NetworkDatacenter extends Datacenter {
 			}
 
 			if (ack) {
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
-
 				// unique tag = operation tag
 				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-				sendNow(cl.getUserId(), tag, data);
+				sendNowInts(cl.getUserId(), tag, getId(), cl.getCloudletId(), CloudSimTags.TRUE);
 			}
 		} catch (ClassCastException c) {
 			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
@@ -40,6 +40,8 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  */
 public class NetworkHost extends Host {
 
+	private static final long serialVersionUID = 1L;
+
 	public List<NetworkPacket> packetTosendLocal;
 
 	public List<NetworkPacket> packetTosendGlobal;
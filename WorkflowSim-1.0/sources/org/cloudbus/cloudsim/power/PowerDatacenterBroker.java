@@ -29,6 +29,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
  */
 public class PowerDatacenterBroker extends DatacenterBroker {
 
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Instantiates a new power datacenter broker.
 	 * 
@@ -46,12 +48,11 @@ public class PowerDatacenterBroker extends DatacenterBroker {
 	 */
 	@Override
 	protected void processVmCreate(SimEvent ev) {
-		int[] data = (int[]) ev.getData();
-		int result = data[2];
+		int result = ev.getIntData(2);
 
 		if (result != CloudSimTags.TRUE) {
-			int datacenterId = data[0];
-			int vmId = data[1];
+			int datacenterId = ev.getIntData(0);
+			int vmId = ev.getIntData(1);
 			System.out.println(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
 					+ " failed in Datacenter #" + datacenterId);
 			System.exit(0);
@@ -23,6 +23,8 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class PeProvisionerSimple extends PeProvisioner {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The pe table. */
 	private Map<String, List<Double>> peTable;
 
@@ -23,6 +23,8 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class RamProvisionerSimple extends RamProvisioner {
 
+	private static final long serialVersionUID = 1L;
+
 	/** The RAM table. */
 	private Map<String, Integer> ramTable;
 
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.util.function.ToIntFunction;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.workflowsim.failure.FailureParameters;
+
+/**
+ * ClusterPartition splits a multi-cluster workflow simulation into logical
+ * processes for {@link SimulationContext#setParallelExecution}: each
+ * WorkflowScheduler runs in a process of its own together with the datacenters
+ * bound to it, and the planner, the clustering engine, the workflow engine and
+ * the CloudSim entities run in process 0.
+ *
+ * The workflow engine and the schedulers exchange messages without delay, so
+ * the simulation must be run with a lookahead of zero. Failure generation,
+ * reclustering and rescheduling share their state between the schedulers, so
+ * a partition can't be created, nor the run started, while they are enabled.
+ *
+ * <pre>
+ * context.setParallelExecution(new ClusterPartition(wfEngine), 0);
+ * </pre>
+ *
+ * The datacenters must be bound to their schedulers before the simulation
+ * starts.
+ *
+ * @author Weiwei Chen
+ * @since WorkflowSim Toolkit 1.0
+ */
+public class ClusterPartition implements ToIntFunction<SimEntity> {
+
+    private final WorkflowEngine engine;
+
+    /**
+     * Creates the partition of a workflow engine and its schedulers.
+     *
+     * @param engine the workflow engine
+     * @throws UnsupportedOperationException if failures, reclustering or
+     * rescheduling are enabled
+     */
+    public ClusterPartition(WorkflowEngine engine) {
+        checkSupported();
+        this.engine = engine;
+    }
+
+    /**
+     * Checks that the schedulers share no state outside events: failures are
+     * generated and monitored, failed jobs reclustered and rescheduled, in
+     * static state of the context that the processes would access
+     * concurrently.
+     */
+    private static void checkSupported() {
+        if (FailureParameters.getFailureGeneratorMode() != FailureParameters.FTCFailure.FAILURE_NONE) {
+            throw new UnsupportedOperationException("Failure generation can't run in parallel.");
+        }
+        if (FailureParameters.getFTCluteringAlgorithm() != FailureParameters.FTCluteringAlgorithm.FTCLUSTERING_NOOP) {
+            throw new UnsupportedOperationException("Reclustering can't run in parallel.");
+        }
+        if (FailureParameters.getFTSchedulingAlgorithm() != FailureParameters.FTSchedulingAlgorithm.FTScheduling_STATIC) {
+            throw new UnsupportedOperationException("Rescheduling can't run in parallel.");
+        }
+    }
+
+    @Override
+    public int applyAsInt(SimEntity entity) {
+        if (entity.getId() == engine.getId()) {
+            // the run partitions the entities as it starts, check again
+            checkSupported();
+            return 0;
+        }
+        for (int i = 0; i < engine.getSchedulers().size(); i++) {
+            WorkflowScheduler scheduler = engine.getScheduler(i);
+            if (scheduler.getId() == entity.getId() || scheduler.isBoundTo(entity.getId())) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -30,6 +30,8 @@ import org.cloudbus.cloudsim.ParameterException;
  */
 public class ClusterStorage extends HarddriveStorage {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The map stores the bandwidth from this cluster-storage to others
      */
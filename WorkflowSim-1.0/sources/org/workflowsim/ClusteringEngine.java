@@ -43,6 +43,8 @@ import org.workflowsim.utils.ReplicaCatalog;
  */
 public final class ClusteringEngine extends SimEntity {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The task list
      */
@@ -28,6 +28,8 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class CondorVM extends Vm {
 
+    private static final long serialVersionUID = 1L;
+
     /*
      * The state of a vm. It should be either WorkflowSimTags.VM_STATUS_IDLE
      * or VM_STATUS_READY (not used in workflowsim) or VM_STATUS_BUSY
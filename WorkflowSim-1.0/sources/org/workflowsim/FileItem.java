@@ -15,6 +15,7 @@
  */
 package org.workflowsim;
 
+import java.io.Serializable;
 import java.util.List;
 import org.workflowsim.utils.Parameters.FileType;
 
@@ -29,7 +30,9 @@ import org.workflowsim.utils.Parameters.FileType;
  *
  * @author weiweich
  */
-public class FileItem {
+public class FileItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String name;
 
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.Storage;
+
+/**
+ * TaskProfile holds what is needed to estimate the runtime of a task on a vm:
+ * its length, the size of its real input files and the time needed to stage
+ * these files in from each storage of a datacenter. Planners evaluating many
+ * schedules of the same workflow compute the profile of every task once,
+ * instead of wrapping the task into a new job for every estimate. A profile
+ * never changes and can be shared between threads.
+ *
+ * @see WorkflowDatacenter#getTaskProfile(Task)
+ * @since WorkflowSim Toolkit 1.0
+ */
+public final class TaskProfile {
+
+    /**
+     * The id of the task.
+     */
+    private final int taskId;
+    /**
+     * The length of the task (in MI).
+     */
+    private final long length;
+    /**
+     * The size of the real input files of the task.
+     */
+    private final double inputSize;
+    /**
+     * The time needed to stage in the real input files from each storage.
+     */
+    private final double[] transferTimes;
+
+    /**
+     * Computes the profile of a task. An input file is a real input file
+     * unless the task also outputs a file with the same name, as in
+     * {@link FileItem#isRealInputFile(List)}.
+     *
+     * @param task the task
+     * @param storageList the storages the input files may be staged in from
+     */
+    public TaskProfile(Task task, List<? extends Storage> storageList) {
+        this.taskId = task.getCloudletId();
+        this.length = task.getCloudletLength();
+
+        List<FileItem> fileList = new ArrayList<>();
+        for (FileItem file : task.getFileList()) {
+            if (!fileList.contains(file)) {
+                fileList.add(file);
+            }
+        }
+        List<FileItem> inputList = new ArrayList<>();
+        double size = 0.0;
+        for (FileItem file : fileList) {
+            if (file.isRealInputFile(fileList)) {
+                inputList.add(file);
+                size += file.getSize();
+            }
+        }
+        this.inputSize = size;
+
+        this.transferTimes = new double[storageList.size()];
+        for (int i = 0; i < transferTimes.length; i++) {
+            double rate = storageList.get(i).getMaxTransferRate();
+            double time = 0.0;
+            for (FileItem file : inputList) {
+                time += file.getSize() / (double) Consts.MILLION / rate;
+            }
+            transferTimes[i] = time;
+        }
+    }
+
+    /**
+     * Gets the id of the task
+     *
+     * @return the task id
+     */
+    public int getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * Gets the length of the task
+     *
+     * @return the length (in MI)
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the size of the real input files of the task
+     *
+     * @return the input size
+     */
+    public double getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Gets the time needed to stage in the real input files of the task from a
+     * storage
+     *
+     * @param storage the index of the storage in the storage list
+     * @return the file transfer time
+     */
+    public double getTransferTime(int storage) {
+        return transferTimes[storage];
+    }
+}
@@ -45,6 +45,8 @@ import org.workflowsim.utils.Parameters.FileType;
  */
 public class WorkflowDatacenter extends Datacenter {
 
+    private static final long serialVersionUID = 1L;
+
     public WorkflowDatacenter(String name,
             DatacenterCharacteristics characteristics,
             VmAllocationPolicy vmAllocationPolicy,
@@ -85,14 +87,10 @@ public class WorkflowDatacenter extends Datacenter {
                 // Hence, this might cause CloudSim to be hanged since waiting
                 // for this Cloudlet back.
                 if (ack) {
-                    int[] data = new int[3];
-                    data[0] = getId();
-                    data[1] = job.getCloudletId();
-                    data[2] = CloudSimTags.FALSE;
-
                     // unique tag = operation tag
                     int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-                    sendNow(job.getUserId(), tag, data);
+                    sendNowInts(job.getUserId(), tag,
+                            getId(), job.getCloudletId(), CloudSimTags.FALSE);
                 }
 
                 sendNow(job.getUserId(), CloudSimTags.CLOUDLET_RETURN, job);
@@ -145,13 +143,8 @@ public class WorkflowDatacenter extends Datacenter {
             }
 
             if (ack) {
-                int[] data = new int[3];
-                data[0] = getId();
-                data[1] = job.getCloudletId();
-                data[2] = CloudSimTags.TRUE;
-
                 int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-                sendNow(job.getUserId(), tag, data);
+                sendNowInts(job.getUserId(), tag, getId(), job.getCloudletId(), CloudSimTags.TRUE);
             }
         } catch (ClassCastException c) {
             Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
@@ -172,6 +165,95 @@ public class WorkflowDatacenter extends Datacenter {
         return estimatedFinishTime;
     }
 
+    /**
+     * Estimates the finish time of a job without changing the state of the vm
+     * scheduler, so that it can be called concurrently. The caller keeps track
+     * of when each vm becomes free.
+     *
+     * @param job the job
+     * @param vm the vm running the job
+     * @param startTime the earliest time the job may start
+     * @param readyTime the time the vm becomes free
+     * @return the estimated finish time
+     */
+    public double getEstimatedFinishTime(Task job, CondorVM vm, double startTime, double readyTime) {
+        double fileTransferTime = getFileTransferTime(job.getFileList(), job);
+        CloudletScheduler scheduler = vm.getCloudletScheduler();
+        return scheduler.getCloudletCompleteTime(job.getCloudletLength(), vm, startTime, readyTime, fileTransferTime);
+    }
+
+    /**
+     * Gets the time needed to stage in the real input files of a job. It does
+     * not depend on the vm the job runs on and thus can be computed once.
+     *
+     * @param job the job
+     * @return the file transfer time
+     */
+    public double getFileTransferTime(Task job) {
+        return getFileTransferTime(job.getFileList(), job);
+    }
+
+    /**
+     * Computes the execution profile of a task, with the time needed to stage
+     * in its input files from each storage of this datacenter.
+     *
+     * @param task the task
+     * @return the task profile
+     */
+    public TaskProfile getTaskProfile(Task task) {
+        return new TaskProfile(task, getStorageList());
+    }
+
+    /**
+     * Estimates the finish time of a task from its profile, like
+     * {@link #getEstimatedFinishTime(Task, CondorVM, double, double)}.
+     *
+     * @param profile the task profile, computed by this datacenter
+     * @param vm the vm running the task
+     * @param startTime the earliest time the task may start
+     * @param readyTime the time the vm becomes free
+     * @return the estimated finish time
+     */
+    public double getEstimatedFinishTime(TaskProfile profile, CondorVM vm, double startTime, double readyTime) {
+        CloudletScheduler scheduler = vm.getCloudletScheduler();
+        return scheduler.getCloudletCompleteTime(profile.getLength(), vm, startTime, readyTime,
+                getFileTransferTime(profile));
+    }
+
+    /**
+     * Gets the time needed to stage in the real input files of a task from its
+     * profile, computed by this datacenter.
+     *
+     * @param profile the task profile
+     * @return the file transfer time
+     */
+    public double getFileTransferTime(TaskProfile profile) {
+        switch (ReplicaCatalog.getFileSystem()) {
+            case SHARED:
+                /**
+                 * Picks up the site that is closest
+                 */
+                int closest = -1;
+                double maxRate = Double.MIN_VALUE;
+                List<Storage> storageList = getStorageList();
+                for (int i = 0; i < storageList.size(); i++) {
+                    double rate = storageList.get(i).getMaxTransferRate();
+                    if (rate > maxRate) {
+                        maxRate = rate;
+                        closest = i;
+                    }
+                }
+                if (closest < 0) {
+                    // no storage to stage the files in from
+                    return profile.getInputSize() > 0 ? Double.POSITIVE_INFINITY : 0.0;
+                }
+                return profile.getTransferTime(closest);
+            case LOCAL:
+            default:
+                return 0.0;
+        }
+    }
+
     public void resetDelayTime(CondorVM vm){
         CloudletScheduler scheduler = vm.getCloudletScheduler();
         scheduler.setDelayTime(0f);
@@ -15,11 +15,14 @@
  */
 package org.workflowsim;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
@@ -42,6 +45,8 @@ import org.workflowsim.utils.Parameters;
  */
 public final class WorkflowEngine extends SimEntity {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The job list.
      */
@@ -64,6 +69,70 @@ public final class WorkflowEngine extends SimEntity {
      */
     private List<Integer> schedulerId;
     private List<WorkflowScheduler> scheduler;
+    /**
+     * The ids of the jobs received.
+     */
+    private final BitSet receivedJobIds = new BitSet();
+    /**
+     * The ids of the jobs received that wait in the failed job list of the
+     * ReclusteringEngine.
+     */
+    private final BitSet failedJobIds = new BitSet();
+    /**
+     * The job list that the pending jobs index.
+     */
+    private List<? extends Cloudlet> indexedJobsList;
+    /**
+     * The pending jobs of the job list, by job.
+     */
+    private final Map<Job, PendingJob> pendingJobs = new HashMap<>();
+    /**
+     * The pending jobs in the order of the job list, including the jobs
+     * submitted since the job list was indexed.
+     */
+    private final List<PendingJob> indexedJobs = new ArrayList<>();
+    /**
+     * The pending jobs waiting for a parent, by the id of that parent.
+     */
+    private final Map<Integer, List<PendingJob>> waitingJobs = new HashMap<>();
+    /**
+     * The positions of the pending jobs whose parents have all completed.
+     */
+    private final BitSet readyJobs = new BitSet();
+    /**
+     * The ready jobs held back until the failed jobs are handled.
+     */
+    private final List<PendingJob> heldJobs = new ArrayList<>();
+
+    /**
+     * A job of the job list waiting to be submitted.
+     */
+    private static final class PendingJob implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The job.
+         */
+        private final Job job;
+        /**
+         * The position of the job in the job list.
+         */
+        private final int index;
+        /**
+         * The number of parents that have not completed.
+         */
+        private int waitingParents;
+        /**
+         * The number of parents counted in waitingParents.
+         */
+        private int countedParents;
+
+        private PendingJob(Job job, int index) {
+            this.job = job;
+            this.index = index;
+        }
+    }
 
     /**
      * Created a new WorkflowEngine object.
@@ -176,6 +245,7 @@ public final class WorkflowEngine extends SimEntity {
     private void handleFailTask() {
         int newId = getJobsList().size() + getJobsSubmittedList().size();
         getJobsList().addAll(ReclusteringEngine.handleFailedJob(newId));
+        releaseFailedJobs();
         if(!getJobsList().isEmpty() || jobsSubmitted != 0){
             sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
             send(this.getId(), FailureParameters.getFailureClusteringDelay(), WorkflowSimTags.CLOUDLET_FAIL_HANDLE, null);
@@ -242,10 +312,13 @@ public final class WorkflowEngine extends SimEntity {
             }else{
                 // 收集失败任务
                 ReclusteringEngine.addFailedJob(job);
+                failedJobIds.set(job.getCloudletId());
             }
 
         }
         getJobsReceivedList().add(job);
+        receivedJobIds.set(job.getCloudletId());
+        releaseChildren(job.getCloudletId());
         jobsSubmitted--;
         if (getJobsList().isEmpty() && jobsSubmitted == 0 && ReclusteringEngine.getFailedJobList().isEmpty()) {
             //send msg to all the schedulers
@@ -273,24 +346,132 @@ public final class WorkflowEngine extends SimEntity {
     }
 
     /**
-     * Checks whether a job list contains a id
+     * Checks whether the parents with an id have completed, that is, a job
+     * with this id was received and none waits in the failed job list.
      *
-     * @param jobList the job list
      * @param id the job id
-     * @return
+     * @return whether the parents have completed
+     */
+    private boolean isCompleted(int id) {
+        return receivedJobIds.get(id) && !failedJobIds.get(id);
+    }
+
+    /**
+     * Indexes the jobs added to the job list since the last call, or the
+     * whole list if it was replaced or jobs were removed from it. Jobs are
+     * only appended to the job list, and the children of a retried job are
+     * given the new jobs as parents, so the parents added to these children
+     * are counted as well.
      */
-    private boolean hasJobListContainsID(List jobList, int id) {
-        for (Iterator it = jobList.iterator(); it.hasNext();) {
-            Job job = (Job) it.next();
-            if (job.getCloudletId() == id) {
-                return true;
+    private void indexJobsList() {
+        List<Job> list = getJobsList();
+        int from = pendingJobs.size();
+        if (list != indexedJobsList || list.size() < from) {
+            indexedJobsList = list;
+            pendingJobs.clear();
+            indexedJobs.clear();
+            waitingJobs.clear();
+            readyJobs.clear();
+            heldJobs.clear();
+            from = 0;
+        }
+        for (int i = from; i < list.size(); i++) {
+            Job job = list.get(i);
+            PendingJob pending = new PendingJob(job, indexedJobs.size());
+            pendingJobs.put(job, pending);
+            indexedJobs.add(pending);
+            countParents(pending);
+        }
+        if (from > 0) {
+            for (int i = from; i < list.size(); i++) {
+                for (Task child : list.get(i).getChildList()) {
+                    PendingJob pending = pendingJobs.get((Job) child);
+                    if (pending != null) {
+                        countParents(pending);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the parents added to a pending job since they were last counted,
+     * and waits for those that have not completed.
+     *
+     * @param pending the pending job
+     */
+    private void countParents(PendingJob pending) {
+        List<Task> parentList = pending.job.getParentList();
+        for (int i = pending.countedParents; i < parentList.size(); i++) {
+            int id = parentList.get(i).getCloudletId();
+            if (!isCompleted(id)) {
+                pending.waitingParents++;
+                waitingJobs.computeIfAbsent(id, k -> new ArrayList<>()).add(pending);
+            }
+        }
+        pending.countedParents = parentList.size();
+        readyJobs.set(pending.index, pending.waitingParents == 0);
+    }
+
+    /**
+     * Releases the pending jobs waiting for the parents with an id, if these
+     * parents have completed.
+     *
+     * @param id the job id
+     */
+    private void releaseChildren(int id) {
+        if (!isCompleted(id)) {
+            return;
+        }
+        List<PendingJob> children = waitingJobs.remove(id);
+        if (children != null) {
+            for (PendingJob pending : children) {
+                if (--pending.waitingParents == 0) {
+                    readyJobs.set(pending.index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the children of the failed jobs once the ReclusteringEngine
+     * has handled them, together with the jobs held back by them.
+     */
+    private void releaseFailedJobs() {
+        BitSet failed = (BitSet) failedJobIds.clone();
+        failedJobIds.clear();
+        for (int id = failed.nextSetBit(0); id >= 0; id = failed.nextSetBit(id + 1)) {
+            releaseChildren(id);
+        }
+        for (PendingJob pending : heldJobs) {
+            readyJobs.set(pending.index);
+        }
+        heldJobs.clear();
+    }
+
+    /**
+     * Checks whether a parent of a job waits in the failed job list. A job
+     * with the id of a completed parent may fail after the children of this
+     * parent were released.
+     *
+     * @param job the job
+     * @return whether a parent failed
+     */
+    private boolean hasFailedParent(Job job) {
+        if (!failedJobIds.isEmpty()) {
+            List<Task> parentList = job.getParentList();
+            for (Task parent : parentList) {
+                if (failedJobIds.get(parent.getCloudletId())) {
+                    return true;
+                }
             }
         }
         return false;
     }
 
     /**
-     * Submit jobs to the created VMs.
+     * Submit jobs to the created VMs. The jobs whose parents have all
+     * completed are submitted in the order of the job list.
      *
      * @pre $none
      * @post $none
@@ -303,37 +484,34 @@ public final class WorkflowEngine extends SimEntity {
             List<Job> submittedList = new ArrayList<>();
             allocationList.put(getSchedulerId(i), submittedList);
         }
-        int num = list.size();
-        for (int i = 0; i < num; i++) {
-            //at the beginning
-            Job job = list.get(i);
+        indexJobsList();
+        Set<Job> submittedJobs = new HashSet<>();
+        for (int i = readyJobs.nextSetBit(0); i >= 0; i = readyJobs.nextSetBit(i + 1)) {
+            PendingJob pending = indexedJobs.get(i);
+            Job job = pending.job;
+            readyJobs.clear(i);
             //Dont use job.isFinished() it is not right
-            if (!hasJobListContainsID(this.getJobsReceivedList(), job.getCloudletId())) {
-                List<Job> parentList = job.getParentList();
-                boolean flag = true;
-                for (Job parent : parentList) {
-                    if (!hasJobListContainsID(this.getJobsReceivedList(), parent.getCloudletId())
-                    || hasJobListContainsID(ReclusteringEngine.getFailedJobList(), parent.getCloudletId())) {
-                        flag = false;
-                        break;
-                    }
-                }
-                /**
-                 * This job's parents have all completed successfully. Should
-                 * submit.
-                 */
-                if (flag) {
-                    List submittedList = allocationList.get(job.getUserId());
-                    job.setExecStartTime(CloudSim.clock());
-                    submittedList.add(job);
-                    jobsSubmitted++;
-                    getJobsSubmittedList().add(job);
-                    list.remove(job);
-                    i--;
-                    num--;
-                }
+            if (receivedJobIds.get(job.getCloudletId())) {
+                continue;
             }
-
+            if (hasFailedParent(job)) {
+                heldJobs.add(pending);
+                continue;
+            }
+            /**
+             * This job's parents have all completed successfully. Should
+             * submit.
+             */
+            List submittedList = allocationList.get(job.getUserId());
+            job.setExecStartTime(CloudSim.clock());
+            submittedList.add(job);
+            jobsSubmitted++;
+            getJobsSubmittedList().add(job);
+            pendingJobs.remove(job);
+            submittedJobs.add(job);
+        }
+        if (!submittedJobs.isEmpty()) {
+            list.removeIf(submittedJobs::contains);
         }
         /**
          * If we have multiple schedulers. Divide them equally.
@@ -379,6 +557,7 @@ public final class WorkflowEngine extends SimEntity {
      */
     @Override
     public void shutdownEntity() {
+        ReclusteringEngine.shutdown();
         Log.printLine(getName() + " is shutting down...");
     }
 
@@ -0,0 +1,701 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * WorkflowGenerator generates synthetic workflows of any size shaped like the
+ * Montage, CyberShake, Epigenomics, Inspiral and Sipht workflows, to test
+ * planners and engines on workflows larger than the bundled DAX files.
+ * <p>
+ * The structure of each family is built by its own rules, with the
+ * proportions of the template DAX file of the family: the number of
+ * seismograms per SGT extraction in CyberShake, of chunks per lane in
+ * Epigenomics, of banks per coincidence test in Inspiral and of Patser jobs
+ * per unit in Sipht. Montage mosaics a square grid of images, diffing each
+ * image with four of its neighbours. Every generated job then copies a job of
+ * the same type in the template, one with children of the same types if
+ * possible: its runtime, its output file sizes and its external inputs, shared
+ * inputs keeping their names. A job reads from each parent the outputs a job
+ * of its type reads from a parent of that type in the template. The runtimes
+ * and file sizes thus follow the distributions of the template.
+ * <p>
+ * A workflow generated is written as a DAX file with {@link #writeDax}, whose
+ * binary image {@link WorkflowParser} keeps on its first load when images are
+ * kept, or is turned into tasks directly with
+ * {@link WorkflowParser#parse(WorkflowGenerator)}.
+ *
+ * @since WorkflowSim Toolkit 1.0
+ */
+public final class WorkflowGenerator {
+
+    /**
+     * The families of workflows, with their template DAX files in config/dax.
+     */
+    public enum Family {
+
+        MONTAGE("Montage_1000.xml"),
+        CYBERSHAKE("CyberShake_1000.xml"),
+        EPIGENOMICS("Epigenomics_997.xml"),
+        INSPIRAL("Inspiral_1000.xml"),
+        SIPHT("Sipht_100.xml");
+
+        private final String template;
+
+        private Family(String template) {
+            this.template = template;
+        }
+
+        /**
+         * Gets the name of the template DAX file of the family
+         *
+         * @return the file name
+         */
+        public String getTemplate() {
+            return template;
+        }
+    }
+
+    /**
+     * The family generated.
+     */
+    private final Family family;
+    /**
+     * The number of jobs of each type in the template.
+     */
+    private final Map<String, Integer> typeCounts = new HashMap<>();
+    /**
+     * The template jobs of each type.
+     */
+    private final Map<String, List<JobProfile>> jobsByType = new HashMap<>();
+    /**
+     * The template jobs of each type and child types.
+     */
+    private final Map<String, List<JobProfile>> jobsByChildren = new HashMap<>();
+    /**
+     * The outputs of a parent read by a child, by parent and child types, for
+     * the jobs copying a template job without children of the type.
+     */
+    private final Map<String, int[]> readSlots = new HashMap<>();
+    /**
+     * The types of the jobs that write one output for each child.
+     */
+    private final Set<String> fanOutTypes = new HashSet<>();
+    /**
+     * The jobs and dependencies of the workflow generated last, in the form
+     * read from DAX files.
+     */
+    private List<Object> elements;
+    /**
+     * The number of jobs generated last.
+     */
+    private int jobCount;
+
+    /**
+     * Initializes a generator from the template DAX file of a family
+     *
+     * @param family the family
+     * @param templatePath the path to the template DAX file, for instance
+     * config/dax/ followed by {@link Family#getTemplate()}
+     * @throws IOException if the template cannot be read
+     * @throws XMLStreamException if the template is not valid
+     */
+    public WorkflowGenerator(Family family, String templatePath) throws IOException, XMLStreamException {
+        this.family = family;
+        List<Object> template;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(templatePath))) {
+            template = WorkflowParser.readXmlFile(in);
+        }
+        profile(template);
+    }
+
+    /**
+     * A job of the template: its type, its runtime, its outputs and the inputs
+     * no job of the template writes.
+     */
+    private static final class JobProfile {
+
+        private String type;
+        private String runtime;
+        private final List<String> outputNames = new ArrayList<>();
+        private final List<String> outputSizes = new ArrayList<>();
+        private final List<String> inputNames = new ArrayList<>();
+        private final List<String> inputSizes = new ArrayList<>();
+        private final List<Boolean> sharedInputs = new ArrayList<>();
+        private final Set<String> childTypes = new TreeSet<>();
+        private final List<JobProfile> children = new ArrayList<>();
+        private final Map<String, int[]> readSlots = new HashMap<>();
+    }
+
+    /**
+     * Profiles the jobs of the template.
+     */
+    private void profile(List<Object> template) {
+        Map<String, WorkflowParser.JobElement> jobs = new LinkedHashMap<>();
+        Map<String, String> producers = new HashMap<>();
+        Map<String, Integer> consumers = new HashMap<>();
+        for (Object element : template) {
+            if (element instanceof WorkflowParser.JobElement) {
+                WorkflowParser.JobElement job = (WorkflowParser.JobElement) element;
+                jobs.put(job.id, job);
+                for (int i = 0; i < job.fileNames.size(); i++) {
+                    if ("output".equals(job.links.get(i))) {
+                        producers.put(job.fileNames.get(i), job.id);
+                    } else {
+                        consumers.merge(job.fileNames.get(i), 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        Map<String, JobProfile> profiles = new HashMap<>();
+        for (WorkflowParser.JobElement job : jobs.values()) {
+            JobProfile profile = new JobProfile();
+            profile.type = job.name;
+            profile.runtime = job.runtime;
+            for (int i = 0; i < job.fileNames.size(); i++) {
+                String name = job.fileNames.get(i);
+                if ("output".equals(job.links.get(i))) {
+                    profile.outputNames.add(name);
+                    profile.outputSizes.add(job.sizes.get(i));
+                } else if (!producers.containsKey(name)) {
+                    profile.inputNames.add(name);
+                    profile.inputSizes.add(job.sizes.get(i));
+                    profile.sharedInputs.add(consumers.get(name) > 1);
+                }
+            }
+            profiles.put(job.id, profile);
+            typeCounts.merge(job.name, 1, Integer::sum);
+            jobsByType.computeIfAbsent(job.name, k -> new ArrayList<>()).add(profile);
+        }
+
+        Map<String, Set<Integer>> slots = new HashMap<>();
+        Map<JobProfile, Map<String, Set<Integer>>> jobSlots = new HashMap<>();
+        Set<String> notFanOut = new HashSet<>();
+        for (Object element : template) {
+            if (element instanceof WorkflowParser.ChildElement) {
+                WorkflowParser.ChildElement child = (WorkflowParser.ChildElement) element;
+                WorkflowParser.JobElement childJob = jobs.get(child.ref);
+                if (childJob == null) {
+                    continue;
+                }
+                Set<String> inputs = new HashSet<>();
+                for (int i = 0; i < childJob.fileNames.size(); i++) {
+                    if (!"output".equals(childJob.links.get(i))) {
+                        inputs.add(childJob.fileNames.get(i));
+                    }
+                }
+                for (String parentName : child.parentNames) {
+                    JobProfile parent = profiles.get(parentName);
+                    if (parent == null) {
+                        continue;
+                    }
+                    parent.childTypes.add(childJob.name);
+                    parent.children.add(profiles.get(child.ref));
+                    Set<Integer> read = new TreeSet<>();
+                    for (int i = 0; i < parent.outputNames.size(); i++) {
+                        if (inputs.contains(parent.outputNames.get(i))) {
+                            read.add(i);
+                        }
+                    }
+                    slots.computeIfAbsent(parent.type + '>' + childJob.name, k -> new TreeSet<>()).addAll(read);
+                    jobSlots.computeIfAbsent(parent, k -> new HashMap<>())
+                            .computeIfAbsent(childJob.name, k -> new TreeSet<>()).addAll(read);
+                    if (read.size() != 1) {
+                        notFanOut.add(parent.type);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Set<Integer>> entry : slots.entrySet()) {
+            readSlots.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        for (Map.Entry<JobProfile, Map<String, Set<Integer>>> entry : jobSlots.entrySet()) {
+            for (Map.Entry<String, Set<Integer>> read : entry.getValue().entrySet()) {
+                entry.getKey().readSlots.put(read.getKey(), toArray(read.getValue()));
+            }
+        }
+
+        // a job writes one output for each child if each child reads one
+        // output of its own
+        for (Map.Entry<String, List<JobProfile>> entry : jobsByType.entrySet()) {
+            boolean fanOut = !notFanOut.contains(entry.getKey());
+            boolean split = false;
+            for (JobProfile profile : entry.getValue()) {
+                fanOut &= profile.children.size() == profile.outputNames.size();
+                split |= profile.children.size() > 1;
+                jobsByChildren.computeIfAbsent(profile.type + profile.childTypes, k -> new ArrayList<>()).add(profile);
+            }
+            if (fanOut && split) {
+                fanOutTypes.add(entry.getKey());
+            }
+        }
+    }
+
+    private static int[] toArray(Set<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Generates a workflow. The number of jobs generated is the nearest to the
+     * number asked that the structure of the family allows.
+     *
+     * @param jobs the number of jobs
+     * @param seed the seed of the random choices of template jobs
+     * @return the number of jobs generated
+     */
+    public int generate(int jobs, long seed) {
+        Structure structure = new Structure();
+        switch (family) {
+            case MONTAGE:
+                buildMontage(structure, jobs);
+                break;
+            case CYBERSHAKE:
+                buildCyberShake(structure, jobs);
+                break;
+            case EPIGENOMICS:
+                buildEpigenomics(structure, jobs);
+                break;
+            case INSPIRAL:
+                buildInspiral(structure, jobs);
+                break;
+            case SIPHT:
+                buildSipht(structure, jobs);
+                break;
+        }
+        this.elements = createElements(structure, new Random(seed));
+        this.jobCount = structure.types.size();
+        return jobCount;
+    }
+
+    /**
+     * Gets the number of jobs generated last
+     *
+     * @return the number of jobs
+     */
+    public int getJobCount() {
+        return jobCount;
+    }
+
+    /**
+     * Gets the jobs and dependencies generated last, in the form read from DAX
+     * files.
+     */
+    List<Object> getElements() {
+        if (elements == null) {
+            throw new IllegalStateException("No workflow generated");
+        }
+        return elements;
+    }
+
+    /**
+     * The jobs of a workflow being generated: their types and parents, parents
+     * before children.
+     */
+    private static final class Structure {
+
+        private final List<String> types = new ArrayList<>();
+        private final List<int[]> parents = new ArrayList<>();
+
+        private int add(String type, int... parentJobs) {
+            types.add(type);
+            parents.add(parentJobs);
+            return types.size() - 1;
+        }
+
+        private int add(String type, List<Integer> parentJobs) {
+            return add(type, parentJobs.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Gets the ratio between the numbers of jobs of two types in the template.
+     */
+    private double ratio(String type, String per) {
+        Integer count = typeCounts.get(type);
+        Integer perCount = typeCounts.get(per);
+        if (count == null || perCount == null) {
+            throw new IllegalArgumentException("The template is not a " + family + " workflow");
+        }
+        return (double) count / perCount;
+    }
+
+    /**
+     * Splits a number of jobs into groups as evenly as possible.
+     */
+    private static int share(int total, int groups, int group) {
+        return total / groups + (group < total % groups ? 1 : 0);
+    }
+
+    /**
+     * Counts the pairs of overlapping images of a Montage grid.
+     */
+    private static int countOverlaps(int images) {
+        int width = (int) Math.ceil(Math.sqrt(images));
+        int overlaps = 0;
+        for (int i = 0; i < images; i++) {
+            overlaps += getOverlaps(i, images, width).size();
+        }
+        return overlaps;
+    }
+
+    /**
+     * Gets the images of a Montage grid overlapping an image and after it: the
+     * next image of its row and three images of the next row.
+     */
+    private static List<Integer> getOverlaps(int image, int images, int width) {
+        List<Integer> overlaps = new ArrayList<>(4);
+        int column = image % width;
+        int[] next = {image + 1, image + width - 1, image + width, image + width + 1};
+        boolean[] valid = {column < width - 1, column > 0, true, column < width - 1};
+        for (int i = 0; i < next.length; i++) {
+            if (valid[i] && next[i] < images) {
+                overlaps.add(next[i]);
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Montage: each image is projected, diffed with its overlapping images
+     * and corrected by the background model fitted on all the differences,
+     * before the corrected images are added into one mosaic.
+     */
+    private void buildMontage(Structure s, int jobs) {
+        int images = Math.max(1, (jobs - 6) / 6);
+        while (2 * images + countOverlaps(images) + 6 < jobs) {
+            images++;
+        }
+        while (images > 1 && 2 * (images - 1) + countOverlaps(images - 1) + 6 >= jobs) {
+            images--;
+        }
+        int width = (int) Math.ceil(Math.sqrt(images));
+        int[] projections = new int[images];
+        for (int i = 0; i < images; i++) {
+            projections[i] = s.add("mProjectPP");
+        }
+        List<Integer> diffs = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            for (int overlap : getOverlaps(i, images, width)) {
+                diffs.add(s.add("mDiffFit", projections[i], projections[overlap]));
+            }
+        }
+        int concat = s.add("mConcatFit", diffs);
+        int model = s.add("mBgModel", concat);
+        List<Integer> backgrounds = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            backgrounds.add(s.add("mBackground", projections[i], model));
+        }
+        int table = s.add("mImgTbl", backgrounds);
+        int add = s.add("mAdd", table);
+        int shrink = s.add("mShrink", add);
+        s.add("mJPEG", shrink);
+    }
+
+    /**
+     * CyberShake: the SGTs extracted for each site feed the synthesis of its
+     * seismograms, whose peak values are computed, and both are zipped.
+     */
+    private void buildCyberShake(Structure s, int jobs) {
+        double perSite = ratio("SeismogramSynthesis", "ExtractSGT");
+        int sites = Math.max(1, (int) Math.round((jobs - 2) / 2.0 / perSite));
+        int seismograms = Math.max(1, (jobs - 2 - sites) / 2);
+        int[] extractions = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            extractions[i] = s.add("ExtractSGT");
+        }
+        List<Integer> syntheses = new ArrayList<>();
+        List<Integer> peaks = new ArrayList<>();
+        for (int i = 0; i < seismograms; i++) {
+            int synthesis = s.add("SeismogramSynthesis", extractions[(int) ((long) i * sites / seismograms)]);
+            syntheses.add(synthesis);
+            peaks.add(s.add("PeakValCalcOkaya", synthesis));
+        }
+        s.add("ZipSeis", syntheses);
+        s.add("ZipPSA", peaks);
+    }
+
+    /**
+     * Epigenomics: each lane is split into chunks that go through a pipeline
+     * of four jobs, the chunks of a lane are merged, and the lanes are merged
+     * again before indexing.
+     */
+    private void buildEpigenomics(Structure s, int jobs) {
+        double perLane = ratio("filterContams_chr21", "fastqSplit_chr21");
+        int lanes = Math.max(1, (int) Math.round((jobs - 3) / (4 * perLane + 2)));
+        int globalMerge = lanes > 1 ? 1 : 0;
+        int chunks = Math.max(lanes, (jobs - 2 - globalMerge - 2 * lanes) / 4);
+        List<Integer> merges = new ArrayList<>();
+        for (int lane = 0; lane < lanes; lane++) {
+            int split = s.add("fastqSplit_chr21");
+            List<Integer> maps = new ArrayList<>();
+            for (int i = share(chunks, lanes, lane); i > 0; i--) {
+                int filter = s.add("filterContams_chr21", split);
+                int sanger = s.add("sol2sanger_chr21", filter);
+                int bfq = s.add("fastq2bfq_chr21", sanger);
+                maps.add(s.add("map_chr21", bfq));
+            }
+            merges.add(s.add("mapMerge_chr21", maps));
+        }
+        int merge = lanes > 1 ? s.add("mapMerge_chr21", merges) : merges.get(0);
+        int index = s.add("maqindex_chr21", merge);
+        s.add("pileup_chr21", index);
+    }
+
+    /**
+     * Inspiral: in each group, the template banks are filtered by inspiral
+     * jobs and tested for coincidence, and the triggered banks go through
+     * inspiral jobs and a coincidence test again.
+     */
+    private void buildInspiral(Structure s, int jobs) {
+        double perTest = ratio("TmpltBank", "Thinca") + ratio("TrigBank", "Thinca");
+        int groups = Math.max(1, (int) Math.round(jobs / (4 * perTest + 2)));
+        int banks = Math.max(groups, (jobs - 2 * groups) / 4);
+        for (int group = 0; group < groups; group++) {
+            int size = share(banks, groups, group);
+            List<Integer> inspirals = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                inspirals.add(s.add("Inspiral", s.add("TmpltBank")));
+            }
+            int test = s.add("Thinca", inspirals);
+            inspirals.clear();
+            for (int i = 0; i < size; i++) {
+                inspirals.add(s.add("Inspiral", s.add("TrigBank", test)));
+            }
+            s.add("Thinca", inspirals);
+        }
+    }
+
+    /**
+     * Sipht: independent units, each searching for small RNAs in one genome
+     * and annotating them with the concatenated Patser results.
+     */
+    private void buildSipht(Structure s, int jobs) {
+        double perUnit = ratio("Patser", "Patser_concate");
+        int units = Math.max(1, (int) Math.round(jobs / (perUnit + 12)));
+        int patsers = Math.max(units, jobs - 12 * units);
+        for (int unit = 0; unit < units; unit++) {
+            List<Integer> patserJobs = new ArrayList<>();
+            for (int i = share(patsers, units, unit); i > 0; i--) {
+                patserJobs.add(s.add("Patser"));
+            }
+            int concate = s.add("Patser_concate", patserJobs);
+            int findterm = s.add("Findterm");
+            int motif = s.add("RNAMotif");
+            int transterm = s.add("Transterm");
+            int blast = s.add("Blast");
+            int srna = s.add("SRNA", blast, findterm, motif, transterm);
+            int parse = s.add("FFN_Parse", srna);
+            int candidate = s.add("Blast_candidate", srna);
+            int qrna = s.add("Blast_QRNA", srna);
+            int synteny = s.add("Blast_synteny", srna, parse);
+            int paralogues = s.add("Blast_paralogues", srna);
+            s.add("SRNA_annotate", srna, candidate, concate, qrna, synteny, paralogues);
+        }
+    }
+
+    /**
+     * Creates the job and child elements of a structure, copying the files and
+     * runtimes of template jobs.
+     */
+    private List<Object> createElements(Structure s, Random random) {
+        int size = s.types.size();
+        String[] ids = new String[size];
+        List<List<Integer>> children = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids[i] = String.format("ID%05d", i);
+            children.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            for (int parent : s.parents.get(i)) {
+                children.get(parent).add(i);
+            }
+        }
+
+        JobProfile[] donors = new JobProfile[size];
+        List<List<String>> outputNames = new ArrayList<>(size);
+        List<List<String>> outputSizes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String type = s.types.get(i);
+            Set<String> childTypes = new TreeSet<>();
+            for (int child : children.get(i)) {
+                childTypes.add(s.types.get(child));
+            }
+            List<JobProfile> candidates = jobsByChildren.get(type + childTypes);
+            if (candidates == null) {
+                candidates = jobsByType.get(type);
+            }
+            if (candidates == null) {
+                throw new IllegalArgumentException("The template has no " + type + " job");
+            }
+            JobProfile donor = candidates.get(random.nextInt(candidates.size()));
+            donors[i] = donor;
+            int outputs = fanOutTypes.contains(type) ? children.get(i).size() : donor.outputNames.size();
+            List<String> names = new ArrayList<>(outputs);
+            List<String> sizes = new ArrayList<>(outputs);
+            for (int k = 0; k < outputs; k++) {
+                int slot = k % donor.outputNames.size();
+                names.add(ids[i] + '_' + (outputs == donor.outputNames.size() ? "" : k + "_")
+                        + donor.outputNames.get(slot));
+                sizes.add(donor.outputSizes.get(slot));
+            }
+            outputNames.add(names);
+            outputSizes.add(sizes);
+        }
+
+        List<Object> result = new ArrayList<>(2 * size);
+        for (int i = 0; i < size; i++) {
+            JobProfile donor = donors[i];
+            List<String> fileNames = new ArrayList<>();
+            List<String> links = new ArrayList<>();
+            List<String> sizes = new ArrayList<>();
+            for (int k = 0; k < donor.inputNames.size(); k++) {
+                String name = donor.inputNames.get(k);
+                fileNames.add(donor.sharedInputs.get(k) ? name : ids[i] + '_' + name);
+                links.add("input");
+                sizes.add(donor.inputSizes.get(k));
+            }
+            for (int parent : s.parents.get(i)) {
+                String parentType = s.types.get(parent);
+                int[] slots;
+                if (fanOutTypes.contains(parentType)) {
+                    slots = new int[]{children.get(parent).indexOf(i)};
+                } else {
+                    slots = donors[parent].readSlots.get(s.types.get(i));
+                    if (slots == null) {
+                        slots = readSlots.getOrDefault(parentType + '>' + s.types.get(i), new int[0]);
+                    }
+                }
+                for (int slot : slots) {
+                    if (slot < outputNames.get(parent).size()) {
+                        fileNames.add(outputNames.get(parent).get(slot));
+                        links.add("input");
+                        sizes.add(outputSizes.get(parent).get(slot));
+                    }
+                }
+            }
+            for (int k = 0; k < outputNames.get(i).size(); k++) {
+                fileNames.add(outputNames.get(i).get(k));
+                links.add("output");
+                sizes.add(outputSizes.get(i).get(k));
+            }
+            result.add(new WorkflowParser.JobElement(ids[i], s.types.get(i), donor.runtime, fileNames, links, sizes));
+        }
+        for (int i = 0; i < size; i++) {
+            int[] parents = s.parents.get(i);
+            if (parents.length > 0) {
+                List<String> parentNames = new ArrayList<>(parents.length);
+                for (int parent : parents) {
+                    parentNames.add(ids[parent]);
+                }
+                result.add(new WorkflowParser.ChildElement(ids[i], parentNames));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the workflow generated last as a DAX file
+     *
+     * @param path the path to the DAX file
+     * @throws IOException if the file cannot be written
+     * @throws XMLStreamException if the XML cannot be written
+     */
+    public void writeDax(String path) throws IOException, XMLStreamException {
+        List<Object> daxElements = getElements();
+        int childCount = 0;
+        for (Object element : daxElements) {
+            if (element instanceof WorkflowParser.ChildElement) {
+                childCount++;
+            }
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path))) {
+            XMLStreamWriter writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out, "UTF-8");
+            try {
+                writer.writeStartDocument("UTF-8", "1.0");
+                writer.writeCharacters("\n");
+                writer.writeComment(" generated by WorkflowGenerator from a " + family + " template ");
+                writer.writeCharacters("\n");
+                writer.writeStartElement("adag");
+                writer.writeDefaultNamespace("http://pegasus.isi.edu/schema/DAX");
+                writer.writeAttribute("version", "2.1");
+                writer.writeAttribute("name", family.toString().toLowerCase());
+                writer.writeAttribute("jobCount", Integer.toString(jobCount));
+                writer.writeAttribute("childCount", Integer.toString(childCount));
+                for (Object element : daxElements) {
+                    if (element instanceof WorkflowParser.JobElement) {
+                        WorkflowParser.JobElement job = (WorkflowParser.JobElement) element;
+                        writer.writeCharacters("\n  ");
+                        writer.writeStartElement("job");
+                        writer.writeAttribute("id", job.id);
+                        writer.writeAttribute("name", job.name);
+                        if (job.runtime != null) {
+                            writer.writeAttribute("runtime", job.runtime);
+                        }
+                        for (int i = 0; i < job.fileNames.size(); i++) {
+                            writer.writeCharacters("\n    ");
+                            writer.writeEmptyElement("uses");
+                            writer.writeAttribute("file", job.fileNames.get(i));
+                            writer.writeAttribute("link", job.links.get(i));
+                            if (job.sizes.get(i) != null) {
+                                writer.writeAttribute("size", job.sizes.get(i));
+                            }
+                        }
+                        writer.writeCharacters("\n  ");
+                        writer.writeEndElement();
+                    } else {
+                        WorkflowParser.ChildElement child = (WorkflowParser.ChildElement) element;
+                        writer.writeCharacters("\n  ");
+                        writer.writeStartElement("child");
+                        writer.writeAttribute("ref", child.ref);
+                        for (String parent : child.parentNames) {
+                            writer.writeCharacters("\n    ");
+                            writer.writeEmptyElement("parent");
+                            writer.writeAttribute("ref", parent);
+                        }
+                        writer.writeCharacters("\n  ");
+                        writer.writeEndElement();
+                    }
+                }
+                writer.writeCharacters("\n");
+                writer.writeEndElement();
+                writer.writeCharacters("\n");
+                writer.writeEndDocument();
+            } finally {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,619 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.workflowsim.utils.Parameters.FileType;
+
+/**
+ * WorkflowImage is the binary image of a parsed DAX file, so that a workflow
+ * loaded again does not need to be parsed again. It holds the tasks of the
+ * workflow, in the order of the DAX file, with their length before scaling,
+ * type and depth, the files they use as indexes into a table of distinct files
+ * (name, size and type), their parents and children as compressed sparse rows
+ * and the topological order of the workflow. It also keeps the warnings
+ * printed while the file was parsed, so that a workflow loaded from its image
+ * logs the same messages as a parsed one. The image is only valid for the DAX
+ * file with the same digest, which is kept in its header.
+ *
+ * @see WorkflowParser
+ * @since WorkflowSim Toolkit 1.0
+ */
+final class WorkflowImage {
+
+    /**
+     * The first bytes of an image.
+     */
+    private static final int MAGIC = 0x57464931;
+    /**
+     * The version of the format.
+     */
+    private static final int VERSION = 2;
+    /**
+     * The strings: the task types, the file names and the warnings.
+     */
+    private final String[] strings;
+    /**
+     * The string index of the name of each file.
+     */
+    private final int[] fileNames;
+    /**
+     * The size of each file.
+     */
+    private final double[] fileSizes;
+    /**
+     * The type of each file.
+     */
+    private final FileType[] fileTypes;
+    /**
+     * The length of each task, before scaling.
+     */
+    private final long[] lengths;
+    /**
+     * The string index of the type of each task.
+     */
+    private final int[] types;
+    /**
+     * The depth of each task.
+     */
+    private final int[] depths;
+    /**
+     * The files used by each task, from fileOffsets[i] to fileOffsets[i + 1].
+     */
+    private final int[] fileOffsets;
+    private final int[] files;
+    /**
+     * The parents of each task, from parentOffsets[i] to parentOffsets[i + 1].
+     */
+    private final int[] parentOffsets;
+    private final int[] parents;
+    /**
+     * The children of each task, from childOffsets[i] to childOffsets[i + 1].
+     */
+    private final int[] childOffsets;
+    private final int[] children;
+    /**
+     * The tasks in topological order.
+     */
+    private final int[] order;
+    /**
+     * The string index of each warning printed while parsing, in order.
+     */
+    private final int[] warnings;
+
+    /**
+     * Reads an image from a buffer. Every count, offset and index is checked
+     * against the rest of the image, so that a corrupt image is rejected here
+     * rather than when its tasks are created.
+     *
+     * @throws IllegalArgumentException if the image is corrupt
+     */
+    private WorkflowImage(ByteBuffer buffer) {
+        this.strings = new String[getCount(buffer, 4)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[getCount(buffer, 1)];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int fileCount = getCount(buffer, 13);
+        this.fileNames = new int[fileCount];
+        this.fileSizes = new double[fileCount];
+        this.fileTypes = new FileType[fileCount];
+        FileType[] values = FileType.values();
+        for (int i = 0; i < fileCount; i++) {
+            fileNames[i] = checkIndex(buffer.getInt(), strings.length, true);
+            fileSizes[i] = buffer.getDouble();
+            fileTypes[i] = values[checkIndex(buffer.get(), values.length, false)];
+        }
+        int taskCount = getCount(buffer, 16);
+        this.lengths = new long[taskCount];
+        this.types = new int[taskCount];
+        this.depths = new int[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            lengths[i] = buffer.getLong();
+            types[i] = checkIndex(buffer.getInt(), strings.length, true);
+            depths[i] = buffer.getInt();
+        }
+        this.fileOffsets = getOffsets(buffer, taskCount);
+        this.files = getIndexes(buffer, fileOffsets[taskCount], fileCount);
+        this.parentOffsets = getOffsets(buffer, taskCount);
+        this.parents = getIndexes(buffer, parentOffsets[taskCount], taskCount);
+        this.childOffsets = getOffsets(buffer, taskCount);
+        this.children = getIndexes(buffer, childOffsets[taskCount], taskCount);
+        this.order = getIndexes(buffer, getCount(buffer, 4), taskCount);
+        this.warnings = getIndexes(buffer, getCount(buffer, 4), strings.length);
+    }
+
+    /**
+     * Reads the number of elements that follow in a buffer.
+     *
+     * @param size the smallest size of an element, in bytes
+     */
+    private static int getCount(ByteBuffer buffer, int size) {
+        return checkCount(buffer, buffer.getInt(), size);
+    }
+
+    private static int checkCount(ByteBuffer buffer, int count, int size) {
+        if (count < 0 || count > buffer.remaining() / size) {
+            throw new IllegalArgumentException("Invalid count in workflow image: " + count);
+        }
+        return count;
+    }
+
+    private static int checkIndex(int index, int bound, boolean nullable) {
+        if (index >= bound || index < (nullable ? -1 : 0)) {
+            throw new IllegalArgumentException("Invalid index in workflow image: " + index);
+        }
+        return index;
+    }
+
+    /**
+     * Reads an array of ints from a buffer.
+     */
+    private static int[] getInts(ByteBuffer buffer, int count) {
+        int[] values = new int[checkCount(buffer, count, 4)];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    /**
+     * Reads the offsets of the rows of the tasks, which must start at 0 and
+     * never decrease.
+     */
+    private static int[] getOffsets(ByteBuffer buffer, int taskCount) {
+        int[] offsets = getInts(buffer, taskCount + 1);
+        checkIndex(offsets[0], 1, false);
+        for (int i = 0; i < taskCount; i++) {
+            if (offsets[i + 1] < offsets[i]) {
+                throw new IllegalArgumentException("Invalid offset in workflow image: " + offsets[i + 1]);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Reads an array of indexes, each below a bound.
+     */
+    private static int[] getIndexes(ByteBuffer buffer, int count, int bound) {
+        int[] indexes = getInts(buffer, count);
+        for (int index : indexes) {
+            checkIndex(index, bound, false);
+        }
+        return indexes;
+    }
+
+    /**
+     * Computes the digest of the content of a DAX file
+     *
+     * @param content the content of the file
+     * @return the digest
+     */
+    public static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Maps an image file into memory and reads it
+     *
+     * @param file the image file
+     * @param digest the digest of the DAX file
+     * @return the image, or null if the file does not exist, is not an image,
+     * is corrupt or is the image of another DAX file
+     */
+    public static WorkflowImage read(File file, byte[] digest) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            byte[] imageDigest = new byte[getCount(buffer, 1)];
+            buffer.get(imageDigest);
+            if (!MessageDigest.isEqual(imageDigest, digest)) {
+                return null;
+            }
+            return new WorkflowImage(buffer);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of tasks
+     *
+     * @return the number of tasks
+     */
+    public int getTaskCount() {
+        return lengths.length;
+    }
+
+    /**
+     * Gets the length of a task, before scaling
+     *
+     * @param task the index of the task
+     * @return the length
+     */
+    public long getLength(int task) {
+        return lengths[task];
+    }
+
+    /**
+     * Gets the type of a task
+     *
+     * @param task the index of the task
+     * @return the type
+     */
+    public String getType(int task) {
+        return getString(types[task]);
+    }
+
+    /**
+     * Gets the depth of a task
+     *
+     * @param task the index of the task
+     * @return the depth
+     */
+    public int getDepth(int task) {
+        return depths[task];
+    }
+
+    /**
+     * Gets the first file use of a task
+     *
+     * @param task the index of the task
+     * @return the index of the first use
+     */
+    public int getFileStart(int task) {
+        return fileOffsets[task];
+    }
+
+    /**
+     * Gets the end of the file uses of a task
+     *
+     * @param task the index of the task
+     * @return the index after the last use
+     */
+    public int getFileEnd(int task) {
+        return fileOffsets[task + 1];
+    }
+
+    /**
+     * Gets the name of the file of a use
+     *
+     * @param use the index of the use
+     * @return the file name
+     */
+    public String getFileName(int use) {
+        return getString(fileNames[files[use]]);
+    }
+
+    /**
+     * Gets the size of the file of a use
+     *
+     * @param use the index of the use
+     * @return the file size
+     */
+    public double getFileSize(int use) {
+        return fileSizes[files[use]];
+    }
+
+    /**
+     * Gets the type of the file of a use
+     *
+     * @param use the index of the use
+     * @return the file type
+     */
+    public FileType getFileType(int use) {
+        return fileTypes[files[use]];
+    }
+
+    /**
+     * Gets the first parent edge of a task
+     *
+     * @param task the index of the task
+     * @return the index of the first edge
+     */
+    public int getParentStart(int task) {
+        return parentOffsets[task];
+    }
+
+    /**
+     * Gets the end of the parent edges of a task
+     *
+     * @param task the index of the task
+     * @return the index after the last edge
+     */
+    public int getParentEnd(int task) {
+        return parentOffsets[task + 1];
+    }
+
+    /**
+     * Gets the parent of a parent edge
+     *
+     * @param edge the index of the edge
+     * @return the index of the parent
+     */
+    public int getParent(int edge) {
+        return parents[edge];
+    }
+
+    /**
+     * Gets the first child edge of a task
+     *
+     * @param task the index of the task
+     * @return the index of the first edge
+     */
+    public int getChildStart(int task) {
+        return childOffsets[task];
+    }
+
+    /**
+     * Gets the end of the child edges of a task
+     *
+     * @param task the index of the task
+     * @return the index after the last edge
+     */
+    public int getChildEnd(int task) {
+        return childOffsets[task + 1];
+    }
+
+    /**
+     * Gets the child of a child edge
+     *
+     * @param edge the index of the edge
+     * @return the index of the child
+     */
+    public int getChild(int edge) {
+        return children[edge];
+    }
+
+    /**
+     * Gets the tasks in topological order
+     *
+     * @return the indexes of the tasks
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Gets the warnings printed while the DAX file was parsed
+     *
+     * @return the messages, as printed
+     */
+    public List<String> getWarnings() {
+        List<String> messages = new ArrayList<>(warnings.length);
+        for (int warning : warnings) {
+            messages.add(getString(warning));
+        }
+        return messages;
+    }
+
+    private String getString(int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    /**
+     * Builder collects the tasks of a DAX file while it is parsed, and writes
+     * its image.
+     */
+    static final class Builder {
+
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> stringList = new ArrayList<>();
+        private final Map<List<Object>, Integer> files = new HashMap<>();
+        private final List<List<Object>> fileList = new ArrayList<>();
+        private final List<Long> lengths = new ArrayList<>();
+        private final List<Integer> types = new ArrayList<>();
+        private final List<List<Integer>> taskFiles = new ArrayList<>();
+        private final List<Integer> warnings = new ArrayList<>();
+        private List<Task> tasks;
+        private List<Task> order;
+
+        /**
+         * Adds a task, in the order of the DAX file
+         *
+         * @param length the length of the task, before scaling
+         * @param type the type of the task
+         */
+        void addTask(long length, String type) {
+            lengths.add(length);
+            types.add(intern(type));
+            taskFiles.add(new ArrayList<>());
+        }
+
+        /**
+         * Adds a file used by the last task added. The size and type are the
+         * ones read from the DAX file, not the ones of a file already in the
+         * replica catalog.
+         *
+         * @param name the name of the file
+         * @param size the size of the file
+         * @param type the type of the file
+         */
+        void addFile(String name, double size, FileType type) {
+            List<Object> key = Arrays.asList(name, size, type);
+            Integer index = files.get(key);
+            if (index == null) {
+                index = fileList.size();
+                files.put(key, index);
+                fileList.add(key);
+            }
+            taskFiles.get(taskFiles.size() - 1).add(index);
+        }
+
+        /**
+         * Adds a warning printed while parsing
+         *
+         * @param message the message, as printed
+         */
+        void addWarning(String message) {
+            warnings.add(intern(message));
+        }
+
+        /**
+         * Sets the tasks created, with their dependencies and depths
+         *
+         * @param tasks the tasks, in the order they were added
+         * @param order the tasks in topological order
+         */
+        void setTasks(List<Task> tasks, List<Task> order) {
+            this.tasks = tasks;
+            this.order = order;
+        }
+
+        private int intern(String string) {
+            if (string == null) {
+                return -1;
+            }
+            Integer index = strings.get(string);
+            if (index == null) {
+                index = stringList.size();
+                strings.put(string, index);
+                stringList.add(string);
+            }
+            return index;
+        }
+
+        /**
+         * Writes the image. The image is written to a temporary file first, so
+         * that another simulation never maps a partial image.
+         *
+         * @param file the image file
+         * @param digest the digest of the DAX file
+         * @throws IOException if the image cannot be written
+         */
+        void write(File file, byte[] digest) throws IOException {
+            int taskCount = tasks.size();
+            int firstId = taskCount == 0 ? 0 : tasks.get(0).getCloudletId();
+            int[] fileNames = new int[fileList.size()];
+            for (int i = 0; i < fileNames.length; i++) {
+                fileNames[i] = intern((String) fileList.get(i).get(0));
+            }
+            byte[][] bytes = new byte[stringList.size()][];
+            int size = 16 + digest.length;
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = stringList.get(i).getBytes(StandardCharsets.UTF_8);
+                size += 4 + bytes[i].length;
+            }
+            int uses = 0;
+            int edges = 0;
+            for (int i = 0; i < taskCount; i++) {
+                uses += taskFiles.get(i).size();
+                edges += tasks.get(i).getParentList().size() + tasks.get(i).getChildList().size();
+            }
+            size += 4 + 13 * fileNames.length + 4 + 16 * taskCount
+                    + 4 * (3 * (taskCount + 1) + uses + edges) + 4 + 4 * order.size()
+                    + 4 + 4 * warnings.size();
+
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(digest.length).put(digest);
+            buffer.putInt(bytes.length);
+            for (byte[] string : bytes) {
+                buffer.putInt(string.length).put(string);
+            }
+            buffer.putInt(fileNames.length);
+            for (int i = 0; i < fileNames.length; i++) {
+                buffer.putInt(fileNames[i]);
+                buffer.putDouble((Double) fileList.get(i).get(1));
+                buffer.put((byte) ((FileType) fileList.get(i).get(2)).ordinal());
+            }
+            buffer.putInt(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                buffer.putLong(lengths.get(i)).putInt(types.get(i)).putInt(tasks.get(i).getDepth());
+            }
+            int offset = 0;
+            buffer.putInt(offset);
+            for (List<Integer> taskUses : taskFiles) {
+                offset += taskUses.size();
+                buffer.putInt(offset);
+            }
+            for (List<Integer> taskUses : taskFiles) {
+                for (int use : taskUses) {
+                    buffer.putInt(use);
+                }
+            }
+            offset = 0;
+            buffer.putInt(offset);
+            for (Task task : tasks) {
+                offset += task.getParentList().size();
+                buffer.putInt(offset);
+            }
+            for (Task task : tasks) {
+                for (Task parent : task.getParentList()) {
+                    buffer.putInt(parent.getCloudletId() - firstId);
+                }
+            }
+            offset = 0;
+            buffer.putInt(offset);
+            for (Task task : tasks) {
+                offset += task.getChildList().size();
+                buffer.putInt(offset);
+            }
+            for (Task task : tasks) {
+                for (Task child : task.getChildList()) {
+                    buffer.putInt(child.getCloudletId() - firstId);
+                }
+            }
+            buffer.putInt(order.size());
+            for (Task task : order) {
+                buffer.putInt(task.getCloudletId() - firstId);
+            }
+            buffer.putInt(warnings.size());
+            for (int warning : warnings) {
+                buffer.putInt(warning);
+            }
+            buffer.flip();
+
+            File directory = file.getAbsoluteFile().getParentFile();
+            Files.createDirectories(directory.toPath());
+            File temp = File.createTempFile(file.getName(), ".tmp", directory);
+            try {
+                try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+        }
+    }
+}
@@ -15,13 +15,27 @@
  */
 package org.workflowsim;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.cloudbus.cloudsim.Log;
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -32,14 +46,25 @@ import org.workflowsim.utils.Parameters.FileType;
 import org.workflowsim.utils.ReplicaCatalog;
 
 /**
- * WorkflowParser parse a DAX into tasks so that WorkflowSim can manage them
+ * WorkflowParser parse a DAX into tasks so that WorkflowSim can manage them.
+ * By default the DAX files are streamed with StAX, several files at a time,
+ * and the binary image of each file is kept so that loading it again does not
+ * parse it again; the jdom parser, which builds the whole document first, is
+ * kept as a fallback.
  *
  * @author Weiwei Chen
  * @since WorkflowSim Toolkit 1.0
  * @date Aug 23, 2013
  * @date Nov 9, 2014
  */
-public final class WorkflowParser {
+public final class WorkflowParser implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The line separator printed by {@link Log#printLine(String)}.
+     */
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
     /**
      * The path to DAX file.
@@ -62,6 +87,18 @@ public final class WorkflowParser {
      * current job id. In case multiple workflow submission
      */
     private int jobIdStartsFrom;
+    /**
+     * Whether the DAX files are read with StAX instead of jdom.
+     */
+    private boolean streaming = true;
+    /**
+     * The number of DAX files read at the same time when streaming.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * The directory of the workflow images, or null if no image is kept.
+     */
+    private File imageDirectory;
 
     /**
      * Gets the task list
@@ -85,6 +122,10 @@ public final class WorkflowParser {
      * Map from task name to task.
      */
     protected Map<String, Task> mName2Task;
+    /**
+     * All tasks, parents first.
+     */
+    private final List<Task> topologicalOrder;
 
     /**
      * Initialize a WorkflowParser
@@ -98,6 +139,8 @@ public final class WorkflowParser {
         this.daxPath = Parameters.getDaxPath();
         this.daxPaths = Parameters.getDAXPaths();
         this.jobIdStartsFrom = 1;
+        this.topologicalOrder = new ArrayList<>();
+        setImageDirectory(Parameters.getImageDirectory());
 
         setTaskList(new ArrayList<>());
     }
@@ -106,28 +149,82 @@ public final class WorkflowParser {
      * Start to parse a workflow which is a xml file(s).
      */
     public void parse() {
+        List<String> paths;
         if (this.daxPath != null) {
-            parseXmlFile(this.daxPath);
+            paths = Collections.singletonList(this.daxPath);
         } else if (this.daxPaths != null) {
-            for (String path : this.daxPaths) {
+            paths = this.daxPaths;
+        } else {
+            return;
+        }
+        if (this.streaming) {
+            streamXmlFiles(paths);
+        } else {
+            for (String path : paths) {
                 parseXmlFile(path);
             }
         }
     }
 
     /**
-     * Sets the depth of a task
+     * Creates the tasks of the workflow generated last by a generator, as if
+     * it was read from a DAX file.
      *
-     * @param task the task
-     * @param depth the depth
+     * @param generator the generator
      */
-    private void setDepth(Task task, int depth) {
-        if (depth > task.getDepth()) {
-            task.setDepth(depth);
-        }
-        for (Task cTask : task.getChildList()) {
-            setDepth(cTask, task.getDepth() + 1);
-        }
+    public void parse(WorkflowGenerator generator) {
+        addElements(generator.getElements(), null);
+    }
+
+    /**
+     * Checks whether the DAX files are read with StAX
+     *
+     * @return whether the files are streamed
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets whether the DAX files are read with StAX, or with jdom
+     *
+     * @param streaming whether the files are streamed
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Sets the number of DAX files read at the same time when streaming
+     *
+     * @param parallelism the number of threads
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the directory where the binary images of the DAX files streamed are
+     * kept. A DAX file is parsed once, and its image is mapped on later loads
+     * instead, as long as the content of the file does not change. By default
+     * the directory is the one of {@link Parameters#getImageDirectory()}, and
+     * no image is kept if it is not set. The images are never removed.
+     *
+     * @param directory the directory of the images, or null to always parse
+     * the DAX files
+     */
+    public void setImageDirectory(String directory) {
+        this.imageDirectory = directory == null ? null : new File(directory);
+    }
+
+    /**
+     * Gets the tasks in topological order: every task comes after its parents.
+     * The workflows parsed follow each other, in the order of their files.
+     *
+     * @return the tasks in topological order
+     */
+    public List<Task> getTopologicalOrder() {
+        return topologicalOrder;
     }
 
     /**
@@ -142,177 +239,594 @@ public final class WorkflowParser {
             Document dom = builder.build(new File(path));
             Element root = dom.getRootElement();
             List<Element> list = root.getChildren();
+            int first = getTaskList().size();
             for (Element node : list) {
                 switch (node.getName().toLowerCase()) {
                     case "job":
-                        long length = 0;
-                        String nodeName = node.getAttributeValue("id");
-                        String nodeType = node.getAttributeValue("name");
-                        /**
-                         * capture runtime. If not exist, by default the runtime
-                         * is 0.1. Otherwise CloudSim would ignore this task.
-                         * BUG/#11
-                         */
-                        double runtime;
-                        if (node.getAttributeValue("runtime") != null) {
-                            String nodeTime = node.getAttributeValue("runtime");
-                            runtime = 1000 * Double.parseDouble(nodeTime);
-                            if (runtime < 100) {
-                                runtime = 100;
-                            }
-                            length = (long) runtime;
-                        } else {
-                            Log.printLine("Cannot find runtime for " + nodeName + ",set it to be 0");
-                        }   //multiple the scale, by default it is 1.0
-                        length *= Parameters.getRuntimeScale();
-                        List<Element> fileList = node.getChildren();
-                        List<FileItem> mFileList = new ArrayList<>();
-                        for (Element file : fileList) {
+                        List<String> fileNames = new ArrayList<>();
+                        List<String> links = new ArrayList<>();
+                        List<String> sizes = new ArrayList<>();
+                        for (Element file : node.getChildren()) {
                             if (file.getName().toLowerCase().equals("uses")) {
                                 String fileName = file.getAttributeValue("name");//DAX version 3.3
                                 if (fileName == null) {
                                     fileName = file.getAttributeValue("file");//DAX version 3.0
                                 }
-                                if (fileName == null) {
-                                    Log.print("Error in parsing xml");
-                                }
+                                fileNames.add(fileName);
+                                links.add(file.getAttributeValue("link"));
+                                sizes.add(file.getAttributeValue("size"));
+                            }
+                        }
+                        addJob(new JobElement(node.getAttributeValue("id"), node.getAttributeValue("name"),
+                                node.getAttributeValue("runtime"), fileNames, links, sizes), null);
+                        break;
+                    case "child":
+                        List<String> parentNames = new ArrayList<>();
+                        for (Element parent : node.getChildren()) {
+                            parentNames.add(parent.getAttributeValue("ref"));
+                        }
+                        addChild(new ChildElement(node.getAttributeValue("ref"), parentNames));
+                        break;
+                }
+            }
+            setDepths(first);
 
-                                String inout = file.getAttributeValue("link");
-                                double size = 0.0;
+        } catch (JDOMException jde) {
+            Log.printLine("JDOM Exception;Please make sure your dax file is valid");
 
-                                String fileSize = file.getAttributeValue("size");
-                                if (fileSize != null) {
-                                    size = Double.parseDouble(fileSize) /*/ 1024*/;
-                                } else {
-                                    Log.printLine("File Size not found for " + fileName);
-                                }
+        } catch (IOException ioe) {
+            Log.printLine("IO Exception;Please make sure dax.path is correctly set in your config file");
 
-                                /**
-                                 * a bug of cloudsim, size 0 causes a problem. 1
-                                 * is ok.
-                                 */
-                                if (size == 0) {
-                                    size++;
-                                }
-                                /**
-                                 * Sets the file type 1 is input 2 is output
-                                 */
-                                FileType type = FileType.NONE;
-                                switch (inout) {
-                                    case "input":
-                                        type = FileType.INPUT;
-                                        break;
-                                    case "output":
-                                        type = FileType.OUTPUT;
-                                        break;
-                                    default:
-                                        Log.printLine("Parsing Error");
-                                        break;
-                                }
-                                FileItem tFile;
-                                /*
-                                 * Already exists an input file (forget output file)
-                                 */
-                                if (size < 0) {
-                                    /*
-                                     * Assuming it is a parsing error
-                                     */
-                                    size = 0 - size;
-                                    Log.printLine("Size is negative, I assume it is a parser error");
-                                }
-                                /*
-                                 * Note that CloudSim use size as MB, in this case we use it as Byte
-                                 */
-                                if (type == FileType.OUTPUT) {
-                                    /**
-                                     * It is good that CloudSim does tell
-                                     * whether a size is zero
-                                     */
-                                    tFile = new FileItem(fileName, size);
-                                } else if (ReplicaCatalog.containsFile(fileName)) {
-                                    tFile = ReplicaCatalog.getFile(fileName);
-                                } else {
-
-                                    tFile = new FileItem(fileName, size);
-                                    ReplicaCatalog.setFile(fileName, tFile);
-                                }
+        } catch (Exception e) {
+            e.printStackTrace();
+            Log.printLine("Parsing Exception");
+        }
+    }
 
-                                tFile.setType(type);
-                                mFileList.add(tFile);
+    /**
+     * Parse DAX files with StAX. The files are read concurrently, into
+     * elements that hold the attributes of the jobs and dependencies, without
+     * building a DOM. The tasks are then created on the calling thread, one
+     * file after the other, so that the tasks of each file get a contiguous
+     * range of ids and the files shared between workflows are resolved in the
+     * same order as a serial parse.
+     */
+    private void streamXmlFiles(List<String> paths) {
+        File directory = this.imageDirectory;
+        if (paths.size() == 1 || parallelism <= 1) {
+            for (String path : paths) {
+                try {
+                    addDaxFile(readDaxFile(path, directory));
+                } catch (Exception e) {
+                    handleReadException(e);
+                }
+            }
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, paths.size()));
+        try {
+            List<Future<DaxFile>> reads = new ArrayList<>();
+            for (String path : paths) {
+                reads.add(pool.submit(() -> readDaxFile(path, directory)));
+            }
+            for (Future<DaxFile> read : reads) {
+                try {
+                    addDaxFile(read.get());
+                } catch (ExecutionException e) {
+                    handleReadException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Log.printLine("Parsing interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-                            }
+    /**
+     * Logs an exception thrown while reading a DAX file, like the jdom parser
+     * does.
+     */
+    private void handleReadException(Throwable e) {
+        if (e instanceof XMLStreamException) {
+            Log.printLine("XML Exception;Please make sure your dax file is valid");
+        } else if (e instanceof IOException) {
+            Log.printLine("IO Exception;Please make sure dax.path is correctly set in your config file");
+        } else {
+            e.printStackTrace();
+            Log.printLine("Parsing Exception");
+        }
+    }
+
+    /**
+     * Reads a DAX file. When images are kept, the image of the file is mapped
+     * instead if there is one for its content. Like
+     * {@link #readXmlFile(InputStream)}, it does not touch the state of the
+     * simulation.
+     *
+     * @param path the path to the DAX file
+     * @param directory the directory of the images, or null
+     * @return the content of the file
+     */
+    private static DaxFile readDaxFile(String path, File directory) throws IOException, XMLStreamException {
+        if (directory == null) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(path))) {
+                return new DaxFile(null, null, readXmlFile(in));
+            }
+        }
+        byte[] content = Files.readAllBytes(Paths.get(path));
+        byte[] digest = WorkflowImage.digest(content);
+        WorkflowImage image = WorkflowImage.read(getImageFile(directory, digest), digest);
+        if (image != null) {
+            return new DaxFile(digest, image, null);
+        }
+        return new DaxFile(digest, null, readXmlFile(new ByteArrayInputStream(content)));
+    }
+
+    /**
+     * Gets the image file of a DAX file, named after the digest of its content.
+     */
+    private static File getImageFile(File directory, byte[] digest) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : digest) {
+            name.append(String.format("%02x", b));
+        }
+        return new File(directory, name.append(".image").toString());
+    }
+
+    /**
+     * Reads the jobs and dependencies of a DAX file in document order. It does
+     * not touch the state of the simulation, so that files can be read on any
+     * thread. The names read are interned, as the same file names and job
+     * types repeat through the whole workflow.
+     *
+     * @param in the content of the DAX file
+     * @return the job and child elements
+     */
+    static List<Object> readXmlFile(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        Map<String, String> names = new HashMap<>();
+        List<Object> elements = new ArrayList<>();
+        XMLStreamReader reader = factory.createXMLStreamReader(in);
+        try {
+            int depth = 0;
+            String id = null;
+            String name = null;
+            String runtime = null;
+            String ref = null;
+            List<String> fileNames = null;
+            List<String> links = null;
+            List<String> sizes = null;
+            List<String> parentNames = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String element = reader.getLocalName().toLowerCase();
+                    if (depth == 2) {
+                        if (element.equals("job")) {
+                            id = intern(names, reader.getAttributeValue(null, "id"));
+                            name = intern(names, reader.getAttributeValue(null, "name"));
+                            runtime = reader.getAttributeValue(null, "runtime");
+                            fileNames = new ArrayList<>();
+                            links = new ArrayList<>();
+                            sizes = new ArrayList<>();
+                        } else if (element.equals("child")) {
+                            ref = intern(names, reader.getAttributeValue(null, "ref"));
+                            parentNames = new ArrayList<>();
                         }
-                        Task task;
-                        //In case of multiple workflow submission. Make sure the jobIdStartsFrom is consistent.
-                        synchronized (this) {
-                            task = new Task(this.jobIdStartsFrom, length);
-                            this.jobIdStartsFrom++;
+                    } else if (depth == 3 && fileNames != null) {
+                        if (element.equals("uses")) {
+                            String fileName = reader.getAttributeValue(null, "name");//DAX version 3.3
+                            if (fileName == null) {
+                                fileName = reader.getAttributeValue(null, "file");//DAX version 3.0
+                            }
+                            fileNames.add(intern(names, fileName));
+                            links.add(intern(names, reader.getAttributeValue(null, "link")));
+                            sizes.add(reader.getAttributeValue(null, "size"));
                         }
-                        task.setType(nodeType);
-                        task.setUserId(userId);
-                        mName2Task.put(nodeName, task);
-                        for (FileItem file : mFileList) {
-                            task.addRequiredFile(file.getName());
+                    } else if (depth == 3 && parentNames != null) {
+                        parentNames.add(intern(names, reader.getAttributeValue(null, "ref")));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == 2) {
+                        if (fileNames != null) {
+                            elements.add(new JobElement(id, name, runtime, fileNames, links, sizes));
+                        } else if (parentNames != null) {
+                            elements.add(new ChildElement(ref, parentNames));
                         }
-                        task.setFileList(mFileList);
-                        this.getTaskList().add(task);
+                        fileNames = null;
+                        parentNames = null;
+                    }
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return elements;
+    }
 
-                        /**
-                         * Add dependencies info.
-                         */
-                        break;
-                    case "child":
-                        List<Element> pList = node.getChildren();
-                        String childName = node.getAttributeValue("ref");
-                        if (mName2Task.containsKey(childName)) {
-
-                            Task childTask = (Task) mName2Task.get(childName);
-
-                            for (Element parent : pList) {
-                                String parentName = parent.getAttributeValue("ref");
-                                if (mName2Task.containsKey(parentName)) {
-                                    Task parentTask = (Task) mName2Task.get(parentName);
-                                    parentTask.addChild(childTask);
-                                    childTask.addParent(parentTask);
-                                }
-                            }
-                        }
-                        break;
+    /**
+     * Returns the instance of a string already read, if any.
+     */
+    private static String intern(Map<String, String> names, String name) {
+        if (name == null) {
+            return null;
+        }
+        String interned = names.putIfAbsent(name, name);
+        return interned == null ? name : interned;
+    }
+
+    /**
+     * Creates the tasks of a DAX file read, from its image if it has one, and
+     * otherwise from its elements. The image of a file parsed is written when
+     * images are kept.
+     *
+     * @param file the content of the DAX file
+     */
+    private void addDaxFile(DaxFile file) {
+        if (file.image != null) {
+            addImage(file.image);
+            return;
+        }
+        WorkflowImage.Builder image = file.digest == null ? null : new WorkflowImage.Builder();
+        if (addElements(file.elements, image) && image != null) {
+            try {
+                image.write(getImageFile(imageDirectory, file.digest), file.digest);
+            } catch (IOException e) {
+                Log.printLine("Cannot write the workflow image: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates the tasks and dependencies of the elements read from a DAX
+     * file.
+     *
+     * @param elements the job and child elements, in document order
+     * @param image the image of the file to fill, or null
+     * @return whether the file was parsed entirely
+     */
+    private boolean addElements(List<Object> elements, WorkflowImage.Builder image) {
+        try {
+            int first = getTaskList().size();
+            int head = topologicalOrder.size();
+            for (Object element : elements) {
+                if (element instanceof JobElement) {
+                    addJob((JobElement) element, image);
+                } else {
+                    addChild((ChildElement) element);
                 }
             }
+            setDepths(first);
+            if (image != null) {
+                image.setTasks(getTaskList().subList(first, getTaskList().size()),
+                        topologicalOrder.subList(head, topologicalOrder.size()));
+            }
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            Log.printLine("Parsing Exception");
+            return false;
+        }
+    }
+
+    /**
+     * Creates the tasks and dependencies of a workflow image, as the elements
+     * of its DAX file would.
+     *
+     * @param image the image
+     */
+    private void addImage(WorkflowImage image) {
+        for (String warning : image.getWarnings()) {
+            Log.print(warning);
+        }
+        Task[] tasks = new Task[image.getTaskCount()];
+        for (int i = 0; i < tasks.length; i++) {
+            long length = image.getLength(i);
+            length *= Parameters.getRuntimeScale();
+            List<FileItem> mFileList = new ArrayList<>();
+            for (int use = image.getFileStart(i); use < image.getFileEnd(i); use++) {
+                mFileList.add(getFileItem(image.getFileName(use), image.getFileSize(use), image.getFileType(use)));
+            }
+            tasks[i] = addTask(length, image.getType(i), mFileList);
+            tasks[i].setDepth(image.getDepth(i));
+        }
+        for (int i = 0; i < tasks.length; i++) {
+            for (int edge = image.getParentStart(i); edge < image.getParentEnd(i); edge++) {
+                tasks[i].addParent(tasks[image.getParent(edge)]);
+            }
+            for (int edge = image.getChildStart(i); edge < image.getChildEnd(i); edge++) {
+                tasks[i].addChild(tasks[image.getChild(edge)]);
+            }
+        }
+        for (int task : image.getOrder()) {
+            topologicalOrder.add(tasks[task]);
+        }
+    }
+
+    /**
+     * Creates the task of a job element.
+     *
+     * @param node the job element
+     * @param image the image of the file to fill, or null
+     */
+    private void addJob(JobElement node, WorkflowImage.Builder image) {
+        long length = 0;
+        String nodeName = node.id;
+        String nodeType = node.name;
+        /**
+         * capture runtime. If not exist, by default the runtime is 0.1.
+         * Otherwise CloudSim would ignore this task. BUG/#11
+         */
+        double runtime;
+        if (node.runtime != null) {
+            String nodeTime = node.runtime;
+            runtime = 1000 * Double.parseDouble(nodeTime);
+            if (runtime < 100) {
+                runtime = 100;
+            }
+            length = (long) runtime;
+        } else {
+            warn("Cannot find runtime for " + nodeName + ",set it to be 0" + LINE_SEPARATOR, image);
+        }
+        if (image != null) {
+            image.addTask(length, nodeType);
+        }
+        //multiple the scale, by default it is 1.0
+        length *= Parameters.getRuntimeScale();
+        List<FileItem> mFileList = new ArrayList<>();
+        for (int i = 0; i < node.fileNames.size(); i++) {
+            String fileName = node.fileNames.get(i);
+            if (fileName == null) {
+                warn("Error in parsing xml", image);
+            }
+
+            String inout = node.links.get(i);
+            double size = 0.0;
+
+            String fileSize = node.sizes.get(i);
+            if (fileSize != null) {
+                size = Double.parseDouble(fileSize) /*/ 1024*/;
+            } else {
+                warn("File Size not found for " + fileName + LINE_SEPARATOR, image);
+            }
+
             /**
-             * If a task has no parent, then it is root task.
+             * a bug of cloudsim, size 0 causes a problem. 1 is ok.
              */
-            ArrayList roots = new ArrayList<>();
-            for (Task task : mName2Task.values()) {
-                task.setDepth(0);
-                if (task.getParentList().isEmpty()) {
-                    roots.add(task);
-                }
+            if (size == 0) {
+                size++;
             }
-
             /**
-             * Add depth from top to bottom.
+             * Sets the file type 1 is input 2 is output
              */
-            for (Iterator it = roots.iterator(); it.hasNext();) {
-                Task task = (Task) it.next();
-                setDepth(task, 1);
+            FileType type = FileType.NONE;
+            switch (inout) {
+                case "input":
+                    type = FileType.INPUT;
+                    break;
+                case "output":
+                    type = FileType.OUTPUT;
+                    break;
+                default:
+                    warn("Parsing Error" + LINE_SEPARATOR, image);
+                    break;
+            }
+            if (size < 0) {
+                /*
+                 * Assuming it is a parsing error
+                 */
+                size = 0 - size;
+                warn("Size is negative, I assume it is a parser error" + LINE_SEPARATOR, image);
+            }
+            if (image != null) {
+                image.addFile(fileName, size, type);
             }
+            mFileList.add(getFileItem(fileName, size, type));
+        }
+        Task task = addTask(length, nodeType, mFileList);
+        mName2Task.put(nodeName, task);
+    }
+
+    /**
+     * Prints a warning about a job element, and keeps it in the image of the
+     * file so that it is printed again when the image is loaded.
+     *
+     * @param message the message, with its line separator if any
+     * @param image the image of the file to fill, or null
+     */
+    private static void warn(String message, WorkflowImage.Builder image) {
+        Log.print(message);
+        if (image != null) {
+            image.addWarning(message);
+        }
+    }
+
+    /**
+     * Gets the file item of a file used by a task. An input file is shared
+     * with the tasks that already use it through the replica catalog.
+     *
+     * @param fileName the name of the file
+     * @param size the size of the file
+     * @param type the type of the file
+     * @return the file item
+     */
+    private FileItem getFileItem(String fileName, double size, FileType type) {
+        FileItem tFile;
+        /*
+         * Already exists an input file (forget output file)
+         * Note that CloudSim use size as MB, in this case we use it as Byte
+         */
+        if (type == FileType.OUTPUT) {
             /**
-             * Clean them so as to save memory. Parsing workflow may take much
-             * memory
+             * It is good that CloudSim does tell whether a size is zero
              */
-            this.mName2Task.clear();
+            tFile = new FileItem(fileName, size);
+        } else if (ReplicaCatalog.containsFile(fileName)) {
+            tFile = ReplicaCatalog.getFile(fileName);
+        } else {
 
-        } catch (JDOMException jde) {
-            Log.printLine("JDOM Exception;Please make sure your dax file is valid");
+            tFile = new FileItem(fileName, size);
+            ReplicaCatalog.setFile(fileName, tFile);
+        }
 
-        } catch (IOException ioe) {
-            Log.printLine("IO Exception;Please make sure dax.path is correctly set in your config file");
+        tFile.setType(type);
+        return tFile;
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            Log.printLine("Parsing Exception");
+    /**
+     * Creates a task with the next id and adds it to the task list.
+     *
+     * @param length the length of the task
+     * @param nodeType the type of the task
+     * @param mFileList the files used by the task
+     * @return the task
+     */
+    private Task addTask(long length, String nodeType, List<FileItem> mFileList) {
+        //In case of multiple workflow submission, the tasks are created one file after the other
+        Task task = new Task(this.jobIdStartsFrom, length);
+        this.jobIdStartsFrom++;
+        task.setType(nodeType);
+        task.setUserId(userId);
+        for (FileItem file : mFileList) {
+            task.addRequiredFile(file.getName());
+        }
+        task.setFileList(mFileList);
+        this.getTaskList().add(task);
+        return task;
+    }
+
+    /**
+     * Adds the dependencies of a child element, between tasks already
+     * created.
+     *
+     * @param node the child element
+     */
+    private void addChild(ChildElement node) {
+        String childName = node.ref;
+        if (mName2Task.containsKey(childName)) {
+
+            Task childTask = (Task) mName2Task.get(childName);
+
+            for (String parentName : node.parentNames) {
+                if (mName2Task.containsKey(parentName)) {
+                    Task parentTask = (Task) mName2Task.get(parentName);
+                    parentTask.addChild(childTask);
+                    childTask.addParent(parentTask);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the depth of the tasks of the workflow just parsed, the number of
+     * tasks on the longest path from a root task, and appends them to the
+     * topological order. The tasks are visited parents first (Kahn), each one
+     * once, rather than once per path from a root.
+     *
+     * @param first the index of the first task of the workflow in the task
+     * list
+     */
+    private void setDepths(int first) {
+        List<Task> tasks = getTaskList().subList(first, getTaskList().size());
+        if (tasks.isEmpty()) {
+            return;
+        }
+        /**
+         * The ids of the tasks of a workflow follow each other.
+         */
+        int firstId = tasks.get(0).getCloudletId();
+        int[] waitingParents = new int[tasks.size()];
+        int head = topologicalOrder.size();
+        /**
+         * If a task has no parent, then it is root task.
+         */
+        for (Task task : tasks) {
+            task.setDepth(0);
+            waitingParents[task.getCloudletId() - firstId] = task.getParentList().size();
+            if (task.getParentList().isEmpty()) {
+                task.setDepth(1);
+                topologicalOrder.add(task);
+            }
+        }
+
+        /**
+         * Add depth from top to bottom.
+         */
+        while (head < topologicalOrder.size()) {
+            Task task = topologicalOrder.get(head++);
+            for (Task child : task.getChildList()) {
+                if (task.getDepth() + 1 > child.getDepth()) {
+                    child.setDepth(task.getDepth() + 1);
+                }
+                if (--waitingParents[child.getCloudletId() - firstId] == 0) {
+                    topologicalOrder.add(child);
+                }
+            }
+        }
+        /**
+         * Clean them so as to save memory. Parsing workflow may take much
+         * memory
+         */
+        this.mName2Task.clear();
+    }
+
+    /**
+     * The content of a DAX file read: the digest of the file when images are
+     * kept, and either its image or its elements.
+     */
+    private static final class DaxFile {
+
+        private final byte[] digest;
+        private final WorkflowImage image;
+        private final List<Object> elements;
+
+        private DaxFile(byte[] digest, WorkflowImage image, List<Object> elements) {
+            this.digest = digest;
+            this.image = image;
+            this.elements = elements;
+        }
+    }
+
+    /**
+     * A job element of a DAX file: the attributes of the job and of the files
+     * it uses.
+     */
+    static final class JobElement {
+
+        final String id;
+        final String name;
+        final String runtime;
+        final List<String> fileNames;
+        final List<String> links;
+        final List<String> sizes;
+
+        JobElement(String id, String name, String runtime,
+                List<String> fileNames, List<String> links, List<String> sizes) {
+            this.id = id;
+            this.name = name;
+            this.runtime = runtime;
+            this.fileNames = fileNames;
+            this.links = links;
+            this.sizes = sizes;
+        }
+    }
+
+    /**
+     * A child element of a DAX file: a job and the jobs it depends on.
+     */
+    static final class ChildElement {
+
+        final String ref;
+        final List<String> parentNames;
+
+        ChildElement(String ref, List<String> parentNames) {
+            this.ref = ref;
+            this.parentNames = parentNames;
         }
     }
 }
@@ -16,7 +16,9 @@
 package org.workflowsim;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
@@ -37,6 +39,8 @@ import org.workflowsim.utils.Parameters.PlanningAlgorithm;
  */
 public final class WorkflowPlanner extends SimEntity {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The task list.
      */
@@ -190,6 +194,12 @@ public final class WorkflowPlanner extends SimEntity {
             case NSGA3:
                 planner = new NSGA3PlanningAlgorithm();
                 break;
+            case SPARSEHEFT:
+                planner = new SparseHEFTPlanningAlgorithm();
+                break;
+            case SPARSEDHEFT:
+                planner = new SparseDHEFTPlanningAlgorithm();
+                break;
             default:
                 planner = null;
                 break;
@@ -200,36 +210,42 @@ public final class WorkflowPlanner extends SimEntity {
     /**
      * Add impact factor for each task. This is useful in task balanced
      * clustering algorithm It is for research purpose and thus it is optional.
+     * The exit tasks share an impact of 1, and every task splits its impact
+     * evenly among its parents. The tasks of the list are visited children
+     * first (Kahn, from the exit tasks up), so each task passes its whole
+     * impact up once, after all its children, instead of once per path to an
+     * exit task.
      *
      * @param taskList all the tasks
      */
     private void processImpactFactors(List<Task> taskList) {
-        List<Task> exits = new ArrayList<>();
+        Map<Task, Integer> waitingChildren = new HashMap<>();
+        List<Task> order = new ArrayList<>();
         for (Task task : taskList) {
+            waitingChildren.put(task, task.getChildList().size());
             if (task.getChildList().isEmpty()) {
-                exits.add(task);
+                order.add(task);
             }
         }
-        double avg = 1.0 / exits.size();
-        for (Task task : exits) {
-            addImpact(task, avg);
-        }
-    }
-
-    /**
-     * Add impact factor for one particular task
-     *
-     * @param task, the task
-     * @param impact , the impact factor
-     */
-    private void addImpact(Task task, double impact) {
-
-        task.setImpact(task.getImpact() + impact);
-        int size = task.getParentList().size();
-        if (size > 0) {
-            double avg = impact / size;
-            for (Task parent : task.getParentList()) {
-                addImpact(parent, avg);
+        double avg = 1.0 / order.size();
+        for (int head = 0; head < order.size(); head++) {
+            Task task = order.get(head);
+            if (task.getChildList().isEmpty()) {
+                task.setImpact(task.getImpact() + avg);
+            }
+            int size = task.getParentList().size();
+            if (size > 0) {
+                double share = task.getImpact() / size;
+                for (Task parent : task.getParentList()) {
+                    parent.setImpact(parent.getImpact() + share);
+                    Integer waiting = waitingChildren.get(parent);
+                    if (waiting != null) {
+                        waitingChildren.put(parent, waiting - 1);
+                        if (waiting == 1) {
+                            order.add(parent);
+                        }
+                    }
+                }
             }
         }
     }
@@ -47,6 +47,8 @@ import org.workflowsim.utils.Parameters.SchedulingAlgorithm;
  */
 public class WorkflowScheduler extends DatacenterBroker {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The workflow engine id associated with this workflow algorithm.
      */
@@ -78,6 +80,16 @@ public class WorkflowScheduler extends DatacenterBroker {
         this.datacenterIdsList.add(datacenterId);
     }
 
+    /**
+     * Returns whether this scheduler is bound to a datacenter
+     *
+     * @param datacenterId data center id
+     * @return true if the datacenter was bound to this scheduler
+     */
+    boolean isBoundTo(int datacenterId) {
+        return this.datacenterIdsList.contains(datacenterId);
+    }
+
     /**
      * Sets the workflow engine id
      *
@@ -180,10 +192,9 @@ public class WorkflowScheduler extends DatacenterBroker {
      */
     @Override
     protected void processVmCreate(SimEvent ev) {
-        int[] data = (int[]) ev.getData();
-        int datacenterId = data[0];
-        int vmId = data[1];
-        int result = data[2];
+        int datacenterId = ev.getIntData(0);
+        int vmId = ev.getIntData(1);
+        int result = ev.getIntData(2);
 
         if (result == CloudSimTags.TRUE) {
             getVmsToDatacentersMap().put(vmId, datacenterId);
@@ -34,6 +34,8 @@ import org.workflowsim.Task;
  */
 public class HorizontalClustering extends BasicClustering {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * The number of clustered jobs per level.
      */
@@ -33,6 +33,8 @@ import org.workflowsim.utils.Parameters;
  */
 public class VerticalClustering extends BasicClustering {
 
+    private static final long serialVersionUID = 1L;
+
     /* The maximum depth to explore. */
     private final int mDepth;
     /* The checkpoint map. */
@@ -15,6 +15,7 @@
  */
 package org.workflowsim.failure;
 
+import java.io.Serializable;
 import org.apache.commons.math3.distribution.GammaDistribution;
 import org.apache.commons.math3.distribution.LogNormalDistribution;
 import org.apache.commons.math3.distribution.NormalDistribution;
@@ -24,6 +25,7 @@ import org.workflowsim.Job;
 import org.workflowsim.Task;
 import org.apache.commons.math3.distribution.WeibullDistribution;
 import org.workflowsim.utils.DistributionGenerator;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * FailureGenerator creates a failure when a job returns
@@ -40,8 +42,22 @@ public class FailureGenerator {
      * is too high for this workflow
      */
     private static final int maxFailureSizeExtension = 50;
-    private static int failureSizeExtension = 0;
     private static final boolean hasChangeTime = false;
+
+    /**
+     * The generator state of one simulation, held by its
+     * {@link SimulationContext}.
+     */
+    private static final class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private int failureSizeExtension = 0;
+    }
+
+    private static State state() {
+        return SimulationContext.current().getComponent(State.class, State::new);
+    }
     /**
      *
      * @param alpha
@@ -123,8 +139,9 @@ public class FailureGenerator {
         while (samples[samples.length - 1] < start) {
             generator.extendSamples();
             samples = generator.getCumulativeSamples();
-            failureSizeExtension++;
-            if (failureSizeExtension >= maxFailureSizeExtension) {
+            State state = state();
+            state.failureSizeExtension++;
+            if (state.failureSizeExtension >= maxFailureSizeExtension) {
                 throw new Exception("Error rate is too high such that the simulator terminates");
 
             }
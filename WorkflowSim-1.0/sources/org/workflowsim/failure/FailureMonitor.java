@@ -15,11 +15,13 @@
  */
 package org.workflowsim.failure;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * FailureMonitor collects failure information
@@ -31,21 +33,38 @@ import org.cloudbus.cloudsim.Log;
 public class FailureMonitor {
 
     /**
-     * VM ID to a Failure Record. *
+     * The failure records of one simulation, held by its
+     * {@link SimulationContext}.
      */
-    protected static Map<Integer, List<FailureRecord>> vm2record;
-    /**
-     * Type to a Failure Record. *
-     */
-    protected static Map<Integer, List<FailureRecord>> type2record;
-    /**
-     * JobID to a Failure Record. *
-     */
-    protected static Map<Integer, FailureRecord> jobid2record;
-    /**
-     * All the record list.
-     */
-    protected static List<FailureRecord> recordList;
+    private static final class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * VM ID to a Failure Record. *
+         */
+        private Map<Integer, List<FailureRecord>> vm2record;
+
+        /**
+         * Type to a Failure Record. *
+         */
+        private Map<Integer, List<FailureRecord>> type2record;
+
+        /**
+         * JobID to a Failure Record. *
+         */
+        private Map<Integer, FailureRecord> jobid2record;
+
+        /**
+         * All the record list.
+         */
+        private List<FailureRecord> recordList;
+    }
+
+    private static State state() {
+        return SimulationContext.current().getComponent(State.class, State::new);
+    }
+
     /**
      * Id to a Job.
      */
@@ -55,10 +74,11 @@ public class FailureMonitor {
      * Initialize a FailureMonitor object.
      */
     public static void init() {
-        vm2record = new HashMap<>();
-        type2record = new HashMap<>();
-        jobid2record = new HashMap<>();
-        recordList = new ArrayList<>();
+        State state = state();
+        state.vm2record = new HashMap<>();
+        state.type2record = new HashMap<>();
+        state.jobid2record = new HashMap<>();
+        state.recordList = new ArrayList<>();
     }
 
     /**
@@ -124,28 +144,29 @@ public class FailureMonitor {
             return;
         }
 
+        State state = state();
         switch (FailureParameters.getMonitorMode()) {
             case MONITOR_VM:
 
-                if (!vm2record.containsKey(record.vmId)) {
-                    vm2record.put(record.vmId, new ArrayList<>());
+                if (!state.vm2record.containsKey(record.vmId)) {
+                    state.vm2record.put(record.vmId, new ArrayList<>());
                 }
-                vm2record.get(record.vmId).add(record);
+                state.vm2record.get(record.vmId).add(record);
 
                 break;
             case MONITOR_JOB:
 
-                if (!type2record.containsKey(record.depth)) {
-                    type2record.put(record.depth, new ArrayList<>());
+                if (!state.type2record.containsKey(record.depth)) {
+                    state.type2record.put(record.depth, new ArrayList<>());
                 }
-                type2record.get(record.depth).add(record);
+                state.type2record.get(record.depth).add(record);
 
                 break;
             case MONITOR_NONE:
                 break;
         }
 
-        recordList.add(record);
+        state.recordList.add(record);
     }
 
     /**
@@ -162,10 +183,11 @@ public class FailureMonitor {
          */
         int sumFailures = 0;
         int sumJobs = 0;
+        State state = state();
         switch (FailureParameters.getMonitorMode()) {
             case MONITOR_ALL:
 
-                for (FailureRecord record : recordList) {
+                for (FailureRecord record : state.recordList) {
                     sumFailures += record.failedTasksNum;
                     sumJobs += record.allTaskNum;
                 }
@@ -174,8 +196,8 @@ public class FailureMonitor {
 
             case MONITOR_JOB:
 
-                if (type2record.containsKey(type)) {
-                    for (FailureRecord record : type2record.get(type)) {
+                if (state.type2record.containsKey(type)) {
+                    for (FailureRecord record : state.type2record.get(type)) {
 
                         sumFailures += record.failedTasksNum;
                         sumJobs += record.allTaskNum;
@@ -185,8 +207,8 @@ public class FailureMonitor {
                 break;
             case MONITOR_VM:
 
-                if (vm2record.containsKey(type)) {
-                    for (FailureRecord record : vm2record.get(type)) {
+                if (state.vm2record.containsKey(type)) {
+                    for (FailureRecord record : state.vm2record.get(type)) {
 
                         sumFailures += record.failedTasksNum;
                         sumJobs += record.allTaskNum;
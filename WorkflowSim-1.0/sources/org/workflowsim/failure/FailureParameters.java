@@ -17,9 +17,11 @@
  */
 package org.workflowsim.failure;
 
+import java.io.Serializable;
 import org.cloudbus.cloudsim.Log;
 import org.workflowsim.utils.DistributionGenerator;
 import org.workflowsim.utils.DistributionGenerator.DistributionFamily;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  *
@@ -28,14 +30,65 @@ import org.workflowsim.utils.DistributionGenerator.DistributionFamily;
 public class FailureParameters {
 
     /**
-     * Task Failure Rate 
-     * first index is vmId ;second index is task depth
-     * If FAILURE_JOB is specified first index is 0 only
-     * If FAILURE_VM is specified second index is 0 only
-     *
-     * @pre 0.0<= value <= 1.0
+     * The failure parameters of one simulation, held by its
+     * {@link SimulationContext}.
      */
-    private static DistributionGenerator[][] generators;
+    private static final class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Task Failure Rate 
+         * first index is vmId ;second index is task depth
+         * If FAILURE_JOB is specified first index is 0 only
+         * If FAILURE_VM is specified second index is 0 only
+         *
+         * @pre 0.0<= value <= 1.0
+         */
+        private DistributionGenerator[][] generators;
+
+        /**
+         * Fault Tolerant Clustering method
+         */
+        private FTCluteringAlgorithm FTClusteringAlgorithm = FTCluteringAlgorithm.FTCLUSTERING_NOOP;
+
+        private FTSchedulingAlgorithm schedulingAlgorithm = FTSchedulingAlgorithm.FTScheduling_STATIC;
+
+        /**
+         * Fault Tolerant Clustering monitor mode
+         */
+        private FTCMonitor monitorMode = FTCMonitor.MONITOR_NONE;
+
+        /**
+         * Fault Tolerant Clustering failure generation mode
+         */
+        private FTCFailure failureMode = FTCFailure.FAILURE_NONE;
+
+        /**
+         * Fault Tolerant Clustering failure generation mode
+         */
+        private FTCFailureCluster failureClusterMode = FTCFailureCluster.FTCFailureCluster_NONE;
+
+        private int failureClusteringDelay = 3;
+
+        /**
+         * The evaluation budget and the wall-clock budget (in milliseconds, -1 for
+         * none) of each warm-started NSGA-III rescheduling
+         */
+        private int reschedulingMaxEvaluations = 10000;
+
+        private long reschedulingMaxTime = -1;
+
+        /**
+         * The distribution of the failure 
+         */
+        private DistributionFamily distribution = DistributionFamily.WEIBULL;
+    }
+
+    private static State state() {
+        return SimulationContext.current().getComponent(State.class, State::new);
+    }
+
     /**
      * Fault Tolerant Clustering algorithm
      */
@@ -47,7 +100,7 @@ public class FailureParameters {
 
     public enum FTSchedulingAlgorithm {
 
-        FTScheduling_STATIC, FTScheduling_RANDOM, FTScheduling_NSGA3, FTScheduling_HEURISTIC
+        FTScheduling_STATIC, FTScheduling_RANDOM, FTScheduling_NSGA3, FTScheduling_HEURISTIC, FTScheduling_NSGA3_WARM
     }
     /*
      * FTC Monitor mode
@@ -71,32 +124,6 @@ public class FailureParameters {
         FTCFailureCluster_NONE, FTCFailureCluster_STATIC
     }
 
-    /**
-     * Fault Tolerant Clustering method
-     */
-    private static FTCluteringAlgorithm FTClusteringAlgorithm = FTCluteringAlgorithm.FTCLUSTERING_NOOP;
-
-    private static FTSchedulingAlgorithm schedulingAlgorithm = FTSchedulingAlgorithm.FTScheduling_STATIC;
-    /**
-     * Fault Tolerant Clustering monitor mode
-     */
-    private static FTCMonitor monitorMode = FTCMonitor.MONITOR_NONE;
-    /**
-     * Fault Tolerant Clustering failure generation mode
-     */
-    private static FTCFailure failureMode = FTCFailure.FAILURE_NONE;
-
-    /**
-     * Fault Tolerant Clustering failure generation mode
-     */
-    private static FTCFailureCluster failureClusterMode = FTCFailureCluster.FTCFailureCluster_NONE;
-
-    private static int failureClusteringDelay = 3;
-    
-    /**
-     * The distribution of the failure 
-     */
-    private static DistributionFamily distribution = DistributionFamily.WEIBULL;
     /**
      * Invalid return value
      */
@@ -113,30 +140,47 @@ public class FailureParameters {
      */
     public static void init(FTCluteringAlgorithm fMethod, FTCMonitor monitor, 
             FTCFailure failure, DistributionGenerator[][] failureGenerators) {
-        FTClusteringAlgorithm = fMethod;
-        monitorMode = monitor;
-        failureMode = failure;
-        generators = failureGenerators;
+        State state = state();
+        state.FTClusteringAlgorithm = fMethod;
+        state.monitorMode = monitor;
+        state.failureMode = failure;
+        state.generators = failureGenerators;
     }
 
     public static int getFailureClusteringDelay() {
-        return failureClusteringDelay;
+        return state().failureClusteringDelay;
     }
 
     public static void setFailureClusteringDelay(int failureClusteringDelay) {
-        FailureParameters.failureClusteringDelay = failureClusteringDelay;
+        state().failureClusteringDelay = failureClusteringDelay;
+    }
+
+    public static int getReschedulingMaxEvaluations() {
+        return state().reschedulingMaxEvaluations;
+    }
+
+    public static void setReschedulingMaxEvaluations(int reschedulingMaxEvaluations) {
+        state().reschedulingMaxEvaluations = reschedulingMaxEvaluations;
+    }
+
+    public static long getReschedulingMaxTime() {
+        return state().reschedulingMaxTime;
+    }
+
+    public static void setReschedulingMaxTime(long reschedulingMaxTime) {
+        state().reschedulingMaxTime = reschedulingMaxTime;
     }
 
     public static void setSchedulingAlgorithm(FTSchedulingAlgorithm schedulingAlgorithm) {
-        FailureParameters.schedulingAlgorithm = schedulingAlgorithm;
+        state().schedulingAlgorithm = schedulingAlgorithm;
     }
 
     public static void setFTCFailureCluster(FTCFailureCluster failureCluster){
-        FailureParameters.failureClusterMode = failureCluster;
+        state().failureClusterMode = failureCluster;
     }
 
     public static FTCFailureCluster getFailureClusterMode() {
-        return failureClusterMode;
+        return state().failureClusterMode;
     }
 
     /**
@@ -151,7 +195,7 @@ public class FailureParameters {
     public static void init(FTCluteringAlgorithm fMethod, FTCMonitor monitor, 
             FTCFailure failure, DistributionGenerator[][] failureGenerators, 
             DistributionFamily dist) {
-        distribution = dist;
+        state().distribution = dist;
         init(fMethod, monitor, failure, failureGenerators);
     }
     /**
@@ -162,6 +206,7 @@ public class FailureParameters {
      * @post $none
      */
     public static DistributionGenerator[][] getFailureGenerators() {
+        DistributionGenerator[][] generators = state().generators;
         if(generators==null){
             Log.printLine("ERROR: alpha is not initialized");
         }
@@ -173,6 +218,7 @@ public class FailureParameters {
      * @return max
      */
     public static int getFailureGeneratorsMaxFirstIndex(){
+        DistributionGenerator[][] generators = state().generators;
         if(generators==null || generators.length == 0){
             Log.printLine("ERROR: alpha is not initialized");
             return INVALID;
@@ -187,6 +233,7 @@ public class FailureParameters {
     public static int getFailureGeneratorsMaxSecondIndex(){
         //Test whether it is valid
         getFailureGeneratorsMaxFirstIndex();
+        DistributionGenerator[][] generators = state().generators;
         if(generators[0]==null || generators[0].length == 0){
             Log.printLine("ERROR: alpha is not initialized");
             return INVALID;
@@ -202,7 +249,7 @@ public class FailureParameters {
      * @return task failure rate
      */
     public static DistributionGenerator getGenerator(int vmIndex, int taskDepth) {
-        return generators[vmIndex][taskDepth];
+        return state().generators[vmIndex][taskDepth];
     }
     
     /**
@@ -213,7 +260,7 @@ public class FailureParameters {
      * @post $none
      */
     public static FTCFailure getFailureGeneratorMode() {
-        return failureMode;
+        return state().failureMode;
     }
 
     /**
@@ -224,7 +271,7 @@ public class FailureParameters {
      * @post $none
      */
     public static FTCMonitor getMonitorMode() {
-        return monitorMode;
+        return state().monitorMode;
     }
 
     /**
@@ -235,7 +282,7 @@ public class FailureParameters {
      * @post $none
      */
     public static FTCluteringAlgorithm getFTCluteringAlgorithm() {
-        return FTClusteringAlgorithm;
+        return state().FTClusteringAlgorithm;
     }
 
     /**
@@ -246,7 +293,7 @@ public class FailureParameters {
      * @post $none
      */
     public static FTSchedulingAlgorithm getFTSchedulingAlgorithm() {
-        return schedulingAlgorithm;
+        return state().schedulingAlgorithm;
     }
     
     /**
@@ -254,6 +301,6 @@ public class FailureParameters {
      * @return distribution
      */
     public static DistributionFamily getFailureDistribution(){
-        return distribution;
+        return state().distribution;
     }
 }
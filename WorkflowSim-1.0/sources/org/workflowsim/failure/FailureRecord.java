@@ -15,6 +15,8 @@
  */
 package org.workflowsim.failure;
 
+import java.io.Serializable;
+
 /**
  * Failure Record is a record with all information of a failure
  *
@@ -22,7 +24,9 @@ package org.workflowsim.failure;
  * @since WorkflowSim Toolkit 1.0
  * @date Apr 9, 2013
  */
-public class FailureRecord {
+public class FailureRecord implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Length
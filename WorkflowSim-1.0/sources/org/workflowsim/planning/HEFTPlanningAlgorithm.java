@@ -23,7 +23,7 @@ import java.util.Map;
 import org.cloudbus.cloudsim.Consts;
 import org.cloudbus.cloudsim.Log;
 import org.moeaframework.core.Solution;
-import org.moeaframework.core.variable.Subset;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.problem.workflow.WorkflowSimProblem;
 import org.workflowsim.CondorVM;
 import org.workflowsim.FileItem;
@@ -162,9 +162,8 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
 
         findFinishTime(task, chosenVM, bestReadyTime, true);
         earliestFinishTimes.put(task, earliestFinishTime);
-        Subset subset = (Subset)s.getVariable(task.getCloudletId() - 1);
-        subset.clear();
-        subset.add(chosenVM.getId());
+        AssignmentVariable assignment = (AssignmentVariable)s.getVariable(0);
+        assignment.set(task.getCloudletId() - 1, chosenVM.getId());
     }
 
     /**
@@ -0,0 +1,521 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.planning;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.Vm;
+import org.moeaframework.core.PRNG;
+import org.moeaframework.core.Problem;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.variable.EncodingUtils;
+import org.workflowsim.CondorVM;
+import org.workflowsim.FileItem;
+import org.workflowsim.Task;
+import org.workflowsim.utils.Parameters;
+
+/**
+ * Builds HEFT schedules to seed the population of evolutionary planners.
+ *
+ * The computation costs, the transfer costs and the ranks are computed once,
+ * in arrays indexed by the position of the task in the task list, and only for
+ * the edges of the workflow. Each schedule then only runs the selection phase
+ * of HEFT, trying the vms in a random order so that ties are broken
+ * differently, and the schedules are built in parallel. The same engine plans
+ * large workflows in {@link SparseHEFTPlanningAlgorithm}, and with
+ * {@link #scheduleDistributed()} in {@link SparseDHEFTPlanningAlgorithm}.
+ *
+ * Unlike {@link HEFTPlanningAlgorithm#initialHEFTSolution}, a transfer cost is
+ * added when the parent runs on another vm in the schedule being built, not
+ * on another vm than the one the task is currently bound to.
+ */
+public class HEFTSeeder {
+
+    private final int size;
+
+    private final Task[] tasks;
+
+    private final CondorVM[] vms;
+
+    /**
+     * the time to compute task i on vm j is computationCosts[i * vms.length + j].
+     */
+    private final double[] computationCosts;
+
+    /**
+     * the parents of task i are parents[parentOffsets[i]] to
+     * parents[parentOffsets[i + 1] - 1], with the time to transfer their files.
+     */
+    private final int[] parentOffsets;
+
+    private final int[] parents;
+
+    private final double[] transferCosts;
+
+    /**
+     * the tasks in non-ascending order of rank.
+     */
+    private final int[] order;
+
+    public HEFTSeeder(List<? extends Task> taskList, List<? extends Vm> vmList) {
+        this.size = taskList.size();
+        this.vms = vmList.toArray(new CondorVM[0]);
+
+        this.tasks = taskList.toArray(new Task[0]);
+        Map<Task, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < size; i++) {
+            positions.put(tasks[i], i);
+        }
+        // parents outside the task list, such as the finished jobs of a
+        // rescheduled workflow, are left out
+        int edges = 0;
+        for (int i = 0; i < size; i++) {
+            for (Task parent : tasks[i].getParentList()) {
+                if (positions.containsKey(parent)) {
+                    edges++;
+                }
+            }
+        }
+
+        double averageBandwidth = 0.0;
+        for (CondorVM vm : vms) {
+            averageBandwidth += vm.getBw();
+        }
+        averageBandwidth /= vms.length;
+
+        this.computationCosts = new double[size * vms.length];
+        double[] averageComputationCosts = new double[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < vms.length; j++) {
+                double cost = vms[j].getNumberOfPes() < tasks[i].getNumberOfPes()
+                        ? Double.MAX_VALUE : tasks[i].getCloudletTotalLength() / vms[j].getMips();
+                computationCosts[i * vms.length + j] = cost;
+                averageComputationCosts[i] += cost;
+            }
+            averageComputationCosts[i] /= vms.length;
+        }
+
+        this.parentOffsets = new int[size + 1];
+        this.parents = new int[edges];
+        this.transferCosts = new double[edges];
+        int[] childCounts = new int[size];
+        int p = 0;
+        for (int i = 0; i < size; i++) {
+            for (Task parent : tasks[i].getParentList()) {
+                Integer position = positions.get(parent);
+                if (position != null) {
+                    parents[p] = position;
+                    transferCosts[p] = calculateTransferCost(parent, tasks[i], averageBandwidth);
+                    childCounts[position]++;
+                    p++;
+                }
+            }
+            parentOffsets[i + 1] = p;
+        }
+
+        this.order = calculateOrder(averageComputationCosts, childCounts);
+    }
+
+    /**
+     * Accounts the time in seconds necessary to transfer all files described
+     * between parent and child, as in {@link HEFTPlanningAlgorithm}.
+     */
+    private static double calculateTransferCost(Task parent, Task child, double averageBandwidth) {
+        double acc = 0.0;
+        for (FileItem parentFile : parent.getFileList()) {
+            if (parentFile.getType() != Parameters.FileType.OUTPUT) {
+                continue;
+            }
+            for (FileItem childFile : child.getFileList()) {
+                if (childFile.getType() == Parameters.FileType.INPUT
+                        && childFile.getName().equals(parentFile.getName())) {
+                    acc += childFile.getSize();
+                    break;
+                }
+            }
+        }
+        //file Size is in Bytes, acc in MB
+        acc = acc / Consts.MILLION;
+        // acc in MB, averageBandwidth in Mb/s
+        return acc * 8 / averageBandwidth;
+    }
+
+    /**
+     * Computes the upward rank of every task in reverse topological order, and
+     * sorts the tasks by non-ascending rank. Ties keep the topological order,
+     * so a parent is always scheduled before its children.
+     */
+    private int[] calculateOrder(double[] averageComputationCosts, int[] childCounts) {
+        int[] topologicalOrder = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < size; i++) {
+            if (childCounts[i] == 0) {
+                topologicalOrder[tail++] = i;
+            }
+        }
+        // 从出口任务开始, 子任务都处理完后再处理父任务
+        double[] maxChildCosts = new double[size];
+        double[] ranks = new double[size];
+        while (head < tail) {
+            int task = topologicalOrder[head++];
+            ranks[task] = averageComputationCosts[task] + maxChildCosts[task];
+            for (int p = parentOffsets[task]; p < parentOffsets[task + 1]; p++) {
+                int parent = parents[p];
+                maxChildCosts[parent] = Math.max(maxChildCosts[parent], transferCosts[p] + ranks[task]);
+                if (--childCounts[parent] == 0) {
+                    topologicalOrder[tail++] = parent;
+                }
+            }
+        }
+        if (tail != size) {
+            throw new IllegalArgumentException("workflow has a cycle");
+        }
+
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = topologicalOrder[size - 1 - i];
+        }
+        // the sort is stable
+        Arrays.sort(sorted, (a, b) -> Double.compare(ranks[b], ranks[a]));
+        return Arrays.stream(sorted).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Builds one HEFT schedule.
+     *
+     * @param random the source of the order in which the vms are tried, or
+     * null to try them in the order of the vm list
+     * @return the id of the vm of each task, indexed by the position of the
+     * task in the task list
+     */
+    public int[] schedule(Random random) {
+        int[] assignment = new int[size];
+        int[] vmIndices = new int[size];
+        double[] earliestFinishTimes = new double[size];
+        Slots[] schedules = new Slots[vms.length];
+        for (int j = 0; j < vms.length; j++) {
+            schedules[j] = new Slots();
+        }
+        int[] vmOrder = new int[vms.length];
+        for (int j = 0; j < vms.length; j++) {
+            vmOrder[j] = j;
+        }
+
+        for (int task : order) {
+            for (int j = vms.length - 1; j > 0 && random != null; j--) {
+                int k = random.nextInt(j + 1);
+                int temp = vmOrder[j];
+                vmOrder[j] = vmOrder[k];
+                vmOrder[k] = temp;
+            }
+
+            int chosenVm = -1;
+            double earliestFinishTime = Double.MAX_VALUE;
+            double bestReadyTime = 0.0;
+            for (int vm : vmOrder) {
+                double minReadyTime = 0.0;
+                for (int p = parentOffsets[task]; p < parentOffsets[task + 1]; p++) {
+                    double readyTime = earliestFinishTimes[parents[p]];
+                    if (vmIndices[parents[p]] != vm) {
+                        readyTime += transferCosts[p];
+                    }
+                    minReadyTime = Math.max(minReadyTime, readyTime);
+                }
+                double finishTime = schedules[vm].findFinishTime(
+                        computationCosts[task * vms.length + vm], minReadyTime, false);
+                if (finishTime < earliestFinishTime) {
+                    bestReadyTime = minReadyTime;
+                    earliestFinishTime = finishTime;
+                    chosenVm = vm;
+                }
+            }
+
+            schedules[chosenVm].findFinishTime(computationCosts[task * vms.length + chosenVm], bestReadyTime, true);
+            earliestFinishTimes[task] = earliestFinishTime;
+            vmIndices[task] = chosenVm;
+            assignment[task] = vms[chosenVm].getId();
+        }
+        return assignment;
+    }
+
+    /**
+     * Builds the schedule of {@link DHEFTPlanningAlgorithm}: the tasks are
+     * scheduled level by level, in the order of the task list within a level,
+     * each at the end of the vm where it finishes first, and the files of a
+     * parent are transferred at the bandwidth between the vm of the parent and
+     * the vm of the task, the lower bandwidth of the two.
+     *
+     * @return the id of the vm of each task, indexed by the position of the
+     * task in the task list
+     */
+    public int[] scheduleDistributed() {
+        // the order puts parents before their children
+        int[] levels = new int[size];
+        int levelCount = 0;
+        for (int task : order) {
+            for (int p = parentOffsets[task]; p < parentOffsets[task + 1]; p++) {
+                levels[task] = Math.max(levels[task], levels[parents[p]] + 1);
+            }
+            levelCount = Math.max(levelCount, levels[task] + 1);
+        }
+        int[] levelOffsets = new int[levelCount + 1];
+        for (int i = 0; i < size; i++) {
+            levelOffsets[levels[i] + 1]++;
+        }
+        for (int l = 0; l < levelCount; l++) {
+            levelOffsets[l + 1] += levelOffsets[l];
+        }
+        int[] levelOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            levelOrder[levelOffsets[levels[i]]++] = i;
+        }
+
+        long[] dataSizes = calculateDataSizes();
+        int[] assignment = new int[size];
+        int[] vmIndices = new int[size];
+        double[] finishTimes = new double[size];
+        double[] availableTimes = new double[vms.length];
+        for (int task : levelOrder) {
+            double minTime = Double.MAX_VALUE;
+            int chosenVm = 0;
+            for (int vm = 0; vm < vms.length; vm++) {
+                double startTime = availableTimes[vm];
+                for (int p = parentOffsets[task]; p < parentOffsets[task + 1]; p++) {
+                    int parentVm = vmIndices[parents[p]];
+                    double bandwidth = Math.min(vms[parentVm].getBw(), vms[vm].getBw());
+                    double readyTime = finishTimes[parents[p]] + dataSizes[p] / bandwidth;
+                    if (readyTime > startTime) {
+                        startTime = readyTime;
+                    }
+                }
+                double runtime = tasks[task].getCloudletLength() / vms[vm].getMips();
+                if (runtime + startTime < minTime) {
+                    minTime = runtime + startTime;
+                    chosenVm = vm;
+                }
+            }
+            finishTimes[task] = minTime;
+            vmIndices[task] = chosenVm;
+            availableTimes[chosenVm] = minTime;
+            assignment[task] = vms[chosenVm].getId();
+        }
+        return assignment;
+    }
+
+    /**
+     * Computes the bytes each parent sends to its child, as
+     * {@link DHEFTPlanningAlgorithm} does: the size of every input file of the
+     * child, once for each output file of the parent with the same name.
+     */
+    private long[] calculateDataSizes() {
+        long[] dataSizes = new long[parents.length];
+        Map<Integer, Map<String, Integer>> outputs = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            for (int p = parentOffsets[i]; p < parentOffsets[i + 1]; p++) {
+                Map<String, Integer> parentOutputs = outputs.computeIfAbsent(parents[p], parent -> {
+                    Map<String, Integer> counts = new HashMap<>();
+                    for (FileItem file : tasks[parent].getFileList()) {
+                        if (file.getType() == Parameters.FileType.OUTPUT) {
+                            counts.merge(file.getName(), 1, Integer::sum);
+                        }
+                    }
+                    return counts;
+                });
+                long dataSize = 0;
+                for (FileItem file : tasks[i].getFileList()) {
+                    if (file.getType() == Parameters.FileType.INPUT) {
+                        for (int k = parentOutputs.getOrDefault(file.getName(), 0); k > 0; k--) {
+                            dataSize += file.getSize();
+                        }
+                    }
+                }
+                dataSizes[p] = dataSize;
+            }
+        }
+        return dataSizes;
+    }
+
+    /**
+     * Builds the given number of HEFT schedules in parallel.
+     *
+     * @param problem the problem creating the solutions, whose genes are
+     * indexed by {@code cloudletId - 1}
+     * @param count the number of solutions
+     * @return the solutions, not evaluated
+     */
+    public Solution[] createSolutions(Problem problem, int count) {
+        // 先按顺序取种子, 结果与线程调度无关
+        long[] seeds = new long[count];
+        for (int i = 0; i < count; i++) {
+            seeds[i] = PRNG.getRandom().nextLong();
+        }
+        Solution[] solutions = new Solution[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int[] vmIds = schedule(new Random(seeds[i]));
+            int[] assignment = new int[size];
+            for (int j = 0; j < size; j++) {
+                assignment[tasks[j].getCloudletId() - 1] = vmIds[j];
+            }
+            Solution solution = problem.newSolution();
+            EncodingUtils.setAssignment(solution.getVariable(0), assignment);
+            solutions[i] = solution;
+        });
+        return solutions;
+    }
+
+    /**
+     * The busy time slots of one vm, sorted by time. Since the slots do not
+     * overlap, the finish times are sorted too.
+     *
+     * The idle gap after each slot is kept in a segment tree of maximums: the
+     * leaf of slot i holds starts[i + 1] - finishes[i], the leaf of the last
+     * slot is infinite, since a task always fits after it, and the leaves of
+     * unused slots are negative infinity. The first gap long enough for a task
+     * is then found in logarithmic time.
+     */
+    private static class Slots {
+
+        private double[] starts = new double[16];
+
+        private double[] finishes = new double[16];
+
+        private double[] gaps = newGaps(16);
+
+        private int count;
+
+        /**
+         * Finds the earliest time slot of the given length that starts no
+         * earlier than readyTime, as {@link HEFTPlanningAlgorithm} does, but
+         * finds the first slot ending after readyTime with a binary search
+         * instead of scanning back from the last slot. If occupySlot is true,
+         * reserves the time slot.
+         */
+        public double findFinishTime(double computationCost, double readyTime, boolean occupySlot) {
+            // the first slot that does not end before readyTime
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (finishes[mid] < readyTime) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            int pos = count;
+            double start = count == 0 ? readyTime : Math.max(readyTime, finishes[count - 1]);
+            if (low < count && readyTime + computationCost <= starts[low]) {
+                pos = low;
+                start = readyTime;
+            } else if (low < count) {
+                // the stored gaps are rounded, so candidates are checked as
+                // HEFTPlanningAlgorithm does
+                double minGap = computationCost - 4 * Math.ulp(finishes[count - 1]);
+                int i = findGap(low, minGap);
+                while (i < count - 1 && finishes[i] + computationCost > starts[i + 1]) {
+                    i = findGap(i + 1, minGap);
+                }
+                pos = i + 1;
+                start = Math.max(readyTime, finishes[i]);
+            }
+
+            if (occupySlot) {
+                insert(pos, start, start + computationCost);
+            }
+            return start + computationCost;
+        }
+
+        /**
+         * Finds the first slot from the given one with a gap of at least
+         * minGap after it. The gap of the last slot is infinite, so there is
+         * always one.
+         */
+        private int findGap(int from, double minGap) {
+            int capacity = starts.length;
+            int node = from + capacity;
+            if (gaps[node] >= minGap) {
+                return from;
+            }
+            // climb to the first subtree on the right holding a long enough gap
+            do {
+                while ((node & 1) == 1) {
+                    node >>>= 1;
+                }
+                node++;
+            } while (gaps[node] < minGap);
+            // and descend to its leftmost such leaf
+            while (node < capacity) {
+                node <<= 1;
+                if (gaps[node] < minGap) {
+                    node++;
+                }
+            }
+            return node - capacity;
+        }
+
+        private void insert(int pos, double start, double finish) {
+            // the gaps change from the slot before the new one
+            int from = Math.max(pos - 1, 0);
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, 2 * count);
+                finishes = Arrays.copyOf(finishes, 2 * count);
+                gaps = newGaps(2 * count);
+                from = 0;
+            }
+            System.arraycopy(starts, pos, starts, pos + 1, count - pos);
+            System.arraycopy(finishes, pos, finishes, pos + 1, count - pos);
+            starts[pos] = start;
+            finishes[pos] = finish;
+            count++;
+            updateGaps(from);
+        }
+
+        /**
+         * Updates the gaps of the slots from the given one, and their
+         * maximums.
+         */
+        private void updateGaps(int from) {
+            int capacity = starts.length;
+            for (int i = from; i < count; i++) {
+                gaps[capacity + i] = i < count - 1
+                        ? starts[i + 1] - finishes[i] : Double.POSITIVE_INFINITY;
+            }
+            int low = (capacity + from) >>> 1;
+            int high = (capacity + count - 1) >>> 1;
+            while (low > 0) {
+                for (int node = low; node <= high; node++) {
+                    gaps[node] = Math.max(gaps[2 * node], gaps[2 * node + 1]);
+                }
+                low >>>= 1;
+                high >>>= 1;
+            }
+        }
+
+        private static double[] newGaps(int capacity) {
+            double[] gaps = new double[2 * capacity];
+            Arrays.fill(gaps, Double.NEGATIVE_INFINITY);
+            return gaps;
+        }
+    }
+}
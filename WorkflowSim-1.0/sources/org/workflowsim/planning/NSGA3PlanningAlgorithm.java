@@ -20,6 +20,7 @@ public class NSGA3PlanningAlgorithm extends BasePlanningAlgorithm{
                 .withProblem(workflowSimProblem)
                 .withAlgorithm("NSGAIII")
                 .withMaxEvaluations(10000)
+                .distributeOnAllCores()
                 .run();
         Solution solution = result.get(0);
         workflowSimProblem.evaluate(solution);
@@ -28,9 +29,10 @@ public class NSGA3PlanningAlgorithm extends BasePlanningAlgorithm{
                 solution = s;
             }
         }
+        int[] assignment = EncodingUtils.getAssignment(solution.getVariable(0));
         for(int i = 0; i < taskNum; i++){
             Task task = getTaskList().get(i);
-            int vmIndex = EncodingUtils.getSubset(solution.getVariable(task.getCloudletId() - 1))[0];
+            int vmIndex = assignment[task.getCloudletId() - 1];
             allocation[task.getCloudletId()] = vmIndex;
             task.setVmId(vmIndex);
         }
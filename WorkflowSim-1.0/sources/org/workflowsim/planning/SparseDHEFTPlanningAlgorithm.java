@@ -0,0 +1,51 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.workflowsim.Task;
+
+/**
+ * The DHEFT planning algorithm for large workflows. It makes the same choices
+ * as {@link DHEFTPlanningAlgorithm}, but finds the levels of the tasks in one
+ * pass over the workflow instead of searching the remaining tasks for ready
+ * ones, and sums the transferred files only once for each edge. See
+ * {@link HEFTSeeder#scheduleDistributed()}.
+ */
+public class SparseDHEFTPlanningAlgorithm extends BasePlanningAlgorithm {
+
+    /**
+     * The main function
+     */
+    @Override
+    public void run() {
+        List<Task> taskList = getTaskList();
+        Log.printLine("Sparse DHEFT planner running with " + taskList.size()
+                + " tasks.");
+
+        List<Vm> vmList = new ArrayList<>();
+        for (Object vm : getVmList()) {
+            vmList.add((Vm) vm);
+        }
+        int[] vmIds = new HEFTSeeder(taskList, vmList).scheduleDistributed();
+        for (int i = 0; i < taskList.size(); i++) {
+            taskList.get(i).setVmId(vmIds[i]);
+        }
+    }
+}
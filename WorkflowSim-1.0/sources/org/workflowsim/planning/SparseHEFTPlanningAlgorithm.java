@@ -0,0 +1,54 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.workflowsim.Task;
+
+/**
+ * The HEFT planning algorithm for large workflows. It ranks the tasks and
+ * inserts them in the free slots of the vms as {@link HEFTPlanningAlgorithm}
+ * does, but stores the costs in arrays, computes the transfer costs only for
+ * the edges of the workflow and the ranks without recursion, and searches the
+ * free slots of each vm with a binary search and an index of the gaps. The
+ * transfer costs are those of the schedule being built, so the choices may
+ * differ from those of {@link HEFTPlanningAlgorithm} on large workflows. See
+ * {@link HEFTSeeder}.
+ */
+public class SparseHEFTPlanningAlgorithm extends BasePlanningAlgorithm {
+
+    /**
+     * The main function
+     */
+    @Override
+    public void run() {
+        List<Task> taskList = getTaskList();
+        Log.printLine("Sparse HEFT planner running with " + taskList.size()
+                + " tasks.");
+
+        List<Vm> vmList = new ArrayList<>();
+        for (Object vm : getVmList()) {
+            vmList.add((Vm) vm);
+        }
+        int[] vmIds = new HEFTSeeder(taskList, vmList).schedule(null);
+        for (int i = 0; i < taskList.size(); i++) {
+            taskList.get(i).setVmId(vmIds[i]);
+        }
+    }
+}
@@ -15,17 +15,19 @@
  */
 package org.workflowsim.reclustering;
 
+import java.io.Serializable;
 import java.util.*;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.moeaframework.Executor;
 import org.moeaframework.core.NondominatedPopulation;
 import org.moeaframework.core.Solution;
 import org.moeaframework.core.variable.EncodingUtils;
-import org.moeaframework.core.variable.Subset;
+import org.moeaframework.core.variable.AssignmentVariable;
 import org.moeaframework.problem.workflow.WorkflowSimProblem;
 import org.moeaframework.problem.workflow.WorkflowSimRunningProblem;
 import org.workflowsim.CondorVM;
@@ -48,32 +50,53 @@ import org.workflowsim.utils.Parameters;
 public class ReclusteringEngine {
 
     /**
-     * the vm list.
+     * The rescheduling state of one simulation, held by its
+     * {@link SimulationContext}.
      */
-    private static List<? extends Vm> vmList;
-    
-    private static List<Job> failedJobList = new ArrayList<>();
+    private static final class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * the vm list.
+         */
+        private List<? extends Vm> vmList;
+
+        private final List<Job> failedJobList = new ArrayList<>();
+
+        private final WarmStartRescheduler warmStartRescheduler = new WarmStartRescheduler();
+    }
+
+    private static State state() {
+        return SimulationContext.current().getComponent(State.class, State::new);
+    }
 
     public static void setVmList(List<? extends Vm> vmList) {
-        ReclusteringEngine.vmList = vmList;
+        state().vmList = vmList;
     }
 
     public static void addFailedJob(Job failedJob){
-        if (failedJobList == null){
-            failedJobList = new ArrayList<>();
-        }
-        failedJobList.add(failedJob);
+        state().failedJobList.add(failedJob);
+    }
+
+    public static WarmStartRescheduler getWarmStartRescheduler() {
+        return state().warmStartRescheduler;
+    }
+
+    /**
+     * Stops the threads of the rescheduler at the end of the simulation.
+     */
+    public static void shutdown() {
+        state().warmStartRescheduler.shutdown();
     }
 
     public static List<Job> getFailedJobList() {
-        if (failedJobList == null){
-            failedJobList = new ArrayList<>();
-        }
-        return failedJobList;
+        return state().failedJobList;
     }
 
     public static List<Job> handleFailedJob(int newId){
-        if(failedJobList != null && !failedJobList.isEmpty()){
+        List<Job> failedJobList = state().failedJobList;
+        if(!failedJobList.isEmpty()){
             List<Job> jobList = ReclusteringEngine.process(failedJobList, newId);
             failedJobList.clear();
             return jobList;
@@ -187,6 +210,9 @@ public class ReclusteringEngine {
                 case FTScheduling_HEURISTIC:
                     HeuristicRescheduling(jobList);
                     break;
+                case FTScheduling_NSGA3_WARM:
+                    getWarmStartRescheduler().reschedule(jobList, state().vmList);
+                    break;
                 default:
                     break;
             }
@@ -199,14 +225,14 @@ public class ReclusteringEngine {
     private static void ScheduleSimpleJob(Job job, List<Job> allocatedJobList) {
         List<Job> jobList = new ArrayList<>();
         jobList.add(job);
+        List<? extends Vm> vmList = state().vmList;
         WorkflowSimRunningProblem workflowSimProblem = new WorkflowSimRunningProblem(jobList, allocatedJobList, vmList, 2);
         List<Solution> res = new ArrayList<>();
         for(int index = 0; index < jobList.size(); index++){
             for(int vmId = 0; vmId < vmList.size(); vmId++){
                 Solution solution = workflowSimProblem.newSolution();
-                Subset s = (Subset) solution.getVariable(index);
-                s.clear();
-                s.add(vmId);
+                AssignmentVariable s = (AssignmentVariable) solution.getVariable(0);
+                s.set(index, vmId);
                 workflowSimProblem.evaluate(solution);
                 res.add(solution);
             }
@@ -220,7 +246,7 @@ public class ReclusteringEngine {
         }
 
         for(Job j : jobList){
-            int vmId = EncodingUtils.getSubset(minSolution.getVariable(0))[0];
+            int vmId = EncodingUtils.getAssignment(minSolution.getVariable(0))[0];
             j.setVmId(vmId);
             workflowSimProblem.evaluate(minSolution);
         }
@@ -254,17 +280,18 @@ public class ReclusteringEngine {
     private static void RandomRescheduling(List<Job> jobList) {
         for(Job j : jobList){
             Random random = new Random();
-            int vmId = random.nextInt(vmList.size());
+            int vmId = random.nextInt(state().vmList.size());
             j.setVmId(vmId);
         }
     }
 
     private static void NSGARescheduling(List<Job> jobList) {
-        WorkflowSimRunningProblem workflowSimProblem = new WorkflowSimRunningProblem(jobList,  vmList, 2);
+        WorkflowSimRunningProblem workflowSimProblem = new WorkflowSimRunningProblem(jobList,  state().vmList, 2);
         NondominatedPopulation result = new Executor()
                 .withProblem(workflowSimProblem)
                 .withAlgorithm("NSGAIII")
                 .withMaxEvaluations(10000)
+                .distributeOnAllCores()
                 .run();
         Solution solution = result.get(0);
         workflowSimProblem.evaluate(solution);
@@ -273,9 +300,10 @@ public class ReclusteringEngine {
                 solution = s;
             }
         }
+        int[] assignment = EncodingUtils.getAssignment(solution.getVariable(0));
         for(int i = 0; i < jobList.size(); i++){
             Job job = jobList.get(i);
-            int vmIndex = EncodingUtils.getSubset(solution.getVariable(i))[0];
+            int vmIndex = assignment[i];
             job.setVmId(vmIndex);
         }
     }
@@ -0,0 +1,260 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.reclustering;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.moeaframework.algorithm.NSGAII;
+import org.moeaframework.algorithm.ReferencePointNondominatedSortingPopulation;
+import org.moeaframework.core.Algorithm;
+import org.moeaframework.core.NondominatedPopulation;
+import org.moeaframework.core.Problem;
+import org.moeaframework.core.Solution;
+import org.moeaframework.core.TerminationCondition;
+import org.moeaframework.core.operator.InjectedInitialization;
+import org.moeaframework.core.operator.UniformSelection;
+import org.moeaframework.core.spi.OperatorFactory;
+import org.moeaframework.core.termination.CompoundTerminationCondition;
+import org.moeaframework.core.termination.MaxElapsedTime;
+import org.moeaframework.core.termination.MaxFunctionEvaluations;
+import org.moeaframework.core.variable.EncodingUtils;
+import org.moeaframework.problem.workflow.WorkflowSimRunningProblem;
+import org.moeaframework.util.distributed.DistributedProblem;
+import org.workflowsim.Job;
+import org.workflowsim.Task;
+import org.workflowsim.failure.FailureParameters;
+import org.workflowsim.planning.HEFTSeeder;
+
+/**
+ * Reschedules failed jobs with NSGA-III, starting from the population of the
+ * previous rescheduling event instead of a random one. The jobs change at
+ * every event, so the population is kept as the vm of each task, and a new
+ * job takes the vm its first task had in each solution. The initial
+ * population also holds the static assignment, where every job runs on the
+ * vm its first task was planned on, and the HEFT schedule of the jobs.
+ *
+ * Each event runs until the evaluation budget or the wall-clock budget set in
+ * {@link FailureParameters} is spent. As in
+ * {@link ReclusteringEngine}, the solutions are evaluated on all cores, by a
+ * pool of threads shared by the events of the simulation and shut down with
+ * {@link #shutdown()} when it ends.
+ */
+public class WarmStartRescheduler implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of divisions of the reference points of NSGA-III with two
+     * objectives, which gives a population of 100 solutions.
+     */
+    private static final int DIVISIONS = 99;
+
+    private static final int POPULATION_SIZE = 100;
+
+    /**
+     * The threads evaluating the solutions, created on the first event.
+     */
+    private transient ExecutorService executor;
+
+    /**
+     * The vm of each task in the solutions of the last population.
+     */
+    private final List<Map<Integer, Integer>> population;
+
+    /**
+     * The wall-clock time (in milliseconds) and evaluations spent on each
+     * rescheduling event.
+     */
+    private final List<Long> elapsedTimes;
+
+    private final List<Integer> evaluations;
+
+    public WarmStartRescheduler() {
+        this.population = new ArrayList<>();
+        this.elapsedTimes = new ArrayList<>();
+        this.evaluations = new ArrayList<>();
+    }
+
+    /**
+     * Assigns a vm to each of the jobs.
+     *
+     * @param jobList the jobs to reschedule
+     * @param vmList the vm list
+     */
+    public void reschedule(List<Job> jobList, List<? extends Vm> vmList) {
+        long startTime = System.currentTimeMillis();
+        Problem problem = new DistributedProblem(
+                new WorkflowSimRunningProblem(jobList, vmList, 2), getExecutor());
+
+        int[] heftVms = new HEFTSeeder(jobList, vmList).schedule(null);
+        List<Solution> seeds = new ArrayList<>();
+        seeds.add(createSolution(problem, jobList, vmList, null, heftVms));
+        Solution heft = problem.newSolution();
+        EncodingUtils.setAssignment(heft.getVariable(0), heftVms);
+        seeds.add(heft);
+        for (Map<Integer, Integer> vms : population) {
+            if (seeds.size() >= POPULATION_SIZE) {
+                break;
+            }
+            seeds.add(createSolution(problem, jobList, vmList, vms, heftVms));
+        }
+
+        Algorithm algorithm = new NSGAII(problem,
+                new ReferencePointNondominatedSortingPopulation(problem.getNumberOfObjectives(), DIVISIONS),
+                null,
+                new UniformSelection(),
+                OperatorFactory.getInstance().getVariation(null, new Properties(), problem),
+                new InjectedInitialization(problem, POPULATION_SIZE, seeds));
+        TerminationCondition condition = getTerminationCondition();
+
+        try {
+            condition.initialize(algorithm);
+            while (!algorithm.isTerminated() && !condition.shouldTerminate(algorithm)) {
+                algorithm.step();
+            }
+
+            NondominatedPopulation result = algorithm.getResult();
+            Solution solution = result.get(0);
+            for (Solution s : result) {
+                if (s.getObjective(0) < solution.getObjective(0)) {
+                    solution = s;
+                }
+            }
+            int[] assignment = EncodingUtils.getAssignment(solution.getVariable(0));
+            for (int i = 0; i < jobList.size(); i++) {
+                jobList.get(i).setVmId(assignment[i]);
+            }
+
+            population.clear();
+            for (Solution s : ((NSGAII) algorithm).getPopulation()) {
+                population.add(getTaskVms(jobList, EncodingUtils.getAssignment(s.getVariable(0))));
+            }
+        } finally {
+            algorithm.terminate();
+        }
+
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        elapsedTimes.add(elapsedTime);
+        evaluations.add(algorithm.getNumberOfEvaluations());
+        Log.printLine(CloudSim.clock() + ": Rescheduled " + jobList.size() + " jobs in " + elapsedTime
+                + " ms (" + algorithm.getNumberOfEvaluations() + " evaluations)");
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "Rescheduling evaluator");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Stops at the evaluation budget, or at the wall-clock budget if one is set.
+     */
+    private TerminationCondition getTerminationCondition() {
+        TerminationCondition maxEvaluations = new MaxFunctionEvaluations(
+                FailureParameters.getReschedulingMaxEvaluations());
+        if (FailureParameters.getReschedulingMaxTime() < 0) {
+            return maxEvaluations;
+        }
+        return new CompoundTerminationCondition(maxEvaluations,
+                new MaxElapsedTime(FailureParameters.getReschedulingMaxTime()));
+    }
+
+    /**
+     * Creates a solution assigning each job the vm its first task has in the
+     * given solution of the previous population, or the vm the task was planned
+     * on if it is not there. A task that was never planned, as when no planning
+     * algorithm runs, has no vm yet, and its job takes its vm in the HEFT
+     * schedule.
+     */
+    private Solution createSolution(Problem problem, List<Job> jobList,
+            List<? extends Vm> vmList, Map<Integer, Integer> vms, int[] heftVms) {
+        Solution solution = problem.newSolution();
+        int[] assignment = EncodingUtils.getAssignment(solution.getVariable(0));
+        for (int i = 0; i < jobList.size(); i++) {
+            Task task = jobList.get(i).getTaskList().get(0);
+            Integer vmId = vms == null ? null : vms.get(task.getCloudletId());
+            if (vmId == null) {
+                vmId = task.getVmId();
+            }
+            assignment[i] = vmId >= 0 && vmId < vmList.size() ? vmId : heftVms[i];
+        }
+        EncodingUtils.setAssignment(solution.getVariable(0), assignment);
+        return solution;
+    }
+
+    private Map<Integer, Integer> getTaskVms(List<Job> jobList, int[] assignment) {
+        Map<Integer, Integer> vms = new HashMap<>();
+        for (int i = 0; i < jobList.size(); i++) {
+            for (Task task : jobList.get(i).getTaskList()) {
+                vms.put(task.getCloudletId(), assignment[i]);
+            }
+        }
+        return vms;
+    }
+
+    /**
+     * Stops the threads evaluating the solutions. A later rescheduling event
+     * starts new ones.
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Forgets the population of the previous rescheduling event.
+     */
+    public void reset() {
+        population.clear();
+        elapsedTimes.clear();
+        evaluations.clear();
+    }
+
+    /**
+     * Gets the wall-clock time (in milliseconds) spent on each rescheduling event
+     *
+     * @return the elapsed times
+     */
+    public List<Long> getElapsedTimes() {
+        return elapsedTimes;
+    }
+
+    /**
+     * Gets the number of evaluations spent on each rescheduling event
+     *
+     * @return the evaluations
+     */
+    public List<Integer> getEvaluations() {
+        return evaluations;
+    }
+}
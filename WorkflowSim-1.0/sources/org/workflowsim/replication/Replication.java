@@ -0,0 +1,40 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.replication;
+
+import java.util.Map;
+
+/**
+ * One simulation of a sweep. It is called by {@link ReplicationRunner} inside
+ * a fresh simulation context, so it initializes Parameters, ReplicaCatalog,
+ * FailureParameters and CloudSim, builds the datacenter and runs the
+ * simulation exactly as a stand-alone example would.
+ */
+public interface Replication {
+
+    /**
+     * Runs one simulation.
+     *
+     * @param parameters the value of every parameter of the grid for this run
+     * @param seed the seed of this run, already used to seed PRNG on the
+     * calling thread
+     * @return the metrics of the run, usually
+     * {@link ReplicationResult#of(java.util.List)} of the received jobs, or
+     * null if the run failed
+     * @throws Exception if the simulation fails
+     */
+    ReplicationResult run(Map<String, String> parameters, long seed) throws Exception;
+}
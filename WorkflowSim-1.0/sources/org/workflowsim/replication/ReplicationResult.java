@@ -0,0 +1,148 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.replication;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.cloudbus.cloudsim.Cloudlet;
+import org.workflowsim.Job;
+import org.workflowsim.Task;
+
+/**
+ * The metrics of one run of a sweep.
+ */
+public class ReplicationResult {
+
+    private final double makespan;
+
+    private final double cost;
+
+    /**
+     * the number of job executions that failed.
+     */
+    private final int failures;
+
+    /**
+     * the number of task executions beyond the first execution of each task.
+     */
+    private final int retries;
+
+    private Map<String, String> parameters = Collections.emptyMap();
+
+    private long seed;
+
+    /**
+     * the wall-clock time of the run, in milliseconds.
+     */
+    private long time;
+
+    public ReplicationResult(double makespan, double cost, int failures, int retries) {
+        this.makespan = makespan;
+        this.cost = cost;
+        this.failures = failures;
+        this.retries = retries;
+    }
+
+    /**
+     * Computes the metrics of a run from the jobs received by the workflow
+     * engine. The makespan is the latest finish time of the jobs. Failed
+     * executions are paid for, so they count in the cost.
+     *
+     * @param jobs the received jobs, including the failed ones
+     * @return the metrics of the run
+     */
+    public static ReplicationResult of(List<Job> jobs) {
+        double makespan = 0.0;
+        for (Job job : jobs) {
+            makespan = Math.max(makespan, job.getFinishTime());
+        }
+        return of(jobs, makespan);
+    }
+
+    /**
+     * Computes the metrics of a run from the jobs received by the workflow
+     * engine, with a makespan measured by the caller.
+     *
+     * @param jobs the received jobs, including the failed ones
+     * @param makespan the makespan of the run
+     * @return the metrics of the run
+     */
+    public static ReplicationResult of(List<Job> jobs, double makespan) {
+        double cost = 0.0;
+        int failures = 0;
+        int executions = 0;
+        Set<Integer> tasks = new HashSet<>();
+        for (Job job : jobs) {
+            cost += job.getProcessingCost();
+            if (job.getCloudletStatus() == Cloudlet.FAILED) {
+                failures++;
+            }
+            for (Task task : job.getTaskList()) {
+                executions++;
+                tasks.add(task.getCloudletId());
+            }
+        }
+        return new ReplicationResult(makespan, cost, failures, executions - tasks.size());
+    }
+
+    public double getMakespan() {
+        return makespan;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Gets the value of every parameter of the grid for this run
+     *
+     * @return the parameters, in the order of the grid
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the wall-clock time of the run
+     *
+     * @return the time in milliseconds, or -1 if the run was loaded from a
+     * previous output
+     */
+    public long getTime() {
+        return time;
+    }
+
+    void setRun(Map<String, String> parameters, long seed, long time) {
+        this.parameters = parameters;
+        this.seed = seed;
+        this.time = time;
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ * Copyright 2012-2013 University Of Southern California
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.workflowsim.replication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomAdaptor;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.moeaframework.core.PRNG;
+
+/**
+ * ReplicationRunner runs a parameter sweep: every combination of the values
+ * of a parameter grid is simulated once per seed. Each run gets its own
+ * {@link SimulationContext} and its own PRNG source seeded with the seed of
+ * the run, so the runs are isolated and are executed concurrently on a
+ * fork-join pool, using every core by default.
+ *
+ * The metrics of every run are appended to a CSV output as soon as the run
+ * finishes. When the output already exists, the runs it records are not run
+ * again, so a sweep interrupted by a crash resumes where it stopped.
+ *
+ * <pre>
+ * List&lt;ReplicationResult&gt; results = new ReplicationRunner(replication)
+ *         .withParameter("clustering", "DR", "SR")
+ *         .withParameter("theta", 10, 20, 30)
+ *         .withReplications(100)
+ *         .withOutput(new File("sweep.csv"))
+ *         .run();
+ * </pre>
+ */
+public class ReplicationRunner {
+
+    /**
+     * The columns following the parameters in the output.
+     */
+    private static final List<String> METRICS = Arrays.asList("seed", "makespan", "cost", "failures", "retries", "time");
+
+    private final Replication replication;
+
+    /**
+     * the values of every parameter, in the order they were added.
+     */
+    private final Map<String, List<String>> grid = new LinkedHashMap<>();
+
+    private long[] seeds = {0};
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private File output;
+
+    public ReplicationRunner(Replication replication) {
+        this.replication = replication;
+    }
+
+    /**
+     * Adds a parameter to the grid. The first parameter varies the slowest,
+     * as the outermost of nested loops.
+     *
+     * @param name the name of the parameter
+     * @param values its values, converted with toString()
+     * @return this runner
+     */
+    public ReplicationRunner withParameter(String name, Object... values) {
+        if (name.isEmpty() || METRICS.contains(name)) {
+            throw new IllegalArgumentException("invalid parameter name: " + name);
+        }
+        List<String> list = new ArrayList<>();
+        for (Object value : values) {
+            String text = value.toString();
+            if (text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("invalid value of " + name + ": " + text);
+            }
+            list.add(text);
+        }
+        grid.put(name, list);
+        return this;
+    }
+
+    /**
+     * Runs every combination of parameters once per seed.
+     *
+     * @param seeds the seeds
+     * @return this runner
+     */
+    public ReplicationRunner withSeeds(long... seeds) {
+        if (seeds.length == 0) {
+            throw new IllegalArgumentException("at least one seed is required");
+        }
+        this.seeds = seeds.clone();
+        return this;
+    }
+
+    /**
+     * Runs every combination of parameters with the seeds 0 to count - 1.
+     *
+     * @param count the number of replications
+     * @return this runner
+     */
+    public ReplicationRunner withReplications(int count) {
+        long[] list = new long[count];
+        for (int i = 0; i < count; i++) {
+            list[i] = i;
+        }
+        return withSeeds(list);
+    }
+
+    /**
+     * Sets the number of runs executed concurrently
+     *
+     * @param parallelism the number of threads, the number of cores by default
+     * @return this runner
+     */
+    public ReplicationRunner withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Streams the metrics of every run to a CSV file, and resumes from it.
+     *
+     * @param output the CSV file
+     * @return this runner
+     */
+    public ReplicationRunner withOutput(File output) {
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * Runs the sweep. A run that throws an exception or returns null is logged
+     * and left out, so it is run again when the sweep is resumed.
+     *
+     * @return the results of the runs, including those loaded from the
+     * output, in the order of the grid
+     * @throws IOException if the output cannot be read or written
+     */
+    public List<ReplicationResult> run() throws IOException {
+        List<Map<String, String>> points = getPoints();
+        List<String> header = new ArrayList<>(grid.keySet());
+        header.addAll(METRICS);
+
+        Map<List<String>, ReplicationResult> completed = new HashMap<>();
+        Writer writer = null;
+        if (output != null) {
+            completed = load(header);
+            writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (output.length() == 0) {
+                writeRow(writer, header);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<ReplicationResult> results = new ArrayList<>();
+        try {
+            List<Future<ReplicationResult>> runs = new ArrayList<>();
+            for (Map<String, String> point : points) {
+                for (long seed : seeds) {
+                    ReplicationResult result = completed.get(getKey(point, seed));
+                    if (result != null) {
+                        runs.add(CompletableFuture.completedFuture(result));
+                    } else {
+                        Writer sink = writer;
+                        runs.add(pool.submit(() -> runOnce(point, seed, sink)));
+                    }
+                }
+            }
+            for (Future<ReplicationResult> run : runs) {
+                ReplicationResult result = run.get();
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("the sweep was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs one simulation in its own context and appends its metrics to the
+     * output.
+     */
+    private ReplicationResult runOnce(Map<String, String> point, long seed, Writer writer) throws IOException {
+        long start = System.currentTimeMillis();
+        ReplicationResult result;
+        try {
+            result = new SimulationContext().call(() -> {
+                PRNG.setThreadRandom(new RandomAdaptor(new MersenneTwister(seed)));
+                try {
+                    return replication.run(point, seed);
+                } finally {
+                    PRNG.setThreadRandom(null);
+                }
+            });
+        } catch (Exception e) {
+            Log.printLine("Replication " + point + " with seed " + seed + " failed: " + e);
+            return null;
+        }
+        if (result == null) {
+            Log.printLine("Replication " + point + " with seed " + seed + " returned no result");
+            return null;
+        }
+        result.setRun(point, seed, System.currentTimeMillis() - start);
+
+        if (writer != null) {
+            List<String> row = new ArrayList<>(point.values());
+            row.add(Long.toString(seed));
+            row.add(Double.toString(result.getMakespan()));
+            row.add(Double.toString(result.getCost()));
+            row.add(Integer.toString(result.getFailures()));
+            row.add(Integer.toString(result.getRetries()));
+            row.add(Long.toString(result.getTime()));
+            synchronized (writer) {
+                writeRow(writer, row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets every combination of parameter values, as nested loops over the
+     * grid would.
+     */
+    private List<Map<String, String>> getPoints() {
+        List<Map<String, String>> points = new ArrayList<>();
+        points.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<String>> parameter : grid.entrySet()) {
+            List<Map<String, String>> next = new ArrayList<>();
+            for (Map<String, String> point : points) {
+                for (String value : parameter.getValue()) {
+                    Map<String, String> extended = new LinkedHashMap<>(point);
+                    extended.put(parameter.getKey(), value);
+                    next.add(extended);
+                }
+            }
+            points = next;
+        }
+        for (int i = 0; i < points.size(); i++) {
+            points.set(i, Collections.unmodifiableMap(points.get(i)));
+        }
+        return points;
+    }
+
+    private static List<String> getKey(Map<String, String> point, long seed) {
+        List<String> key = new ArrayList<>(point.values());
+        key.add(Long.toString(seed));
+        return key;
+    }
+
+    /**
+     * Loads the runs recorded in the output. A line cut by a crash is removed
+     * from the file so that new rows start on a line of their own.
+     */
+    private Map<List<String>, ReplicationResult> load(List<String> header) throws IOException {
+        Map<List<String>, ReplicationResult> completed = new HashMap<>();
+        if (!output.exists()) {
+            return completed;
+        }
+
+        byte[] bytes = Files.readAllBytes(output.toPath());
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            try (RandomAccessFile file = new RandomAccessFile(output, "rw")) {
+                file.setLength(end);
+            }
+        }
+
+        String[] lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\r?\n");
+        if (lines.length == 0 || lines[0].isEmpty()) {
+            return completed;
+        }
+        if (!parseRow(lines[0]).equals(header)) {
+            throw new IOException(output + " was written by a sweep with other parameters");
+        }
+
+        int parameters = grid.size();
+        for (int i = 1; i < lines.length; i++) {
+            List<String> row = parseRow(lines[i]);
+            if (row.size() != header.size()) {
+                continue;
+            }
+            Map<String, String> point = new LinkedHashMap<>();
+            for (int j = 0; j < parameters; j++) {
+                point.put(header.get(j), row.get(j));
+            }
+            try {
+                long seed = Long.parseLong(row.get(parameters));
+                ReplicationResult result = new ReplicationResult(
+                        Double.parseDouble(row.get(parameters + 1)),
+                        Double.parseDouble(row.get(parameters + 2)),
+                        Integer.parseInt(row.get(parameters + 3)),
+                        Integer.parseInt(row.get(parameters + 4)));
+                result.setRun(Collections.unmodifiableMap(point), seed, -1);
+                completed.put(getKey(point, seed), result);
+            } catch (NumberFormatException e) {
+                Log.printLine("Skipping malformed row " + i + " of " + output);
+            }
+        }
+        return completed;
+    }
+
+    private static void writeRow(Writer writer, List<String> row) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (String value : row) {
+            if (line.length() > 0) {
+                line.append(',');
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        line.append('\n');
+        writer.write(line.toString());
+        writer.flush();
+    }
+
+    private static List<String> parseRow(String line) {
+        List<String> row = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        row.add(value.toString());
+        return row;
+    }
+}
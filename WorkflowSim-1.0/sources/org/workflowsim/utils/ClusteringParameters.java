@@ -15,6 +15,8 @@
  */
 package org.workflowsim.utils;
 
+import java.io.Serializable;
+
 /**
  * ClusteringParameters contains all the parameters used in task clustering
  *
@@ -22,7 +24,9 @@ package org.workflowsim.utils;
  * @since WorkflowSim Toolkit 1.0
  * @date Apr 9, 2013
  */
-public class ClusteringParameters {
+public class ClusteringParameters implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * The number of clustered jobs per level. You just need to set one of
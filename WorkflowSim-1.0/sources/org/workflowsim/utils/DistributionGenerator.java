@@ -17,12 +17,14 @@
  */
 package org.workflowsim.utils;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import org.apache.commons.math3.distribution.GammaDistribution;
 import org.apache.commons.math3.distribution.LogNormalDistribution;
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.distribution.RealDistribution;
 import org.apache.commons.math3.distribution.WeibullDistribution;
+import org.moeaframework.core.PRNG;
 
 /**
  * This is a OverheadDistributionGenrator for one typic overhead per level.
@@ -31,7 +33,9 @@ import org.apache.commons.math3.distribution.WeibullDistribution;
  * @since WorkflowSim Toolkit 1.0
  * @date Mar 11, 2014
  */
-public class DistributionGenerator {
+public class DistributionGenerator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected DistributionFamily dist;
     protected double scale;
@@ -247,6 +251,11 @@ public class DistributionGenerator {
             default:
                 break;
         }
+        if (distribution != null && PRNG.hasThreadRandom()) {
+            // in a replication, draw the samples from the PRNG of the run so
+            // that they follow its seed
+            distribution.reseedRandomGenerator(PRNG.getRandom().nextLong());
+        }
         return distribution;
     }
     
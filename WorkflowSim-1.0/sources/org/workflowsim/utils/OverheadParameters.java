@@ -15,6 +15,7 @@
  */
 package org.workflowsim.utils;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import org.cloudbus.cloudsim.Cloudlet;
@@ -28,7 +29,9 @@ import org.workflowsim.Job;
  * @since WorkflowSim Toolkit 1.0
  * @date Apr 9, 2013
  */
-public class OverheadParameters {
+public class OverheadParameters implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * The interval of workflow engine delay
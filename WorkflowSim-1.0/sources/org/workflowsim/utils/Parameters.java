@@ -15,8 +15,10 @@
  */
 package org.workflowsim.utils;
 
+import java.io.Serializable;
 import java.util.List;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * This class includes most parameters a user can specify in a configuration
@@ -47,7 +49,7 @@ public class Parameters {
      * 
      */
     public enum PlanningAlgorithm{
-        INVALID, RANDOM, HEFT, DHEFT, NSGA3
+        INVALID, RANDOM, HEFT, DHEFT, NSGA3, SPARSEHEFT, SPARSEDHEFT
     }
     
     /**
@@ -93,44 +95,102 @@ public class Parameters {
     public static final int BASE = 0;
     
     /**
-     * Scheduling mode
+     * The parameters of one simulation, held by its {@link SimulationContext}.
      */
-    private static SchedulingAlgorithm schedulingAlgorithm;
-    
-    /**
-     * Planning mode
-     */
-    private static PlanningAlgorithm planningAlgorithm;
-    
-    /**
-     * Reducer mode
-     */
-    private static String reduceMethod;
-    /**
-     * Number of vms available
-     */
-    private static int vmNum;
-    /**
-     * The physical path to DAX file
-     */
-    private static String daxPath;
-    
-    /**
-     * The physical path to DAX files
-     */
-    private static List<String> daxPaths;
-    /**
-     * The physical path to runtime file In the runtime file, please use format
-     * as below ID1 1.0 ID2 2.0 ... This is optional, if you have specified task
-     * runtime in DAX then you don't need to specify this file
-     */
-    private static String runtimePath;
-    /**
-     * The physical path to datasize file In the datasize file, please use
-     * format as below DATA1 1000 DATA2 2000 ... This is optional, if you have
-     * specified datasize in DAX then you don't need to specify this file
-     */
-    private static String datasizePath;
+    private static final class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Scheduling mode
+         */
+        private SchedulingAlgorithm schedulingAlgorithm;
+
+        /**
+         * Planning mode
+         */
+        private PlanningAlgorithm planningAlgorithm;
+
+        /**
+         * Reducer mode
+         */
+        private String reduceMethod;
+
+        /**
+         * Number of vms available
+         */
+        private int vmNum;
+
+        /**
+         * The physical path to DAX file
+         */
+        private String daxPath;
+
+        /**
+         * The physical path to DAX files
+         */
+        private List<String> daxPaths;
+
+        /**
+         * The physical path to runtime file In the runtime file, please use format
+         * as below ID1 1.0 ID2 2.0 ... This is optional, if you have specified task
+         * runtime in DAX then you don't need to specify this file
+         */
+        private String runtimePath;
+
+        /**
+         * The physical path to datasize file In the datasize file, please use
+         * format as below DATA1 1000 DATA2 2000 ... This is optional, if you have
+         * specified datasize in DAX then you don't need to specify this file
+         */
+        private String datasizePath;
+
+        /**
+         * Overhead parameters
+         */
+        private OverheadParameters oParams;
+
+        /**
+         * Clustering parameters
+         */
+        private ClusteringParameters cParams;
+
+        /**
+         * Deadline of a workflow
+         */
+        private long deadline;
+
+        /**
+         * the bandwidth from one vm to one vm
+         */
+        private double[][] bandwidths;
+
+        /**
+         * The maximum depth. It is inited manually and used in FailureGenerator
+         */
+        private int maxDepth;
+
+        /**
+         * The scale of runtime. Multiple runtime by this
+         */
+        private double runtime_scale = 1.0;
+
+        /**
+         * The default cost model is based on datacenter, similar to CloudSim
+         */
+        private CostModel costModel = CostModel.DATACENTER;
+
+        /**
+         * The directory of the binary images of the DAX files, or null if no
+         * image is kept
+         */
+        private String imageDirectory;
+    }
+
+    private static State state() {
+        return SimulationContext.current().getComponent(State.class, State::new);
+    }
+
     /**
      * Version number
      */
@@ -139,45 +199,13 @@ public class Parameters {
      * Note information
      */
     private static final String note = " supports planning algorithm at Nov 9, 2013";
-    /**
-     * Overhead parameters
-     */
-    private static OverheadParameters oParams;
-    /**
-     * Clustering parameters
-     */
-    private static ClusteringParameters cParams;
-    /**
-     * Deadline of a workflow
-     */
-    private static long deadline;
-    
-    /**
-     * the bandwidth from one vm to one vm
-     */
-    private static double[][] bandwidths;
-    
     
-    /**
-     * The maximum depth. It is inited manually and used in FailureGenerator
-     */
-    private static int maxDepth;
     
     /**
      * Invalid String
      */
     private static final String INVALID = "Invalid";
     
-    /**
-     * The scale of runtime. Multiple runtime by this
-     */
-    private static double runtime_scale = 1.0;
-    
-    /**
-     * The default cost model is based on datacenter, similar to CloudSim
-     */
-    private static CostModel costModel = CostModel.DATACENTER;
-    
     /**
      * A static function so that you can specify them in any place
      *
@@ -198,18 +226,19 @@ public class Parameters {
             SchedulingAlgorithm scheduler, PlanningAlgorithm planner, String rMethod,
             long dl) {
 
-        cParams = cp;
-        vmNum = vm;
-        daxPath = dax;
-        runtimePath = runtime;
-        datasizePath = datasize;
+        State state = state();
+        state.cParams = cp;
+        state.vmNum = vm;
+        state.daxPath = dax;
+        state.runtimePath = runtime;
+        state.datasizePath = datasize;
 
-        oParams = op;
-        schedulingAlgorithm = scheduler;
-        planningAlgorithm = planner;
-        reduceMethod = rMethod;
-        deadline = dl;
-        maxDepth = 0;
+        state.oParams = op;
+        state.schedulingAlgorithm = scheduler;
+        state.planningAlgorithm = planner;
+        state.reduceMethod = rMethod;
+        state.deadline = dl;
+        state.maxDepth = 0;
     }
     
     /**
@@ -232,18 +261,19 @@ public class Parameters {
             SchedulingAlgorithm scheduler, PlanningAlgorithm planner, String rMethod,
             long dl) {
 
-        cParams = cp;
-        vmNum = vm;
-        daxPaths = dax;
-        runtimePath = runtime;
-        datasizePath = datasize;
+        State state = state();
+        state.cParams = cp;
+        state.vmNum = vm;
+        state.daxPaths = dax;
+        state.runtimePath = runtime;
+        state.datasizePath = datasize;
 
-        oParams = op;
-        schedulingAlgorithm = scheduler;
-        planningAlgorithm = planner;
-        reduceMethod = rMethod;
-        deadline = dl;
-        maxDepth = 0;
+        state.oParams = op;
+        state.schedulingAlgorithm = scheduler;
+        state.planningAlgorithm = planner;
+        state.reduceMethod = rMethod;
+        state.deadline = dl;
+        state.maxDepth = 0;
     }
 
     /**
@@ -254,7 +284,7 @@ public class Parameters {
      * @post $none
      */
     public static OverheadParameters getOverheadParams() {
-        return oParams;
+        return state().oParams;
     }
 
     
@@ -267,6 +297,7 @@ public class Parameters {
      * @post $none
      */
     public static String getReduceMethod() {
+        String reduceMethod = state().reduceMethod;
         if(reduceMethod!=null){
             return reduceMethod;
         }else{
@@ -284,7 +315,7 @@ public class Parameters {
      * @post $none
      */
     public static String getDaxPath() {
-        return daxPath;
+        return state().daxPath;
     }
 
     /**
@@ -295,7 +326,7 @@ public class Parameters {
      * @post $none
      */
     public static String getRuntimePath() {
-        return runtimePath;
+        return state().runtimePath;
     }
 
     /**
@@ -306,7 +337,7 @@ public class Parameters {
      * @post $none
      */
     public static String getDatasizePath() {
-        return datasizePath;
+        return state().datasizePath;
     }
 
     
@@ -318,7 +349,7 @@ public class Parameters {
      * @post $none
      */
     public static int getVmNum() {
-        return vmNum;
+        return state().vmNum;
     }
 
     
@@ -328,7 +359,7 @@ public class Parameters {
      * @return costModel
      */
     public static CostModel getCostModel(){
-        return costModel;
+        return state().costModel;
     }
     
     /**
@@ -337,7 +368,7 @@ public class Parameters {
      * @param num
      */
     public static void setVmNum(int num) {
-        vmNum = num;
+        state().vmNum = num;
     }
 
     /**
@@ -346,7 +377,7 @@ public class Parameters {
      * @return the clustering parameters
      */
     public static ClusteringParameters getClusteringParameters() {
-        return cParams;
+        return state().cParams;
     }
 
     /**
@@ -355,7 +386,7 @@ public class Parameters {
      * @return the scheduling method
      */
     public static SchedulingAlgorithm getSchedulingAlgorithm() {
-        return schedulingAlgorithm;
+        return state().schedulingAlgorithm;
     }
     
     /**
@@ -364,7 +395,7 @@ public class Parameters {
      * 
      */
     public static PlanningAlgorithm getPlanningAlgorithm() {
-        return planningAlgorithm;
+        return state().planningAlgorithm;
     }
     /**
      * Gets the version
@@ -382,7 +413,7 @@ public class Parameters {
      * Gets the deadline
      */
     public static long getDeadline(){
-    	return deadline;
+    	return state().deadline;
     }
     
     /**
@@ -390,7 +421,7 @@ public class Parameters {
      * @return the maxDepth
      */
     public static int getMaxDepth(){
-        return maxDepth;
+        return state().maxDepth;
     }
     
     /**
@@ -398,7 +429,7 @@ public class Parameters {
      * @param depth the maxDepth
      */
     public static void setMaxDepth(int depth){
-        maxDepth = depth;
+        state().maxDepth = depth;
     }
     
     /**
@@ -406,7 +437,7 @@ public class Parameters {
      * @param scale 
      */
     public static void setRuntimeScale(double scale){
-        runtime_scale = scale;
+        state().runtime_scale = scale;
     }
     
     /**
@@ -414,7 +445,7 @@ public class Parameters {
      * @param model
      */
     public static void setCostModel(CostModel model){
-        costModel = model;
+        state().costModel = model;
     }
     
     /**
@@ -422,14 +453,32 @@ public class Parameters {
      * @return 
      */
     public static double getRuntimeScale(){
-        return runtime_scale;
+        return state().runtime_scale;
     }
     
+    /**
+     * Sets the directory where the workflow parser keeps the binary images of
+     * the DAX files it parses, to load them faster next time. The images are
+     * never removed from the directory.
+     * @param directory the directory, or null to keep no image
+     */
+    public static void setImageDirectory(String directory){
+        state().imageDirectory = directory;
+    }
+
+    /**
+     * Gets the directory of the binary images of the DAX files
+     * @return the directory, or null if no image is kept
+     */
+    public static String getImageDirectory(){
+        return state().imageDirectory;
+    }
+
     /**
      * Gets the dax paths
      * @return 
      */
     public static List<String> getDAXPaths() {
-        return daxPaths;
+        return state().daxPaths;
     }
 }
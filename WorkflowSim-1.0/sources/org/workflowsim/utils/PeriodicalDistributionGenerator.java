@@ -28,6 +28,8 @@ import org.apache.commons.math3.distribution.RealDistribution;
  */
 public class PeriodicalDistributionGenerator extends DistributionGenerator{
     
+    private static final long serialVersionUID = 1L;
+
     /**
      * The periodical signal stored 
      */
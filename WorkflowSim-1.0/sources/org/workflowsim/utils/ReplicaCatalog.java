@@ -17,11 +17,14 @@
  */
 package org.workflowsim.utils;
 
-import java.util.ArrayList;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.workflowsim.FileItem;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * ReplicaCatalog stores all the data information and where (site) there are
@@ -39,17 +42,32 @@ public class ReplicaCatalog {
         SHARED, LOCAL
     }
     /**
-     * Map from file name to a file object
+     * The catalog of one simulation, held by its {@link SimulationContext}.
      */
-    private static Map<String, FileItem> fileName2File;
-    /**
-     * The selection of file.system
-     */
-    private static FileSystem fileSystem;
-    /**
-     * Map from file to a list of data storage
-     */
-    private static Map<String, List<String>> dataReplicaCatalog;
+    private static final class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Map from file name to a file object
+         */
+        private Map<String, FileItem> fileName2File;
+
+        /**
+         * The selection of file.system
+         */
+        private FileSystem fileSystem;
+
+        /**
+         * Map from file to a list of data storage. The datacenters may
+         * register files concurrently when the simulation runs in parallel.
+         */
+        private Map<String, CopyOnWriteArrayList<String>> dataReplicaCatalog;
+    }
+
+    private static State state() {
+        return SimulationContext.current().getComponent(State.class, State::new);
+    }
 
     /**
      * Initialize a ReplicaCatalog
@@ -57,9 +75,10 @@ public class ReplicaCatalog {
      * @param fs the type of file system
      */
     public static void init(FileSystem fs) {
-        fileSystem = fs;
-        dataReplicaCatalog = new HashMap<>();
-        fileName2File = new HashMap<>();
+        State state = state();
+        state.fileSystem = fs;
+        state.dataReplicaCatalog = new ConcurrentHashMap<>();
+        state.fileName2File = new HashMap<>();
     }
 
     /**
@@ -68,7 +87,7 @@ public class ReplicaCatalog {
      * @return file system
      */
     public static FileSystem getFileSystem() {
-        return fileSystem;
+        return state().fileSystem;
     }
 
     /**
@@ -78,7 +97,7 @@ public class ReplicaCatalog {
      * @return file object
      */
     public static FileItem getFile(String fileName) {
-        return fileName2File.get(fileName);
+        return state().fileName2File.get(fileName);
     }
 
     /**
@@ -88,7 +107,7 @@ public class ReplicaCatalog {
      * @param file , the file object
      */
     public static void setFile(String fileName, FileItem file) {
-        fileName2File.put(fileName, file);
+        state().fileName2File.put(fileName, file);
     }
 
     /**
@@ -98,7 +117,7 @@ public class ReplicaCatalog {
      * @return boolean, whether the file exist
      */
     public static boolean containsFile(String fileName) {
-        return fileName2File.containsKey(fileName);
+        return state().fileName2File.containsKey(fileName);
     }
 
     /**
@@ -108,7 +127,7 @@ public class ReplicaCatalog {
      * @return list of storages
      */
     public static List<String> getStorageList(String file) {
-        return dataReplicaCatalog.get(file);
+        return state().dataReplicaCatalog.get(file);
     }
 
     /**
@@ -118,12 +137,7 @@ public class ReplicaCatalog {
      * @param storage , the storage associated with this file
      */
     public static void addFileToStorage(String file, String storage) {
-        if (!dataReplicaCatalog.containsKey(file)) {
-            dataReplicaCatalog.put(file, new ArrayList<>());
-        }
-        List<String> list = getStorageList(file);
-        if (!list.contains(storage)) {
-            list.add(storage);
-        }
+        state().dataReplicaCatalog.computeIfAbsent(file, key -> new CopyOnWriteArrayList<>())
+                .addIfAbsent(storage);
     }
 }